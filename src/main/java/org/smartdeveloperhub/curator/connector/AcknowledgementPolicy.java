@@ -0,0 +1,102 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Describes how the messages delivered to the consumers of a broker
+ * controller are acknowledged. Batches never exceed the prefetch window, as
+ * otherwise a full window could only be acknowledged by the periodic flush.
+ */
+final class AcknowledgementPolicy {
+
+	private static final AcknowledgementPolicy AUTOMATIC=new AcknowledgementPolicy(0,1,CuratorConfiguration.DEFAULT_ACKNOWLEDGEMENT_INTERVAL);
+
+	private final int prefetchCount;
+	private final int batchSize;
+	private final long interval;
+
+	private AcknowledgementPolicy(final int prefetchCount, final int batchSize, final long interval) {
+		this.prefetchCount=prefetchCount;
+		this.batchSize=batchSize;
+		this.interval=interval;
+	}
+
+	boolean isAutomatic() {
+		return this.prefetchCount==0;
+	}
+
+	int prefetchCount() {
+		return this.prefetchCount;
+	}
+
+	int batchSize() {
+		return this.batchSize;
+	}
+
+	long interval(final TimeUnit unit) {
+		return unit.convert(this.interval,TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("prefetchCount",this.prefetchCount).
+					add("batchSize",this.batchSize).
+					add("interval",this.interval).
+					toString();
+	}
+
+	static AcknowledgementPolicy automatic() {
+		return AUTOMATIC;
+	}
+
+	static AcknowledgementPolicy newInstance(final int prefetchCount, final int batchSize, final long interval) {
+		Preconditions.checkArgument(prefetchCount>=0,"Prefetch count cannot be negative (%s)",prefetchCount);
+		Preconditions.checkArgument(batchSize>0,"Acknowledgement batch size must be positive (%s)",batchSize);
+		Preconditions.checkArgument(interval>0,"Acknowledgement interval must be positive (%s)",interval);
+		if(prefetchCount==0) {
+			return AUTOMATIC;
+		}
+		return new AcknowledgementPolicy(prefetchCount,Math.min(batchSize,prefetchCount),interval);
+	}
+
+	static AcknowledgementPolicy newInstance(final CuratorConfiguration configuration) {
+		return
+			newInstance(
+				configuration.prefetchCount(),
+				configuration.acknowledgementBatchSize(),
+				configuration.acknowledgementInterval());
+	}
+
+}
@@ -0,0 +1,191 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ShutdownSignalException;
+
+/**
+ * Coalesces the acknowledgements of the messages delivered through a
+ * channel. A message is acknowledged once its consumer has handled it, either
+ * when a batch of handled messages is pending or when the flush interval
+ * elapses. The longest run of consecutively handled deliveries is
+ * acknowledged with a single {@code basic.ack} with {@code multiple=true}.
+ * The deliveries handled past a gap, i.e. while an earlier delivery is still
+ * being handled, are acknowledged one by one with {@code multiple=false}, so
+ * that a slow delivery does not hold the prefetch window of the channel.
+ */
+final class Acknowledger {
+
+	private final class Flusher implements Runnable {
+
+		@Override
+		public void run() {
+			flush();
+		}
+
+	}
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(Acknowledger.class);
+
+	private final Channel channel;
+	private final int batchSize;
+	private final ScheduledExecutorService scheduler;
+	private final SortedSet<Long> handled;
+	private final SortedSet<Long> acknowledged;
+
+	private long lastHandled;
+	private long lastAcknowledged;
+	private long pending;
+
+	private Acknowledger(final Channel channel, final int batchSize, final ScheduledExecutorService scheduler) {
+		this.channel=channel;
+		this.batchSize=batchSize;
+		this.scheduler=scheduler;
+		this.handled=new TreeSet<>();
+		this.acknowledged=new TreeSet<>();
+	}
+
+	Channel channel() {
+		return this.channel;
+	}
+
+	synchronized long unacknowledged() {
+		return this.pending;
+	}
+
+	synchronized void acknowledge(final long deliveryTag) {
+		if(deliveryTag<=this.lastHandled || this.acknowledged.contains(deliveryTag) || !this.handled.add(deliveryTag)) {
+			return;
+		}
+		this.pending++;
+		while(true) {
+			final long next=this.lastHandled+1;
+			if(!this.handled.remove(next) && !this.acknowledged.contains(next)) {
+				break;
+			}
+			this.lastHandled=next;
+		}
+		if(this.pending>=this.batchSize) {
+			flush();
+		}
+	}
+
+	synchronized void flush() {
+		if(acknowledgeConsecutive()) {
+			acknowledgeOutOfOrder();
+		}
+	}
+
+	/**
+	 * A multiple acknowledgement must target a delivery that is still
+	 * unacknowledged, so the tail of the run that has already been
+	 * acknowledged one by one is skipped.
+	 */
+	private boolean acknowledgeConsecutive() {
+		if(this.lastHandled==this.lastAcknowledged) {
+			return true;
+		}
+		long target=this.lastHandled;
+		while(target>this.lastAcknowledged && this.acknowledged.contains(target)) {
+			target--;
+		}
+		if(target>this.lastAcknowledged) {
+			try {
+				this.channel.basicAck(target,true);
+				LOGGER.trace("Acknowledged deliveries {} to {}",this.lastAcknowledged+1,target);
+			} catch (final IOException | ShutdownSignalException e) {
+				LOGGER.warn("Could not acknowledge deliveries {} to {}: {}",this.lastAcknowledged+1,target,e.getMessage());
+				return false;
+			}
+		}
+		final SortedSet<Long> covered=this.acknowledged.headSet(this.lastHandled+1);
+		this.pending-=this.lastHandled-this.lastAcknowledged-covered.size();
+		covered.clear();
+		this.lastAcknowledged=this.lastHandled;
+		return true;
+	}
+
+	private void acknowledgeOutOfOrder() {
+		final Iterator<Long> iterator=this.handled.iterator();
+		while(iterator.hasNext()) {
+			final long deliveryTag=iterator.next();
+			try {
+				this.channel.basicAck(deliveryTag,false);
+				LOGGER.trace("Acknowledged delivery {}",deliveryTag);
+			} catch (final IOException | ShutdownSignalException e) {
+				LOGGER.warn("Could not acknowledge delivery {}: {}",deliveryTag,e.getMessage());
+				return;
+			}
+			iterator.remove();
+			this.acknowledged.add(deliveryTag);
+			this.pending--;
+		}
+	}
+
+	/**
+	 * Stops the periodic flush and acknowledges whatever has been handled so
+	 * far.
+	 */
+	void close() {
+		this.scheduler.shutdownNow();
+		flush();
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("channel",this.channel).
+					add("batchSize",this.batchSize).
+					add("unacknowledged",unacknowledged()).
+					toString();
+	}
+
+	static Acknowledger newInstance(final Channel channel, final AcknowledgementPolicy policy, final ThreadFactory threadFactory) {
+		final ScheduledExecutorService scheduler=Executors.newSingleThreadScheduledExecutor(threadFactory);
+		final Acknowledger acknowledger=new Acknowledger(channel,policy.batchSize(),scheduler);
+		final long interval=policy.interval(TimeUnit.MILLISECONDS);
+		scheduler.scheduleWithFixedDelay(acknowledger.new Flusher(),interval,interval,TimeUnit.MILLISECONDS);
+		return acknowledger;
+	}
+
+}
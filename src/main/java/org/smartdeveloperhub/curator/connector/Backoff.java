@@ -0,0 +1,76 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Exponential backoff: the delay doubles with every attempt until it reaches
+ * the maximum delay.
+ */
+final class Backoff {
+
+	private final long initialDelay;
+	private final long maximumDelay;
+
+	private Backoff(final long initialDelay, final long maximumDelay) {
+		this.initialDelay=initialDelay;
+		this.maximumDelay=maximumDelay;
+	}
+
+	/**
+	 * Returns the delay (in milliseconds) to wait before the specified
+	 * attempt, where the first attempt is attempt zero.
+	 */
+	long delay(final int attempt) {
+		long delay=this.initialDelay;
+		for(int i=0;i<attempt && delay<this.maximumDelay;i++) {
+			delay<<=1;
+		}
+		return Math.min(delay,this.maximumDelay);
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("initialDelay",this.initialDelay).
+					add("maximumDelay",this.maximumDelay).
+					toString();
+	}
+
+	static Backoff newInstance(final long initialDelay, final long maximumDelay, final TimeUnit unit) {
+		Preconditions.checkArgument(initialDelay>0,"Initial delay must be positive (%s)",initialDelay);
+		Preconditions.checkArgument(maximumDelay>=initialDelay,"Maximum delay cannot be lower than the initial delay (%s < %s)",maximumDelay,initialDelay);
+		return new Backoff(unit.toMillis(initialDelay),unit.toMillis(maximumDelay));
+	}
+
+}
@@ -190,4 +190,12 @@ public class Bindings implements Iterable<Binding> {
 		return new Bindings();
 	}
 
+	static Bindings copyOf(final Iterable<Binding> bindings) {
+		final Map<URI,Value> propertyValues=Maps.newLinkedHashMap();
+		for(final Binding binding:bindings) {
+			propertyValues.put(binding.property(),binding.value());
+		}
+		return new Bindings(propertyValues);
+	}
+
 }
\ No newline at end of file
@@ -27,30 +27,49 @@
 package org.smartdeveloperhub.curator.connector;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.smartdeveloperhub.curator.connector.PayloadCompressor.Payload;
 import org.smartdeveloperhub.curator.connector.io.ConversionContext;
 import org.smartdeveloperhub.curator.connector.io.MessageConversionException;
 import org.smartdeveloperhub.curator.connector.io.MessageUtil;
+import org.smartdeveloperhub.curator.connector.io.WireFormat;
+import org.smartdeveloperhub.curator.connector.util.Utf8Encoder;
 import org.smartdeveloperhub.curator.protocol.Broker;
 import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
 import org.smartdeveloperhub.curator.protocol.Message;
+import org.smartdeveloperhub.curator.protocol.ResponseMessage;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.rabbitmq.client.AMQP.BasicProperties;
 import com.rabbitmq.client.AMQP.Queue.DeclareOk;
@@ -59,26 +78,373 @@ import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
 import com.rabbitmq.client.MessageProperties;
 import com.rabbitmq.client.ReturnListener;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
 
-final class BrokerController {
+final class BrokerController implements Transport {
 
 	interface Cleaner {
 
 		void clean(Channel channel) throws IOException;
 
+		/**
+		 * Re-declares the entity cleaned by the cleaner using the specified
+		 * channel, and returns the cleaner for the recovered entity. Queues
+		 * renamed by the broker are recorded in the recovered queues map, so
+		 * that the entities that use them can be recovered accordingly.
+		 */
+		Cleaner recover(Channel channel, Map<String,String> recoveredQueues) throws IOException;
+
+	}
+
+	private static final class BrokerControllerFactory implements TransportFactory {
+
+		@Override
+		public Transport newTransport(final Broker broker, final String name, final ConversionContext context, final PayloadCompressor compressor, final CuratorConfiguration settings) {
+			return new BrokerController(broker,name,context,compressor,settings);
+		}
+
+	}
+
+	private static final class Subscription {
+
+		private final MessageHandler handler;
+		private final String queueName;
+
+		private Subscription(final MessageHandler handler, final String queueName) {
+			this.handler=handler;
+			this.queueName=queueName;
+		}
+
+	}
+
+	private final class ConnectionMonitor implements ShutdownListener {
+
+		private final Connection monitored;
+
+		private ConnectionMonitor(final Connection monitored) {
+			this.monitored=monitored;
+		}
+
+		@Override
+		public void shutdownCompleted(final ShutdownSignalException cause) {
+			if(!cause.isInitiatedByApplication()) {
+				connectionLost(this.monitored,cause);
+			}
+		}
+
+	}
+
+	private final class RecoveryAttempt implements Runnable {
+
+		@Override
+		public void run() {
+			attemptRecovery();
+		}
+
 	}
 
 	private final class LoggingReturnListener implements ReturnListener {
 
 		@Override
 		public void handleReturn(final int replyCode, final String replyText, final String exchange, final String routingKey, final BasicProperties properties, final byte[] body) throws IOException {
+			final Object messageNumber=properties.getHeaders().get(BROKER_CONTROLLER_MESSAGE);
 			LOGGER.warn(
 				"Message {} publication in {}:{} failed ({}): {}",
-				properties.getHeaders().get(BROKER_CONTROLLER_MESSAGE),
+				messageNumber,
 				exchange,
 				routingKey,
 				replyCode,
 				replyText);
+			final String correlationId=
+				messageNumber instanceof Number?
+					BrokerController.this.publications.remove(((Number)messageNumber).longValue()):
+					null;
+			if(correlationId!=null) {
+				notifyReturn(correlationId,replyCode+" "+replyText);
+			}
+		}
+
+	}
+
+	/**
+	 * Forgets the correlation of a publication once the broker has confirmed
+	 * or rejected it: the broker returns unroutable messages before
+	 * confirming them.
+	 */
+	private final class PublicationTracker implements FutureCallback<Void> {
+
+		private final long messageNumber;
+
+		private PublicationTracker(final long messageNumber) {
+			this.messageNumber=messageNumber;
+		}
+
+		@Override
+		public void onSuccess(final Void result) {
+			BrokerController.this.publications.remove(this.messageNumber);
+		}
+
+		@Override
+		public void onFailure(final Throwable t) {
+			BrokerController.this.publications.remove(this.messageNumber);
+		}
+
+	}
+
+	/**
+	 * Publication waiting in the publish queue of a shard. The outcome of the
+	 * publication is forwarded to the future returned to the publisher.
+	 */
+	private final class QueuedPublication implements OutboundQueue.Publication, FutureCallback<Void> {
+
+		private final Shard shard;
+		private final String exchangeName;
+		private final String routingKey;
+		private final byte[] body;
+		private final WireFormat format;
+		private final String correlationId;
+		private final Object message;
+		private final SettableFuture<Void> result;
+
+		private QueuedPublication(final Shard shard, final String exchangeName, final String routingKey, final byte[] body, final WireFormat format, final String correlationId, final Object message) {
+			this.shard=shard;
+			this.exchangeName=exchangeName;
+			this.routingKey=routingKey;
+			this.body=body;
+			this.format=format;
+			this.correlationId=correlationId;
+			this.message=message;
+			this.result=SettableFuture.create();
+		}
+
+		@Override
+		public void write() {
+			try {
+				Futures.addCallback(writeMessage(this.shard,this.exchangeName,this.routingKey,this.body,this.format,this.correlationId,this.message),this);
+			} catch (final IOException e) {
+				this.result.setException(e);
+			}
+		}
+
+		@Override
+		public void abandon(final IOException failure) {
+			this.result.setException(failure);
+		}
+
+		@Override
+		public void onSuccess(final Void value) {
+			this.result.set(value);
+		}
+
+		@Override
+		public void onFailure(final Throwable failure) {
+			this.result.setException(failure);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Publication of message [%s] to exchange '%s' and routing key '%s'",this.message,this.exchangeName,this.routingKey);
+		}
+
+	}
+
+	/**
+	 * Passive declaration used to verify the pipelined declarations: if any of
+	 * them failed, the broker has closed the channel and the probe fails.
+	 */
+	private static final class Probe {
+
+		private final String exchangeName;
+		private final String queueName;
+
+		private Probe(final String exchangeName, final String queueName) {
+			this.exchangeName=exchangeName;
+			this.queueName=queueName;
+		}
+
+		private void run(final Channel aChannel) throws IOException {
+			if(this.queueName!=null) {
+				aChannel.queueDeclarePassive(this.queueName);
+			} else {
+				aChannel.exchangeDeclarePassive(this.exchangeName);
+			}
+		}
+
+		private static Probe exchange(final String exchangeName) {
+			return new Probe(exchangeName,null);
+		}
+
+		private static Probe queue(final String queueName) {
+			return new Probe(null,queueName);
+		}
+
+	}
+
+	/**
+	 * Channel consuming from the direct reply-to pseudo-queue of the main
+	 * connection. The broker only delivers the replies to the messages
+	 * published using the same channel, so requests are published through it
+	 * one at a time. Requests therefore bypass the shards, their channel
+	 * pools and publish queues: only the serialization and compression of
+	 * the requests happen concurrently.
+	 */
+	private final class DirectReply {
+
+		private final MessageHandler handler;
+		private final ConnectionMetrics metrics;
+		private final FlowControl flowControl;
+
+		private PublisherConfirms publisher;
+
+		private DirectReply(final MessageHandler handler) {
+			this.handler=handler;
+			this.metrics=new ConnectionMetrics(BrokerController.this.name+"-reply-to");
+			this.flowControl=new FlowControl(this.metrics);
+		}
+
+		private synchronized void open(final Connection aConnection) throws IOException {
+			final Channel aChannel=createNewChannel(aConnection);
+			try {
+				this.publisher=PublisherConfirms.enable(aChannel);
+				aChannel.
+					basicConsume(
+						DIRECT_REPLY_TO,
+						true,
+						new MessageHandlerConsumer(aChannel,this.handler,BrokerController.this.compressor,null,dispatcher()));
+			} catch (final IOException e) {
+				this.publisher=null;
+				closeQuietly(aChannel);
+				throw e;
+			}
+			aConnection.addBlockedListener(this.flowControl);
+		}
+
+		private synchronized void close() {
+			if(this.publisher!=null) {
+				closeQuietly(this.publisher.channel());
+				this.publisher=null;
+			}
+			this.flowControl.reset();
+		}
+
+		private synchronized ListenableFuture<Void> write(final String exchangeName, final String routingKey, final Payload payload, final WireFormat format, final String correlationId, final Object message) throws IOException {
+			if(this.publisher==null) {
+				this.metrics.recordFailure();
+				throw new IOException("Direct reply-to channel is not available");
+			}
+			final Channel aChannel=this.publisher.channel();
+			final long deliveryTag=aChannel.getNextPublishSeqNo();
+			final ListenableFuture<Void> confirmation=this.publisher.track(deliveryTag);
+			try {
+				LOGGER.debug("Publishing request to exchange '{}' and routing key '{}'. Payload: \n{}",exchangeName,routingKey,message);
+				aChannel.
+					basicPublish(
+						exchangeName,
+						routingKey,
+						true,
+						messageProperties(format,payload,correlationId,confirmation).
+							replyTo(DIRECT_REPLY_TO).
+							build(),
+						payload.body());
+				this.metrics.recordPublication(payload.body().length);
+				return confirmation;
+			} catch (final IOException e) {
+				this.publisher.abandon(deliveryTag,e);
+				this.metrics.recordFailure();
+				LOGGER.warn("Could not publish request [{}] to exchange '{}' and routing key '{}': {}",message,exchangeName,routingKey,e.getMessage());
+				throw e;
+			} catch (final Exception e) {
+				this.publisher.abandon(deliveryTag,e);
+				this.metrics.recordFailure();
+				throw new IOException("Could not publish request to exchange '"+exchangeName+"' and routing key '"+routingKey+"'",e);
+			}
+		}
+
+	}
+
+	/**
+	 * Pool of publishing channels. Dedicated shards open their own connection
+	 * to the broker, whereas the shared shard uses the consumer connection.
+	 */
+	private final class Shard implements ChannelPool.ChannelFactory {
+
+		private final ChannelPool pool;
+		private final ConnectionMetrics metrics;
+		private final FlowControl flowControl;
+		private final OutboundQueue outbound;
+		private final boolean dedicated;
+
+		private volatile Connection connection;
+
+		private Shard(final String name, final boolean dedicated, final CuratorConfiguration settings) {
+			this.metrics=new ConnectionMetrics(name);
+			this.flowControl=new FlowControl(this.metrics);
+			this.dedicated=dedicated;
+			this.pool=ChannelPool.newInstance(this,settings.channelPoolSize(),BrokerController.this.channelPoolMetrics);
+			this.outbound=
+				settings.publishQueueCapacity()==0?
+					null:
+					OutboundQueue.
+						newInstance(
+							settings.publishQueueCapacity(),
+							settings.publishTimeout(),
+							this.flowControl,
+							this.metrics,
+							new ThreadFactoryBuilder().
+								setNameFormat(name+"-writer-%d").
+								setDaemon(true).
+								setUncaughtExceptionHandler(new BrokerControllerUncaughtExceptionHandler(BrokerController.this)).
+								build());
+		}
+
+		@Override
+		public PublisherConfirms create() throws IOException {
+			final Channel result=this.dedicated?createNewChannel(this.connection):createNewChannel();
+			try {
+				return PublisherConfirms.enable(result);
+			} catch (final IOException e) {
+				closeQuietly(result);
+				throw e;
+			}
+		}
+
+		/**
+		 * The shard follows the flow control of the connection it publishes
+		 * through, be it dedicated or not.
+		 */
+		private void open() throws IOException, TimeoutException {
+			if(this.dedicated) {
+				this.connection=newConnection();
+			}
+			final Connection target=this.dedicated?this.connection:BrokerController.this.connection;
+			if(target!=null) {
+				target.addBlockedListener(this.flowControl);
+			}
+		}
+
+		private void close() {
+			if(this.dedicated) {
+				closeQuietly(this.connection);
+				this.connection=null;
+			}
+			this.flowControl.reset();
+		}
+
+		private void startWriter() {
+			if(this.outbound!=null) {
+				this.outbound.start();
+			}
+		}
+
+		private void stopWriter() {
+			if(this.outbound!=null) {
+				this.outbound.stop();
+			}
+		}
+
+		private boolean uses(final Connection aConnection) {
+			return this.dedicated && this.connection==aConnection;
 		}
 
 	}
@@ -89,57 +455,204 @@ final class BrokerController {
 
 	static final String BROKER_CONTROLLER_MESSAGE = "X-BrokerController-Message";
 
+	static final String DIRECT_REPLY_TO = "amq.rabbitmq.reply-to";
+
+	static final Map<String,Object> QUEUE_ARGUMENTS=
+		ImmutableMap.
+			<String, Object>builder().
+				put("x-expires",1000).
+				build();
+
+	private static final long DISPATCHER_SHUTDOWN_TIMEOUT=5000;
+
+	private static final long MAXIMUM_RECOVERY_INTERVAL=60000;
+
+	private static final TransportFactory FACTORY=new BrokerControllerFactory();
+
+	private static final TopologyCache TOPOLOGY_CACHE=TopologyCache.newInstance();
+
 	private final Broker broker;
-	private final ConversionContext context;
+	private final MessageUtil messageUtil;
+	private final PayloadCompressor compressor;
 	private final String name;
+	private final ChannelPoolMetrics channelPoolMetrics;
+	private final List<Shard> shards;
+	private final List<ConnectionMetrics> connectionMetrics;
+	private final AcknowledgementPolicy acknowledgementPolicy;
+	private final int dispatchPartitions;
+	private final Backoff recoveryBackoff;
+	private final RecoveryMetrics recoveryMetrics;
+	private final long publishTimeout;
+	private final boolean pipelinedTopology;
+	private final TopologyMetrics topologyMetrics;
 
+	private final ReentrantReadWriteLock lock;
 	private final Lock read;
 	private final Lock write;
 
-	private final Map<Long,Channel> channels;
-
+	private final Set<String> exchanges;
 	private final Deque<Cleaner> cleaners;
-	private final List<MessageHandlerConsumer> callbacks;
+	private final List<String> unverifiedExchanges;
+	private final List<Subscription> subscriptions;
+	private final List<RecoveryListener> recoveryListeners;
+	private final List<ReturnedMessageListener> returnListeners;
+	private final ConcurrentMap<Long,String> publications;
 
 	private final AtomicLong messageCounter;
+	private final AtomicInteger nextShard;
 
-	private Connection connection;
+	private volatile Connection connection;
+	private volatile DirectReply directReply;
 	private Channel channel;
+	private Acknowledger acknowledger;
+	private PartitionedExecutor dispatcher;
+	private Probe probe;
+	private int unverifiedCleaners;
+	private ScheduledExecutorService recoveryExecutor;
 	private boolean connected;
+	private boolean recovering;
+	private long connectionLostAt;
+	private int recoveryAttempts;
 
 	BrokerController(final Broker broker, final String name, final ConversionContext context) {
+		this(broker,name,context,PayloadCompressor.identity());
+	}
+
+	BrokerController(final Broker broker, final String name, final ConversionContext context, final PayloadCompressor compressor) {
+		this(broker,name,context,compressor,CuratorConfiguration.newInstance());
+	}
+
+	/**
+	 * Only the connection settings of the configuration are used: the broker
+	 * to connect to is the one specified.
+	 */
+	BrokerController(final Broker broker, final String name, final ConversionContext context, final PayloadCompressor compressor, final CuratorConfiguration settings) {
 		this.broker=broker;
 		this.name=name;
-		this.context = context;
-		final ReadWriteLock lock=new ReentrantReadWriteLock();
-		this.read=lock.readLock();
-		this.write=lock.writeLock();
-		this.channels=Maps.newLinkedHashMap();
+		this.messageUtil=MessageUtil.newInstance().withConversionContext(context);
+		this.compressor=compressor;
+		this.channelPoolMetrics=new ChannelPoolMetrics();
+		this.shards=createShards(settings);
+		this.connectionMetrics=connectionMetrics(this.shards);
+		this.acknowledgementPolicy=AcknowledgementPolicy.newInstance(settings);
+		this.dispatchPartitions=settings.dispatchPartitions();
+		this.recoveryBackoff=
+			settings.recoveryInterval()==0?
+				null:
+				Backoff.
+					newInstance(
+						settings.recoveryInterval(),
+						Math.max(settings.recoveryInterval(),MAXIMUM_RECOVERY_INTERVAL),
+						TimeUnit.MILLISECONDS);
+		this.recoveryMetrics=new RecoveryMetrics();
+		this.publishTimeout=settings.publishTimeout();
+		this.pipelinedTopology=settings.pipelinedTopology();
+		this.topologyMetrics=new TopologyMetrics();
+		this.lock=new ReentrantReadWriteLock();
+		this.read=this.lock.readLock();
+		this.write=this.lock.writeLock();
+		this.exchanges=Sets.newLinkedHashSet();
 		this.cleaners=Lists.newLinkedList();
-		this.callbacks=Lists.newArrayList();
+		this.unverifiedExchanges=Lists.newArrayList();
+		this.subscriptions=Lists.newArrayList();
+		this.recoveryListeners=new CopyOnWriteArrayList<>();
+		this.returnListeners=new CopyOnWriteArrayList<>();
+		this.publications=Maps.newConcurrentMap();
 		this.messageCounter=new AtomicLong();
+		this.nextShard=new AtomicInteger();
+	}
+
+	static TransportFactory factory() {
+		return FACTORY;
 	}
 
-	Broker broker() {
+	static TopologyCache topologyCache() {
+		return TOPOLOGY_CACHE;
+	}
+
+	@Override
+	public Broker broker() {
 		return this.broker;
 	}
 
+	@Override
+	public PayloadCompressor compressor() {
+		return this.compressor;
+	}
+
+	@Override
+	public ChannelPoolMetrics channelPoolMetrics() {
+		return this.channelPoolMetrics;
+	}
+
+	/**
+	 * Returns the metrics of the connections used for publishing messages.
+	 */
+	@Override
+	public List<ConnectionMetrics> connectionMetrics() {
+		final DirectReply reply=this.directReply;
+		if(reply==null) {
+			return this.connectionMetrics;
+		}
+		return
+			ImmutableList.
+				<ConnectionMetrics>builder().
+					addAll(this.connectionMetrics).
+					add(reply.metrics).
+					build();
+	}
 
-	void connect() throws ControllerException {
+	@Override
+	public RecoveryMetrics recoveryMetrics() {
+		return this.recoveryMetrics;
+	}
+
+	@Override
+	public TopologyMetrics topologyMetrics() {
+		return this.topologyMetrics;
+	}
+
+	boolean recoversConnections() {
+		return this.recoveryBackoff!=null;
+	}
+
+	@Override
+	public void addRecoveryListener(final RecoveryListener listener) {
+		this.recoveryListeners.add(listener);
+	}
+
+	@Override
+	public void addReturnedMessageListener(final ReturnedMessageListener listener) {
+		this.returnListeners.add(listener);
+	}
+
+	@Override
+	public void connect() throws ControllerException {
 		this.write.lock();
 		try {
 			if(this.connected) {
 				return;
 			}
-			final ConnectionFactory factory=new ConnectionFactory();
-			factory.setHost(this.broker.host());
-			factory.setPort(this.broker.port());
-			factory.setVirtualHost(this.broker.virtualHost());
-			factory.setThreadFactory(brokerThreadFactory());
-			factory.setExceptionHandler(new BrokerControllerExceptionHandler(this));
-			this.connection = factory.newConnection();
+			this.connection = newConnection();
 			createChannel();
+			openShards();
+			startWriters();
+			if(this.connected && recoversConnections()) {
+				this.recoveryExecutor=
+					Executors.
+						newSingleThreadScheduledExecutor(
+							new ThreadFactoryBuilder().
+								setNameFormat(this.name+"-recovery-%d").
+								setDaemon(true).
+								setUncaughtExceptionHandler(new BrokerControllerUncaughtExceptionHandler(this)).
+								build());
+			}
 		} catch(IOException | TimeoutException e) {
+			if(this.connected) {
+				closeChannelsQuietly();
+				closeShards();
+				closeConnectionQuietly();
+			}
 			this.connected=false;
 			final String message = String.format("Could not connect to broker at %s:%s using virtual host %s",this.broker.host(),this.broker.port(),this.broker.virtualHost());
 			throw new ControllerException(message,e);
@@ -148,29 +661,59 @@ final class BrokerController {
 		}
 	}
 
-	void disconnect() {
+	@Override
+	public void disconnect() {
 		this.write.lock();
 		try {
 			if(!this.connected) {
 				return;
 			}
+			stopRecovery();
+			stopWriters();
+			takeProbe();
+			verified();
+			shutdownDispatcher();
+			closeAcknowledger();
 			cleanUp();
 			closeChannelsQuietly();
+			closeShards();
 			closeConnectionQuietly();
-			this.callbacks.clear();
+			this.exchanges.clear();
+			this.subscriptions.clear();
+			this.directReply=null;
 			this.connected=false;
 		} finally {
 			this.write.unlock();
 		}
 	}
 
-	void declareExchange(final String exchangeName) throws ControllerException {
+	@Override
+	public void declareExchange(final String exchangeName) throws ControllerException {
 		this.read.lock();
 		try {
-			channel().exchangeDeclare(exchangeName,EXCHANGE_TYPE,true,true,null);
+			if(this.pipelinedTopology && TOPOLOGY_CACHE.containsExchange(this.broker,exchangeName)) {
+				try {
+					channel().exchangeDeclareNoWait(exchangeName,EXCHANGE_TYPE,true,true,false,null);
+				} catch (final IOException | ShutdownSignalException e) {
+					throw pipelineFailure("Could not create "+this.name+" exchange named '"+exchangeName+"'",e);
+				}
+				pipelined(Probe.exchange(exchangeName));
+				this.topologyMetrics.recordCachedDeclaration();
+				if(this.exchanges.add(exchangeName)) {
+					this.unverifiedExchanges.add(exchangeName);
+				}
+			} else {
+				channel().exchangeDeclare(exchangeName,EXCHANGE_TYPE,true,true,null);
+				verified();
+				this.topologyMetrics.recordDeclaration();
+				if(this.pipelinedTopology) {
+					TOPOLOGY_CACHE.addExchange(this.broker,exchangeName);
+				}
+				this.exchanges.add(exchangeName);
+			}
 		} catch (final IOException e) {
 			if(FailureAnalyzer.isExchangeDeclarationRecoverable(e)) {
-				createChannel();
+				replaceChannel();
 			} else {
 				throw new ControllerException("Could not create "+this.name+" exchange named '"+exchangeName+"'",e);
 			}
@@ -181,20 +724,31 @@ final class BrokerController {
 
 	/**
 	 * The declared queues are durable, shared and auto-delete, and expire if no
-	 * client uses them after 1 second.
+	 * client uses them after 1 second. Server-named queues are never
+	 * pipelined, as their name is only known once the broker replies.
 	 */
-	String declareQueue(final String queueName) throws ControllerException {
+	@Override
+	public String declareQueue(final String queueName) throws ControllerException {
 		final String targetQueueName=Optional.fromNullable(queueName).or("");
 		this.read.lock();
 		try {
-			final Map<String, Object> args=
-				ImmutableMap.
-					<String, Object>builder().
-						put("x-expires",1000).
-						build();
-			final DeclareOk ok = channel().queueDeclare(targetQueueName,true,false,true,args);
+			if(this.pipelinedTopology && !targetQueueName.isEmpty()) {
+				try {
+					channel().queueDeclareNoWait(targetQueueName,true,false,true,QUEUE_ARGUMENTS);
+				} catch (final IOException | ShutdownSignalException e) {
+					throw pipelineFailure("Could not create "+this.name+" queue named '"+targetQueueName+"'",e);
+				}
+				this.cleaners.push(CleanerFactory.queueDelete(targetQueueName,false));
+				this.unverifiedCleaners++;
+				pipelined(Probe.queue(targetQueueName));
+				this.topologyMetrics.recordPipelinedDeclaration();
+				return targetQueueName;
+			}
+			final DeclareOk ok = channel().queueDeclare(targetQueueName,true,false,true,QUEUE_ARGUMENTS);
+			verified();
 			final String declaredQueueName = ok.getQueue();
-			this.cleaners.push(CleanerFactory.queueDelete(declaredQueueName));
+			this.cleaners.push(CleanerFactory.queueDelete(declaredQueueName,targetQueueName.isEmpty()));
+			this.topologyMetrics.recordDeclaration();
 			return declaredQueueName;
 		} catch (final IOException e) {
 			throw new ControllerException("Could not create "+this.name+" queue named '"+targetQueueName+"'",e);
@@ -203,10 +757,24 @@ final class BrokerController {
 		}
 	}
 
-	void bindQueue(final String exchangeName, final String queueName, final String routingKey) throws ControllerException {
+	@Override
+	public void bindQueue(final String exchangeName, final String queueName, final String routingKey) throws ControllerException {
 		this.read.lock();
 		try {
-			channel().queueBind(queueName,exchangeName,routingKey);
+			if(this.pipelinedTopology) {
+				try {
+					channel().queueBindNoWait(queueName,exchangeName,routingKey,null);
+				} catch (final IOException | ShutdownSignalException e) {
+					throw pipelineFailure("Could not bind "+this.name+" queue '"+queueName+"' to exchange '"+exchangeName+"' using routing key '"+routingKey+"'",e);
+				}
+				pipelined(Probe.queue(queueName));
+				this.unverifiedCleaners++;
+				this.topologyMetrics.recordPipelinedDeclaration();
+			} else {
+				channel().queueBind(queueName,exchangeName,routingKey);
+				verified();
+				this.topologyMetrics.recordDeclaration();
+			}
 			this.cleaners.push(CleanerFactory.queueUnbind(exchangeName,queueName,routingKey));
 		} catch (final IOException e) {
 			throw new ControllerException("Could not bind "+this.name+" queue '"+queueName+"' to exchange '"+exchangeName+"' using routing key '"+routingKey+"'",e);
@@ -215,7 +783,105 @@ final class BrokerController {
 		}
 	}
 
-	String prepareQueue(final String exchangeName, final String queueName, final String routingKey) throws ControllerException {
+	/**
+	 * Verifies the declarations pipelined since the last verification using
+	 * a single round trip. If the verification fails the exchanges cached for
+	 * the broker and the unverified declarations are forgotten, and the
+	 * channel, closed by the broker, is replaced.
+	 */
+	@Override
+	public void verifyTopology() throws ControllerException {
+		this.read.lock();
+		try {
+			final Probe pending=takeProbe();
+			if(pending==null) {
+				return;
+			}
+			final long startedOn=System.nanoTime();
+			try {
+				pending.run(channel());
+				verified();
+				this.topologyMetrics.recordVerification(System.nanoTime()-startedOn);
+			} catch (final IOException | ShutdownSignalException e) {
+				this.topologyMetrics.recordFailedVerification();
+				discardTopology();
+				throw new ControllerException("Could not verify the topology declared by "+this.name,e);
+			}
+		} finally {
+			this.read.unlock();
+		}
+	}
+
+	/**
+	 * A failed pipelined declaration makes the broker close the channel
+	 * asynchronously, so the failure may surface in any later pipelined
+	 * call. The pending declarations cannot be verified anymore.
+	 */
+	private ControllerException pipelineFailure(final String message, final Exception failure) throws ControllerException {
+		takeProbe();
+		discardTopology();
+		return new ControllerException(message,failure);
+	}
+
+	private void discardTopology() throws ControllerException {
+		TOPOLOGY_CACHE.invalidate(this.broker);
+		replaceChannel();
+	}
+
+	/**
+	 * A successful synchronous declaration, or a successful verification,
+	 * proves that every declaration pipelined before it succeeded too.
+	 */
+	private void verified() {
+		this.unverifiedCleaners=0;
+		this.unverifiedExchanges.clear();
+	}
+
+	/**
+	 * Replaces the channel closed by the broker. The consumers registered
+	 * on it are cancelled by the broker, and their auto-delete queues are
+	 * deleted, so the recorded topology is restored and the consumers are
+	 * re-registered as when recovering the connection. The declarations
+	 * that were not verified are not restored, as any of them may be the
+	 * one that made the broker close the channel.
+	 * <p>
+	 * The channel is swapped holding the write lock. As the lock cannot be
+	 * upgraded, the read locks held by the caller are released meanwhile,
+	 * and the channel is only replaced if no other thread did it first.
+	 */
+	private void replaceChannel() throws ControllerException {
+		final Channel failed=this.channel;
+		final int holds=this.lock.getReadHoldCount();
+		for(int i=0;i<holds;i++) {
+			this.read.unlock();
+		}
+		this.write.lock();
+		try {
+			if(!this.connected || this.channel!=failed) {
+				return;
+			}
+			for(int i=0;i<this.unverifiedCleaners;i++) {
+				this.cleaners.pop();
+			}
+			this.exchanges.removeAll(this.unverifiedExchanges);
+			verified();
+			closeQuietly(failed);
+			createChannel();
+			if(!this.subscriptions.isEmpty()) {
+				restoreTopology();
+			}
+		} catch (final IOException e) {
+			throw new ControllerException("Could not restore the consumers of "+this.name,e);
+		} finally {
+			for(int i=0;i<holds;i++) {
+				this.read.lock();
+			}
+			this.write.unlock();
+		}
+	}
+
+	@Override
+	public String prepareQueue(final String exchangeName, final String queueName, final String routingKey) throws ControllerException {
 		this.read.lock();
 		try {
 			final String declaredQueue = declareQueue(queueName);
@@ -226,45 +892,391 @@ final class BrokerController {
 		}
 	}
 
-	void publishMessage(final DeliveryChannel replyTo, final Message message) throws IOException {
+	/**
+	 * The returned future completes once the broker confirms the publication,
+	 * and fails if the broker rejects it or the channel is closed first.
+	 */
+	@Override
+	public ListenableFuture<Void> publishMessage(final DeliveryChannel replyTo, final Message message) throws IOException {
 		try {
-			publishMessage(
-				replyTo,
-				MessageUtil.
-					newInstance().
-						withConversionContext(this.context).
-						toString(message));
+			final byte[] body=this.messageUtil.toBytes(message);
+			this.read.lock();
+			try {
+				return publishMessage(replyTo.exchangeName(),replyTo.routingKey(),body,this.messageUtil.wireFormat(),correlationId(message),message);
+			} finally {
+				this.read.unlock();
+			}
 		} catch (final MessageConversionException e) {
 			LOGGER.warn("Could not serialize message {}: {}",message,e.getMessage());
 			throw new IOException("Could not serialize message",e);
 		}
 	}
 
-	void publishMessage(final DeliveryChannel replyTo, final String message) throws IOException {
+	/**
+	 * All the messages are serialized before publishing any of them, and are
+	 * published in order using the same shard. Shards with a publish queue
+	 * hand the messages over to their writer one by one.
+	 */
+	@Override
+	public List<ListenableFuture<Void>> publishMessages(final DeliveryChannel replyTo, final List<? extends Message> messages) throws IOException {
+		final List<byte[]> bodies=Lists.newArrayListWithCapacity(messages.size());
+		for(final Message message:messages) {
+			try {
+				bodies.add(this.messageUtil.toBytes(message));
+			} catch (final MessageConversionException e) {
+				LOGGER.warn("Could not serialize message {}: {}",message,e.getMessage());
+				throw new IOException("Could not serialize message",e);
+			}
+		}
+		if(messages.isEmpty()) {
+			return ImmutableList.of();
+		}
+		this.read.lock();
+		try {
+			final Shard shard=nextShard();
+			if(shard.outbound==null) {
+				awaitUnblocked(shard.flowControl,shard.metrics);
+				return writeMessages(shard,replyTo.exchangeName(),replyTo.routingKey(),bodies,this.messageUtil.wireFormat(),messages);
+			}
+			final List<ListenableFuture<Void>> result=Lists.newArrayListWithCapacity(messages.size());
+			for(int i=0;i<messages.size();i++) {
+				final Message message=messages.get(i);
+				final QueuedPublication publication=new QueuedPublication(shard,replyTo.exchangeName(),replyTo.routingKey(),bodies.get(i),this.messageUtil.wireFormat(),correlationId(message),message);
+				try {
+					shard.outbound.submit(publication);
+				} catch (final IOException e) {
+					failRemaining(result,messages.size(),e);
+					break;
+				}
+				result.add(publication.result);
+			}
+			return result;
+		} finally {
+			this.read.unlock();
+		}
+	}
+
+	@Override
+	public ListenableFuture<Void> publishMessage(final DeliveryChannel replyTo, final String message) throws IOException {
 		this.read.lock();
 		try {
-			publishMessage(replyTo.exchangeName(), replyTo.routingKey(), message);
+			return publishMessage(replyTo.exchangeName(), replyTo.routingKey(), Utf8Encoder.encode(message), WireFormat.TURTLE, null, message);
 		} finally {
 			this.read.unlock();
 		}
 	}
 
-	void registerConsumer(final MessageHandler handler, final String queueName) throws IOException {
+	/**
+	 * Unless the acknowledgement policy is automatic, the broker delivers at
+	 * most as many unacknowledged messages to the consumer as the prefetch
+	 * count allows, and the messages are acknowledged in batches after being
+	 * handled.
+	 */
+	@Override
+	public void registerConsumer(final MessageHandler handler, final String queueName) throws IOException {
 		this.read.lock();
 		try {
-			final MessageHandlerConsumer callback = new MessageHandlerConsumer(this.channel, handler);
-			channel().
-				basicConsume(
-					queueName,
-					true,
-					callback
-				);
-			this.callbacks.add(callback);
+			this.subscriptions.add(subscribe(channel(),handler,queueName));
+		} finally {
+			this.read.unlock();
+		}
+	}
+
+	/**
+	 * The replies are consumed using a dedicated channel, which is also used
+	 * to publish the requests.
+	 */
+	@Override
+	public void registerReplyConsumer(final MessageHandler handler) throws IOException {
+		this.read.lock();
+		try {
+			Preconditions.checkState(this.connected,"Not connected");
+			synchronized(this) {
+				Preconditions.checkState(this.directReply==null,"A reply consumer is already registered");
+				final DirectReply reply=new DirectReply(handler);
+				reply.open(this.connection);
+				this.directReply=reply;
+			}
 		} finally {
 			this.read.unlock();
 		}
 	}
 
+	@Override
+	public ListenableFuture<Void> publishRequest(final DeliveryChannel replyTo, final Message message) throws IOException {
+		final DirectReply reply=this.directReply;
+		Preconditions.checkState(reply!=null,"No reply consumer registered");
+		try {
+			final Payload payload=this.compressor.compress(this.messageUtil.toBytes(message));
+			this.read.lock();
+			try {
+				awaitUnblocked(reply.flowControl,reply.metrics);
+				return reply.write(replyTo.exchangeName(),replyTo.routingKey(),payload,this.messageUtil.wireFormat(),correlationId(message),message);
+			} finally {
+				this.read.unlock();
+			}
+		} catch (final MessageConversionException e) {
+			LOGGER.warn("Could not serialize message {}: {}",message,e.getMessage());
+			throw new IOException("Could not serialize message",e);
+		}
+	}
+
+	/**
+	 * The requests are published one by one through the direct reply-to
+	 * channel, each with its own confirmation. If a publication fails once
+	 * part of the batch has been published, the requests not yet published
+	 * are failed with the same cause, as when a batch of messages is
+	 * published at once.
+	 */
+	@Override
+	public List<ListenableFuture<Void>> publishRequests(final DeliveryChannel replyTo, final List<? extends Message> messages) throws IOException {
+		final List<ListenableFuture<Void>> result=Lists.newArrayListWithCapacity(messages.size());
+		for(final Message message:messages) {
+			try {
+				result.add(publishRequest(replyTo,message));
+			} catch (final IOException e) {
+				if(result.isEmpty()) {
+					throw e;
+				}
+				failRemaining(result,messages.size(),e);
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Replies are published like any other message, using the shards of the
+	 * controller.
+	 */
+	@Override
+	public ListenableFuture<Void> publishReply(final String replyTo, final Message message) throws IOException {
+		try {
+			final byte[] body=this.messageUtil.toBytes(message);
+			this.read.lock();
+			try {
+				return publishMessage("",replyTo,body,this.messageUtil.wireFormat(),correlationId(message),message);
+			} finally {
+				this.read.unlock();
+			}
+		} catch (final MessageConversionException e) {
+			LOGGER.warn("Could not serialize message {}: {}",message,e.getMessage());
+			throw new IOException("Could not serialize message",e);
+		}
+	}
+
+	@Override
+	public ListenableFuture<Void> publishReply(final String replyTo, final String message) throws IOException {
+		this.read.lock();
+		try {
+			return publishMessage("",replyTo,Utf8Encoder.encode(message),WireFormat.TURTLE,null,message);
+		} finally {
+			this.read.unlock();
+		}
+	}
+
+	private synchronized void pipelined(final Probe aProbe) {
+		this.probe=aProbe;
+	}
+
+	private synchronized Probe takeProbe() {
+		final Probe result=this.probe;
+		this.probe=null;
+		return result;
+	}
+
+	private Subscription subscribe(final Channel aChannel, final MessageHandler handler, final String queueName) throws IOException {
+		final Acknowledger anAcknowledger=acknowledger(aChannel);
+		final MessageHandlerConsumer callback = new MessageHandlerConsumer(aChannel, handler, this.compressor, anAcknowledger, dispatcher());
+		aChannel.
+			basicConsume(
+				queueName,
+				anAcknowledger==null,
+				callback
+			);
+		return new Subscription(handler,queueName);
+	}
+
+	private synchronized void connectionLost(final Connection failed, final ShutdownSignalException cause) {
+		if(failed!=this.connection && !isShardConnection(failed) || this.recovering) {
+			return;
+		}
+		this.recoveryMetrics.recordConnectionFailure();
+		if(this.recoveryExecutor==null) {
+			LOGGER.error("[{}] Lost connection to broker: {}",this.broker,cause.getMessage());
+			return;
+		}
+		LOGGER.warn("[{}] Lost connection to broker: {}. Recovering...",this.broker,cause.getMessage());
+		this.recovering=true;
+		this.connectionLostAt=System.nanoTime();
+		this.recoveryAttempts=0;
+		scheduleRecovery();
+	}
+
+	private synchronized void scheduleRecovery() {
+		try {
+			this.recoveryExecutor.schedule(new RecoveryAttempt(),this.recoveryBackoff.delay(this.recoveryAttempts),TimeUnit.MILLISECONDS);
+		} catch (final RejectedExecutionException e) {
+			LOGGER.debug("[{}] Recovery cancelled",this.broker);
+		}
+	}
+
+	private synchronized boolean isRecovering() {
+		return this.recovering;
+	}
+
+	private synchronized void stopRecovery() {
+		this.recovering=false;
+		if(this.recoveryExecutor!=null) {
+			this.recoveryExecutor.shutdownNow();
+			this.recoveryExecutor=null;
+		}
+	}
+
+	private void attemptRecovery() {
+		boolean recovered=false;
+		this.write.lock();
+		try {
+			if(!this.connected || !isRecovering()) {
+				return;
+			}
+			recovered=recover();
+		} finally {
+			this.write.unlock();
+		}
+		if(recovered) {
+			for(final RecoveryListener listener:this.recoveryListeners) {
+				try {
+					listener.onRecovery(this);
+				} catch (final RuntimeException e) {
+					LOGGER.warn("[{}] Recovery listener {} failed. Full stacktrace follows",this.broker,listener,e);
+				}
+			}
+		} else {
+			scheduleRecovery();
+		}
+	}
+
+	/**
+	 * Replaces the failed connection, re-declares the recorded exchanges,
+	 * queues and bindings, and re-registers the consumers. The recorded
+	 * topology is only updated once the recovery completes.
+	 */
+	private boolean recover() {
+		try {
+			closeChannelsQuietly();
+			closeShards();
+			closeConnectionQuietly();
+			this.connection=newConnection();
+			openShards();
+			this.channel=createNewChannel();
+			restoreTopology();
+			if(this.directReply!=null) {
+				this.directReply.open(this.connection);
+			}
+			completeRecovery();
+			return true;
+		} catch (final IOException | TimeoutException | RuntimeException e) {
+			failRecovery(e);
+			closeShards();
+			closeConnectionQuietly();
+			return false;
+		}
+	}
+
+	/**
+	 * Re-declares the recorded exchanges, queues and bindings using the
+	 * current channel, and re-registers the consumers on it.
+	 */
+	private void restoreTopology() throws IOException {
+		for(final String exchangeName:this.exchanges) {
+			this.channel.exchangeDeclare(exchangeName,EXCHANGE_TYPE,true,true,null);
+		}
+		final Map<String,String> recoveredQueues=Maps.newHashMap();
+		final Deque<Cleaner> recoveredCleaners=Lists.newLinkedList();
+		final Iterator<Cleaner> iterator=this.cleaners.descendingIterator();
+		while(iterator.hasNext()) {
+			recoveredCleaners.push(iterator.next().recover(this.channel,recoveredQueues));
+		}
+		final List<Subscription> recoveredSubscriptions=Lists.newArrayList();
+		for(final Subscription subscription:this.subscriptions) {
+			final String queueName=Optional.fromNullable(recoveredQueues.get(subscription.queueName)).or(subscription.queueName);
+			recoveredSubscriptions.add(subscribe(this.channel,subscription.handler,queueName));
+		}
+		this.cleaners.clear();
+		this.cleaners.addAll(recoveredCleaners);
+		this.subscriptions.clear();
+		this.subscriptions.addAll(recoveredSubscriptions);
+	}
+
+	private synchronized void completeRecovery() {
+		this.recovering=false;
+		final long elapsed=System.nanoTime()-this.connectionLostAt;
+		this.recoveryMetrics.recordRecovery(elapsed);
+		LOGGER.info("[{}] Recovered connection to broker in {} ms ({} failed attempts)",this.broker,TimeUnit.NANOSECONDS.toMillis(elapsed),this.recoveryAttempts);
+	}
+
+	private synchronized void failRecovery(final Exception failure) {
+		this.recoveryMetrics.recordFailedAttempt();
+		this.recoveryAttempts++;
+		LOGGER.warn("[{}] Could not recover connection to broker (attempt {}): {}. Retrying in {} ms",this.broker,this.recoveryAttempts,failure.getMessage(),this.recoveryBackoff.delay(this.recoveryAttempts));
+	}
+
+	private synchronized Acknowledger acknowledger(final Channel aChannel) throws IOException {
+		if(this.acknowledgementPolicy.isAutomatic()) {
+			return null;
+		}
+		if(this.acknowledger==null || this.acknowledger.channel()!=aChannel) {
+			closeAcknowledger();
+			aChannel.basicQos(this.acknowledgementPolicy.prefetchCount());
+			this.acknowledger=
+				Acknowledger.
+					newInstance(
+						aChannel,
+						this.acknowledgementPolicy,
+						new ThreadFactoryBuilder().
+							setNameFormat(this.name+"-acknowledger-%d").
+							setDaemon(true).
+							build());
+		}
+		return this.acknowledger;
+	}
+
+	private synchronized PartitionedExecutor dispatcher() {
+		if(this.dispatchPartitions>0 && this.dispatcher==null) {
+			this.dispatcher=
+				PartitionedExecutor.
+					newInstance(
+						this.dispatchPartitions,
+						new ThreadFactoryBuilder().
+							setNameFormat(this.name+"-dispatcher-%d").
+							setDaemon(true).
+							setUncaughtExceptionHandler(new BrokerControllerUncaughtExceptionHandler(this)).
+							build());
+		}
+		return this.dispatcher;
+	}
+
+	/**
+	 * Let the dispatched deliveries complete so that they can be acknowledged
+	 * before the channel is closed.
+	 */
+	private synchronized void shutdownDispatcher() {
+		if(this.dispatcher!=null) {
+			if(!this.dispatcher.shutdown(DISPATCHER_SHUTDOWN_TIMEOUT,TimeUnit.MILLISECONDS)) {
+				LOGGER.warn("Dispatched deliveries did not complete in {} ms",DISPATCHER_SHUTDOWN_TIMEOUT);
+			}
+			this.dispatcher=null;
+		}
+	}
+
+	private synchronized void closeAcknowledger() {
+		if(this.acknowledger!=null) {
+			this.acknowledger.close();
+			this.acknowledger=null;
+		}
+	}
+
 	private void cleanUp() {
 		LOGGER.debug("Cleaning up broker ({})...",this.cleaners.size());
 		while(!this.cleaners.isEmpty()) {
@@ -272,7 +1284,7 @@ final class BrokerController {
 			try {
 				cleaner.clean(this.channel);
 				LOGGER.trace("{} completed",cleaner);
-			} catch (final IOException e) {
+			} catch (final IOException | ShutdownSignalException e) {
 				LOGGER.warn("{} failed. Full stacktrace follows",cleaner,e);
 			}
 		}
@@ -287,6 +1299,20 @@ final class BrokerController {
 				build();
 	}
 
+	private Connection newConnection() throws IOException, TimeoutException {
+		final ConnectionFactory factory=new ConnectionFactory();
+		factory.setHost(this.broker.host());
+		factory.setPort(this.broker.port());
+		factory.setVirtualHost(this.broker.virtualHost());
+		factory.setThreadFactory(brokerThreadFactory());
+		factory.setExceptionHandler(new BrokerControllerExceptionHandler(this));
+		final Connection result=factory.newConnection();
+		if(result!=null) {
+			result.addShutdownListener(new ConnectionMonitor(result));
+		}
+		return result;
+	}
+
 	private Channel channel() {
 		Preconditions.checkState(this.connected,"Not connected");
 		return this.channel;
@@ -304,61 +1330,266 @@ final class BrokerController {
 	}
 
 	private Channel createNewChannel() throws IOException {
-		Preconditions.checkState(this.connection!=null,"No connection available");
-		final Channel result = this.connection.createChannel();
+		return createNewChannel(this.connection);
+	}
+
+	private Channel createNewChannel(final Connection aConnection) throws IOException {
+		Preconditions.checkState(aConnection!=null,"No connection available");
+		final Channel result = aConnection.createChannel();
 		Preconditions.checkState(result!=null,"No channel available");
 		result.addReturnListener(new LoggingReturnListener());
 		return result;
 	}
 
-	private void publishMessage(final String exchangeName, final String routingKey, final String message) throws IOException {
-		final Channel aChannel = currentChannel();
+	/**
+	 * Responses are correlated with the request they respond to, and any
+	 * other message with itself, so that consumers can keep the messages of
+	 * a request in order.
+	 */
+	static String correlationId(final Message message) {
+		if(message instanceof ResponseMessage) {
+			return ((ResponseMessage)message).responseTo().toString();
+		}
+		return message.messageId().toString();
+	}
+
+	/**
+	 * Publications are spread round-robin among the shards. Messages published
+	 * using different shards may reach the broker in a different order than
+	 * the one they were published in.
+	 * <p>
+	 * Shards with a publish queue hand the publications over to their writer.
+	 * Otherwise the publication is written by the publishing thread, which
+	 * waits for at most the publish timeout if the broker has blocked the
+	 * connection.
+	 */
+	private ListenableFuture<Void> publishMessage(final String exchangeName, final String routingKey, final byte[] body, final WireFormat format, final String correlationId, final Object message) throws IOException {
+		final Shard shard=nextShard();
+		if(shard.outbound!=null) {
+			final QueuedPublication publication=new QueuedPublication(shard,exchangeName,routingKey,body,format,correlationId,message);
+			shard.outbound.submit(publication);
+			return publication.result;
+		}
+		awaitUnblocked(shard.flowControl,shard.metrics);
+		return writeMessage(shard,exchangeName,routingKey,body,format,correlationId,message);
+	}
+
+	private void awaitUnblocked(final FlowControl flowControl, final ConnectionMetrics metrics) throws IOException {
+		final boolean unblocked;
+		try {
+			unblocked=flowControl.awaitUnblocked(this.publishTimeout,TimeUnit.MILLISECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the broker to unblock connection "+metrics.name());
+		}
+		if(!unblocked) {
+			metrics.recordRejection();
+			throw new PublicationRejectedException(String.format("Connection %s has been blocked by the broker for more than %d ms",metrics.name(),this.publishTimeout));
+		}
+	}
+
+	private PublisherConfirms borrowPublisher(final Shard shard) throws IOException {
+		try {
+			return shard.pool.borrow();
+		} catch (final ShutdownSignalException e) {
+			shard.metrics.recordFailure();
+			throw new IOException("Broker connection is not available",e);
+		} catch (final IOException e) {
+			shard.metrics.recordFailure();
+			throw e;
+		}
+	}
+
+	private ListenableFuture<Void> writeMessage(final Shard shard, final String exchangeName, final String routingKey, final byte[] body, final WireFormat format, final String correlationId, final Object message) throws IOException {
+		final PublisherConfirms publisher=borrowPublisher(shard);
+		final Channel aChannel=publisher.channel();
+		final long deliveryTag=aChannel.getNextPublishSeqNo();
+		final ListenableFuture<Void> confirmation=publisher.track(deliveryTag);
 		try {
 			LOGGER.debug("Publishing message to exchange '{}' and routing key '{}'. Payload: \n{}",exchangeName,routingKey,message);
-			final Map<String, Object> headers=Maps.newLinkedHashMap();
-			headers.put(BROKER_CONTROLLER_MESSAGE,this.messageCounter.incrementAndGet());
+			final Payload payload=this.compressor.compress(body);
 			aChannel.
 				basicPublish(
 					exchangeName,
 					routingKey,
 					true,
-					MessageProperties.MINIMAL_PERSISTENT_BASIC.builder().headers(headers).build(),
-					message.getBytes());
+					messageProperties(format,payload,correlationId,confirmation).build(),
+					payload.body());
+			shard.pool.release(publisher);
+			shard.metrics.recordPublication(payload.body().length);
+			return confirmation;
 		} catch (final IOException e) {
-			discardChannel(aChannel);
+			publisher.abandon(deliveryTag,e);
+			shard.pool.discard(publisher);
+			shard.metrics.recordFailure();
 			LOGGER.warn("Could not publish message [{}] to exchange '{}' and routing key '{}': {}",message,exchangeName,routingKey,e.getMessage());
 			throw e;
 		} catch (final Exception e) {
-			discardChannel(aChannel);
+			publisher.abandon(deliveryTag,e);
+			shard.pool.discard(publisher);
+			shard.metrics.recordFailure();
 			final String errorMessage = String.format("Unexpected failure while publishing message [%s] to exchange '%s' and routing key '%s' using broker %s:%s%s: %s",message,exchangeName,routingKey,this.broker.host(),this.broker.port(),this.broker.virtualHost(),e.getMessage());
 			LOGGER.error(errorMessage);
 			throw new IOException(errorMessage,e);
 		}
 	}
 
-	private void discardChannel(final Channel channel) {
-		final long threadId = Thread.currentThread().getId();
-		closeQuietly(channel);
-		synchronized(this.channels) {
-			this.channels.remove(threadId);
+	/**
+	 * Publishes the whole batch using a single channel, which is borrowed
+	 * only once. If a publication fails the channel is discarded, and the
+	 * messages not yet published are failed with the same cause.
+	 */
+	private List<ListenableFuture<Void>> writeMessages(final Shard shard, final String exchangeName, final String routingKey, final List<byte[]> bodies, final WireFormat format, final List<? extends Message> messages) throws IOException {
+		final PublisherConfirms publisher=borrowPublisher(shard);
+		final Channel aChannel=publisher.channel();
+		final List<ListenableFuture<Void>> result=Lists.newArrayListWithCapacity(messages.size());
+		LOGGER.debug("Publishing {} messages to exchange '{}' and routing key '{}'",messages.size(),exchangeName,routingKey);
+		for(int i=0;i<messages.size();i++) {
+			final Message message=messages.get(i);
+			final long deliveryTag=aChannel.getNextPublishSeqNo();
+			final ListenableFuture<Void> confirmation=publisher.track(deliveryTag);
+			try {
+				final Payload payload=this.compressor.compress(bodies.get(i));
+				aChannel.
+					basicPublish(
+						exchangeName,
+						routingKey,
+						true,
+						messageProperties(format,payload,correlationId(message),confirmation).build(),
+						payload.body());
+				shard.metrics.recordPublication(payload.body().length);
+				result.add(confirmation);
+			} catch (final Exception e) {
+				final IOException failure=
+					e instanceof IOException?
+						(IOException)e:
+						new IOException("Could not publish message to exchange '"+exchangeName+"' and routing key '"+routingKey+"'",e);
+				publisher.abandon(deliveryTag,failure);
+				shard.pool.discard(publisher);
+				shard.metrics.recordFailure();
+				LOGGER.warn("Could not publish message [{}] to exchange '{}' and routing key '{}': {}. Discarding {} pending publications of the batch",message,exchangeName,routingKey,e.getMessage(),messages.size()-i-1);
+				result.add(confirmation);
+				failRemaining(result,messages.size(),failure);
+				return result;
+			}
+		}
+		shard.pool.release(publisher);
+		return result;
+	}
+
+	/**
+	 * Fails the messages of a batch that were not published, so that only
+	 * their requests are aborted.
+	 */
+	private static void failRemaining(final List<ListenableFuture<Void>> result, final int size, final IOException failure) {
+		while(result.size()<size) {
+			result.add(Futures.<Void>immediateFailedFuture(failure));
+		}
+	}
+
+	/**
+	 * Messages are numbered so that the ones returned by the broker can be
+	 * correlated with the message they were published for until the
+	 * publication is confirmed.
+	 */
+	private BasicProperties.Builder messageProperties(final WireFormat format, final Payload payload, final String correlationId, final ListenableFuture<Void> confirmation) {
+		final long messageNumber=this.messageCounter.incrementAndGet();
+		if(correlationId!=null) {
+			this.publications.put(messageNumber,correlationId);
+			Futures.addCallback(confirmation,new PublicationTracker(messageNumber));
 		}
+		final Map<String, Object> headers=Maps.newLinkedHashMap();
+		headers.put(BROKER_CONTROLLER_MESSAGE,messageNumber);
+		return
+			MessageProperties.
+				MINIMAL_PERSISTENT_BASIC.
+					builder().
+						contentType(format.contentType()).
+						contentEncoding(payload.contentEncoding()).
+						correlationId(correlationId).
+						headers(headers);
 	}
 
-	private Channel currentChannel() throws IOException {
-		final long threadId = Thread.currentThread().getId();
-		Channel result=null;
-		synchronized(this.channels) {
-			result=this.channels.get(threadId);
-			if(result==null) {
-				result=createNewChannel();
-				this.channels.put(threadId,result);
+	private void notifyReturn(final String correlationId, final String reason) {
+		for(final ReturnedMessageListener listener:this.returnListeners) {
+			try {
+				listener.onReturn(this,correlationId,reason);
+			} catch (final RuntimeException e) {
+				LOGGER.warn("[{}] Returned message listener {} failed. Full stacktrace follows",this.broker,listener,e);
 			}
 		}
-		return result;
+	}
+
+	private Shard nextShard() {
+		if(this.shards.size()==1) {
+			return this.shards.get(0);
+		}
+		return this.shards.get((this.nextShard.getAndIncrement()&Integer.MAX_VALUE)%this.shards.size());
+	}
+
+	private List<Shard> createShards(final CuratorConfiguration settings) {
+		final List<Shard> result=Lists.newArrayList();
+		if(settings.publisherConnections()==0) {
+			result.add(new Shard(this.name,false,settings));
+		}
+		for(int i=0;i<settings.publisherConnections();i++) {
+			result.add(new Shard(this.name+"-publisher-"+i,true,settings));
+		}
+		return ImmutableList.copyOf(result);
+	}
+
+	private static List<ConnectionMetrics> connectionMetrics(final List<Shard> shards) {
+		final List<ConnectionMetrics> result=Lists.newArrayList();
+		for(final Shard shard:shards) {
+			result.add(shard.metrics);
+		}
+		return ImmutableList.copyOf(result);
+	}
+
+	/**
+	 * If a shard connection cannot be opened, the shard connections already
+	 * opened are closed.
+	 */
+	private void openShards() throws IOException, TimeoutException {
+		try {
+			for(final Shard shard:this.shards) {
+				shard.open();
+			}
+		} catch (final IOException | TimeoutException e) {
+			closeShards();
+			throw e;
+		}
+	}
+
+	private void closeShards() {
+		for(final Shard shard:this.shards) {
+			shard.close();
+		}
+	}
+
+	private void startWriters() {
+		for(final Shard shard:this.shards) {
+			shard.startWriter();
+		}
+	}
+
+	private void stopWriters() {
+		for(final Shard shard:this.shards) {
+			shard.stopWriter();
+		}
+	}
+
+	private boolean isShardConnection(final Connection aConnection) {
+		for(final Shard shard:this.shards) {
+			if(shard.uses(aConnection)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	private void closeQuietly(final Channel channel) {
-		if(channel.isOpen()) {
+		if(channel!=null && channel.isOpen()) {
 			try {
 				channel.close();
 			} catch (final Exception e) {
@@ -369,21 +1600,27 @@ final class BrokerController {
 
 	private void closeChannelsQuietly() {
 		closeQuietly(this.channel);
-		for(final Channel tmpChannel:this.channels.values()) {
-			closeQuietly(tmpChannel);
+		if(this.directReply!=null) {
+			this.directReply.close();
+		}
+		for(final Shard shard:this.shards) {
+			shard.pool.clear();
 		}
-		this.channels.clear();
 		this.channel=null;
 	}
 
 	private void closeConnectionQuietly() {
-		if(this.connection!=null) {
+		closeQuietly(this.connection);
+		this.connection=null;
+	}
+
+	private void closeQuietly(final Connection aConnection) {
+		if(aConnection!=null) {
 			try {
-				this.connection.close();
+				aConnection.close();
 			} catch (final Exception e) {
 				LOGGER.trace("Could not close connection gracefully",e);
 			}
-			this.connection=null;
 		}
 	}
 
@@ -0,0 +1,175 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.rabbitmq.client.Channel;
+
+/**
+ * Bounded pool of publishing channels. Channels are not bound to the threads
+ * that use them: a publisher borrows a channel for the duration of a single
+ * publication and returns it afterwards. Channels found closed are replaced
+ * lazily on the next borrow.
+ */
+final class ChannelPool {
+
+	interface ChannelFactory {
+
+		PublisherConfirms create() throws IOException;
+
+	}
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(ChannelPool.class);
+
+	private final ChannelFactory factory;
+	private final int size;
+	private final ChannelPoolMetrics metrics;
+	private final Semaphore permits;
+	private final Queue<PublisherConfirms> idle;
+
+	private ChannelPool(final ChannelFactory factory, final int size, final ChannelPoolMetrics metrics) {
+		Preconditions.checkArgument(size>0,"Channel pool size must be positive (%s)",size);
+		this.factory=factory;
+		this.size=size;
+		this.metrics=metrics;
+		this.permits=new Semaphore(size);
+		this.idle=new ConcurrentLinkedQueue<>();
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	int idleChannels() {
+		return this.idle.size();
+	}
+
+	ChannelPoolMetrics metrics() {
+		return this.metrics;
+	}
+
+	PublisherConfirms borrow() throws IOException {
+		acquirePermit();
+		try {
+			PublisherConfirms publisher=this.idle.poll();
+			while(publisher!=null && !publisher.channel().isOpen()) {
+				LOGGER.trace("Replacing closed channel {}",publisher.channel());
+				this.metrics.recordDiscard();
+				publisher=this.idle.poll();
+			}
+			if(publisher==null) {
+				publisher=this.factory.create();
+				this.metrics.recordCreation();
+			}
+			this.metrics.recordBorrow();
+			return publisher;
+		} catch (final IOException | RuntimeException e) {
+			this.permits.release();
+			throw e;
+		}
+	}
+
+	void release(final PublisherConfirms publisher) {
+		this.metrics.recordReturn();
+		if(!publisher.channel().isOpen()) {
+			this.metrics.recordDiscard();
+		} else {
+			this.idle.offer(publisher);
+		}
+		this.permits.release();
+	}
+
+	void discard(final PublisherConfirms publisher) {
+		this.metrics.recordReturn();
+		this.metrics.recordDiscard();
+		closeQuietly(publisher.channel());
+		this.permits.release();
+	}
+
+	/**
+	 * Closes the idle channels. Channels borrowed at the time are discarded
+	 * when returned if they have been closed in the meantime.
+	 */
+	void clear() {
+		PublisherConfirms publisher=this.idle.poll();
+		while(publisher!=null) {
+			closeQuietly(publisher.channel());
+			publisher=this.idle.poll();
+		}
+	}
+
+	private void acquirePermit() throws InterruptedIOException {
+		if(this.permits.tryAcquire()) {
+			return;
+		}
+		final long start=System.nanoTime();
+		try {
+			this.permits.acquire();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a publishing channel");
+		} finally {
+			this.metrics.recordWait(System.nanoTime()-start);
+		}
+	}
+
+	private static void closeQuietly(final Channel channel) {
+		if(channel.isOpen()) {
+			try {
+				channel.close();
+			} catch (final Exception e) {
+				LOGGER.trace("Could not close channel gracefully",e);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("size",this.size).
+					add("idle",this.idle.size()).
+					add("metrics",this.metrics).
+					toString();
+	}
+
+	static ChannelPool newInstance(final ChannelFactory factory, final int size, final ChannelPoolMetrics metrics) {
+		return new ChannelPool(factory,size,metrics);
+	}
+
+}
@@ -0,0 +1,117 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.MoreObjects;
+
+public final class ChannelPoolMetrics {
+
+	private final AtomicLong createdChannels;
+	private final AtomicLong discardedChannels;
+	private final AtomicLong borrowedChannels;
+	private final AtomicLong contendedBorrows;
+	private final AtomicLong waitTime;
+	private final AtomicInteger activeChannels;
+
+	ChannelPoolMetrics() {
+		this.createdChannels=new AtomicLong();
+		this.discardedChannels=new AtomicLong();
+		this.borrowedChannels=new AtomicLong();
+		this.contendedBorrows=new AtomicLong();
+		this.waitTime=new AtomicLong();
+		this.activeChannels=new AtomicInteger();
+	}
+
+	void recordCreation() {
+		this.createdChannels.incrementAndGet();
+	}
+
+	void recordDiscard() {
+		this.discardedChannels.incrementAndGet();
+	}
+
+	void recordBorrow() {
+		this.borrowedChannels.incrementAndGet();
+		this.activeChannels.incrementAndGet();
+	}
+
+	void recordWait(final long nanos) {
+		this.contendedBorrows.incrementAndGet();
+		this.waitTime.addAndGet(nanos);
+	}
+
+	void recordReturn() {
+		this.activeChannels.decrementAndGet();
+	}
+
+	public long createdChannels() {
+		return this.createdChannels.get();
+	}
+
+	public long discardedChannels() {
+		return this.discardedChannels.get();
+	}
+
+	public long borrowedChannels() {
+		return this.borrowedChannels.get();
+	}
+
+	/**
+	 * Returns the number of borrows that had to wait for a channel to be
+	 * returned to the pool.
+	 */
+	public long contendedBorrows() {
+		return this.contendedBorrows.get();
+	}
+
+	public long waitTime(final TimeUnit unit) {
+		return unit.convert(this.waitTime.get(),TimeUnit.NANOSECONDS);
+	}
+
+	public int activeChannels() {
+		return this.activeChannels.get();
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("createdChannels",this.createdChannels).
+					add("discardedChannels",this.discardedChannels).
+					add("borrowedChannels",this.borrowedChannels).
+					add("contendedBorrows",this.contendedBorrows).
+					add("waitTime",this.waitTime).
+					add("activeChannels",this.activeChannels).
+					toString();
+	}
+
+}
@@ -27,9 +27,11 @@
 package org.smartdeveloperhub.curator.connector;
 
 import java.io.IOException;
+import java.util.Map;
 
 import org.smartdeveloperhub.curator.connector.BrokerController.Cleaner;
 
+import com.google.common.base.Optional;
 import com.rabbitmq.client.Channel;
 
 final class CleanerFactory {
@@ -51,6 +53,13 @@ final class CleanerFactory {
 			channel.queueUnbind(this.queueName,this.exchangeName,this.routingKey);
 		}
 
+		@Override
+		public Cleaner recover(final Channel channel, final Map<String,String> recoveredQueues) throws IOException {
+			final String recoveredQueueName=Optional.fromNullable(recoveredQueues.get(this.queueName)).or(this.queueName);
+			channel.queueBind(recoveredQueueName,this.exchangeName,this.routingKey);
+			return new UnbindQueueCleaner(this.exchangeName,recoveredQueueName,this.routingKey);
+		}
+
 		@Override
 		public String toString() {
 			return "Unbind queue '"+this.queueName+"' from exchange '"+this.exchangeName+"' and routing key '"+this.routingKey+"'";
@@ -61,9 +70,11 @@ final class CleanerFactory {
 	private static final class DeleteQueueCleaner implements Cleaner {
 
 		private final String queueName;
+		private final boolean serverNamed;
 
-		private DeleteQueueCleaner(final String queueName) {
+		private DeleteQueueCleaner(final String queueName, final boolean serverNamed) {
 			this.queueName = queueName;
+			this.serverNamed = serverNamed;
 		}
 
 		@Override
@@ -71,6 +82,25 @@ final class CleanerFactory {
 			channel.queueDelete(this.queueName);
 		}
 
+		/**
+		 * Server-named queues cannot be re-declared with the same name, so
+		 * a new server-named queue is declared instead.
+		 */
+		@Override
+		public Cleaner recover(final Channel channel, final Map<String,String> recoveredQueues) throws IOException {
+			final String recoveredQueueName=
+				channel.
+					queueDeclare(
+						this.serverNamed?"":this.queueName,
+						true,
+						false,
+						true,
+						BrokerController.QUEUE_ARGUMENTS).
+					getQueue();
+			recoveredQueues.put(this.queueName,recoveredQueueName);
+			return new DeleteQueueCleaner(recoveredQueueName,this.serverNamed);
+		}
+
 		@Override
 		public String toString() {
 			return "Delete queue '"+this.queueName+"'";
@@ -80,7 +110,12 @@ final class CleanerFactory {
 	private CleanerFactory() {
 	}
 
-	static Cleaner queueDelete(final String queueName) {		return new DeleteQueueCleaner(queueName);
+	static Cleaner queueDelete(final String queueName) {
+		return queueDelete(queueName,false);
+	}
+
+	static Cleaner queueDelete(final String queueName, final boolean serverNamed) {
+		return new DeleteQueueCleaner(queueName,serverNamed);
 	}
 
 	static Cleaner queueUnbind(final String exchangeName, final String queueName, final String routingKey) {
@@ -27,6 +27,7 @@
 package org.smartdeveloperhub.curator.connector;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.smartdeveloperhub.curator.connector.io.ConversionContext;
 import org.smartdeveloperhub.curator.protocol.Agent;
@@ -34,12 +35,19 @@ import org.smartdeveloperhub.curator.protocol.DisconnectMessage;
 import org.smartdeveloperhub.curator.protocol.EnrichmentRequestMessage;
 import org.smartdeveloperhub.curator.protocol.Message;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+
 final class ClientCuratorController extends CuratorController {
 
 	ClientCuratorController(final CuratorConfiguration configuration, final String name, final ConversionContext context) {
 		super(configuration,name,context);
 	}
 
+	ClientCuratorController(final CuratorConfiguration configuration, final String name, final ConversionContext context, final TransportFactory transportFactory) {
+		super(configuration,name,context,transportFactory);
+	}
+
 	private String routingKey(final Message message) {
 		final StringBuilder builder=new StringBuilder();
 		builder.append(curatorConfiguration().requestRoutingKey());
@@ -51,8 +59,15 @@ final class ClientCuratorController extends CuratorController {
 		return builder.toString();
 	}
 
-	void publishRequest(final Message message) throws IOException {
-		publishMessage(message,routingKey(message));
+	ListenableFuture<Void> publishRequest(final Message message) throws IOException {
+		return publishMessage(message,routingKey(message));
+	}
+
+	List<ListenableFuture<Void>> publishRequests(final List<? extends EnrichmentRequestMessage> messages) throws IOException {
+		if(messages.isEmpty()) {
+			return ImmutableList.of();
+		}
+		return publishMessages(messages,routingKey(messages.get(0)));
 	}
 
 	/**
@@ -63,4 +78,12 @@ final class ClientCuratorController extends CuratorController {
 		return configuration.responseRoutingKey()+"."+agent.agentId();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected boolean usesDirectReplyTo() {
+		return curatorConfiguration().directReplyTo();
+	}
+
 }
\ No newline at end of file
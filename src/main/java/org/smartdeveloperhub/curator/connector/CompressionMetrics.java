@@ -0,0 +1,126 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.MoreObjects;
+
+public final class CompressionMetrics {
+
+	private final AtomicLong compressedMessages;
+	private final AtomicLong uncompressedMessages;
+	private final AtomicLong decompressedMessages;
+	private final AtomicLong originalBytes;
+	private final AtomicLong compressedBytes;
+	private final AtomicLong compressionTime;
+	private final AtomicLong decompressionTime;
+
+	CompressionMetrics() {
+		this.compressedMessages=new AtomicLong();
+		this.uncompressedMessages=new AtomicLong();
+		this.decompressedMessages=new AtomicLong();
+		this.originalBytes=new AtomicLong();
+		this.compressedBytes=new AtomicLong();
+		this.compressionTime=new AtomicLong();
+		this.decompressionTime=new AtomicLong();
+	}
+
+	void recordUncompressed() {
+		this.uncompressedMessages.incrementAndGet();
+	}
+
+	void recordCompression(final int original, final int compressed, final long nanos) {
+		this.compressedMessages.incrementAndGet();
+		this.originalBytes.addAndGet(original);
+		this.compressedBytes.addAndGet(compressed);
+		this.compressionTime.addAndGet(nanos);
+	}
+
+	void recordDecompression(final long nanos) {
+		this.decompressedMessages.incrementAndGet();
+		this.decompressionTime.addAndGet(nanos);
+	}
+
+	public long compressedMessages() {
+		return this.compressedMessages.get();
+	}
+
+	public long uncompressedMessages() {
+		return this.uncompressedMessages.get();
+	}
+
+	public long decompressedMessages() {
+		return this.decompressedMessages.get();
+	}
+
+	public long originalBytes() {
+		return this.originalBytes.get();
+	}
+
+	public long compressedBytes() {
+		return this.compressedBytes.get();
+	}
+
+	/**
+	 * Returns the ratio between the size of the compressed payloads and their
+	 * original size, or {@code 1.0} if no payload has been compressed yet.
+	 */
+	public double compressionRatio() {
+		final long original=this.originalBytes.get();
+		if(original==0) {
+			return 1.0D;
+		}
+		return (double)this.compressedBytes.get()/original;
+	}
+
+	public long compressionTime(final TimeUnit unit) {
+		return unit.convert(this.compressionTime.get(),TimeUnit.NANOSECONDS);
+	}
+
+	public long decompressionTime(final TimeUnit unit) {
+		return unit.convert(this.decompressionTime.get(),TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("compressedMessages",this.compressedMessages).
+					add("uncompressedMessages",this.uncompressedMessages).
+					add("decompressedMessages",this.decompressedMessages).
+					add("originalBytes",this.originalBytes).
+					add("compressedBytes",this.compressedBytes).
+					add("compressionRatio",compressionRatio()).
+					add("compressionTime",this.compressionTime).
+					add("decompressionTime",this.decompressionTime).
+					toString();
+	}
+
+}
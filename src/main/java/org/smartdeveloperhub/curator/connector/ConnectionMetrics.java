@@ -0,0 +1,143 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.MoreObjects;
+
+public final class ConnectionMetrics {
+
+	private final String name;
+	private final long createdOn;
+	private final AtomicLong publishedMessages;
+	private final AtomicLong publishedBytes;
+	private final AtomicLong failedPublications;
+	private final AtomicLong rejectedPublications;
+	private final AtomicLong blocks;
+	private final AtomicLong blockedTime;
+
+	ConnectionMetrics(final String name) {
+		this.name=name;
+		this.createdOn=System.nanoTime();
+		this.publishedMessages=new AtomicLong();
+		this.publishedBytes=new AtomicLong();
+		this.failedPublications=new AtomicLong();
+		this.rejectedPublications=new AtomicLong();
+		this.blocks=new AtomicLong();
+		this.blockedTime=new AtomicLong();
+	}
+
+	void recordPublication(final int bytes) {
+		this.publishedMessages.incrementAndGet();
+		this.publishedBytes.addAndGet(bytes);
+	}
+
+	void recordFailure() {
+		this.failedPublications.incrementAndGet();
+	}
+
+	void recordRejection() {
+		this.rejectedPublications.incrementAndGet();
+	}
+
+	void recordBlock() {
+		this.blocks.incrementAndGet();
+	}
+
+	void recordUnblock(final long nanos) {
+		this.blockedTime.addAndGet(nanos);
+	}
+
+	public String name() {
+		return this.name;
+	}
+
+	public long publishedMessages() {
+		return this.publishedMessages.get();
+	}
+
+	public long publishedBytes() {
+		return this.publishedBytes.get();
+	}
+
+	public long failedPublications() {
+		return this.failedPublications.get();
+	}
+
+	/**
+	 * Returns the number of publications rejected because the connection
+	 * could not accept them in time.
+	 */
+	public long rejectedPublications() {
+		return this.rejectedPublications.get();
+	}
+
+	/**
+	 * Returns the number of times the broker has blocked the connection.
+	 */
+	public long blocks() {
+		return this.blocks.get();
+	}
+
+	/**
+	 * Returns the time the connection has been blocked by the broker, not
+	 * counting the current block, if any.
+	 */
+	public long blockedTime(final TimeUnit unit) {
+		return unit.convert(this.blockedTime.get(),TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the average number of messages published per time unit since
+	 * the metrics were created.
+	 */
+	public double throughput(final TimeUnit unit) {
+		final long elapsed=System.nanoTime()-this.createdOn;
+		if(elapsed<=0) {
+			return 0;
+		}
+		return this.publishedMessages.get()*(double)unit.toNanos(1)/elapsed;
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("name",this.name).
+					add("publishedMessages",this.publishedMessages).
+					add("publishedBytes",this.publishedBytes).
+					add("failedPublications",this.failedPublications).
+					add("rejectedPublications",this.rejectedPublications).
+					add("blocks",this.blocks).
+					add("blockedTime",this.blockedTime).
+					toString();
+	}
+
+}
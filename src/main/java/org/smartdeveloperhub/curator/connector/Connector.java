@@ -28,11 +28,20 @@ package org.smartdeveloperhub.curator.connector;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -40,17 +49,29 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.smartdeveloperhub.curator.connector.io.ConversionContext;
+import org.smartdeveloperhub.curator.connector.io.EnrichmentResponseSink;
+import org.smartdeveloperhub.curator.connector.io.MessageUtil;
+import org.smartdeveloperhub.curator.connector.io.WireFormat;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
 import org.smartdeveloperhub.curator.protocol.AcceptedMessage;
 import org.smartdeveloperhub.curator.protocol.Agent;
+import org.smartdeveloperhub.curator.protocol.Binding;
 import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
 import org.smartdeveloperhub.curator.protocol.EnrichmentRequestMessage;
 import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
 import org.smartdeveloperhub.curator.protocol.FailureMessage;
+import org.smartdeveloperhub.curator.protocol.Message;
 import org.smartdeveloperhub.curator.protocol.ResponseMessage;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public final class Connector {
 
@@ -62,6 +83,7 @@ public final class Connector {
 		private UUID agentIdentifier;
 		private ConversionContext context;
 		private String queueName;
+		private TransportFactory transportFactory;
 
 		private ConnectorBuilder() {
 			this.context=ConversionContext.newInstance();
@@ -81,6 +103,11 @@ public final class Connector {
 			return this;
 		}
 
+		public ConnectorBuilder withWireFormat(final WireFormat wireFormat) {
+			this.context=this.context.withWireFormat(wireFormat);
+			return this;
+		}
+
 		public ConnectorBuilder withCuratorConfiguration(final CuratorConfiguration configuration) {
 			this.curatorConfiguration = configuration;
 			return this;
@@ -114,6 +141,15 @@ public final class Connector {
 			return this;
 		}
 
+		/**
+		 * Use a transport other than RabbitMQ, i.e., the in-JVM loopback
+		 * transport.
+		 */
+		ConnectorBuilder withTransportFactory(final TransportFactory transportFactory) {
+			this.transportFactory = transportFactory;
+			return this;
+		}
+
 		public Connector build() {
 			final ConnectorConfiguration conf =
 				new ConnectorConfiguration().
@@ -125,7 +161,8 @@ public final class Connector {
 				new Connector(
 					conf,
 					this.context,
-					this.factory!=null?this.factory:new DefaultMessageIdentifierFactory());
+					this.factory!=null?this.factory:new DefaultMessageIdentifierFactory(),
+					this.transportFactory!=null?this.transportFactory:BrokerController.factory());
 		}
 
 		private DeliveryChannel connectorChannel() {
@@ -159,19 +196,26 @@ public final class Connector {
 
 	}
 
-	private final class CuratorResponseListener implements MessageHandler {
+	private final class CuratorResponseListener implements WireMessageHandler {
 
 		@Override
 		public void handlePayload(final String payload) {
 			LOGGER.trace("Received message in connector's curator response queue: {}",payload);
-			final AcceptedMessage acceptedMessage=HandlerUtil.parsePayload(payload,AcceptedMessage.class);
-			if(acceptedMessage!=null) {
-				processAcknowledgement(acceptedMessage);
-				return;
-			}
-			final FailureMessage failureMessage=HandlerUtil.parsePayload(payload,FailureMessage.class);
-			if(failureMessage!=null) {
-				processAcknowledgement(failureMessage);
+			final Message message=HandlerUtil.decodePayload(Connector.this.messageUtil,payload,AcceptedMessage.class,FailureMessage.class);
+			process(message,payload);
+		}
+
+		@Override
+		public void handleMessage(final byte[] body, final WireFormat format) {
+			final HandlerUtil.Payload payload=new HandlerUtil.Payload(body,format);
+			LOGGER.trace("Received message in connector's curator response queue: {}",payload);
+			final Message message=HandlerUtil.decodePayload(Connector.this.messageUtil,body,format,AcceptedMessage.class,FailureMessage.class);
+			process(message,payload);
+		}
+
+		private void process(final Message message, final Object payload) {
+			if(message instanceof ResponseMessage) {
+				processAcknowledgement((ResponseMessage)message);
 				return;
 			}
 			LOGGER.error("Could not understand request:\n{}",payload);
@@ -179,23 +223,404 @@ public final class Connector {
 
 	}
 
-	private final class ConnectorResponseListener implements MessageHandler {
+	private final class ConnectorResponseListener implements WireMessageHandler {
 
 		@Override
 		public void handlePayload(final String payload) {
 			LOGGER.trace("Received message in connector's response queue: {}",payload);
-			final EnrichmentResponseMessage response=HandlerUtil.parsePayload(payload, EnrichmentResponseMessage.class);
-			if(response!=null) {
-				processEnrichmentResponse(response);
+			if(!HandlerUtil.streamPayload(Connector.this.messageUtil,payload,new ResponseDispatcher())) {
+				LOGGER.error("Could not understand request:\n{}",payload);
+			}
+		}
+
+		@Override
+		public void handleMessage(final byte[] body, final WireFormat format) {
+			final HandlerUtil.Payload payload=new HandlerUtil.Payload(body,format);
+			LOGGER.trace("Received message in connector's response queue: {}",payload);
+			if(!HandlerUtil.streamPayload(Connector.this.messageUtil,body,format,new ResponseDispatcher())) {
+				LOGGER.error("Could not understand request:\n{}",payload);
+			}
+		}
+
+	}
+
+	private final class ResponseDispatcher implements EnrichmentResponseSink {
+
+		private StreamingEnrichmentResultHandler handler;
+
+		@Override
+		public boolean start(final EnrichmentResponseMessage header) {
+			final ActiveRequest request=Connector.this.activeRequests.get(header.responseTo());
+			if(request==null) {
+				LOGGER.debug("Discarded enrichment response {}: unknown enrichment request {}",header,header.responseTo());
+				return false;
+			}
+			request.touch();
+			this.handler=request.handler;
+			LOGGER.trace("Handling processing of response {} for request {} to handler {}...",header.messageId(),header.responseTo(),this.handler);
+			this.handler.onStart(header.targetResource());
+			return true;
+		}
+
+		@Override
+		public void addition(final Binding binding) {
+			this.handler.onAddition(binding);
+		}
+
+		@Override
+		public void removal(final Binding binding) {
+			this.handler.onRemoval(binding);
+		}
+
+		@Override
+		public void end() {
+			this.handler.onEnd();
+		}
+
+	}
+
+	private final class PublicationListener implements FutureCallback<Void> {
+
+		private final ConnectorFuture future;
+
+		private PublicationListener(final ConnectorFuture future) {
+			this.future=future;
+		}
+
+		@Override
+		public void onSuccess(final Void result) {
+			LOGGER.trace("Enrichment request {} confirmed by the broker",this.future.messageId());
+		}
+
+		@Override
+		public void onFailure(final Throwable failure) {
+			if(awaitsRecovery(failure)) {
+				LOGGER.warn("Enrichment request {} could not be delivered to the curator: {}. It will be re-published once the connection is recovered",this.future.messageId(),failure.getMessage());
+			} else {
+				publicationFailed(this.future,failure);
+			}
+		}
+
+	}
+
+	private final class RecoveryHandler implements Transport.RecoveryListener {
+
+		@Override
+		public void onRecovery(final Transport transport) {
+			republishRequests();
+		}
+
+	}
+
+	/**
+	 * Request whose acknowledgement or results are still expected. The
+	 * request keeps the timeouts scheduled for it, so that they can be
+	 * cancelled as soon as they are no longer needed.
+	 */
+	private final class ActiveRequest {
+
+		private final ConnectorFuture future;
+		private final StreamingEnrichmentResultHandler handler;
+
+		private volatile long lastActivity;
+		private volatile HashedWheelTimer.Timeout acknowledgement;
+		private volatile HashedWheelTimer.Timeout expiration;
+
+		private ActiveRequest(final ConnectorFuture future, final StreamingEnrichmentResultHandler handler) {
+			this.future=future;
+			this.handler=handler;
+			this.lastActivity=System.nanoTime();
+		}
+
+		private void touch() {
+			this.lastActivity=System.nanoTime();
+		}
+
+		private void acknowledged() {
+			touch();
+			cancel(this.acknowledgement);
+		}
+
+		private void release() {
+			cancel(this.acknowledgement);
+			cancel(this.expiration);
+		}
+
+		private void cancel(final HashedWheelTimer.Timeout timeout) {
+			if(timeout!=null) {
+				timeout.cancel();
+			}
+		}
+
+	}
+
+	/**
+	 * Enrichment request shared by every caller that requested the same
+	 * enrichment before the curator sent any response for it. The results are
+	 * fanned out to the handlers of every caller. No caller can join once the
+	 * first response arrives, so that none of them misses part of the
+	 * results.
+	 */
+	private final class CoalescedRequest implements StreamingEnrichmentResultHandler {
+
+		private final EnrichmentRequest key;
+		private final ListenableConnectorFuture future;
+		private final List<Subscription> subscriptions;
+
+		private boolean closed;
+
+		private CoalescedRequest(final EnrichmentRequest key, final ListenableConnectorFuture future) {
+			this.key=key;
+			this.future=future;
+			this.subscriptions=new CopyOnWriteArrayList<>();
+		}
+
+		private Subscription subscribe(final StreamingEnrichmentResultHandler handler) {
+			final Subscription subscription=new Subscription(this,handler);
+			synchronized(this) {
+				if(this.closed) {
+					return null;
+				}
+				this.subscriptions.add(subscription);
+			}
+			subscription.follow();
+			return subscription;
+		}
+
+		/**
+		 * Returns {@code true} if the subscription was the last one, in which
+		 * case the request is no longer needed.
+		 */
+		private boolean unsubscribe(final Subscription subscription) {
+			synchronized(this) {
+				if(!this.subscriptions.remove(subscription) || !this.subscriptions.isEmpty()) {
+					return false;
+				}
+			}
+			close();
+			return true;
+		}
+
+		private boolean unsubscribe(final Enrichment enrichment) {
+			for(final Subscription subscription:this.subscriptions) {
+				if(subscription.enrichment==enrichment) {
+					return unsubscribe(subscription);
+				}
+			}
+			return false;
+		}
+
+		private void close() {
+			synchronized(this) {
+				this.closed=true;
+			}
+			Connector.this.coalescedRequests.remove(this.key,this);
+		}
+
+		@Override
+		public void onStart(final URI targetResource) {
+			close();
+			for(final Subscription subscription:this.subscriptions) {
+				subscription.handler.onStart(targetResource);
+			}
+		}
+
+		@Override
+		public void onAddition(final Binding binding) {
+			for(final Subscription subscription:this.subscriptions) {
+				subscription.handler.onAddition(binding);
+			}
+		}
+
+		@Override
+		public void onRemoval(final Binding binding) {
+			for(final Subscription subscription:this.subscriptions) {
+				subscription.handler.onRemoval(binding);
+			}
+		}
+
+		@Override
+		public void onEnd() {
+			for(final Subscription subscription:this.subscriptions) {
+				subscription.handler.onEnd();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "CoalescedRequest{"+this.future.messageId()+"}";
+		}
+
+	}
+
+	/**
+	 * A caller of a coalesced request. Each caller gets its own future and
+	 * enrichment: cancelling them only detaches the caller, and the request
+	 * is aborted once every caller has left.
+	 */
+	private final class Subscription implements Function<Enrichment,Enrichment>, FutureCallback<Enrichment> {
+
+		private final CoalescedRequest request;
+		private final StreamingEnrichmentResultHandler handler;
+
+		private ListenableFuture<Enrichment> future;
+		private volatile Enrichment enrichment;
+
+		private Subscription(final CoalescedRequest request, final StreamingEnrichmentResultHandler handler) {
+			this.request=request;
+			this.handler=handler;
+		}
+
+		private void follow() {
+			this.future=Futures.transform(Futures.nonCancellationPropagating(this.request.future),this);
+			Futures.addCallback(this.future,this);
+		}
+
+		@Override
+		public Enrichment apply(final Enrichment input) {
+			this.enrichment=input.copy();
+			return this.enrichment;
+		}
+
+		@Override
+		public void onSuccess(final Enrichment result) {
+			// NOTHING TO DO
+		}
+
+		@Override
+		public void onFailure(final Throwable failure) {
+			if(failure instanceof CancellationException && this.request.unsubscribe(this)) {
+				LOGGER.debug("Every caller of enrichment request {} left",this.request.future.messageId());
+				this.request.future.cancel(true);
+			}
+		}
+
+	}
+
+	private final class AcknowledgementDeadline implements Runnable {
+
+		private final ActiveRequest request;
+
+		private AcknowledgementDeadline(final ActiveRequest request) {
+			this.request=request;
+		}
+
+		@Override
+		public void run() {
+			final ConnectorFuture future=this.request.future;
+			if(Connector.this.pendingAcknowledgements.get(future.messageId())!=future) {
 				return;
 			}
-			LOGGER.error("Could not understand request:\n{}",payload);
+			LOGGER.warn("Enrichment request {} was not acknowledged within {} ms",future.messageId(),Connector.this.acknowledgementTimeout);
+			Connector.this.requestMetrics.recordExpiredAcknowledgement();
+			expireRequest(future);
+		}
+
+	}
+
+	/**
+	 * Forgets a request that has not received any response within the result
+	 * time-to-live. Responses do not reschedule the expiration: the
+	 * expiration checks when the request was last active, and reschedules
+	 * itself if needed.
+	 */
+	private final class ResultExpiration implements Runnable {
+
+		private final ActiveRequest request;
+
+		private ResultExpiration(final ActiveRequest request) {
+			this.request=request;
+		}
+
+		@Override
+		public void run() {
+			final ConnectorFuture future=this.request.future;
+			if(Connector.this.activeRequests.get(future.messageId())!=this.request) {
+				return;
+			}
+			final long remaining=TimeUnit.MILLISECONDS.toNanos(Connector.this.resultTimeToLive)-(System.nanoTime()-this.request.lastActivity);
+			if(remaining>0) {
+				this.request.expiration=newTimeout(this,remaining,TimeUnit.NANOSECONDS);
+				return;
+			}
+			LOGGER.debug("Enrichment request {} did not receive any response within {} ms",future.messageId(),Connector.this.resultTimeToLive);
+			Connector.this.requestMetrics.recordExpiredRequest();
+			expireRequest(future);
+		}
+
+	}
+
+	/**
+	 * The broker returns the requests that cannot be routed to the curator:
+	 * the curator will never acknowledge them, so they are aborted right
+	 * away.
+	 */
+	private final class ReturnHandler implements Transport.ReturnedMessageListener {
+
+		@Override
+		public void onReturn(final Transport transport, final String correlationId, final String reason) {
+			requestReturned(correlationId,reason);
+		}
+
+	}
+
+	/**
+	 * Re-publishes a request that has not been acknowledged by the curator.
+	 * Failed re-publications are retried with exponential backoff, unless the
+	 * connection fails again: in that case the request will be re-published
+	 * once the connection is recovered.
+	 */
+	private final class Republication implements Runnable, FutureCallback<Void> {
+
+		private final ConnectorFuture future;
+		private final int attempt;
+
+		private Republication(final ConnectorFuture future, final int attempt) {
+			this.future=future;
+			this.attempt=attempt;
+		}
+
+		@Override
+		public void run() {
+			if(Connector.this.pendingAcknowledgements.get(this.future.messageId())!=this.future) {
+				return;
+			}
+			try {
+				final ListenableFuture<Void> publication=Connector.this.curatorController.publishRequest(this.future.request());
+				recoveryMetrics().recordRepublication();
+				Futures.addCallback(publication,this);
+			} catch (final IOException e) {
+				onFailure(e);
+			}
+		}
+
+		@Override
+		public void onSuccess(final Void result) {
+			LOGGER.debug("Enrichment request {} re-published (attempt {})",this.future.messageId(),this.attempt+1);
+		}
+
+		@Override
+		public void onFailure(final Throwable failure) {
+			if(awaitsRecovery(failure)) {
+				LOGGER.debug("Enrichment request {} will be re-published once the connection is recovered",this.future.messageId());
+			} else if(this.attempt+1>=MAX_REPUBLICATION_ATTEMPTS) {
+				publicationFailed(this.future,failure);
+			} else {
+				LOGGER.debug("Could not re-publish enrichment request {} (attempt {}): {}",this.future.messageId(),this.attempt+1,failure.getMessage());
+				schedule(new Republication(this.future,this.attempt+1),Connector.this.republicationBackoff.delay(this.attempt));
+			}
 		}
 
 	}
 
 	private static final Logger LOGGER=LoggerFactory.getLogger(Connector.class);
 
+	private static final int MAX_REPUBLICATION_ATTEMPTS=5;
+
+	private static final long TIMER_TICK_DURATION=100;
+
+	private static final int TIMER_TICKS_PER_WHEEL=512;
+
 	private final ClientCuratorController curatorController;
 	private final ClientConnectorController connectorController;
 
@@ -203,17 +628,27 @@ public final class Connector {
 	private final Lock write;
 
 	private final ConcurrentMap<UUID,ConnectorFuture> pendingAcknowledgements;
-	private final ConcurrentMap<UUID,EnrichmentResultHandler> activeRequests;
+	private final ConcurrentMap<UUID,ActiveRequest> activeRequests;
+	private final ConcurrentMap<EnrichmentRequest,CoalescedRequest> coalescedRequests;
 
 	private final ConnectorConfiguration configuration;
 	private final MessageIdentifierFactory factory;
+	private final MessageUtil messageUtil;
+	private final Backoff republicationBackoff;
+	private final long acknowledgementTimeout;
+	private final long resultTimeToLive;
+	private final boolean coalesceRequests;
+	private final RequestMetrics requestMetrics;
+	private final HashedWheelTimer timer;
 
+	private ScheduledExecutorService republisher;
 	private boolean connected;
 
-	private Connector(final ConnectorConfiguration configuration, final ConversionContext context, final MessageIdentifierFactory factory) {
+	private Connector(final ConnectorConfiguration configuration, final ConversionContext context, final MessageIdentifierFactory factory, final TransportFactory transportFactory) {
 		this.configuration = configuration;
 		this.factory = factory;
-		this.curatorController=new ClientCuratorController(configuration.curatorConfiguration(),"connector-curator",context);
+		this.messageUtil=MessageUtil.newInstance().withConversionContext(context);
+		this.curatorController=new ClientCuratorController(configuration.curatorConfiguration(),"connector-curator",context,transportFactory);
 		this.connectorController=new ClientConnectorController(configuration.queueName(),configuration.connectorChannel(),context,this.curatorController);
 		final ReadWriteLock lock=new ReentrantReadWriteLock();
 		this.read=lock.readLock();
@@ -221,6 +656,143 @@ public final class Connector {
 		this.connected=false;
 		this.pendingAcknowledgements=Maps.newConcurrentMap();
 		this.activeRequests=Maps.newConcurrentMap();
+		this.coalescedRequests=Maps.newConcurrentMap();
+		final CuratorConfiguration curatorConfiguration=configuration.curatorConfiguration();
+		this.republicationBackoff=
+			curatorConfiguration.recoveryInterval()==0?
+				null:
+				Backoff.newInstance(curatorConfiguration.recoveryInterval(),MAX_REPUBLICATION_ATTEMPTS*curatorConfiguration.recoveryInterval(),TimeUnit.MILLISECONDS);
+		this.acknowledgementTimeout=curatorConfiguration.acknowledgementTimeout();
+		this.resultTimeToLive=curatorConfiguration.resultTimeToLive();
+		this.coalesceRequests=curatorConfiguration.coalesceRequests();
+		this.requestMetrics=new RequestMetrics();
+		this.timer=
+			HashedWheelTimer.
+				newInstance(
+					new ThreadFactoryBuilder().
+						setNameFormat("connector-timer-%d").
+						setDaemon(true).
+						build(),
+					TIMER_TICK_DURATION,
+					TimeUnit.MILLISECONDS,
+					TIMER_TICKS_PER_WHEEL);
+		this.curatorController.brokerController().addRecoveryListener(new RecoveryHandler());
+		this.curatorController.brokerController().addReturnedMessageListener(new ReturnHandler());
+	}
+
+	private boolean awaitsRecovery(final Throwable failure) {
+		return this.republicationBackoff!=null && FailureAnalyzer.isConnectionFailure(failure);
+	}
+
+	private void publicationFailed(final ConnectorFuture future, final Throwable failure) {
+		LOGGER.warn("Enrichment request {} could not be delivered to the curator: {}",future.messageId(),failure.getMessage());
+		abortRequest(future);
+		try {
+			future.abort();
+		} catch (final InterruptedException e) {
+			LOGGER.warn("Could not abort request {}: {}",future.messageId(),e.getMessage());
+		}
+	}
+
+	private void requestReturned(final String correlationId, final String reason) {
+		final UUID messageId;
+		try {
+			messageId=UUID.fromString(correlationId);
+		} catch (final IllegalArgumentException e) {
+			LOGGER.debug("Discarded returned message {}: not an enrichment request",correlationId);
+			return;
+		}
+		final ConnectorFuture future=this.pendingAcknowledgements.get(messageId);
+		if(future==null) {
+			LOGGER.debug("Discarded returned message {}: unknown enrichment request",correlationId);
+			return;
+		}
+		publicationFailed(future,new IOException("Enrichment request was returned by the broker ("+reason+")"));
+	}
+
+	private void republishRequests() {
+		LOGGER.info("Re-publishing {} unacknowledged enrichment requests...",this.pendingAcknowledgements.size());
+		for(final ConnectorFuture future:this.pendingAcknowledgements.values()) {
+			schedule(new Republication(future,0),0);
+		}
+	}
+
+	private synchronized void schedule(final Republication republication, final long delay) {
+		if(this.republisher==null) {
+			return;
+		}
+		try {
+			this.republisher.schedule(republication,delay,TimeUnit.MILLISECONDS);
+		} catch (final RejectedExecutionException e) {
+			LOGGER.trace("Discarded re-publication of enrichment request {}: connector is disconnected",republication.future.messageId());
+		}
+	}
+
+	private synchronized void startRepublisher() {
+		if(this.republicationBackoff!=null) {
+			this.republisher=
+				Executors.
+					newSingleThreadScheduledExecutor(
+						new ThreadFactoryBuilder().
+							setNameFormat("connector-republisher-%d").
+							setDaemon(true).
+							build());
+		}
+	}
+
+	private synchronized void stopRepublisher() {
+		if(this.republisher!=null) {
+			this.republisher.shutdownNow();
+			this.republisher=null;
+		}
+	}
+
+	/**
+	 * Returns {@code null} if the connector is disconnected.
+	 */
+	private HashedWheelTimer.Timeout newTimeout(final Runnable task, final long delay, final TimeUnit unit) {
+		try {
+			return this.timer.newTimeout(task,delay,unit);
+		} catch (final IllegalStateException e) {
+			LOGGER.trace("Discarded timeout {}: connector is disconnected",task);
+			return null;
+		}
+	}
+
+	private void scheduleDeadline(final ListenableConnectorFuture future, final long timeout, final TimeUnit unit) {
+		final HashedWheelTimer.Timeout deadline=
+			newTimeout(
+				new Runnable() {
+					@Override
+					public void run() {
+						if(!future.isDone()) {
+							LOGGER.debug("Enrichment request {} was not acknowledged within {} {}",future.messageId(),timeout,unit);
+							Connector.this.requestMetrics.recordExpiredAcknowledgement();
+							future.expire(timeout,unit);
+						}
+					}
+				},
+				timeout,
+				unit);
+		if(deadline!=null) {
+			future.addListener(
+				new Runnable() {
+					@Override
+					public void run() {
+						deadline.cancel();
+					}
+				},
+				MoreExecutors.directExecutor());
+		}
+	}
+
+	private void expireRequest(final ConnectorFuture future) {
+		abortRequest(future);
+		try {
+			future.abort();
+		} catch (final InterruptedException e) {
+			LOGGER.warn("Could not abort request {}: {}",future.messageId(),e.getMessage());
+		}
 	}
 
 	private void processAcknowledgement(final ResponseMessage response) {
@@ -231,7 +803,12 @@ public final class Connector {
 			LOGGER.trace("Acknowledging enrichment request {} to {}...",response.responseTo(),future);
 			this.pendingAcknowledgements.remove(future.messageId(),future);
 			if(response instanceof FailureMessage) {
-				this.activeRequests.remove(future.messageId());
+				release(this.activeRequests.remove(future.messageId()));
+			} else {
+				final ActiveRequest request=this.activeRequests.get(future.messageId());
+				if(request!=null) {
+					request.acknowledged();
+				}
 			}
 			try {
 				future.complete(response);
@@ -241,22 +818,86 @@ public final class Connector {
 		}
 	}
 
-	private void processEnrichmentResponse(final EnrichmentResponseMessage response) {
-		final EnrichmentResultHandler handler=this.activeRequests.get(response.responseTo());
-		if(handler==null) {
-			LOGGER.debug("Discarded enrichment response {}: unknown enrichment request {}",response,response.responseTo());
-		} else {
-			LOGGER.trace("Handling processing of response {} for request {} to handler {}...",response.messageId(),response.responseTo(),handler);
-			final EnrichmentResult result = ProtocolUtil.toEnrichmentResult(response);
-			handler.onResult(result);
-		}
+	private EnrichmentRequestMessage newRequestMessage(final EnrichmentRequest request) {
+		return
+			ProtocolUtil.
+				toRequestBuilder(request).
+					withMessageId(this.factory.nextIdentifier()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(this.configuration.agent()).
+					withReplyTo(this.configuration.connectorChannel()).
+					build();
 	}
 
-	private ConnectorFuture addRequest(final EnrichmentRequestMessage message, final EnrichmentResultHandler handler) {
-		final ConnectorFuture future= new LoggedConnectorFuture(new DefaultConnectorFuture(this,message));
+	private void addRequest(final ConnectorFuture future, final StreamingEnrichmentResultHandler handler) {
+		final ActiveRequest request=new ActiveRequest(future,handler);
 		this.pendingAcknowledgements.put(future.messageId(),future);
-		this.activeRequests.put(future.messageId(), handler);
-		return future;
+		this.activeRequests.put(future.messageId(),request);
+		if(this.acknowledgementTimeout>0) {
+			request.acknowledgement=newTimeout(new AcknowledgementDeadline(request),this.acknowledgementTimeout,TimeUnit.MILLISECONDS);
+		}
+		if(this.resultTimeToLive>0) {
+			request.expiration=newTimeout(new ResultExpiration(request),this.resultTimeToLive,TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void release(final ActiveRequest request) {
+		if(request!=null) {
+			request.release();
+			if(request.handler instanceof CoalescedRequest) {
+				((CoalescedRequest)request.handler).close();
+			}
+		}
+	}
+
+	private void submitRequest(final ConnectorFuture future, final StreamingEnrichmentResultHandler handler) throws IOException {
+		addRequest(future,handler);
+		ListenableFuture<Void> publication;
+		try {
+			publication=this.curatorController.publishRequest(future.request());
+		} catch (final IOException e) {
+			if(!awaitsRecovery(e)) {
+				abortRequest(future);
+				throw e;
+			}
+			publication=Futures.immediateFailedFuture(e);
+		}
+		future.start();
+		Futures.addCallback(publication,new PublicationListener(future));
+		LOGGER.debug("Enrichment requested: {}",future);
+	}
+
+	/**
+	 * Attaches the caller to an identical request that has not received any
+	 * response yet, or submits a new request that later callers can attach
+	 * to.
+	 */
+	private ListenableFuture<Enrichment> coalesceRequest(final EnrichmentRequest request, final StreamingEnrichmentResultHandler handler) throws IOException {
+		while(true) {
+			final CoalescedRequest existing=this.coalescedRequests.get(request);
+			if(existing!=null) {
+				final Subscription subscription=existing.subscribe(handler);
+				if(subscription!=null) {
+					LOGGER.debug("Coalesced {} with enrichment request {}",request,existing.future.messageId());
+					this.requestMetrics.recordCoalescedRequest();
+					return subscription.future;
+				}
+				this.coalescedRequests.remove(request,existing);
+			} else {
+				final CoalescedRequest created=new CoalescedRequest(request,new ListenableConnectorFuture(this,newRequestMessage(request)));
+				final Subscription subscription=created.subscribe(handler);
+				if(this.coalescedRequests.putIfAbsent(request,created)==null) {
+					LOGGER.debug("Requesting {}",request);
+					try {
+						submitRequest(new LoggedConnectorFuture(created.future),created);
+					} catch (final IOException e) {
+						created.close();
+						throw e;
+					}
+					return subscription.future;
+				}
+			}
+		}
 	}
 
 	private void clearRequests() {
@@ -264,7 +905,11 @@ public final class Connector {
 			entry.getValue().cancel(true);
 		}
 		this.pendingAcknowledgements.clear();
+		for(final ActiveRequest request:this.activeRequests.values()) {
+			request.release();
+		}
 		this.activeRequests.clear();
+		this.coalescedRequests.clear();
 	}
 
 	private void publishDisconnectMessage() throws ConnectorException  {
@@ -331,10 +976,15 @@ public final class Connector {
 			Preconditions.checkState(!this.connected,"Already connected");
 			try {
 				LOGGER.info("-->> CONNECTING <<--");
+				final long startedOn=System.nanoTime();
 				connectToCurator();
+				startRepublisher();
+				this.timer.start();
 				this.connected=true;
+				final long elapsed=System.nanoTime()-startedOn;
+				topologyMetrics().recordStartup(elapsed);
 				LOGGER.info(this.configuration.toString());
-				LOGGER.info("-->> CONNECTED <<--");
+				LOGGER.info("-->> CONNECTED ({} ms) <<--",TimeUnit.NANOSECONDS.toMillis(elapsed));
 			} catch (final Exception e) {
 				LOGGER.error("-->> CONNECTION FAILED <<--",e);
 				throw e;
@@ -345,35 +995,139 @@ public final class Connector {
 	}
 
 	public Future<Enrichment> requestEnrichment(final EnrichmentRequest request, final EnrichmentResultHandler handler) throws IOException {
+		return requestEnrichment(request,EnrichmentResultCollector.newInstance(handler));
+	}
+
+	/**
+	 * If the broker cannot take the request within the configured publish
+	 * timeout, the request is aborted and a
+	 * {@link PublicationRejectedException} is thrown, so that the caller can
+	 * back off and retry later.
+	 */
+	public Future<Enrichment> requestEnrichment(final EnrichmentRequest request, final StreamingEnrichmentResultHandler handler) throws IOException {
 		this.read.lock();
 		try {
 			verifyConnection();
+			if(this.coalesceRequests) {
+				return coalesceRequest(request,handler);
+			}
 			LOGGER.debug("Requesting {}",request);
-			final EnrichmentRequestMessage message=
-				ProtocolUtil.
-					toRequestBuilder(request).
-						withMessageId(this.factory.nextIdentifier()).
-						withSubmittedOn(new Date()).
-						withSubmittedBy(this.configuration.agent()).
-						withReplyTo(this.configuration.connectorChannel()).
-						build();
-			final ConnectorFuture future = addRequest(message,handler);
-			this.curatorController.publishRequest(message);
-			future.start();
-			LOGGER.debug("Enrichment requested: {}",future);
+			final ConnectorFuture future=new LoggedConnectorFuture(new DefaultConnectorFuture(this,newRequestMessage(request)));
+			submitRequest(future,handler);
 			return future;
 		} finally {
 			this.read.unlock();
 		}
 	}
 
+	public ListenableFuture<Enrichment> requestEnrichmentAsync(final EnrichmentRequest request, final EnrichmentResultHandler handler) throws IOException {
+		return requestEnrichmentAsync(request,EnrichmentResultCollector.newInstance(handler));
+	}
+
+	public ListenableFuture<Enrichment> requestEnrichmentAsync(final EnrichmentRequest request, final StreamingEnrichmentResultHandler handler) throws IOException {
+		return requestEnrichmentAsync(request,handler,0,TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Requests an enrichment without tying up a thread until the curator
+	 * acknowledges it. The returned future is completed by the thread that
+	 * processes the acknowledgement, so listeners registered with a direct
+	 * executor must not block.
+	 * <p>
+	 * If a timeout is specified and the curator does not acknowledge the
+	 * request within it, the request is aborted and the future fails with a
+	 * {@link java.util.concurrent.TimeoutException}. Cancelling the future,
+	 * or a future derived from it that propagates cancellation, aborts the
+	 * request too.
+	 * <p>
+	 * Requests without timeout are coalesced with identical in-flight
+	 * requests if so configured.
+	 */
+	public ListenableFuture<Enrichment> requestEnrichmentAsync(final EnrichmentRequest request, final StreamingEnrichmentResultHandler handler, final long timeout, final TimeUnit unit) throws IOException {
+		Preconditions.checkArgument(timeout>=0,"Timeout cannot be negative (%s)",timeout);
+		Preconditions.checkNotNull(unit,"Time unit cannot be null");
+		this.read.lock();
+		try {
+			verifyConnection();
+			if(this.coalesceRequests && timeout==0) {
+				return coalesceRequest(request,handler);
+			}
+			LOGGER.debug("Requesting {} asynchronously",request);
+			final ListenableConnectorFuture future=new ListenableConnectorFuture(this,newRequestMessage(request));
+			submitRequest(new LoggedConnectorFuture(future),handler);
+			if(timeout>0) {
+				scheduleDeadline(future,timeout,unit);
+			}
+			return future;
+		} finally {
+			this.read.unlock();
+		}
+	}
+
+	/**
+	 * Requests a batch of enrichments at once: the requests are registered
+	 * together, and are published in order through a single channel. If
+	 * direct reply-to is used, the requests are published one by one through
+	 * the reply channel instead, and each of them is confirmed on its own.
+	 * The results of every request are reported to the same handler.
+	 * <p>
+	 * If the batch is only partially published, the requests that were not
+	 * published are aborted (or re-published once the connection is
+	 * recovered), while the rest are kept.
+	 */
+	public EnrichmentBatch requestEnrichments(final Collection<EnrichmentRequest> requests, final EnrichmentResultHandler handler) throws IOException {
+		Preconditions.checkNotNull(requests,"Requests cannot be null");
+		this.read.lock();
+		try {
+			verifyConnection();
+			LOGGER.debug("Requesting {} enrichments",requests.size());
+			final List<EnrichmentRequestMessage> messages=Lists.newArrayListWithCapacity(requests.size());
+			final List<ListenableConnectorFuture> enrichments=Lists.newArrayListWithCapacity(requests.size());
+			final List<ConnectorFuture> futures=Lists.newArrayListWithCapacity(requests.size());
+			for(final EnrichmentRequest request:requests) {
+				final EnrichmentRequestMessage message=newRequestMessage(request);
+				final ListenableConnectorFuture enrichment=new ListenableConnectorFuture(this,message);
+				final ConnectorFuture future=new LoggedConnectorFuture(enrichment);
+				addRequest(future,EnrichmentResultCollector.newInstance(handler));
+				messages.add(message);
+				enrichments.add(enrichment);
+				futures.add(future);
+			}
+			List<ListenableFuture<Void>> publications;
+			try {
+				publications=this.curatorController.publishRequests(messages);
+			} catch (final IOException e) {
+				if(!awaitsRecovery(e)) {
+					for(final ConnectorFuture future:futures) {
+						abortRequest(future);
+					}
+					throw e;
+				}
+				publications=Collections.nCopies(futures.size(),Futures.<Void>immediateFailedFuture(e));
+			}
+			for(int i=0;i<futures.size();i++) {
+				final ConnectorFuture future=futures.get(i);
+				future.start();
+				Futures.addCallback(publications.get(i),new PublicationListener(future));
+			}
+			LOGGER.debug("{} enrichments requested",futures.size());
+			return new EnrichmentBatch(enrichments,publications);
+		} finally {
+			this.read.unlock();
+		}
+	}
+
 	public void cancelEnrichment(final Enrichment enrichment) {
 		this.read.lock();
 		try {
 			verifyConnection();
 			LOGGER.debug("Cancelling enrichment {}...",enrichment);
 			if(enrichment.cancel()) {
-				this.activeRequests.remove(enrichment.messageId());
+				if(!isLastCaller(enrichment)) {
+					LOGGER.debug("Enrichment {} cancelled. The request is still used by other callers",enrichment);
+					return;
+				}
+				release(this.activeRequests.remove(enrichment.messageId()));
 				LOGGER.debug("Enrichment {} cancelled.",enrichment);
 			}
 		} finally {
@@ -381,6 +1135,14 @@ public final class Connector {
 		}
 	}
 
+	private boolean isLastCaller(final Enrichment enrichment) {
+		final ActiveRequest request=this.activeRequests.get(enrichment.messageId());
+		if(request==null || !(request.handler instanceof CoalescedRequest)) {
+			return true;
+		}
+		return ((CoalescedRequest)request.handler).unsubscribe(enrichment);
+	}
+
 	public void disconnect() throws ConnectorException {
 		this.write.lock();
 		try {
@@ -390,6 +1152,8 @@ public final class Connector {
 			try {
 				publishDisconnectMessage();
 			} finally {
+				stopRepublisher();
+				this.timer.stop();
 				clearRequests();
 				this.connectorController.disconnect();
 				this.curatorController.disconnect();
@@ -401,10 +1165,46 @@ public final class Connector {
 		}
 	}
 
+	public CompressionMetrics compressionMetrics() {
+		return this.curatorController.brokerController().compressor().metrics();
+	}
+
+	public ChannelPoolMetrics channelPoolMetrics() {
+		return this.curatorController.brokerController().channelPoolMetrics();
+	}
+
+	public RecoveryMetrics recoveryMetrics() {
+		return this.curatorController.brokerController().recoveryMetrics();
+	}
+
+	/**
+	 * Returns the metrics of the requests that expired because the curator
+	 * did not acknowledge them or send their results in time.
+	 */
+	public RequestMetrics requestMetrics() {
+		return this.requestMetrics;
+	}
+
+	/**
+	 * Returns the metrics of the declarations made when connecting to the
+	 * curator broker, and the time taken to connect.
+	 */
+	public TopologyMetrics topologyMetrics() {
+		return this.curatorController.brokerController().topologyMetrics();
+	}
+
+	/**
+	 * Returns the publication metrics of each of the connections used for
+	 * publishing requests to the curator.
+	 */
+	public List<ConnectionMetrics> connectionMetrics() {
+		return this.curatorController.brokerController().connectionMetrics();
+	}
+
 	void abortRequest(final ConnectorFuture future) {
 		LOGGER.debug("Aborting enrichment request {}...",future.messageId());
 		this.pendingAcknowledgements.remove(future.messageId());
-		this.activeRequests.remove(future.messageId());
+		release(this.activeRequests.remove(future.messageId()));
 	}
 
 	public static ConnectorBuilder builder() {
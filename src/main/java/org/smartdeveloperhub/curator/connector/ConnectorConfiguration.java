@@ -88,6 +88,19 @@ final class ConnectorConfiguration {
 		appendBrokerDetails(builder, this.curatorConfiguration.broker());
 		appendExchangeName(builder, this.curatorConfiguration.exchangeName());
 		appendCuratorQueueDetails(builder, this.curatorConfiguration.queueName(), this.curatorConfiguration.requestRoutingKey(), this.curatorConfiguration.responseRoutingKey());
+		appendCompressionDetails(builder, this.curatorConfiguration.contentEncoding(), this.curatorConfiguration.compressionThreshold(), this.curatorConfiguration.maxDecompressedSize());
+		builder.append("     - Channel pool size...: ").append(this.curatorConfiguration.channelPoolSize()).append(ConnectorConfiguration.NL);
+		builder.append("     - Publisher conns.....: ").append(this.curatorConfiguration.publisherConnections()).append(ConnectorConfiguration.NL);
+		builder.append("     - Publish queue.......: ").append(this.curatorConfiguration.publishQueueCapacity()).append(ConnectorConfiguration.NL);
+		builder.append("     - Publish timeout.....: ").append(this.curatorConfiguration.publishTimeout()).append(" ms").append(ConnectorConfiguration.NL);
+		builder.append("     - Direct reply-to.....: ").append(this.curatorConfiguration.directReplyTo()).append(ConnectorConfiguration.NL);
+		builder.append("     - Pipelined topology..: ").append(this.curatorConfiguration.pipelinedTopology()).append(ConnectorConfiguration.NL);
+		builder.append("     - Ack. timeout........: ").append(this.curatorConfiguration.acknowledgementTimeout()).append(" ms").append(ConnectorConfiguration.NL);
+		builder.append("     - Result TTL..........: ").append(this.curatorConfiguration.resultTimeToLive()).append(" ms").append(ConnectorConfiguration.NL);
+		builder.append("     - Coalesce requests...: ").append(this.curatorConfiguration.coalesceRequests()).append(ConnectorConfiguration.NL);
+		appendAcknowledgementDetails(builder, this.curatorConfiguration);
+		builder.append("     - Dispatch partitions.: ").append(this.curatorConfiguration.dispatchPartitions()).append(ConnectorConfiguration.NL);
+		builder.append("     - Recovery interval...: ").append(this.curatorConfiguration.recoveryInterval()).append(" ms").append(ConnectorConfiguration.NL);
 		builder.append("   + Connector configuration:").append(ConnectorConfiguration.NL);
 		appendBrokerDetails(builder, this.connectorChannel.broker());
 		appendExchangeName(builder, this.connectorChannel.exchangeName());
@@ -106,6 +119,22 @@ final class ConnectorConfiguration {
 		builder.append("     - Routing key.........: ").append(routingKey).append(ConnectorConfiguration.NL);
 	}
 
+	private void appendCompressionDetails(final StringBuilder builder, final ContentEncoding contentEncoding, final int compressionThreshold, final int maxDecompressedSize) {
+		builder.append("     - Content encoding....: ").append(contentEncoding.value()).append(ConnectorConfiguration.NL);
+		builder.append("     - Compression min size: ").append(compressionThreshold).append(" bytes").append(ConnectorConfiguration.NL);
+		builder.append("     - Max. decompressed...: ").append(maxDecompressedSize).append(" bytes").append(ConnectorConfiguration.NL);
+	}
+
+	private void appendAcknowledgementDetails(final StringBuilder builder, final CuratorConfiguration configuration) {
+		if(configuration.prefetchCount()==0) {
+			builder.append("     - Acknowledgements....: automatic").append(ConnectorConfiguration.NL);
+		} else {
+			builder.append("     - Prefetch count......: ").append(configuration.prefetchCount()).append(ConnectorConfiguration.NL);
+			builder.append("     - Ack batch size......: ").append(configuration.acknowledgementBatchSize()).append(ConnectorConfiguration.NL);
+			builder.append("     - Ack interval........: ").append(configuration.acknowledgementInterval()).append(" ms").append(ConnectorConfiguration.NL);
+		}
+	}
+
 	private void appendExchangeName(final StringBuilder builder, final String exchangeName) {
 		builder.append("     - Exchange name.......: ").append(exchangeName).append(ConnectorConfiguration.NL);
 	}
@@ -38,7 +38,7 @@ abstract class ConnectorController {
 	private final boolean requiresCreation;
 
 	private final CuratorController curatorController;
-	private final BrokerController brokerController;
+	private final Transport brokerController;
 
 	private DeliveryChannel effectiveConfiguration;
 	private String effectiveQueueName;
@@ -49,7 +49,15 @@ abstract class ConnectorController {
 		this.curatorController = curatorController;
 		this.requiresCreation = requiresCreation;
 		if(usesDifferentBrokers()) {
-			this.brokerController=new BrokerController(this.defaultConfiguration.broker(),"connector-custom",context);
+			this.brokerController=
+				this.curatorController.
+					transportFactory().
+						newTransport(
+							this.defaultConfiguration.broker(),
+							"connector-custom",
+							context,
+							this.curatorController.brokerController().compressor(),
+							this.curatorController.curatorConfiguration());
 		} else {
 			this.brokerController=this.curatorController.brokerController();
 		}
@@ -71,6 +79,7 @@ abstract class ConnectorController {
 		final String exchangeName = declareConnectorExchange();
 		this.effectiveQueueName = declareConnectorQueue();
 		final String routingKey = bindConnectorQueue(exchangeName, this.effectiveQueueName);
+		this.brokerController.verifyTopology();
 		this.effectiveConfiguration=
 			ProtocolFactory.
 				newDeliveryChannel().
@@ -88,7 +97,7 @@ abstract class ConnectorController {
 		return this.effectiveQueueName;
 	}
 
-	final BrokerController brokerController() {
+	final Transport brokerController() {
 		return this.brokerController;
 	}
 
@@ -30,13 +30,18 @@ import java.util.UUID;
 import java.util.concurrent.Future;
 
 import org.smartdeveloperhub.curator.protocol.Message;
+import org.smartdeveloperhub.curator.protocol.RequestMessage;
 
 abstract class ConnectorFuture implements Future<Enrichment> {
 
 	abstract UUID messageId();
 
+	abstract RequestMessage request();
+
 	abstract void start();
 
 	abstract boolean complete(Message message) throws InterruptedException;
 
+	abstract boolean abort() throws InterruptedException;
+
 }
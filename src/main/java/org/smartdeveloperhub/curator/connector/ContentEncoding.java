@@ -0,0 +1,138 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.google.common.io.ByteStreams;
+
+public enum ContentEncoding {
+	IDENTITY("identity") {
+		@Override
+		OutputStream encoder(final OutputStream out) {
+			return out;
+		}
+		@Override
+		InputStream decoder(final InputStream in) {
+			return in;
+		}
+	},
+	GZIP("gzip") {
+		@Override
+		OutputStream encoder(final OutputStream out) throws IOException {
+			return new GZIPOutputStream(out);
+		}
+		@Override
+		InputStream decoder(final InputStream in) throws IOException {
+			return new GZIPInputStream(in);
+		}
+	},
+	DEFLATE("deflate") {
+		@Override
+		OutputStream encoder(final OutputStream out) {
+			return new DeflaterOutputStream(out);
+		}
+		@Override
+		InputStream decoder(final InputStream in) {
+			return new InflaterInputStream(in);
+		}
+	},
+	;
+
+	private final String value;
+
+	private ContentEncoding(final String value) {
+		this.value=value;
+	}
+
+	public String value() {
+		return this.value;
+	}
+
+	abstract OutputStream encoder(OutputStream out) throws IOException;
+
+	abstract InputStream decoder(InputStream in) throws IOException;
+
+	byte[] encode(final byte[] body) throws IOException {
+		if(this==IDENTITY) {
+			return body;
+		}
+		final ByteArrayOutputStream out=new ByteArrayOutputStream(Math.max(32,body.length/4));
+		try(OutputStream encoder=encoder(out)) {
+			encoder.write(body);
+		}
+		return out.toByteArray();
+	}
+
+	byte[] decode(final byte[] body) throws IOException {
+		return decode(body,Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Decodes the body, failing as soon as the decoded body exceeds the
+	 * specified number of bytes.
+	 */
+	byte[] decode(final byte[] body, final int maxSize) throws IOException {
+		if(this==IDENTITY) {
+			return body;
+		}
+		try(InputStream decoder=decoder(new ByteArrayInputStream(body))) {
+			final byte[] decoded=ByteStreams.toByteArray(ByteStreams.limit(decoder,maxSize+1L));
+			if(decoded.length>maxSize) {
+				throw new IOException("Decoded body exceeds "+maxSize+" bytes");
+			}
+			return decoded;
+		}
+	}
+
+	/**
+	 * Returns the encoding identified by the specified AMQP
+	 * {@code content_encoding} value, {@link #IDENTITY} if no value is
+	 * specified, or {@code null} if the value is not supported.
+	 */
+	public static ContentEncoding fromValue(final String value) {
+		if(value==null || value.trim().isEmpty()) {
+			return IDENTITY;
+		}
+		final String target=value.trim();
+		for(final ContentEncoding encoding:values()) {
+			if(encoding.value.equalsIgnoreCase(target)) {
+				return encoding;
+			}
+		}
+		return null;
+	}
+
+}
@@ -32,6 +32,7 @@ import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
 import org.smartdeveloperhub.curator.protocol.Broker;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
 
 public final class CuratorConfiguration {
 
@@ -45,23 +46,121 @@ public final class CuratorConfiguration {
 
 	public static final Broker DEFAULT_BROKER = ProtocolFactory.newBroker().build();
 
+	public static final ContentEncoding DEFAULT_CONTENT_ENCODING = ContentEncoding.IDENTITY;
+
+	public static final int DEFAULT_COMPRESSION_THRESHOLD = 16*1024;
+
+	public static final int DEFAULT_CHANNEL_POOL_SIZE = 8;
+
+	public static final int DEFAULT_PREFETCH_COUNT = 0;
+
+	public static final int DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE = 32;
+
+	public static final long DEFAULT_ACKNOWLEDGEMENT_INTERVAL = 100;
+
+	public static final int DEFAULT_DISPATCH_PARTITIONS = 0;
+
+	public static final long DEFAULT_RECOVERY_INTERVAL = 1000;
+
+	public static final int DEFAULT_PUBLISHER_CONNECTIONS = 0;
+
+	public static final int DEFAULT_PUBLISH_QUEUE_CAPACITY = 0;
+
+	public static final long DEFAULT_PUBLISH_TIMEOUT = 5000;
+
+	public static final boolean DEFAULT_DIRECT_REPLY_TO = false;
+
+	public static final boolean DEFAULT_PIPELINED_TOPOLOGY = false;
+
+	public static final long DEFAULT_ACKNOWLEDGEMENT_TIMEOUT = 0;
+
+	public static final long DEFAULT_RESULT_TIME_TO_LIVE = 0;
+
+	public static final boolean DEFAULT_COALESCE_REQUESTS = false;
+
+	public static final int DEFAULT_MAX_DECOMPRESSED_SIZE = 16*1024*1024;
+
 	private final Broker broker;
 	private final String exchangeName;
 	private final String queueName;
 	private final String requestRoutingKey;
 	private final String responseRoutingKey;
+	private final ContentEncoding contentEncoding;
+	private final int compressionThreshold;
+	private final int channelPoolSize;
+	private final int prefetchCount;
+	private final int acknowledgementBatchSize;
+	private final long acknowledgementInterval;
+	private final int dispatchPartitions;
+	private final long recoveryInterval;
+	private final int publisherConnections;
+	private final int publishQueueCapacity;
+	private final long publishTimeout;
+	private final boolean directReplyTo;
+	private final boolean pipelinedTopology;
+	private final long acknowledgementTimeout;
+	private final long resultTimeToLive;
+	private final boolean coalesceRequests;
+	private final int maxDecompressedSize;
 
 	private CuratorConfiguration(
 			final Broker broker,
 			final String exchangeName,
 			final String queueName,
 			final String requestRoutingKey,
-			final String responseRoutingKey) {
+			final String responseRoutingKey,
+			final ContentEncoding contentEncoding,
+			final int compressionThreshold,
+			final int channelPoolSize,
+			final int prefetchCount,
+			final int acknowledgementBatchSize,
+			final long acknowledgementInterval,
+			final int dispatchPartitions,
+			final long recoveryInterval,
+			final int publisherConnections,
+			final int publishQueueCapacity,
+			final long publishTimeout,
+			final boolean directReplyTo,
+			final boolean pipelinedTopology,
+			final long acknowledgementTimeout,
+			final long resultTimeToLive,
+			final boolean coalesceRequests,
+			final int maxDecompressedSize) {
 		this.broker = Objects.requireNonNull(broker,"Broker cannot be null");
 		this.exchangeName = Objects.requireNonNull(exchangeName,"Exchange name cannot be null");
 		this.queueName = Objects.requireNonNull(queueName,"Queue name cannot be null");
 		this.requestRoutingKey = Objects.requireNonNull(requestRoutingKey,"Response routing key cannot be null");
 		this.responseRoutingKey = Objects.requireNonNull(responseRoutingKey,"Response routing key cannot be null");
+		this.contentEncoding = Objects.requireNonNull(contentEncoding,"Content encoding cannot be null");
+		Preconditions.checkArgument(compressionThreshold>=0,"Compression threshold cannot be negative (%s)",compressionThreshold);
+		this.compressionThreshold = compressionThreshold;
+		Preconditions.checkArgument(channelPoolSize>0,"Channel pool size must be positive (%s)",channelPoolSize);
+		this.channelPoolSize = channelPoolSize;
+		Preconditions.checkArgument(prefetchCount>=0,"Prefetch count cannot be negative (%s)",prefetchCount);
+		this.prefetchCount = prefetchCount;
+		Preconditions.checkArgument(acknowledgementBatchSize>0,"Acknowledgement batch size must be positive (%s)",acknowledgementBatchSize);
+		this.acknowledgementBatchSize = acknowledgementBatchSize;
+		Preconditions.checkArgument(acknowledgementInterval>0,"Acknowledgement interval must be positive (%s)",acknowledgementInterval);
+		this.acknowledgementInterval = acknowledgementInterval;
+		Preconditions.checkArgument(dispatchPartitions>=0,"Dispatch partitions cannot be negative (%s)",dispatchPartitions);
+		this.dispatchPartitions = dispatchPartitions;
+		Preconditions.checkArgument(recoveryInterval>=0,"Recovery interval cannot be negative (%s)",recoveryInterval);
+		this.recoveryInterval = recoveryInterval;
+		Preconditions.checkArgument(publisherConnections>=0,"Publisher connections cannot be negative (%s)",publisherConnections);
+		this.publisherConnections = publisherConnections;
+		Preconditions.checkArgument(publishQueueCapacity>=0,"Publish queue capacity cannot be negative (%s)",publishQueueCapacity);
+		this.publishQueueCapacity = publishQueueCapacity;
+		Preconditions.checkArgument(publishTimeout>=0,"Publish timeout cannot be negative (%s)",publishTimeout);
+		this.publishTimeout = publishTimeout;
+		this.directReplyTo = directReplyTo;
+		this.pipelinedTopology = pipelinedTopology;
+		Preconditions.checkArgument(acknowledgementTimeout>=0,"Acknowledgement timeout cannot be negative (%s)",acknowledgementTimeout);
+		this.acknowledgementTimeout = acknowledgementTimeout;
+		Preconditions.checkArgument(resultTimeToLive>=0,"Result time-to-live cannot be negative (%s)",resultTimeToLive);
+		this.resultTimeToLive = resultTimeToLive;
+		this.coalesceRequests = coalesceRequests;
+		Preconditions.checkArgument(maxDecompressedSize>0,"Maximum decompressed size must be positive (%s)",maxDecompressedSize);
+		this.maxDecompressedSize = maxDecompressedSize;
 	}
 
 	public Broker broker() {
@@ -84,24 +183,242 @@ public final class CuratorConfiguration {
 		return this.responseRoutingKey;
 	}
 
+	public ContentEncoding contentEncoding() {
+		return this.contentEncoding;
+	}
+
+	/**
+	 * Payloads smaller than the threshold (in bytes) are published without
+	 * content encoding.
+	 */
+	public int compressionThreshold() {
+		return this.compressionThreshold;
+	}
+
+	/**
+	 * Maximum number of channels used concurrently for publishing messages.
+	 */
+	public int channelPoolSize() {
+		return this.channelPoolSize;
+	}
+
+	/**
+	 * Maximum number of unacknowledged messages delivered to each consumer.
+	 * A prefetch count of zero disables manual acknowledgements: messages
+	 * are acknowledged by the broker as soon as they are delivered.
+	 */
+	public int prefetchCount() {
+		return this.prefetchCount;
+	}
+
+	/**
+	 * Number of handled messages acknowledged at once when manual
+	 * acknowledgements are enabled.
+	 */
+	public int acknowledgementBatchSize() {
+		return this.acknowledgementBatchSize;
+	}
+
+	/**
+	 * Maximum time (in milliseconds) a handled message may remain
+	 * unacknowledged when manual acknowledgements are enabled.
+	 */
+	public long acknowledgementInterval() {
+		return this.acknowledgementInterval;
+	}
+
+	/**
+	 * Number of threads used for handling the messages delivered to each
+	 * consumer. Messages related to the same request are always handled in
+	 * order by the same thread. If zero, messages are handled by the thread
+	 * of the AMQP driver.
+	 */
+	public int dispatchPartitions() {
+		return this.dispatchPartitions;
+	}
+
+	/**
+	 * Time (in milliseconds) to wait before the first attempt to recover a
+	 * failed broker connection. The time doubles after every failed attempt.
+	 * If zero, failed connections are not recovered.
+	 */
+	public long recoveryInterval() {
+		return this.recoveryInterval;
+	}
+
+	/**
+	 * Number of dedicated connections used for publishing messages, in
+	 * addition to the connection used for consuming them. Publications are
+	 * spread round-robin among the dedicated connections. If zero, messages
+	 * are published using the consumer connection.
+	 */
+	public int publisherConnections() {
+		return this.publisherConnections;
+	}
+
+	/**
+	 * Returns the number of publications that each publishing connection can
+	 * buffer. Buffered publications are written by a dedicated thread. If
+	 * {@code 0}, publications are written by the publishing thread.
+	 */
+	public int publishQueueCapacity() {
+		return this.publishQueueCapacity;
+	}
+
+	/**
+	 * Returns the maximum time, in milliseconds, that a publication waits for
+	 * room in the publish queue, or for the broker to unblock the connection,
+	 * before it is rejected.
+	 */
+	public long publishTimeout() {
+		return this.publishTimeout;
+	}
+
+	/**
+	 * Returns whether the connector receives the acknowledgements of the
+	 * curator through RabbitMQ's direct reply-to pseudo-queue instead of through
+	 * a response queue bound using the agent identifier. The curator must then
+	 * send the acknowledgements to the {@code reply_to} address of the requests.
+	 * As the broker only delivers the replies on the channel that published
+	 * the requests, the requests are then published one at a time through that
+	 * channel, regardless of the publisher connections and publish queue
+	 * settings.
+	 */
+	public boolean directReplyTo() {
+		return this.directReplyTo;
+	}
+
+	/**
+	 * Returns whether the queues and bindings declared when connecting are
+	 * pipelined, without waiting for the broker to confirm each of them, and
+	 * then verified at once. Exchanges already verified by another connection
+	 * to the same broker in this JVM are pipelined as well.
+	 */
+	public boolean pipelinedTopology() {
+		return this.pipelinedTopology;
+	}
+
+	/**
+	 * Returns the time, in milliseconds, that the curator has to acknowledge an
+	 * enrichment request before the request is aborted. If zero, requests wait
+	 * for their acknowledgement until the connector is disconnected.
+	 */
+	public long acknowledgementTimeout() {
+		return this.acknowledgementTimeout;
+	}
+
+	/**
+	 * Returns the time, in milliseconds, after which an enrichment request that
+	 * has not received any response is forgotten. If zero, requests are kept
+	 * until they are cancelled or the connector is disconnected.
+	 */
+	public long resultTimeToLive() {
+		return this.resultTimeToLive;
+	}
+
+	/**
+	 * Returns whether an enrichment request identical to one that has not
+	 * received any response yet is attached to that request, instead of
+	 * being sent to the curator on its own.
+	 */
+	public boolean coalesceRequests() {
+		return this.coalesceRequests;
+	}
+
+	/**
+	 * Returns the maximum size, in bytes, of a decompressed message body.
+	 * Compressed messages that exceed it are discarded.
+	 */
+	public int maxDecompressedSize() {
+		return this.maxDecompressedSize;
+	}
+
 	public CuratorConfiguration withBroker(final Broker broker) {
-		return new CuratorConfiguration(broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey);
+		return new CuratorConfiguration(broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
 	}
 
 	public CuratorConfiguration withExchangeName(final String exchangeName) {
-		return new CuratorConfiguration(this.broker,exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey);
+		return new CuratorConfiguration(this.broker,exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
 	}
 
 	public CuratorConfiguration withQueueName(final String requestQueueName) {
-		return new CuratorConfiguration(this.broker,this.exchangeName,requestQueueName,this.requestRoutingKey,this.responseRoutingKey);
+		return new CuratorConfiguration(this.broker,this.exchangeName,requestQueueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
 	}
 
 	public CuratorConfiguration withRequestRoutingKey(final String requestRoutingKey) {
-		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,requestRoutingKey,this.responseRoutingKey);
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
 	}
 
 	public CuratorConfiguration withResponseRoutingKey(final String responseRoutingKey) {
-		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,responseRoutingKey);
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withContentEncoding(final ContentEncoding contentEncoding) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withCompressionThreshold(final int compressionThreshold) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withChannelPoolSize(final int channelPoolSize) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withPrefetchCount(final int prefetchCount) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withAcknowledgementBatchSize(final int acknowledgementBatchSize) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withAcknowledgementInterval(final long acknowledgementInterval) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withDispatchPartitions(final int dispatchPartitions) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withRecoveryInterval(final long recoveryInterval) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withPublisherConnections(final int publisherConnections) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withPublishQueueCapacity(final int publishQueueCapacity) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withPublishTimeout(final long publishTimeout) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withDirectReplyTo(final boolean directReplyTo) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withPipelinedTopology(final boolean pipelinedTopology) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withAcknowledgementTimeout(final long acknowledgementTimeout) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withResultTimeToLive(final long resultTimeToLive) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,resultTimeToLive,this.coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withCoalesceRequests(final boolean coalesceRequests) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,coalesceRequests,this.maxDecompressedSize);
+	}
+
+	public CuratorConfiguration withMaxDecompressedSize(final int maxDecompressedSize) {
+		return new CuratorConfiguration(this.broker,this.exchangeName,this.queueName,this.requestRoutingKey,this.responseRoutingKey,this.contentEncoding,this.compressionThreshold,this.channelPoolSize,this.prefetchCount,this.acknowledgementBatchSize,this.acknowledgementInterval,this.dispatchPartitions,this.recoveryInterval,this.publisherConnections,this.publishQueueCapacity,this.publishTimeout,this.directReplyTo,this.pipelinedTopology,this.acknowledgementTimeout,this.resultTimeToLive,this.coalesceRequests,maxDecompressedSize);
 	}
 
 	/**
@@ -116,7 +433,24 @@ public final class CuratorConfiguration {
 					this.exchangeName,
 					this.queueName,
 					this.requestRoutingKey,
-					this.responseRoutingKey);
+					this.responseRoutingKey,
+					this.contentEncoding,
+					this.compressionThreshold,
+					this.channelPoolSize,
+					this.prefetchCount,
+					this.acknowledgementBatchSize,
+					this.acknowledgementInterval,
+					this.dispatchPartitions,
+					this.recoveryInterval,
+					this.publisherConnections,
+					this.publishQueueCapacity,
+					this.publishTimeout,
+					this.directReplyTo,
+					this.pipelinedTopology,
+					this.acknowledgementTimeout,
+					this.resultTimeToLive,
+					this.coalesceRequests,
+					this.maxDecompressedSize);
 	}
 
 	/**
@@ -130,7 +464,20 @@ public final class CuratorConfiguration {
 			result=
 				Objects.equals(this.broker,that.broker) &&
 				Objects.equals(this.exchangeName,that.exchangeName) &&
-				hasSameQueueConfig(that);
+				hasSameQueueConfig(that) &&
+				hasSameCompressionConfig(that) &&
+				this.channelPoolSize==that.channelPoolSize &&
+				hasSameConsumerConfig(that) &&
+				this.recoveryInterval==that.recoveryInterval &&
+				this.publisherConnections==that.publisherConnections &&
+				this.publishQueueCapacity==that.publishQueueCapacity &&
+				this.publishTimeout==that.publishTimeout &&
+				this.directReplyTo==that.directReplyTo &&
+				this.pipelinedTopology==that.pipelinedTopology &&
+				this.acknowledgementTimeout==that.acknowledgementTimeout &&
+				this.resultTimeToLive==that.resultTimeToLive &&
+				this.coalesceRequests==that.coalesceRequests &&
+				this.maxDecompressedSize==that.maxDecompressedSize;
 		}
 		return result;
 	}
@@ -142,6 +489,20 @@ public final class CuratorConfiguration {
 			Objects.equals(this.responseRoutingKey,that.responseRoutingKey);
 	}
 
+	private boolean hasSameCompressionConfig(final CuratorConfiguration that) {
+		return
+			this.contentEncoding==that.contentEncoding &&
+			this.compressionThreshold==that.compressionThreshold;
+	}
+
+	private boolean hasSameConsumerConfig(final CuratorConfiguration that) {
+		return
+			this.prefetchCount==that.prefetchCount &&
+			this.acknowledgementBatchSize==that.acknowledgementBatchSize &&
+			this.acknowledgementInterval==that.acknowledgementInterval &&
+			this.dispatchPartitions==that.dispatchPartitions;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -155,6 +516,23 @@ public final class CuratorConfiguration {
 					add("queueName",this.queueName).
 					add("requestRoutingKey",this.requestRoutingKey).
 					add("responseRoutingKey",this.responseRoutingKey).
+					add("contentEncoding",this.contentEncoding).
+					add("compressionThreshold",this.compressionThreshold).
+					add("channelPoolSize",this.channelPoolSize).
+					add("prefetchCount",this.prefetchCount).
+					add("acknowledgementBatchSize",this.acknowledgementBatchSize).
+					add("acknowledgementInterval",this.acknowledgementInterval).
+					add("dispatchPartitions",this.dispatchPartitions).
+					add("recoveryInterval",this.recoveryInterval).
+					add("publisherConnections",this.publisherConnections).
+					add("publishQueueCapacity",this.publishQueueCapacity).
+					add("publishTimeout",this.publishTimeout).
+					add("directReplyTo",this.directReplyTo).
+					add("pipelinedTopology",this.pipelinedTopology).
+					add("acknowledgementTimeout",this.acknowledgementTimeout).
+					add("resultTimeToLive",this.resultTimeToLive).
+					add("coalesceRequests",this.coalesceRequests).
+					add("maxDecompressedSize",this.maxDecompressedSize).
 					toString();
 	}
 
@@ -165,7 +543,24 @@ public final class CuratorConfiguration {
 				DEFAULT_EXCHANGE_NAME,
 				DEFAULT_REQUEST_QUEUE_NAME,
 				DEFAULT_REQUEST_ROUTING_KEY,
-				DEFAULT_RESPONSE_ROUTING_KEY);
+				DEFAULT_RESPONSE_ROUTING_KEY,
+				DEFAULT_CONTENT_ENCODING,
+				DEFAULT_COMPRESSION_THRESHOLD,
+				DEFAULT_CHANNEL_POOL_SIZE,
+				DEFAULT_PREFETCH_COUNT,
+				DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE,
+				DEFAULT_ACKNOWLEDGEMENT_INTERVAL,
+				DEFAULT_DISPATCH_PARTITIONS,
+				DEFAULT_RECOVERY_INTERVAL,
+				DEFAULT_PUBLISHER_CONNECTIONS,
+				DEFAULT_PUBLISH_QUEUE_CAPACITY,
+				DEFAULT_PUBLISH_TIMEOUT,
+				DEFAULT_DIRECT_REPLY_TO,
+				DEFAULT_PIPELINED_TOPOLOGY,
+				DEFAULT_ACKNOWLEDGEMENT_TIMEOUT,
+				DEFAULT_RESULT_TIME_TO_LIVE,
+				DEFAULT_COALESCE_REQUESTS,
+				DEFAULT_MAX_DECOMPRESSED_SIZE);
 	}
 
 }
\ No newline at end of file
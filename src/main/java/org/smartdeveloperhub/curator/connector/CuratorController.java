@@ -27,6 +27,7 @@
 package org.smartdeveloperhub.curator.connector;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.smartdeveloperhub.curator.connector.io.ConversionContext;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
@@ -34,32 +35,70 @@ import org.smartdeveloperhub.curator.protocol.Agent;
 import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
 import org.smartdeveloperhub.curator.protocol.Message;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 abstract class CuratorController {
 
 	private final CuratorConfiguration configuration;
-	private final BrokerController brokerController;
+	private final TransportFactory transportFactory;
+	private final Transport brokerController;
 
 	CuratorController(final CuratorConfiguration configuration, final String name, final ConversionContext context) {
+		this(configuration,name,context,BrokerController.factory());
+	}
+
+	CuratorController(final CuratorConfiguration configuration, final String name, final ConversionContext context, final TransportFactory transportFactory) {
 		this.configuration=configuration;
-		this.brokerController=new BrokerController(configuration.broker(),name,context);
+		this.transportFactory=transportFactory;
+		this.brokerController=transportFactory.newTransport(configuration.broker(),name,context,PayloadCompressor.newInstance(configuration),configuration);
 	}
 
 	final void registerMessageHandler(final MessageHandler handler) throws IOException {
-		this.brokerController.registerConsumer(handler,this.configuration.queueName());
+		if(usesDirectReplyTo()) {
+			this.brokerController.registerReplyConsumer(handler);
+		} else {
+			this.brokerController.registerConsumer(handler,this.configuration.queueName());
+		}
 	}
 
-	final void publishMessage(final Message message, final String routingKey) throws IOException {
-		this.brokerController.publishMessage(replyTo(routingKey), message);
+	final ListenableFuture<Void> publishMessage(final Message message, final String routingKey) throws IOException {
+		if(usesDirectReplyTo()) {
+			return this.brokerController.publishRequest(replyTo(routingKey), message);
+		}
+		return this.brokerController.publishMessage(replyTo(routingKey), message);
 	}
 
-	final void publishMessage(final String message, final String routingKey) throws IOException {
-		this.brokerController.publishMessage(replyTo(routingKey), message);
+	final List<ListenableFuture<Void>> publishMessages(final List<? extends Message> messages, final String routingKey) throws IOException {
+		if(usesDirectReplyTo()) {
+			return this.brokerController.publishRequests(replyTo(routingKey),messages);
+		}
+		return this.brokerController.publishMessages(replyTo(routingKey),messages);
+	}
+
+	final ListenableFuture<Void> publishMessage(final String message, final String routingKey) throws IOException {
+		return this.brokerController.publishMessage(replyTo(routingKey), message);
 	}
 
-	final BrokerController brokerController() {
+	/**
+	 * Replies are published through the default exchange to the
+	 * {@code reply_to} address of the request they answer.
+	 */
+	final ListenableFuture<Void> publishReply(final Message message, final String replyTo) throws IOException {
+		return this.brokerController.publishReply(replyTo, message);
+	}
+
+	final ListenableFuture<Void> publishReply(final String message, final String replyTo) throws IOException {
+		return this.brokerController.publishReply(replyTo, message);
+	}
+
+	final Transport brokerController() {
 		return this.brokerController;
 	}
 
+	final TransportFactory transportFactory() {
+		return this.transportFactory;
+	}
+
 	final CuratorConfiguration curatorConfiguration() {
 		return this.configuration;
 	}
@@ -80,6 +119,14 @@ abstract class CuratorController {
 
 	protected abstract String routingKey(CuratorConfiguration configuration2, Agent agent) throws ControllerException;
 
+	/**
+	 * Controllers that receive their messages through the direct reply-to
+	 * pseudo-queue of the transport do not declare any queue.
+	 */
+	protected boolean usesDirectReplyTo() {
+		return false;
+	}
+
 	private DeliveryChannel replyTo(final String routingKey) {
 		return
 			ProtocolFactory.
@@ -91,8 +138,11 @@ abstract class CuratorController {
 
 	private void configureBroker(final Agent agent) throws ControllerException {
 		this.brokerController.declareExchange(this.configuration.exchangeName());
-		final String routingKey = routingKey(this.configuration,agent);
-		this.brokerController.prepareQueue(this.configuration.exchangeName(), this.configuration.queueName(), routingKey);
+		if(!usesDirectReplyTo()) {
+			final String routingKey = routingKey(this.configuration,agent);
+			this.brokerController.prepareQueue(this.configuration.exchangeName(), this.configuration.queueName(), routingKey);
+		}
+		this.brokerController.verifyTopology();
 	}
 
 }
\ No newline at end of file
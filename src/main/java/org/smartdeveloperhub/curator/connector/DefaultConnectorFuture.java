@@ -73,6 +73,14 @@ final class DefaultConnectorFuture extends ConnectorFuture implements Future<Enr
 		return this.request.messageId();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	RequestMessage request() {
+		return this.request;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -103,6 +111,14 @@ final class DefaultConnectorFuture extends ConnectorFuture implements Future<Enr
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean abort() throws InterruptedException {
+		return complete(null);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -128,6 +128,14 @@ public final class Enrichment {
 		return oldState.isActive();
 	}
 
+	/**
+	 * Returns a new enrichment for the same acknowledgement, whose state
+	 * evolves independently from this one.
+	 */
+	Enrichment copy() {
+		return new Enrichment(this.message);
+	}
+
 	UUID messageId() {
 		return this.state.getMessageId(this.message);
 	}
@@ -0,0 +1,81 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * The futures of a batch of enrichment requests submitted together. Each
+ * request can be followed on its own, or the batch as a whole.
+ */
+public final class EnrichmentBatch {
+
+	private final List<ListenableFuture<Enrichment>> enrichments;
+	private final ListenableFuture<List<Enrichment>> acknowledgements;
+	private final ListenableFuture<List<Void>> publications;
+
+	EnrichmentBatch(final List<? extends ListenableFuture<Enrichment>> enrichments, final List<ListenableFuture<Void>> publications) {
+		this.enrichments=ImmutableList.copyOf(enrichments);
+		this.acknowledgements=Futures.allAsList(this.enrichments);
+		this.publications=Futures.allAsList(publications);
+	}
+
+	public int size() {
+		return this.enrichments.size();
+	}
+
+	/**
+	 * Returns the future of each request, in the order the requests were
+	 * submitted.
+	 */
+	public List<ListenableFuture<Enrichment>> enrichments() {
+		return this.enrichments;
+	}
+
+	/**
+	 * Returns a future that completes once every request has been
+	 * acknowledged or aborted. Cancelling it cancels every request of the
+	 * batch.
+	 */
+	public ListenableFuture<List<Enrichment>> acknowledgements() {
+		return this.acknowledgements;
+	}
+
+	/**
+	 * Returns a future that completes once the broker has confirmed the
+	 * publication of every request of the batch, or fails as soon as any
+	 * publication fails.
+	 */
+	public ListenableFuture<List<Void>> publications() {
+		return this.publications;
+	}
+
+}
@@ -0,0 +1,88 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.net.URI;
+import java.util.List;
+
+import org.smartdeveloperhub.curator.protocol.Binding;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.Lists;
+
+final class EnrichmentResultCollector implements StreamingEnrichmentResultHandler {
+
+	private final EnrichmentResultHandler handler;
+
+	private URI targetResource;
+	private List<Binding> additions;
+	private List<Binding> removals;
+
+	private EnrichmentResultCollector(final EnrichmentResultHandler handler) {
+		this.handler=handler;
+	}
+
+	@Override
+	public void onStart(final URI targetResource) {
+		this.targetResource=targetResource;
+		this.additions=Lists.newArrayList();
+		this.removals=Lists.newArrayList();
+	}
+
+	@Override
+	public void onAddition(final Binding binding) {
+		this.additions.add(binding);
+	}
+
+	@Override
+	public void onRemoval(final Binding binding) {
+		this.removals.add(binding);
+	}
+
+	@Override
+	public void onEnd() {
+		final EnrichmentResult result=ProtocolUtil.toEnrichmentResult(this.targetResource,this.additions,this.removals);
+		this.targetResource=null;
+		this.additions=null;
+		this.removals=null;
+		this.handler.onResult(result);
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					addValue(this.handler).
+					toString();
+	}
+
+	static EnrichmentResultCollector newInstance(final EnrichmentResultHandler handler) {
+		return new EnrichmentResultCollector(handler);
+	}
+
+}
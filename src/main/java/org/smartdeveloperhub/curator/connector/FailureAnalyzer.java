@@ -104,6 +104,23 @@ final class FailureAnalyzer {
 		return recoverable;
 	}
 
+	/**
+	 * A failure is caused by a connection failure if it was caused by the
+	 * unexpected shutdown of the broker connection, as opposed to the
+	 * closure of a single channel or a shutdown requested by the client.
+	 */
+	static boolean isConnectionFailure(final Throwable failure) {
+		Throwable current=failure;
+		while(current!=null) {
+			if(current instanceof ShutdownSignalException) {
+				final ShutdownSignalException signal=(ShutdownSignalException)current;
+				return signal.isHardError() && !signal.isInitiatedByApplication();
+			}
+			current=current.getCause();
+		}
+		return false;
+	}
+
 	private static boolean isValidClose(final Close close) {
 		boolean result=false;
 		if(close.getReplyCode()==406 && close.getMethodId()==10) {
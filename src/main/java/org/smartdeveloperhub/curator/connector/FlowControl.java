@@ -0,0 +1,120 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.rabbitmq.client.BlockedListener;
+
+/**
+ * Tracks whether the broker has blocked a connection because of a resource
+ * alarm, so that publishers can wait for the connection to be unblocked
+ * instead of stalling inside the client library.
+ */
+final class FlowControl implements BlockedListener {
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(FlowControl.class);
+
+	private final ConnectionMetrics metrics;
+
+	private boolean blocked;
+	private long blockedAt;
+
+	FlowControl(final ConnectionMetrics metrics) {
+		this.metrics=metrics;
+	}
+
+	@Override
+	public synchronized void handleBlocked(final String reason) {
+		LOGGER.warn("Connection {} blocked by the broker: {}",this.metrics.name(),reason);
+		if(!this.blocked) {
+			this.blocked=true;
+			this.blockedAt=System.nanoTime();
+			this.metrics.recordBlock();
+		}
+	}
+
+	@Override
+	public synchronized void handleUnblocked() {
+		LOGGER.info("Connection {} unblocked by the broker",this.metrics.name());
+		release();
+	}
+
+	/**
+	 * Forgets the block, if any, as when the connection is replaced.
+	 */
+	synchronized void reset() {
+		release();
+	}
+
+	synchronized boolean isBlocked() {
+		return this.blocked;
+	}
+
+	synchronized void awaitUnblocked() throws InterruptedException {
+		while(this.blocked) {
+			wait();
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the connection is not blocked, or it is
+	 * unblocked before the specified time elapses.
+	 */
+	synchronized boolean awaitUnblocked(final long timeout, final TimeUnit unit) throws InterruptedException {
+		long remaining=unit.toNanos(timeout);
+		final long deadline=System.nanoTime()+remaining;
+		while(this.blocked && remaining>0) {
+			TimeUnit.NANOSECONDS.timedWait(this,remaining);
+			remaining=deadline-System.nanoTime();
+		}
+		return !this.blocked;
+	}
+
+	private void release() {
+		if(this.blocked) {
+			this.blocked=false;
+			this.metrics.recordUnblock(System.nanoTime()-this.blockedAt);
+			notifyAll();
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("connection",this.metrics.name()).
+					add("blocked",this.blocked).
+					toString();
+	}
+
+}
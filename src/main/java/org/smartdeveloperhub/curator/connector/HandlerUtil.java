@@ -26,29 +26,57 @@
  */
 package org.smartdeveloperhub.curator.connector;
 
+import java.util.Arrays;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.smartdeveloperhub.curator.connector.io.EnrichmentResponseSink;
 import org.smartdeveloperhub.curator.connector.io.InvalidDefinitionFoundException;
 import org.smartdeveloperhub.curator.connector.io.MessageConversionException;
 import org.smartdeveloperhub.curator.connector.io.MessageUtil;
 import org.smartdeveloperhub.curator.connector.io.NoDefinitionFoundException;
 import org.smartdeveloperhub.curator.connector.io.TooManyDefinitionsFoundException;
+import org.smartdeveloperhub.curator.connector.io.WireFormat;
+import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
 import org.smartdeveloperhub.curator.protocol.Message;
 
+import com.google.common.base.Charsets;
+
 final class HandlerUtil {
 
+	static final class Payload {
+
+		private final byte[] body;
+		private final WireFormat format;
+
+		Payload(final byte[] body, final WireFormat format) {
+			this.body=body;
+			this.format=format;
+		}
+
+		@Override
+		public String toString() {
+			return
+				this.format.isBinary()?
+					"<"+this.body.length+" bytes of "+this.format.contentType()+">":
+					new String(this.body,Charsets.UTF_8);
+		}
+
+	}
+
 	private static final Logger LOGGER=LoggerFactory.getLogger(HandlerUtil.class);
 
 	private HandlerUtil() {
 	}
 
 	static <T extends Message> T parsePayload(final String payload, final Class<? extends T> messageClass) {
+		return parsePayload(MessageUtil.newInstance(),payload,messageClass);
+	}
+
+	static <T extends Message> T parsePayload(final MessageUtil messageUtil, final String payload, final Class<? extends T> messageClass) {
 		T request=null;
 		try {
-			request=
-				MessageUtil.
-					newInstance().
-						fromString(payload, messageClass);
+			request=messageUtil.fromString(payload, messageClass);
 		} catch (final NoDefinitionFoundException e) {
 			trace("Payload cannot be parsed as {}:\n{}", messageClass.getName(),payload,e);
 		} catch (final TooManyDefinitionsFoundException e) {
@@ -61,6 +89,92 @@ final class HandlerUtil {
 		return request;
 	}
 
+	static Message decodePayload(final String payload, final Class<?>... messageClasses) {
+		return decodePayload(MessageUtil.newInstance(),payload,messageClasses);
+	}
+
+	static Message decodePayload(final MessageUtil messageUtil, final String payload, final Class<?>... messageClasses) {
+		Message message=null;
+		try {
+			message=messageUtil.decodeAny(payload,messageClasses);
+		} catch (final NoDefinitionFoundException e) {
+			trace("Payload cannot be parsed as any of {}:\n{}",Arrays.toString(messageClasses),payload,e);
+		} catch (final TooManyDefinitionsFoundException e) {
+			trace("Too many {} definitions found in the payload:\n{}",e.getDefinitionType(),payload,e);
+		} catch (final InvalidDefinitionFoundException e) {
+			trace("Could not parse a valid {} from the payload:\n{}",e.getDefinitionType(),payload,e);
+		} catch (final MessageConversionException e) {
+			trace("Failed to parse the payload:\n{}",payload,e);
+		}
+		return message;
+	}
+
+	static <T extends Message> T parsePayload(final MessageUtil messageUtil, final byte[] body, final WireFormat format, final Class<? extends T> messageClass) {
+		T request=null;
+		try {
+			request=messageUtil.fromBytes(body,format,messageClass);
+		} catch (final NoDefinitionFoundException e) {
+			trace("Payload cannot be parsed as {}:\n{}", messageClass.getName(),new Payload(body,format),e);
+		} catch (final TooManyDefinitionsFoundException e) {
+			trace("Too many {} definitions found in the payload:\n{}",messageClass.getName(),new Payload(body,format),e);
+		} catch (final InvalidDefinitionFoundException e) {
+			trace("Could not parse a valid {} from the payload:\n{}",messageClass.getName(),new Payload(body,format),e);
+		} catch (final MessageConversionException e) {
+			trace("Failed to parse the payload:\n{}",new Payload(body,format),e);
+		}
+		return request;
+	}
+
+	static Message decodePayload(final MessageUtil messageUtil, final byte[] body, final WireFormat format, final Class<?>... messageClasses) {
+		Message message=null;
+		try {
+			message=messageUtil.decodeAny(body,format,messageClasses);
+		} catch (final NoDefinitionFoundException e) {
+			trace("Payload cannot be parsed as any of {}:\n{}",Arrays.toString(messageClasses),new Payload(body,format),e);
+		} catch (final TooManyDefinitionsFoundException e) {
+			trace("Too many {} definitions found in the payload:\n{}",e.getDefinitionType(),new Payload(body,format),e);
+		} catch (final InvalidDefinitionFoundException e) {
+			trace("Could not parse a valid {} from the payload:\n{}",e.getDefinitionType(),new Payload(body,format),e);
+		} catch (final MessageConversionException e) {
+			trace("Failed to parse the payload:\n{}",new Payload(body,format),e);
+		}
+		return message;
+	}
+
+	static boolean streamPayload(final MessageUtil messageUtil, final String payload, final EnrichmentResponseSink sink) {
+		boolean result=false;
+		try {
+			messageUtil.streamEnrichmentResponse(payload,sink);
+			result=true;
+		} catch (final NoDefinitionFoundException e) {
+			trace("Payload cannot be parsed as {}:\n{}",EnrichmentResponseMessage.class.getName(),payload,e);
+		} catch (final TooManyDefinitionsFoundException e) {
+			trace("Too many {} definitions found in the payload:\n{}",EnrichmentResponseMessage.class.getName(),payload,e);
+		} catch (final InvalidDefinitionFoundException e) {
+			trace("Could not parse a valid {} from the payload:\n{}",EnrichmentResponseMessage.class.getName(),payload,e);
+		} catch (final MessageConversionException e) {
+			trace("Failed to parse the payload:\n{}",payload,e);
+		}
+		return result;
+	}
+
+	static boolean streamPayload(final MessageUtil messageUtil, final byte[] body, final WireFormat format, final EnrichmentResponseSink sink) {
+		boolean result=false;
+		try {
+			messageUtil.streamEnrichmentResponse(body,format,sink);
+			result=true;
+		} catch (final NoDefinitionFoundException e) {
+			trace("Payload cannot be parsed as {}:\n{}",EnrichmentResponseMessage.class.getName(),new Payload(body,format),e);
+		} catch (final TooManyDefinitionsFoundException e) {
+			trace("Too many {} definitions found in the payload:\n{}",EnrichmentResponseMessage.class.getName(),new Payload(body,format),e);
+		} catch (final InvalidDefinitionFoundException e) {
+			trace("Could not parse a valid {} from the payload:\n{}",EnrichmentResponseMessage.class.getName(),new Payload(body,format),e);
+		} catch (final MessageConversionException e) {
+			trace("Failed to parse the payload:\n{}",new Payload(body,format),e);
+		}
+		return result;
+	}
+
 	private static void trace(final String message, final Object... args) {
 		LOGGER.trace(message,args);
 	}
@@ -0,0 +1,350 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Timer that keeps its timeouts in a wheel of buckets, one per tick, so that
+ * scheduling and cancelling a timeout take constant time regardless of the
+ * number of timeouts pending. Timeouts expire at most one tick late.
+ * <p>
+ * A single worker thread advances the wheel and runs the tasks of the
+ * expired timeouts, so tasks must be short and must not block.
+ */
+final class HashedWheelTimer {
+
+	/**
+	 * Handle of a scheduled task.
+	 */
+	static final class Timeout {
+
+		private static final int PENDING=0;
+		private static final int CANCELLED=1;
+		private static final int EXPIRED=2;
+
+		private final HashedWheelTimer timer;
+		private final Runnable task;
+		private final long deadline;
+		private final AtomicInteger state;
+
+		// Only accessed by the worker thread
+		private long remainingRounds;
+		private Bucket bucket;
+		private Timeout next;
+		private Timeout previous;
+
+		private Timeout(final HashedWheelTimer timer, final Runnable task, final long deadline) {
+			this.timer=timer;
+			this.task=task;
+			this.deadline=deadline;
+			this.state=new AtomicInteger(PENDING);
+		}
+
+		/**
+		 * Prevents the task from running. Returns {@code false} if the task
+		 * has already run or has already been cancelled.
+		 */
+		boolean cancel() {
+			if(!this.state.compareAndSet(PENDING,CANCELLED)) {
+				return false;
+			}
+			this.timer.cancellations.add(this);
+			return true;
+		}
+
+		boolean isCancelled() {
+			return this.state.get()==CANCELLED;
+		}
+
+		boolean isExpired() {
+			return this.state.get()==EXPIRED;
+		}
+
+		private void expire() {
+			if(!this.state.compareAndSet(PENDING,EXPIRED)) {
+				return;
+			}
+			try {
+				this.task.run();
+			} catch (final RuntimeException e) {
+				LOGGER.warn("Timer task {} failed. Full stacktrace follows",this.task,e);
+			}
+		}
+
+	}
+
+	/**
+	 * Doubly-linked list of the timeouts that expire in the same tick of the
+	 * wheel, possibly in different rounds.
+	 */
+	private static final class Bucket {
+
+		private Timeout head;
+		private Timeout tail;
+
+		private void add(final Timeout timeout) {
+			timeout.bucket=this;
+			if(this.head==null) {
+				this.head=timeout;
+				this.tail=timeout;
+			} else {
+				this.tail.next=timeout;
+				timeout.previous=this.tail;
+				this.tail=timeout;
+			}
+		}
+
+		private Timeout remove(final Timeout timeout) {
+			final Timeout next=timeout.next;
+			if(timeout.previous!=null) {
+				timeout.previous.next=next;
+			}
+			if(timeout.next!=null) {
+				timeout.next.previous=timeout.previous;
+			}
+			if(timeout==this.head) {
+				this.head=next;
+			}
+			if(timeout==this.tail) {
+				this.tail=timeout.previous;
+			}
+			timeout.previous=null;
+			timeout.next=null;
+			timeout.bucket=null;
+			return next;
+		}
+
+		private void expire(final long deadline) {
+			Timeout timeout=this.head;
+			while(timeout!=null) {
+				if(timeout.remainingRounds<=0) {
+					final Timeout next=remove(timeout);
+					if(timeout.deadline<=deadline) {
+						timeout.expire();
+					}
+					timeout=next;
+				} else if(timeout.isCancelled()) {
+					timeout=remove(timeout);
+				} else {
+					timeout.remainingRounds--;
+					timeout=timeout.next;
+				}
+			}
+		}
+
+		private void clear() {
+			Timeout timeout=this.head;
+			while(timeout!=null) {
+				timeout=remove(timeout);
+			}
+		}
+
+	}
+
+	private final class Worker implements Runnable {
+
+		private long tick;
+
+		@Override
+		public void run() {
+			while(HashedWheelTimer.this.running) {
+				final long deadline=waitForNextTick();
+				if(deadline<0) {
+					break;
+				}
+				processCancellations();
+				transferTimeouts();
+				HashedWheelTimer.this.wheel[(int)(this.tick&HashedWheelTimer.this.mask)].expire(deadline);
+				this.tick++;
+			}
+			for(final Bucket bucket:HashedWheelTimer.this.wheel) {
+				bucket.clear();
+			}
+			HashedWheelTimer.this.timeouts.clear();
+			HashedWheelTimer.this.cancellations.clear();
+		}
+
+		private long waitForNextTick() {
+			final long deadline=HashedWheelTimer.this.tickDuration*(this.tick+1);
+			while(true) {
+				final long currentTime=System.nanoTime()-HashedWheelTimer.this.startTime;
+				final long sleepTime=TimeUnit.NANOSECONDS.toMillis(deadline-currentTime+999999);
+				if(sleepTime<=0) {
+					return currentTime;
+				}
+				try {
+					Thread.sleep(sleepTime);
+				} catch (final InterruptedException e) {
+					if(!HashedWheelTimer.this.running) {
+						return -1;
+					}
+				}
+			}
+		}
+
+		private void processCancellations() {
+			Timeout timeout=HashedWheelTimer.this.cancellations.poll();
+			while(timeout!=null) {
+				if(timeout.bucket!=null) {
+					timeout.bucket.remove(timeout);
+				}
+				timeout=HashedWheelTimer.this.cancellations.poll();
+			}
+		}
+
+		private void transferTimeouts() {
+			Timeout timeout=HashedWheelTimer.this.timeouts.poll();
+			while(timeout!=null) {
+				if(!timeout.isCancelled()) {
+					final long expirationTick=timeout.deadline/HashedWheelTimer.this.tickDuration;
+					timeout.remainingRounds=(expirationTick-this.tick)/HashedWheelTimer.this.wheel.length;
+					final long targetTick=Math.max(expirationTick,this.tick);
+					HashedWheelTimer.this.wheel[(int)(targetTick&HashedWheelTimer.this.mask)].add(timeout);
+				}
+				timeout=HashedWheelTimer.this.timeouts.poll();
+			}
+		}
+
+	}
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(HashedWheelTimer.class);
+
+	private final ThreadFactory threadFactory;
+	private final long tickDuration;
+	private final Bucket[] wheel;
+	private final long mask;
+	private final Queue<Timeout> timeouts;
+	private final Queue<Timeout> cancellations;
+
+	private volatile boolean running;
+	private volatile long startTime;
+	private Thread worker;
+
+	private HashedWheelTimer(final ThreadFactory threadFactory, final long tickDuration, final TimeUnit unit, final int ticksPerWheel) {
+		this.threadFactory=threadFactory;
+		this.tickDuration=unit.toNanos(tickDuration);
+		this.wheel=new Bucket[wheelSize(ticksPerWheel)];
+		for(int i=0;i<this.wheel.length;i++) {
+			this.wheel[i]=new Bucket();
+		}
+		this.mask=this.wheel.length-1;
+		this.timeouts=new ConcurrentLinkedQueue<>();
+		this.cancellations=new ConcurrentLinkedQueue<>();
+	}
+
+	long tickDuration(final TimeUnit unit) {
+		return unit.convert(this.tickDuration,TimeUnit.NANOSECONDS);
+	}
+
+	int ticksPerWheel() {
+		return this.wheel.length;
+	}
+
+	synchronized void start() {
+		Preconditions.checkState(!this.running,"Timer is already running");
+		this.startTime=System.nanoTime();
+		this.running=true;
+		this.worker=this.threadFactory.newThread(new Worker());
+		this.worker.start();
+	}
+
+	/**
+	 * Stops the worker thread. The pending timeouts are discarded without
+	 * running their tasks.
+	 */
+	synchronized void stop() {
+		if(!this.running) {
+			return;
+		}
+		this.running=false;
+		this.worker.interrupt();
+		if(Thread.currentThread()!=this.worker) {
+			try {
+				this.worker.join();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		this.worker=null;
+	}
+
+	boolean isRunning() {
+		return this.running;
+	}
+
+	Timeout newTimeout(final Runnable task, final long delay, final TimeUnit unit) {
+		Preconditions.checkNotNull(task,"Task cannot be null");
+		Preconditions.checkNotNull(unit,"Time unit cannot be null");
+		Preconditions.checkState(this.running,"Timer is not running");
+		final Timeout timeout=new Timeout(this,task,System.nanoTime()+unit.toNanos(Math.max(delay,0))-this.startTime);
+		this.timeouts.add(timeout);
+		return timeout;
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("tickDuration",this.tickDuration).
+					add("ticksPerWheel",this.wheel.length).
+					add("running",this.running).
+					toString();
+	}
+
+	/**
+	 * The wheel size is rounded up to a power of two so that ticks can be
+	 * mapped to buckets using a mask.
+	 */
+	private static int wheelSize(final int ticksPerWheel) {
+		int size=1;
+		while(size<ticksPerWheel) {
+			size<<=1;
+		}
+		return size;
+	}
+
+	static HashedWheelTimer newInstance(final ThreadFactory threadFactory, final long tickDuration, final TimeUnit unit, final int ticksPerWheel) {
+		Preconditions.checkNotNull(threadFactory,"Thread factory cannot be null");
+		Preconditions.checkNotNull(unit,"Time unit cannot be null");
+		Preconditions.checkArgument(tickDuration>0,"Tick duration must be positive (%s)",tickDuration);
+		Preconditions.checkArgument(ticksPerWheel>0 && ticksPerWheel<=1<<30,"Ticks per wheel must be between 1 and 2^30 (%s)",ticksPerWheel);
+		return new HashedWheelTimer(threadFactory,tickDuration,unit,ticksPerWheel);
+	}
+
+}
@@ -0,0 +1,145 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.smartdeveloperhub.curator.protocol.Message;
+import org.smartdeveloperhub.curator.protocol.RequestMessage;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Future completed by the thread that processes the acknowledgement of the
+ * request, without blocking any thread until then. Cancelling the future,
+ * or any future chained to it that propagates cancellation, aborts the
+ * request.
+ */
+final class ListenableConnectorFuture extends ConnectorFuture implements ListenableFuture<Enrichment> {
+
+	private final Connector connector;
+	private final RequestMessage request;
+	private final SettableFuture<Enrichment> acknowledge;
+
+	ListenableConnectorFuture(final Connector connector, final RequestMessage request) {
+		this.connector=connector;
+		this.request=request;
+		this.acknowledge=SettableFuture.create();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	UUID messageId() {
+		return this.request.messageId();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	RequestMessage request() {
+		return this.request;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	void start() {
+		// NOTHING TO DO HERE FOR THE TIME BEING
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean complete(final Message message) {
+		return this.acknowledge.set(Enrichment.of(message));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean abort() {
+		return complete(null);
+	}
+
+	/**
+	 * Fails the future with a {@link TimeoutException} if the request has not
+	 * been acknowledged yet.
+	 */
+	boolean expire(final long timeout, final TimeUnit unit) {
+		final boolean expired=this.acknowledge.setException(new TimeoutException("Request "+messageId()+" was not acknowledged within "+timeout+" "+unit.toString().toLowerCase()));
+		if(expired) {
+			this.connector.abortRequest(this);
+		}
+		return expired;
+	}
+
+	@Override
+	public void addListener(final Runnable listener, final Executor executor) {
+		this.acknowledge.addListener(listener,executor);
+	}
+
+	@Override
+	public boolean cancel(final boolean mayInterruptIfRunning) {
+		final boolean cancelled=this.acknowledge.cancel(mayInterruptIfRunning);
+		if(cancelled) {
+			this.connector.abortRequest(this);
+		}
+		return cancelled;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return this.acknowledge.isCancelled();
+	}
+
+	@Override
+	public boolean isDone() {
+		return this.acknowledge.isDone();
+	}
+
+	@Override
+	public Enrichment get() throws InterruptedException, ExecutionException {
+		return this.acknowledge.get();
+	}
+
+	@Override
+	public Enrichment get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		return this.acknowledge.get(timeout,unit);
+	}
+
+}
@@ -34,6 +34,7 @@ import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.smartdeveloperhub.curator.protocol.Message;
+import org.smartdeveloperhub.curator.protocol.RequestMessage;
 
 import com.google.common.base.Stopwatch;
 
@@ -55,6 +56,11 @@ final class LoggedConnectorFuture extends ConnectorFuture {
 		return this.delegate.messageId();
 	}
 
+	@Override
+	RequestMessage request() {
+		return this.delegate.request();
+	}
+
 	@Override
 	void start() {
 		this.delegate.start();
@@ -80,6 +86,20 @@ final class LoggedConnectorFuture extends ConnectorFuture {
 		return completed;
 	}
 
+	@Override
+	boolean abort() throws InterruptedException {
+		final boolean aborted=this.delegate.abort();
+		if(aborted) {
+			stopTimer();
+			LOGGER.
+				trace(
+					"Aborted acknowledgement of request {} after {} milliseconds",
+					messageId(),
+					this.completion.elapsed(TimeUnit.MILLISECONDS));
+		}
+		return aborted;
+	}
+
 	@Override
 	public boolean cancel(final boolean mayInterruptIfRunning) {
 		final boolean cancelled = this.delegate.cancel(mayInterruptIfRunning);
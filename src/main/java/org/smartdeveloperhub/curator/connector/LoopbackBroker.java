@@ -0,0 +1,409 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.rabbitmq.client.AMQP.BasicProperties;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.Envelope;
+
+/**
+ * In-memory broker that mimics the RabbitMQ features used by the connector:
+ * topic exchanges, and queues that buffer messages until they are consumed.
+ * The messages of a queue are delivered in order, one at a time, and are
+ * distributed round-robin among the consumers of the queue. Messages are
+ * neither persisted nor acknowledged.
+ */
+final class LoopbackBroker {
+
+	private static final class Message {
+
+		private final String exchangeName;
+		private final String routingKey;
+		private final BasicProperties properties;
+		private final byte[] body;
+
+		private Message(final String exchangeName, final String routingKey, final BasicProperties properties, final byte[] body) {
+			this.exchangeName=exchangeName;
+			this.routingKey=routingKey;
+			this.properties=properties;
+			this.body=body;
+		}
+
+	}
+
+	private static final class Binding {
+
+		private final Queue queue;
+		private final RoutingKeyPattern pattern;
+
+		private Binding(final Queue queue, final RoutingKeyPattern pattern) {
+			this.queue=queue;
+			this.pattern=pattern;
+		}
+
+	}
+
+	private static final class Subscription {
+
+		private final String consumerTag;
+		private final Consumer consumer;
+
+		private Subscription(final String consumerTag, final Consumer consumer) {
+			this.consumerTag=consumerTag;
+			this.consumer=consumer;
+		}
+
+	}
+
+	private static final class Delivery implements Runnable {
+
+		private final Subscription subscription;
+		private final Envelope envelope;
+		private final Message message;
+
+		private Delivery(final Subscription subscription, final Envelope envelope, final Message message) {
+			this.subscription=subscription;
+			this.envelope=envelope;
+			this.message=message;
+		}
+
+		@Override
+		public void run() {
+			try {
+				this.subscription.consumer.handleDelivery(this.subscription.consumerTag,this.envelope,this.message.properties,this.message.body);
+			} catch (final IOException e) {
+				LOGGER.warn("Consumer {} could not handle delivery {}: {}",this.subscription.consumerTag,this.envelope.getDeliveryTag(),e.getMessage());
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Delivery "+this.envelope.getDeliveryTag()+" to "+this.subscription.consumerTag;
+		}
+
+	}
+
+	private final class Exchange {
+
+		private final String name;
+		private final List<Binding> bindings;
+
+		private Exchange(final String name) {
+			this.name=name;
+			this.bindings=new CopyOnWriteArrayList<>();
+		}
+
+		private synchronized void bind(final Queue queue, final String routingKey) {
+			final RoutingKeyPattern pattern=RoutingKeyPattern.compile(routingKey);
+			if(find(queue,pattern)==null) {
+				this.bindings.add(new Binding(queue,pattern));
+			}
+		}
+
+		private synchronized void unbind(final Queue queue, final String routingKey) {
+			final Binding binding=find(queue,RoutingKeyPattern.compile(routingKey));
+			if(binding!=null) {
+				this.bindings.remove(binding);
+			}
+		}
+
+		private synchronized void unbindAll(final Queue queue) {
+			final List<Binding> removed=Lists.newArrayList();
+			for(final Binding binding:this.bindings) {
+				if(binding.queue==queue) {
+					removed.add(binding);
+				}
+			}
+			this.bindings.removeAll(removed);
+		}
+
+		private Binding find(final Queue queue, final RoutingKeyPattern pattern) {
+			for(final Binding binding:this.bindings) {
+				if(binding.queue==queue && binding.pattern.equals(pattern)) {
+					return binding;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * A message is enqueued at most once per queue, no matter how many
+		 * bindings of the queue match the routing key.
+		 */
+		private int route(final Message message) {
+			final String[] words=RoutingKeyPattern.words(message.routingKey);
+			final Set<Queue> targets=Sets.newLinkedHashSet();
+			for(final Binding binding:this.bindings) {
+				if(binding.pattern.matches(words)) {
+					targets.add(binding.queue);
+				}
+			}
+			for(final Queue queue:targets) {
+				queue.enqueue(message);
+			}
+			return targets.size();
+		}
+
+	}
+
+	private final class Queue {
+
+		private final String name;
+		private final Deque<Message> ready;
+		private final List<Subscription> subscriptions;
+
+		private long deliveryTag;
+		private int nextSubscription;
+
+		private Queue(final String name) {
+			this.name=name;
+			this.ready=Lists.newLinkedList();
+			this.subscriptions=Lists.newArrayList();
+		}
+
+		private synchronized void enqueue(final Message message) {
+			if(this.subscriptions.isEmpty()) {
+				this.ready.offer(message);
+			} else {
+				deliver(message);
+			}
+		}
+
+		private synchronized String consume(final Consumer consumer) {
+			final String consumerTag="amq.ctag-"+UUID.randomUUID();
+			this.subscriptions.add(new Subscription(consumerTag,consumer));
+			consumer.handleConsumeOk(consumerTag);
+			while(!this.ready.isEmpty()) {
+				deliver(this.ready.poll());
+			}
+			return consumerTag;
+		}
+
+		private synchronized boolean cancel(final String consumerTag) {
+			for(final Subscription subscription:this.subscriptions) {
+				if(subscription.consumerTag.equals(consumerTag)) {
+					this.subscriptions.remove(subscription);
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private synchronized int delete() {
+			final int discarded=this.ready.size();
+			this.ready.clear();
+			this.subscriptions.clear();
+			return discarded;
+		}
+
+		private synchronized int size() {
+			return this.ready.size();
+		}
+
+		/**
+		 * Deliveries are dispatched using the queue name as partition key, so
+		 * that the messages of a queue are handled in order.
+		 */
+		private void deliver(final Message message) {
+			final Subscription subscription=this.subscriptions.get(this.nextSubscription++%this.subscriptions.size());
+			final Envelope envelope=new Envelope(++this.deliveryTag,false,message.exchangeName,message.routingKey);
+			try {
+				LoopbackBroker.this.dispatcher.execute(this.name,new Delivery(subscription,envelope,message));
+			} catch (final RejectedExecutionException e) {
+				LOGGER.debug("Discarding delivery {} from queue '{}': broker is shut down",envelope.getDeliveryTag(),this.name);
+			}
+		}
+
+	}
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(LoopbackBroker.class);
+
+	private static final String DEFAULT_EXCHANGE="";
+
+	private static final long SHUTDOWN_TIMEOUT=5000;
+
+	private final String name;
+	private final ConcurrentMap<String,Exchange> exchanges;
+	private final ConcurrentMap<String,Queue> queues;
+	private final PartitionedExecutor dispatcher;
+
+	private LoopbackBroker(final String name, final int partitions) {
+		this.name=name;
+		this.exchanges=Maps.newConcurrentMap();
+		this.queues=Maps.newConcurrentMap();
+		this.dispatcher=
+			PartitionedExecutor.
+				newInstance(
+					partitions,
+					new ThreadFactoryBuilder().
+						setNameFormat(name+"-loopback-%d").
+						setDaemon(true).
+						build());
+	}
+
+	void declareExchange(final String exchangeName) {
+		Preconditions.checkNotNull(exchangeName,"Exchange name cannot be null");
+		Preconditions.checkArgument(!exchangeName.isEmpty(),"The default exchange cannot be declared");
+		this.exchanges.putIfAbsent(exchangeName,new Exchange(exchangeName));
+	}
+
+	/**
+	 * If the queue name is empty the broker generates one.
+	 */
+	String declareQueue(final String queueName) {
+		Preconditions.checkNotNull(queueName,"Queue name cannot be null");
+		final String declaredQueueName=queueName.isEmpty()?"amq.gen-"+UUID.randomUUID():queueName;
+		this.queues.putIfAbsent(declaredQueueName,new Queue(declaredQueueName));
+		return declaredQueueName;
+	}
+
+	/**
+	 * Returns the number of messages discarded.
+	 */
+	int deleteQueue(final String queueName) {
+		final Queue queue=this.queues.remove(queueName);
+		if(queue==null) {
+			return 0;
+		}
+		for(final Exchange exchange:this.exchanges.values()) {
+			exchange.unbindAll(queue);
+		}
+		return queue.delete();
+	}
+
+	void bindQueue(final String queueName, final String exchangeName, final String routingKey) throws IOException {
+		exchange(exchangeName).bind(queue(queueName),routingKey);
+	}
+
+	void unbindQueue(final String queueName, final String exchangeName, final String routingKey) throws IOException {
+		exchange(exchangeName).unbind(queue(queueName),routingKey);
+	}
+
+	String consume(final String queueName, final Consumer consumer) throws IOException {
+		return queue(queueName).consume(consumer);
+	}
+
+	boolean cancel(final String queueName, final String consumerTag) {
+		final Queue queue=this.queues.get(queueName);
+		return queue!=null && queue.cancel(consumerTag);
+	}
+
+	/**
+	 * Returns the number of messages waiting for a consumer in the queue.
+	 */
+	int messageCount(final String queueName) throws IOException {
+		return queue(queueName).size();
+	}
+
+	/**
+	 * Returns the number of queues the message was routed to. As in AMQP,
+	 * messages published to the default exchange are routed to the queue
+	 * whose name matches the routing key.
+	 */
+	int publish(final String exchangeName, final String routingKey, final BasicProperties properties, final byte[] body) throws IOException {
+		Preconditions.checkNotNull(exchangeName,"Exchange name cannot be null");
+		Preconditions.checkNotNull(routingKey,"Routing key cannot be null");
+		final Message message=new Message(exchangeName,routingKey,properties,body);
+		if(DEFAULT_EXCHANGE.equals(exchangeName)) {
+			final Queue queue=this.queues.get(routingKey);
+			if(queue==null) {
+				return 0;
+			}
+			queue.enqueue(message);
+			return 1;
+		}
+		return exchange(exchangeName).route(message);
+	}
+
+	/**
+	 * Stops delivering messages, and waits for the dispatched deliveries to
+	 * complete for at most the specified time.
+	 */
+	boolean shutdown(final long timeout, final TimeUnit unit) {
+		return this.dispatcher.shutdown(timeout,unit);
+	}
+
+	boolean shutdown() {
+		return shutdown(SHUTDOWN_TIMEOUT,TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("name",this.name).
+					add("exchanges",this.exchanges.keySet()).
+					add("queues",this.queues.keySet()).
+					toString();
+	}
+
+	private Exchange exchange(final String exchangeName) throws IOException {
+		final Exchange exchange=this.exchanges.get(exchangeName);
+		if(exchange==null) {
+			throw new IOException("NOT_FOUND - no exchange '"+exchangeName+"' in broker '"+this.name+"'");
+		}
+		return exchange;
+	}
+
+	private Queue queue(final String queueName) throws IOException {
+		final Queue queue=this.queues.get(queueName);
+		if(queue==null) {
+			throw new IOException("NOT_FOUND - no queue '"+queueName+"' in broker '"+this.name+"'");
+		}
+		return queue;
+	}
+
+	static LoopbackBroker newInstance(final String name) {
+		return newInstance(name,Runtime.getRuntime().availableProcessors());
+	}
+
+	static LoopbackBroker newInstance(final String name, final int partitions) {
+		Preconditions.checkNotNull(name,"Broker name cannot be null");
+		return new LoopbackBroker(name,partitions);
+	}
+
+}
@@ -0,0 +1,452 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.smartdeveloperhub.curator.connector.PayloadCompressor.Payload;
+import org.smartdeveloperhub.curator.connector.io.ConversionContext;
+import org.smartdeveloperhub.curator.connector.io.MessageConversionException;
+import org.smartdeveloperhub.curator.connector.io.MessageUtil;
+import org.smartdeveloperhub.curator.connector.io.WireFormat;
+import org.smartdeveloperhub.curator.connector.util.Utf8Encoder;
+import org.smartdeveloperhub.curator.protocol.Broker;
+import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
+import org.smartdeveloperhub.curator.protocol.Message;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.rabbitmq.client.AMQP.BasicProperties;
+import com.rabbitmq.client.MessageProperties;
+
+/**
+ * Transport that exchanges messages through an in-memory broker, so that
+ * connectors and curators running in the same JVM can communicate without a
+ * RabbitMQ broker. Messages are encoded exactly as they would be for
+ * RabbitMQ, and publications are confirmed as soon as they are routed.
+ */
+final class LoopbackTransport implements Transport {
+
+	/**
+	 * Transports created for the same broker share the same in-memory
+	 * broker.
+	 */
+	static final class LoopbackTransportFactory implements TransportFactory {
+
+		private final ConcurrentMap<Broker,LoopbackBroker> brokers;
+
+		private LoopbackTransportFactory() {
+			this.brokers=Maps.newConcurrentMap();
+		}
+
+		@Override
+		public Transport newTransport(final Broker broker, final String name, final ConversionContext context, final PayloadCompressor compressor, final CuratorConfiguration settings) {
+			return new LoopbackTransport(broker,name,context,compressor,broker(broker));
+		}
+
+		LoopbackBroker broker(final Broker broker) {
+			LoopbackBroker result=this.brokers.get(broker);
+			if(result==null) {
+				final LoopbackBroker created=LoopbackBroker.newInstance(String.format("%s:%s%s",broker.host(),broker.port(),broker.virtualHost()));
+				result=this.brokers.putIfAbsent(broker,created);
+				if(result==null) {
+					result=created;
+				} else {
+					created.shutdown();
+				}
+			}
+			return result;
+		}
+
+		void shutdown() {
+			for(final LoopbackBroker broker:this.brokers.values()) {
+				broker.shutdown();
+			}
+			this.brokers.clear();
+		}
+
+	}
+
+	private static final class Binding {
+
+		private final String exchangeName;
+		private final String queueName;
+		private final String routingKey;
+
+		private Binding(final String exchangeName, final String queueName, final String routingKey) {
+			this.exchangeName=exchangeName;
+			this.queueName=queueName;
+			this.routingKey=routingKey;
+		}
+
+	}
+
+	private static final class Subscription {
+
+		private final String queueName;
+		private final String consumerTag;
+
+		private Subscription(final String queueName, final String consumerTag) {
+			this.queueName=queueName;
+			this.consumerTag=consumerTag;
+		}
+
+	}
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(LoopbackTransport.class);
+
+	private static final int NO_ROUTE=312;
+
+	private final Broker broker;
+	private final String name;
+	private final MessageUtil messageUtil;
+	private final PayloadCompressor compressor;
+	private final LoopbackBroker target;
+	private final ChannelPoolMetrics channelPoolMetrics;
+	private final ConnectionMetrics connectionMetrics;
+	private final RecoveryMetrics recoveryMetrics;
+	private final TopologyMetrics topologyMetrics;
+
+	private final Deque<String> queues;
+	private final Deque<Binding> bindings;
+	private final List<Subscription> subscriptions;
+	private final List<ReturnedMessageListener> returnListeners;
+
+	private final AtomicLong messageCounter;
+
+	private volatile boolean connected;
+	private volatile String replyQueue;
+
+	private LoopbackTransport(final Broker broker, final String name, final ConversionContext context, final PayloadCompressor compressor, final LoopbackBroker target) {
+		this.broker=broker;
+		this.name=name;
+		this.messageUtil=MessageUtil.newInstance().withConversionContext(context);
+		this.compressor=compressor;
+		this.target=target;
+		this.channelPoolMetrics=new ChannelPoolMetrics();
+		this.connectionMetrics=new ConnectionMetrics(name);
+		this.recoveryMetrics=new RecoveryMetrics();
+		this.topologyMetrics=new TopologyMetrics();
+		this.queues=Lists.newLinkedList();
+		this.bindings=Lists.newLinkedList();
+		this.subscriptions=Lists.newArrayList();
+		this.returnListeners=new CopyOnWriteArrayList<>();
+		this.messageCounter=new AtomicLong();
+	}
+
+	@Override
+	public Broker broker() {
+		return this.broker;
+	}
+
+	@Override
+	public PayloadCompressor compressor() {
+		return this.compressor;
+	}
+
+	/**
+	 * The loopback transport does not use channels.
+	 */
+	@Override
+	public ChannelPoolMetrics channelPoolMetrics() {
+		return this.channelPoolMetrics;
+	}
+
+	@Override
+	public List<ConnectionMetrics> connectionMetrics() {
+		return ImmutableList.of(this.connectionMetrics);
+	}
+
+	/**
+	 * The loopback transport never loses its connection.
+	 */
+	@Override
+	public RecoveryMetrics recoveryMetrics() {
+		return this.recoveryMetrics;
+	}
+
+	@Override
+	public TopologyMetrics topologyMetrics() {
+		return this.topologyMetrics;
+	}
+
+	@Override
+	public void addRecoveryListener(final RecoveryListener listener) {
+		// Nothing to recover from
+	}
+
+	/**
+	 * Unroutable messages are reported before the publication completes.
+	 */
+	@Override
+	public void addReturnedMessageListener(final ReturnedMessageListener listener) {
+		this.returnListeners.add(listener);
+	}
+
+	@Override
+	public synchronized void connect() throws ControllerException {
+		this.connected=true;
+	}
+
+	/**
+	 * Cancels the consumers and removes the bindings and queues declared by the
+	 * transport.
+	 */
+	@Override
+	public synchronized void disconnect() {
+		if(!this.connected) {
+			return;
+		}
+		for(final Subscription subscription:this.subscriptions) {
+			this.target.cancel(subscription.queueName,subscription.consumerTag);
+		}
+		while(!this.bindings.isEmpty()) {
+			final Binding binding=this.bindings.pop();
+			try {
+				this.target.unbindQueue(binding.queueName,binding.exchangeName,binding.routingKey);
+			} catch (final IOException e) {
+				LOGGER.trace("Could not unbind queue '{}' from exchange '{}': {}",binding.queueName,binding.exchangeName,e.getMessage());
+			}
+		}
+		while(!this.queues.isEmpty()) {
+			this.target.deleteQueue(this.queues.pop());
+		}
+		this.subscriptions.clear();
+		this.replyQueue=null;
+		this.connected=false;
+	}
+
+	@Override
+	public synchronized void declareExchange(final String exchangeName) throws ControllerException {
+		checkConnected();
+		try {
+			this.target.declareExchange(exchangeName);
+			this.topologyMetrics.recordDeclaration();
+		} catch (final IllegalArgumentException | NullPointerException e) {
+			throw new ControllerException("Could not create "+this.name+" exchange named '"+exchangeName+"'",e);
+		}
+	}
+
+	@Override
+	public synchronized String declareQueue(final String queueName) throws ControllerException {
+		checkConnected();
+		final String declaredQueueName=this.target.declareQueue(Optional.fromNullable(queueName).or(""));
+		this.topologyMetrics.recordDeclaration();
+		this.queues.push(declaredQueueName);
+		return declaredQueueName;
+	}
+
+	@Override
+	public synchronized void bindQueue(final String exchangeName, final String queueName, final String routingKey) throws ControllerException {
+		checkConnected();
+		try {
+			this.target.bindQueue(queueName,exchangeName,routingKey);
+			this.bindings.push(new Binding(exchangeName,queueName,routingKey));
+			this.topologyMetrics.recordDeclaration();
+		} catch (final IOException e) {
+			throw new ControllerException("Could not bind "+this.name+" queue '"+queueName+"' to exchange '"+exchangeName+"' using routing key '"+routingKey+"'",e);
+		}
+	}
+
+	@Override
+	public synchronized String prepareQueue(final String exchangeName, final String queueName, final String routingKey) throws ControllerException {
+		final String declaredQueue=declareQueue(queueName);
+		bindQueue(exchangeName,declaredQueue,routingKey);
+		return declaredQueue;
+	}
+
+	/**
+	 * Declarations are applied immediately, so there is nothing to verify.
+	 */
+	@Override
+	public void verifyTopology() throws ControllerException {
+		checkConnected();
+	}
+
+	@Override
+	public ListenableFuture<Void> publishMessage(final DeliveryChannel replyTo, final Message message) throws IOException {
+		try {
+			final byte[] body=this.messageUtil.toBytes(message);
+			return publishMessage(replyTo.exchangeName(),replyTo.routingKey(),body,this.messageUtil.wireFormat(),BrokerController.correlationId(message),null,message);
+		} catch (final MessageConversionException e) {
+			LOGGER.warn("Could not serialize message {}: {}",message,e.getMessage());
+			throw new IOException("Could not serialize message",e);
+		}
+	}
+
+	@Override
+	public List<ListenableFuture<Void>> publishMessages(final DeliveryChannel replyTo, final List<? extends Message> messages) throws IOException {
+		final List<ListenableFuture<Void>> result=Lists.newArrayListWithCapacity(messages.size());
+		for(final Message message:messages) {
+			result.add(publishMessage(replyTo,message));
+		}
+		return result;
+	}
+
+	@Override
+	public ListenableFuture<Void> publishMessage(final DeliveryChannel replyTo, final String message) throws IOException {
+		return publishMessage(replyTo.exchangeName(),replyTo.routingKey(),Utf8Encoder.encode(message),WireFormat.TURTLE,null,null,message);
+	}
+
+	/**
+	 * Messages are delivered without acknowledgements, one at a time per
+	 * queue.
+	 */
+	@Override
+	public synchronized void registerConsumer(final MessageHandler handler, final String queueName) throws IOException {
+		checkConnected();
+		final String consumerTag=this.target.consume(queueName,new MessageHandlerConsumer(null,handler,this.compressor));
+		this.subscriptions.add(new Subscription(queueName,consumerTag));
+	}
+
+	/**
+	 * Direct reply-to is emulated using a server-named queue, which replies
+	 * reach through the default exchange.
+	 */
+	@Override
+	public synchronized void registerReplyConsumer(final MessageHandler handler) throws IOException {
+		checkConnected();
+		Preconditions.checkState(this.replyQueue==null,"A reply consumer is already registered");
+		final String queueName=this.target.declareQueue("");
+		this.queues.push(queueName);
+		final String consumerTag=this.target.consume(queueName,new MessageHandlerConsumer(null,handler,this.compressor));
+		this.subscriptions.add(new Subscription(queueName,consumerTag));
+		this.replyQueue=queueName;
+	}
+
+	@Override
+	public ListenableFuture<Void> publishRequest(final DeliveryChannel replyTo, final Message message) throws IOException {
+		final String queueName=this.replyQueue;
+		Preconditions.checkState(queueName!=null,"No reply consumer registered");
+		try {
+			final byte[] body=this.messageUtil.toBytes(message);
+			return publishMessage(replyTo.exchangeName(),replyTo.routingKey(),body,this.messageUtil.wireFormat(),BrokerController.correlationId(message),queueName,message);
+		} catch (final MessageConversionException e) {
+			LOGGER.warn("Could not serialize message {}: {}",message,e.getMessage());
+			throw new IOException("Could not serialize message",e);
+		}
+	}
+
+	@Override
+	public ListenableFuture<Void> publishReply(final String replyTo, final Message message) throws IOException {
+		try {
+			final byte[] body=this.messageUtil.toBytes(message);
+			return publishMessage("",replyTo,body,this.messageUtil.wireFormat(),BrokerController.correlationId(message),null,message);
+		} catch (final MessageConversionException e) {
+			LOGGER.warn("Could not serialize message {}: {}",message,e.getMessage());
+			throw new IOException("Could not serialize message",e);
+		}
+	}
+
+	@Override
+	public ListenableFuture<Void> publishReply(final String replyTo, final String message) throws IOException {
+		return publishMessage("",replyTo,Utf8Encoder.encode(message),WireFormat.TURTLE,null,null,message);
+	}
+
+	@Override
+	public List<ListenableFuture<Void>> publishRequests(final DeliveryChannel replyTo, final List<? extends Message> messages) throws IOException {
+		final List<ListenableFuture<Void>> result=Lists.newArrayListWithCapacity(messages.size());
+		for(final Message message:messages) {
+			result.add(publishRequest(replyTo,message));
+		}
+		return result;
+	}
+
+	private void checkConnected() {
+		Preconditions.checkState(this.connected,"Not connected");
+	}
+
+	private ListenableFuture<Void> publishMessage(final String exchangeName, final String routingKey, final byte[] body, final WireFormat format, final String correlationId, final String replyQueue, final Object message) throws IOException {
+		if(!this.connected) {
+			this.connectionMetrics.recordFailure();
+			throw new IOException("Could not publish message [" + message + "] to exchange '"+exchangeName+"' and routing key '"+routingKey+"': not connected");
+		}
+		LOGGER.debug("Publishing message to exchange '{}' and routing key '{}'. Payload: \n{}",exchangeName,routingKey,message);
+		final Map<String,Object> headers=Maps.newLinkedHashMap();
+		headers.put(BrokerController.BROKER_CONTROLLER_MESSAGE,this.messageCounter.incrementAndGet());
+		final Payload payload=this.compressor.compress(body);
+		final BasicProperties properties=
+			MessageProperties.
+				MINIMAL_PERSISTENT_BASIC.
+					builder().
+						contentType(format.contentType()).
+						contentEncoding(payload.contentEncoding()).
+						correlationId(correlationId).
+						replyTo(replyQueue).
+						headers(headers).
+						build();
+		final int routed;
+		try {
+			routed=this.target.publish(exchangeName,routingKey,properties,payload.body());
+		} catch (final IOException e) {
+			this.connectionMetrics.recordFailure();
+			throw e;
+		}
+		this.connectionMetrics.recordPublication(payload.body().length);
+		if(routed==0) {
+			LOGGER.warn(
+				"Message {} publication in {}:{} failed ({}): {}",
+				headers.get(BrokerController.BROKER_CONTROLLER_MESSAGE),
+				exchangeName,
+				routingKey,
+				NO_ROUTE,
+				"NO_ROUTE");
+			if(correlationId!=null) {
+				notifyReturn(correlationId);
+			}
+		}
+		return Futures.immediateFuture(null);
+	}
+
+	private void notifyReturn(final String correlationId) {
+		for(final ReturnedMessageListener listener:this.returnListeners) {
+			try {
+				listener.onReturn(this,correlationId,NO_ROUTE+" NO_ROUTE");
+			} catch (final RuntimeException e) {
+				LOGGER.warn("Returned message listener {} failed. Full stacktrace follows",listener,e);
+			}
+		}
+	}
+
+	static LoopbackTransportFactory newFactory() {
+		return new LoopbackTransportFactory();
+	}
+
+}
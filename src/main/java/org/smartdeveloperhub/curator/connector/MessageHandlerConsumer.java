@@ -27,6 +27,12 @@
 package org.smartdeveloperhub.curator.connector;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.smartdeveloperhub.curator.connector.io.HeaderScanner;
+import org.smartdeveloperhub.curator.connector.io.WireFormat;
 
 import com.rabbitmq.client.AMQP.BasicProperties;
 import com.rabbitmq.client.Channel;
@@ -35,16 +41,151 @@ import com.rabbitmq.client.Envelope;
 
 final class MessageHandlerConsumer extends DefaultConsumer {
 
+	private final class Delivery implements Runnable {
+
+		private final Envelope envelope;
+		private final BasicProperties properties;
+		private final String contentEncoding;
+		private final byte[] rawBody;
+
+		private Delivery(final Envelope envelope, final BasicProperties properties, final String contentEncoding, final byte[] rawBody) {
+			this.envelope=envelope;
+			this.properties=properties;
+			this.contentEncoding=contentEncoding;
+			this.rawBody=rawBody;
+		}
+
+		@Override
+		public void run() {
+			try {
+				handleMessage(this.properties,this.contentEncoding,this.rawBody);
+			} catch (final IOException e) {
+				LOGGER.warn("Could not handle delivery {}: {}",this.envelope.getDeliveryTag(),e.getMessage());
+			} finally {
+				acknowledge(this.envelope);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Delivery "+this.envelope.getDeliveryTag();
+		}
+
+	}
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(MessageHandlerConsumer.class);
+
 	private final MessageHandler handler;
+	private final PayloadCompressor compressor;
+	private final Acknowledger acknowledger;
+	private final PartitionedExecutor dispatcher;
+
+	MessageHandlerConsumer(final Channel channel, final MessageHandler handler, final PayloadCompressor compressor) {
+		this(channel,handler,compressor,null,null);
+	}
 
-	MessageHandlerConsumer(final Channel channel, final MessageHandler handler) {
+	/**
+	 * If an acknowledger is provided, every delivery is acknowledged once it
+	 * has been handled, even if it had to be discarded or the handler failed.
+	 * If a dispatcher is provided, deliveries are handled by the dispatcher
+	 * instead of the thread of the AMQP driver. Deliveries are partitioned
+	 * by the request they relate to, so the deliveries related to the same
+	 * request are handled in order. The request is identified by the
+	 * correlation identifier of the delivery. Curators that do not set it
+	 * are supported by decoding the body on the thread of the AMQP driver
+	 * and scanning it for the request it responds to.
+	 */
+	MessageHandlerConsumer(final Channel channel, final MessageHandler handler, final PayloadCompressor compressor, final Acknowledger acknowledger, final PartitionedExecutor dispatcher) {
 		super(channel);
 		this.handler = handler;
+		this.compressor = compressor;
+		this.acknowledger = acknowledger;
+		this.dispatcher = dispatcher;
 	}
 
 	@Override
-	public void handleDelivery(final String consumerTag, final Envelope envelope, final BasicProperties properties, final byte[] body) throws IOException {
-		final String payload=new String(body, "UTF-8");
-		this.handler.handlePayload(payload);
+	public void handleDelivery(final String consumerTag, final Envelope envelope, final BasicProperties properties, final byte[] rawBody) throws IOException {
+		final String contentEncoding=
+			properties==null?
+				null:
+				properties.getContentEncoding();
+		if(this.dispatcher==null) {
+			try {
+				handleMessage(properties,contentEncoding,rawBody);
+			} finally {
+				acknowledge(envelope);
+			}
+			return;
+		}
+		final String correlationId=
+			properties==null?
+				null:
+				properties.getCorrelationId();
+		final String key;
+		final Delivery delivery;
+		if(correlationId!=null) {
+			key=correlationId;
+			delivery=new Delivery(envelope,properties,contentEncoding,rawBody);
+		} else {
+			final byte[] body=decode(properties,contentEncoding,rawBody);
+			if(body==null) {
+				acknowledge(envelope);
+				return;
+			}
+			key=HeaderScanner.responseTo(body);
+			delivery=new Delivery(envelope,properties,null,body);
+		}
+		try {
+			this.dispatcher.execute(key,delivery);
+		} catch (final RejectedExecutionException e) {
+			LOGGER.warn("Discarding delivery {}: dispatcher is shut down",envelope.getDeliveryTag());
+		}
+	}
+
+	private void acknowledge(final Envelope envelope) {
+		if(this.acknowledger!=null) {
+			this.acknowledger.acknowledge(envelope.getDeliveryTag());
+		}
+	}
+
+	/**
+	 * Returns {@code null} if the body cannot be decoded, in which case the
+	 * delivery is discarded.
+	 */
+	private byte[] decode(final BasicProperties properties, final String contentEncoding, final byte[] rawBody) {
+		try {
+			return this.compressor.decompress(contentEncoding,rawBody);
+		} catch (final IOException e) {
+			LOGGER.warn("Discarding {} message ({} bytes): could not decode content encoding '{}' ({})",wireFormat(properties).contentType(),rawBody.length,contentEncoding,e.getMessage());
+			return null;
+		}
 	}
+
+	private static WireFormat wireFormat(final BasicProperties properties) {
+		return
+			WireFormat.
+				fromContentType(
+					properties==null?
+						null:
+						properties.getContentType());
+	}
+
+	private void handleMessage(final BasicProperties properties, final String contentEncoding, final byte[] rawBody) throws IOException {
+		final WireFormat format=wireFormat(properties);
+		final byte[] body=decode(properties,contentEncoding,rawBody);
+		if(body==null) {
+			return;
+		}
+		if(this.handler instanceof ReplyToMessageHandler) {
+			((ReplyToMessageHandler)this.handler).handleMessage(body,format,properties.getReplyTo());
+		} else if(this.handler instanceof WireMessageHandler) {
+			((WireMessageHandler)this.handler).handleMessage(body,format);
+		} else if(!format.isBinary()) {
+			final String payload=new String(body, "UTF-8");
+			this.handler.handlePayload(payload);
+		} else {
+			LOGGER.warn("Discarding {} message ({} bytes): handler {} only supports textual payloads",format.contentType(),body.length,this.handler);
+		}
+	}
+
 }
\ No newline at end of file
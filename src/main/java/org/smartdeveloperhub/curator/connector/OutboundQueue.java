@@ -0,0 +1,193 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+/**
+ * Bounded queue of publications that are written to the broker by a
+ * dedicated thread, so that publishing threads never block on the broker
+ * connection. While the broker blocks the connection the writer stops and the
+ * queue fills up: publishing threads then wait for room for a limited time
+ * and are rejected afterwards.
+ */
+final class OutboundQueue {
+
+	interface Publication {
+
+		void write();
+
+		void abandon(IOException failure);
+
+	}
+
+	private final class Writer implements Runnable {
+
+		@Override
+		public void run() {
+			try {
+				while(!Thread.currentThread().isInterrupted()) {
+					OutboundQueue.this.flowControl.awaitUnblocked();
+					final Publication publication=OutboundQueue.this.queue.take();
+					try {
+						publication.write();
+					} catch (final RuntimeException e) {
+						LOGGER.error("Could not write publication {}. Full stacktrace follows",publication,e);
+					}
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(OutboundQueue.class);
+
+	private static final long WRITER_SHUTDOWN_TIMEOUT=1000;
+
+	private final BlockingQueue<Publication> queue;
+	private final int capacity;
+	private final long timeout;
+	private final FlowControl flowControl;
+	private final ConnectionMetrics metrics;
+	private final ThreadFactory threadFactory;
+
+	private volatile boolean running;
+	private ExecutorService writer;
+
+	private OutboundQueue(final int capacity, final long timeout, final FlowControl flowControl, final ConnectionMetrics metrics, final ThreadFactory threadFactory) {
+		this.queue=new ArrayBlockingQueue<>(capacity);
+		this.capacity=capacity;
+		this.timeout=timeout;
+		this.flowControl=flowControl;
+		this.metrics=metrics;
+		this.threadFactory=threadFactory;
+	}
+
+	synchronized void start() {
+		if(this.running) {
+			return;
+		}
+		this.writer=Executors.newSingleThreadExecutor(this.threadFactory);
+		this.writer.execute(new Writer());
+		this.running=true;
+	}
+
+	/**
+	 * Stops the writer and abandons the publications not written yet.
+	 */
+	synchronized void stop() {
+		if(!this.running) {
+			return;
+		}
+		this.running=false;
+		this.writer.shutdownNow();
+		try {
+			if(!this.writer.awaitTermination(WRITER_SHUTDOWN_TIMEOUT,TimeUnit.MILLISECONDS)) {
+				LOGGER.warn("Writer of connection {} did not terminate in {} ms",this.metrics.name(),WRITER_SHUTDOWN_TIMEOUT);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.writer=null;
+		final List<Publication> pending=Lists.newArrayList();
+		this.queue.drainTo(pending);
+		for(final Publication publication:pending) {
+			publication.abandon(notRunning());
+		}
+	}
+
+	/**
+	 * Waits for room in the queue for at most the configured timeout.
+	 *
+	 * @throws PublicationRejectedException if there is no room in the queue
+	 * before the timeout elapses.
+	 */
+	void submit(final Publication publication) throws IOException {
+		if(!this.running) {
+			throw notRunning();
+		}
+		final boolean accepted;
+		try {
+			accepted=this.queue.offer(publication,this.timeout,TimeUnit.MILLISECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for room in the publish queue of connection "+this.metrics.name());
+		}
+		if(!accepted) {
+			this.metrics.recordRejection();
+			throw new PublicationRejectedException(String.format("Publish queue of connection %s is full (%d publications)",this.metrics.name(),this.capacity));
+		}
+		if(!this.running && this.queue.remove(publication)) {
+			throw notRunning();
+		}
+	}
+
+	int size() {
+		return this.queue.size();
+	}
+
+	private IOException notRunning() {
+		return new IOException("Publish queue of connection "+this.metrics.name()+" is not running");
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("connection",this.metrics.name()).
+					add("capacity",this.capacity).
+					add("size",this.queue.size()).
+					add("timeout",this.timeout).
+					add("running",this.running).
+					toString();
+	}
+
+	static OutboundQueue newInstance(final int capacity, final long timeout, final FlowControl flowControl, final ConnectionMetrics metrics, final ThreadFactory threadFactory) {
+		Preconditions.checkArgument(capacity>0,"Capacity must be greater than 0 (%s)",capacity);
+		Preconditions.checkArgument(timeout>=0,"Timeout cannot be negative (%s)",timeout);
+		return new OutboundQueue(capacity,timeout,flowControl,metrics,threadFactory);
+	}
+
+}
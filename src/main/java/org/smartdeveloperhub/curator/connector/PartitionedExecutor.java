@@ -0,0 +1,164 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Queues;
+
+/**
+ * Executes tasks in parallel while preserving the submission order of the
+ * tasks that share a partition key. Each key is mapped to a lane, and the
+ * tasks of a lane run one at a time on the threads of a shared executor.
+ * Tasks without key are all mapped to the same lane.
+ */
+final class PartitionedExecutor {
+
+	private final class Lane implements Runnable {
+
+		private final Queue<Runnable> tasks;
+		private boolean scheduled;
+
+		private Lane() {
+			this.tasks=Queues.newArrayDeque();
+		}
+
+		void submit(final Runnable task) {
+			synchronized(this) {
+				this.tasks.offer(task);
+				if(this.scheduled) {
+					return;
+				}
+				this.scheduled=true;
+			}
+			try {
+				PartitionedExecutor.this.executor.execute(this);
+			} catch (final RejectedExecutionException e) {
+				synchronized(this) {
+					this.tasks.clear();
+					this.scheduled=false;
+				}
+				throw e;
+			}
+		}
+
+		@Override
+		public void run() {
+			while(true) {
+				final Runnable task;
+				synchronized(this) {
+					task=this.tasks.poll();
+					if(task==null) {
+						this.scheduled=false;
+						return;
+					}
+				}
+				try {
+					task.run();
+				} catch (final RuntimeException e) {
+					LOGGER.error("Task {} failed. Full stacktrace follows",task,e);
+				}
+			}
+		}
+
+	}
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(PartitionedExecutor.class);
+
+	private final ExecutorService executor;
+	private final Lane[] lanes;
+
+	private PartitionedExecutor(final ExecutorService executor, final int partitions) {
+		this.executor=executor;
+		this.lanes=new Lane[partitions];
+		for(int i=0;i<partitions;i++) {
+			this.lanes[i]=new Lane();
+		}
+	}
+
+	int partitions() {
+		return this.lanes.length;
+	}
+
+	/**
+	 * @throws RejectedExecutionException if the executor has been shut down.
+	 */
+	void execute(final Object key, final Runnable task) {
+		this.lanes[partition(key)].submit(task);
+	}
+
+	int partition(final Object key) {
+		if(key==null) {
+			return 0;
+		}
+		final int hash=key.hashCode();
+		return ((hash^(hash>>>16))&Integer.MAX_VALUE)%this.lanes.length;
+	}
+
+	/**
+	 * Stops accepting tasks and waits for the submitted ones to complete for
+	 * at most the specified time.
+	 */
+	boolean shutdown(final long timeout, final TimeUnit unit) {
+		this.executor.shutdown();
+		try {
+			if(this.executor.awaitTermination(timeout,unit)) {
+				return true;
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.executor.shutdownNow();
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("partitions",this.lanes.length).
+					add("executor",this.executor).
+					toString();
+	}
+
+	static PartitionedExecutor newInstance(final int partitions, final ThreadFactory threadFactory) {
+		Preconditions.checkArgument(partitions>0,"Number of partitions must be positive (%s)",partitions);
+		return new PartitionedExecutor(Executors.newFixedThreadPool(partitions,threadFactory),partitions);
+	}
+
+}
@@ -0,0 +1,153 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+final class PayloadCompressor {
+
+	static final class Payload {
+
+		private final byte[] body;
+		private final ContentEncoding encoding;
+
+		private Payload(final byte[] body, final ContentEncoding encoding) {
+			this.body=body;
+			this.encoding=encoding;
+		}
+
+		byte[] body() {
+			return this.body;
+		}
+
+		/**
+		 * Returns the AMQP {@code content_encoding} of the payload, or
+		 * {@code null} if the payload is not encoded.
+		 */
+		String contentEncoding() {
+			return
+				this.encoding==ContentEncoding.IDENTITY?
+					null:
+					this.encoding.value();
+		}
+
+	}
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(PayloadCompressor.class);
+
+	private static final ThreadMXBean THREADS=ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Encodings that mark a compressed body. Bodies with any other unknown
+	 * encoding are not compressed, and are passed through unchanged.
+	 */
+	private static final Set<String> COMPRESSED_ENCODINGS=
+		ImmutableSet.of("br","bzip2","compress","lz4","snappy","x-bzip2","x-compress","x-gzip","xz","zstd");
+
+	private final ContentEncoding encoding;
+	private final int threshold;
+	private final int maxDecompressedSize;
+	private final CompressionMetrics metrics;
+
+	private PayloadCompressor(final ContentEncoding encoding, final int threshold, final int maxDecompressedSize) {
+		this.encoding=Preconditions.checkNotNull(encoding,"Content encoding cannot be null");
+		this.threshold=threshold;
+		this.maxDecompressedSize=maxDecompressedSize;
+		this.metrics=new CompressionMetrics();
+	}
+
+	CompressionMetrics metrics() {
+		return this.metrics;
+	}
+
+	Payload compress(final byte[] body) throws IOException {
+		if(this.encoding==ContentEncoding.IDENTITY || body.length<this.threshold) {
+			this.metrics.recordUncompressed();
+			return new Payload(body,ContentEncoding.IDENTITY);
+		}
+		final long start=cpuTime();
+		final byte[] compressed=this.encoding.encode(body);
+		this.metrics.recordCompression(body.length,compressed.length,cpuTime()-start);
+		return new Payload(compressed,this.encoding);
+	}
+
+	byte[] decompress(final String contentEncoding, final byte[] body) throws IOException {
+		final ContentEncoding bodyEncoding=ContentEncoding.fromValue(contentEncoding);
+		if(bodyEncoding==null) {
+			if(COMPRESSED_ENCODINGS.contains(contentEncoding.trim().toLowerCase(Locale.ENGLISH))) {
+				throw new IOException("Unsupported content encoding '"+contentEncoding+"'");
+			}
+			LOGGER.debug("Ignoring content encoding '{}': it does not mark a compressed body",contentEncoding);
+			return body;
+		}
+		if(bodyEncoding==ContentEncoding.IDENTITY) {
+			return body;
+		}
+		final long start=cpuTime();
+		final byte[] decompressed=bodyEncoding.decode(body,this.maxDecompressedSize);
+		this.metrics.recordDecompression(cpuTime()-start);
+		return decompressed;
+	}
+
+	/**
+	 * Use the CPU time of the current thread if the JVM supports measuring
+	 * it, and fall back to wall-clock time otherwise.
+	 */
+	private static long cpuTime() {
+		if(THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled()) {
+			return THREADS.getCurrentThreadCpuTime();
+		}
+		return System.nanoTime();
+	}
+
+	static PayloadCompressor newInstance(final ContentEncoding encoding, final int threshold) {
+		return newInstance(encoding,threshold,CuratorConfiguration.DEFAULT_MAX_DECOMPRESSED_SIZE);
+	}
+
+	static PayloadCompressor newInstance(final ContentEncoding encoding, final int threshold, final int maxDecompressedSize) {
+		return new PayloadCompressor(encoding,threshold,maxDecompressedSize);
+	}
+
+	static PayloadCompressor newInstance(final CuratorConfiguration configuration) {
+		return newInstance(configuration.contentEncoding(),configuration.compressionThreshold(),configuration.maxDecompressedSize());
+	}
+
+	static PayloadCompressor identity() {
+		return newInstance(ContentEncoding.IDENTITY,Integer.MAX_VALUE);
+	}
+
+}
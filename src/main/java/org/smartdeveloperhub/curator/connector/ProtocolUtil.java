@@ -26,6 +26,7 @@
  */
 package org.smartdeveloperhub.curator.connector;
 
+import java.net.URI;
 import java.util.List;
 
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
@@ -41,21 +42,17 @@ final class ProtocolUtil {
 	private ProtocolUtil() {
 	}
 
-	private static Bindings toBindings(final List<Binding> bindings) {
-		Bindings result=Bindings.newInstance();
-		for(final Binding binding:bindings) {
-			result=result.withProperty(binding.property()).andValue(binding.value());
-		}
-		return result;
+	static EnrichmentResult toEnrichmentResult(final EnrichmentResponseMessage response) {
+		return toEnrichmentResult(response.targetResource(),response.additions(),response.removals());
 	}
 
-	static EnrichmentResult toEnrichmentResult(final EnrichmentResponseMessage response) {
+	static EnrichmentResult toEnrichmentResult(final URI targetResource, final List<Binding> additions, final List<Binding> removals) {
 		return
 			EnrichmentResult.
 				newInstance().
-					withTargetResource(response.targetResource()).
-					withAdditions(toBindings(response.additions())).
-					withRemovals(toBindings(response.removals()));
+					withTargetResource(targetResource).
+					withAdditions(Bindings.copyOf(additions)).
+					withRemovals(Bindings.copyOf(removals));
 	}
 
 	static EnrichmentRequestMessageBuilder toRequestBuilder(final EnrichmentRequest specification) {
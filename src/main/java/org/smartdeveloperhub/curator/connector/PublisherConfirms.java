@@ -0,0 +1,130 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+
+/**
+ * Tracks the publisher confirms of a channel in confirm mode. Outstanding
+ * publications are kept sorted by delivery tag so that acknowledgements
+ * covering multiple deliveries are resolved in a single pass.
+ */
+final class PublisherConfirms implements ConfirmListener, ShutdownListener {
+
+	private static final Logger LOGGER=LoggerFactory.getLogger(PublisherConfirms.class);
+
+	private final Channel channel;
+	private final ConcurrentNavigableMap<Long,SettableFuture<Void>> outstanding;
+
+	private PublisherConfirms(final Channel channel) {
+		this.channel=channel;
+		this.outstanding=new ConcurrentSkipListMap<>();
+	}
+
+	Channel channel() {
+		return this.channel;
+	}
+
+	int outstanding() {
+		return this.outstanding.size();
+	}
+
+	ListenableFuture<Void> track(final long deliveryTag) {
+		final SettableFuture<Void> confirmation=SettableFuture.create();
+		this.outstanding.put(deliveryTag,confirmation);
+		return confirmation;
+	}
+
+	void abandon(final long deliveryTag, final Throwable failure) {
+		complete(deliveryTag,this.outstanding.remove(deliveryTag),failure);
+	}
+
+	@Override
+	public void handleAck(final long deliveryTag, final boolean multiple) {
+		settle(deliveryTag,multiple,null);
+	}
+
+	@Override
+	public void handleNack(final long deliveryTag, final boolean multiple) {
+		settle(deliveryTag,multiple,new IOException("Broker could not confirm publication "+deliveryTag));
+	}
+
+	@Override
+	public void shutdownCompleted(final ShutdownSignalException cause) {
+		final Iterator<SettableFuture<Void>> iterator=this.outstanding.values().iterator();
+		while(iterator.hasNext()) {
+			final SettableFuture<Void> confirmation=iterator.next();
+			iterator.remove();
+			confirmation.setException(new IOException("Channel closed before publication was confirmed",cause));
+		}
+	}
+
+	private void settle(final long deliveryTag, final boolean multiple, final Throwable failure) {
+		if(!multiple) {
+			complete(deliveryTag,this.outstanding.remove(deliveryTag),failure);
+			return;
+		}
+		final Iterator<SettableFuture<Void>> iterator=this.outstanding.headMap(deliveryTag,true).values().iterator();
+		while(iterator.hasNext()) {
+			final SettableFuture<Void> confirmation=iterator.next();
+			iterator.remove();
+			complete(deliveryTag,confirmation,failure);
+		}
+	}
+
+	private void complete(final long deliveryTag, final SettableFuture<Void> confirmation, final Throwable failure) {
+		if(confirmation==null) {
+			LOGGER.trace("Discarded confirmation for unknown delivery tag {}",deliveryTag);
+		} else if(failure==null) {
+			confirmation.set(null);
+		} else {
+			confirmation.setException(failure);
+		}
+	}
+
+	static PublisherConfirms enable(final Channel channel) throws IOException {
+		final PublisherConfirms confirms=new PublisherConfirms(channel);
+		channel.addConfirmListener(confirms);
+		channel.addShutdownListener(confirms);
+		channel.confirmSelect();
+		return confirms;
+	}
+
+}
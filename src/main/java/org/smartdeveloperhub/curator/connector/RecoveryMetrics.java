@@ -0,0 +1,112 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.MoreObjects;
+
+public final class RecoveryMetrics {
+
+	private final AtomicLong connectionFailures;
+	private final AtomicLong recoveries;
+	private final AtomicLong failedAttempts;
+	private final AtomicLong lastRecoveryTime;
+	private final AtomicLong totalRecoveryTime;
+	private final AtomicLong republishedRequests;
+
+	RecoveryMetrics() {
+		this.connectionFailures=new AtomicLong();
+		this.recoveries=new AtomicLong();
+		this.failedAttempts=new AtomicLong();
+		this.lastRecoveryTime=new AtomicLong();
+		this.totalRecoveryTime=new AtomicLong();
+		this.republishedRequests=new AtomicLong();
+	}
+
+	void recordConnectionFailure() {
+		this.connectionFailures.incrementAndGet();
+	}
+
+	void recordFailedAttempt() {
+		this.failedAttempts.incrementAndGet();
+	}
+
+	void recordRecovery(final long nanos) {
+		this.recoveries.incrementAndGet();
+		this.lastRecoveryTime.set(nanos);
+		this.totalRecoveryTime.addAndGet(nanos);
+	}
+
+	void recordRepublication() {
+		this.republishedRequests.incrementAndGet();
+	}
+
+	public long connectionFailures() {
+		return this.connectionFailures.get();
+	}
+
+	public long recoveries() {
+		return this.recoveries.get();
+	}
+
+	public long failedAttempts() {
+		return this.failedAttempts.get();
+	}
+
+	/**
+	 * Returns the time elapsed between the detection of the last connection
+	 * failure and the completion of its recovery.
+	 */
+	public long lastRecoveryTime(final TimeUnit unit) {
+		return unit.convert(this.lastRecoveryTime.get(),TimeUnit.NANOSECONDS);
+	}
+
+	public long totalRecoveryTime(final TimeUnit unit) {
+		return unit.convert(this.totalRecoveryTime.get(),TimeUnit.NANOSECONDS);
+	}
+
+	public long republishedRequests() {
+		return this.republishedRequests.get();
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("connectionFailures",this.connectionFailures).
+					add("recoveries",this.recoveries).
+					add("failedAttempts",this.failedAttempts).
+					add("lastRecoveryTime",this.lastRecoveryTime).
+					add("totalRecoveryTime",this.totalRecoveryTime).
+					add("republishedRequests",this.republishedRequests).
+					toString();
+	}
+
+}
@@ -0,0 +1,92 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.MoreObjects;
+
+public final class RequestMetrics {
+
+	private final AtomicLong expiredAcknowledgements;
+	private final AtomicLong expiredRequests;
+	private final AtomicLong coalescedRequests;
+
+	RequestMetrics() {
+		this.expiredAcknowledgements=new AtomicLong();
+		this.expiredRequests=new AtomicLong();
+		this.coalescedRequests=new AtomicLong();
+	}
+
+	void recordExpiredAcknowledgement() {
+		this.expiredAcknowledgements.incrementAndGet();
+	}
+
+	void recordExpiredRequest() {
+		this.expiredRequests.incrementAndGet();
+	}
+
+	void recordCoalescedRequest() {
+		this.coalescedRequests.incrementAndGet();
+	}
+
+	/**
+	 * Returns the number of requests aborted because the curator did not
+	 * acknowledge them in time.
+	 */
+	public long expiredAcknowledgements() {
+		return this.expiredAcknowledgements.get();
+	}
+
+	/**
+	 * Returns the number of requests forgotten because they did not receive
+	 * any response within the result time-to-live.
+	 */
+	public long expiredRequests() {
+		return this.expiredRequests.get();
+	}
+
+	/**
+	 * Returns the number of requests that were attached to an identical
+	 * in-flight request instead of being sent to the curator.
+	 */
+	public long coalescedRequests() {
+		return this.coalescedRequests.get();
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("expiredAcknowledgements",this.expiredAcknowledgements).
+					add("expiredRequests",this.expiredRequests).
+					add("coalescedRequests",this.coalescedRequests).
+					toString();
+	}
+
+}
@@ -0,0 +1,123 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.regex.Pattern;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Binding key of a topic exchange. Keys are made of words delimited by dots,
+ * where '*' matches exactly one word and '#' matches zero or more words.
+ */
+final class RoutingKeyPattern {
+
+	private static final String[] NO_WORDS=new String[0];
+
+	private static final Pattern WORD_DELIMITER=Pattern.compile("\\.");
+
+	private final String bindingKey;
+	private final String[] words;
+
+	private RoutingKeyPattern(final String bindingKey) {
+		this.bindingKey=bindingKey;
+		this.words=words(bindingKey);
+	}
+
+	String bindingKey() {
+		return this.bindingKey;
+	}
+
+	boolean matches(final String routingKey) {
+		return matches(words(routingKey));
+	}
+
+	/**
+	 * Matches the words of a routing key, so that the routing key can be split
+	 * once and matched against several patterns.
+	 */
+	boolean matches(final String[] routingKeyWords) {
+		return matches(0,routingKeyWords,0);
+	}
+
+	private boolean matches(final int pattern, final String[] key, final int offset) {
+		int p=pattern;
+		int k=offset;
+		while(p<this.words.length) {
+			final String word=this.words[p];
+			if("#".equals(word)) {
+				for(int i=k;i<=key.length;i++) {
+					if(matches(p+1,key,i)) {
+						return true;
+					}
+				}
+				return false;
+			}
+			if(k==key.length || !("*".equals(word) || word.equals(key[k]))) {
+				return false;
+			}
+			p++;
+			k++;
+		}
+		return k==key.length;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.bindingKey.hashCode();
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		boolean result=false;
+		if(obj instanceof RoutingKeyPattern) {
+			result=this.bindingKey.equals(((RoutingKeyPattern)obj).bindingKey);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return this.bindingKey;
+	}
+
+	/**
+	 * The empty key has no words.
+	 */
+	static String[] words(final String key) {
+		if(key.isEmpty()) {
+			return NO_WORDS;
+		}
+		return WORD_DELIMITER.split(key,-1);
+	}
+
+	static RoutingKeyPattern compile(final String bindingKey) {
+		Preconditions.checkNotNull(bindingKey,"Binding key cannot be null");
+		return new RoutingKeyPattern(bindingKey);
+	}
+
+}
@@ -0,0 +1,92 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.smartdeveloperhub.curator.protocol.Broker;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Exchanges whose declaration has been verified by the broker, per broker.
+ * Entries are only hints: the exchanges are auto-delete, so the declarations
+ * that rely on them must still be verified.
+ */
+final class TopologyCache {
+
+	private final ConcurrentMap<Broker,Set<String>> exchanges;
+
+	private TopologyCache() {
+		this.exchanges=Maps.newConcurrentMap();
+	}
+
+	boolean containsExchange(final Broker broker, final String exchangeName) {
+		final Set<String> verified=this.exchanges.get(broker);
+		return verified!=null && verified.contains(exchangeName);
+	}
+
+	void addExchange(final Broker broker, final String exchangeName) {
+		Set<String> verified=this.exchanges.get(broker);
+		if(verified==null) {
+			final Set<String> created=Sets.newConcurrentHashSet();
+			verified=this.exchanges.putIfAbsent(broker,created);
+			if(verified==null) {
+				verified=created;
+			}
+		}
+		verified.add(exchangeName);
+	}
+
+	/**
+	 * Forgets every exchange verified for the specified broker.
+	 */
+	void invalidate(final Broker broker) {
+		this.exchanges.remove(broker);
+	}
+
+	void clear() {
+		this.exchanges.clear();
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("exchanges",this.exchanges).
+					toString();
+	}
+
+	static TopologyCache newInstance() {
+		return new TopologyCache();
+	}
+
+}
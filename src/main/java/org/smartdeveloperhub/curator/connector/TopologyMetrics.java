@@ -0,0 +1,156 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.MoreObjects;
+
+public final class TopologyMetrics {
+
+	private final AtomicLong declarations;
+	private final AtomicLong pipelinedDeclarations;
+	private final AtomicLong cachedDeclarations;
+	private final AtomicLong verifications;
+	private final AtomicLong failedVerifications;
+	private final AtomicLong totalVerificationTime;
+	private final AtomicLong startups;
+	private final AtomicLong lastStartupTime;
+	private final AtomicLong totalStartupTime;
+
+	TopologyMetrics() {
+		this.declarations=new AtomicLong();
+		this.pipelinedDeclarations=new AtomicLong();
+		this.cachedDeclarations=new AtomicLong();
+		this.verifications=new AtomicLong();
+		this.failedVerifications=new AtomicLong();
+		this.totalVerificationTime=new AtomicLong();
+		this.startups=new AtomicLong();
+		this.lastStartupTime=new AtomicLong();
+		this.totalStartupTime=new AtomicLong();
+	}
+
+	void recordDeclaration() {
+		this.declarations.incrementAndGet();
+	}
+
+	void recordPipelinedDeclaration() {
+		this.declarations.incrementAndGet();
+		this.pipelinedDeclarations.incrementAndGet();
+	}
+
+	void recordCachedDeclaration() {
+		recordPipelinedDeclaration();
+		this.cachedDeclarations.incrementAndGet();
+	}
+
+	void recordVerification(final long nanos) {
+		this.verifications.incrementAndGet();
+		this.totalVerificationTime.addAndGet(nanos);
+	}
+
+	void recordFailedVerification() {
+		this.failedVerifications.incrementAndGet();
+	}
+
+	void recordStartup(final long nanos) {
+		this.startups.incrementAndGet();
+		this.lastStartupTime.set(nanos);
+		this.totalStartupTime.addAndGet(nanos);
+	}
+
+	/**
+	 * Returns the number of exchange, queue and binding declarations,
+	 * pipelined or not.
+	 */
+	public long declarations() {
+		return this.declarations.get();
+	}
+
+	/**
+	 * Returns the number of declarations sent without waiting for the broker
+	 * to confirm them.
+	 */
+	public long pipelinedDeclarations() {
+		return this.pipelinedDeclarations.get();
+	}
+
+	/**
+	 * Returns the number of exchange declarations pipelined because the
+	 * exchange had already been verified in this JVM.
+	 */
+	public long cachedDeclarations() {
+		return this.cachedDeclarations.get();
+	}
+
+	public long verifications() {
+		return this.verifications.get();
+	}
+
+	public long failedVerifications() {
+		return this.failedVerifications.get();
+	}
+
+	public long totalVerificationTime(final TimeUnit unit) {
+		return unit.convert(this.totalVerificationTime.get(),TimeUnit.NANOSECONDS);
+	}
+
+	public long startups() {
+		return this.startups.get();
+	}
+
+	/**
+	 * Returns the time taken by the last successful connection, from the
+	 * connection to the broker up to the registration of the consumers.
+	 */
+	public long lastStartupTime(final TimeUnit unit) {
+		return unit.convert(this.lastStartupTime.get(),TimeUnit.NANOSECONDS);
+	}
+
+	public long totalStartupTime(final TimeUnit unit) {
+		return unit.convert(this.totalStartupTime.get(),TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return
+			MoreObjects.
+				toStringHelper(getClass()).
+					add("declarations",this.declarations).
+					add("pipelinedDeclarations",this.pipelinedDeclarations).
+					add("cachedDeclarations",this.cachedDeclarations).
+					add("verifications",this.verifications).
+					add("failedVerifications",this.failedVerifications).
+					add("totalVerificationTime",this.totalVerificationTime).
+					add("startups",this.startups).
+					add("lastStartupTime",this.lastStartupTime).
+					add("totalStartupTime",this.totalStartupTime).
+					toString();
+	}
+
+}
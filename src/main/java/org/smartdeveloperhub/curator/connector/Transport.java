@@ -0,0 +1,145 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.smartdeveloperhub.curator.protocol.Broker;
+import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
+import org.smartdeveloperhub.curator.protocol.Message;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Messaging operations required by the curator and connector controllers.
+ * Exchanges are topic exchanges, and queues are declared for the exclusive
+ * use of the application: the transport removes the queues and bindings it
+ * declared when it is disconnected.
+ */
+interface Transport {
+
+	interface RecoveryListener {
+
+		void onRecovery(Transport transport);
+
+	}
+
+	/**
+	 * Notified when the broker returns a message that could not be routed to
+	 * any queue. Only messages published with a correlation identifier are
+	 * reported.
+	 */
+	interface ReturnedMessageListener {
+
+		void onReturn(Transport transport, String correlationId, String reason);
+
+	}
+
+	Broker broker();
+
+	PayloadCompressor compressor();
+
+	ChannelPoolMetrics channelPoolMetrics();
+
+	List<ConnectionMetrics> connectionMetrics();
+
+	RecoveryMetrics recoveryMetrics();
+
+	TopologyMetrics topologyMetrics();
+
+	void addRecoveryListener(RecoveryListener listener);
+
+	void addReturnedMessageListener(ReturnedMessageListener listener);
+
+	void connect() throws ControllerException;
+
+	void disconnect();
+
+	void declareExchange(String exchangeName) throws ControllerException;
+
+	/**
+	 * If no queue name is specified, the transport generates one.
+	 */
+	String declareQueue(String queueName) throws ControllerException;
+
+	void bindQueue(String exchangeName, String queueName, String routingKey) throws ControllerException;
+
+	String prepareQueue(String exchangeName, String queueName, String routingKey) throws ControllerException;
+
+	/**
+	 * Makes sure that the declarations made so far have succeeded. Transports
+	 * may send declarations without waiting for the broker to confirm them:
+	 * the failures of those declarations are only reported here.
+	 */
+	void verifyTopology() throws ControllerException;
+
+	ListenableFuture<Void> publishMessage(DeliveryChannel replyTo, Message message) throws IOException;
+
+	ListenableFuture<Void> publishMessage(DeliveryChannel replyTo, String message) throws IOException;
+
+	/**
+	 * Publishes a batch of messages in order. A publication failure does not
+	 * abort the whole batch: the returned futures, one per message, report
+	 * the outcome of each publication.
+	 */
+	List<ListenableFuture<Void>> publishMessages(DeliveryChannel replyTo, List<? extends Message> messages) throws IOException;
+
+	void registerConsumer(MessageHandler handler, String queueName) throws IOException;
+
+	/**
+	 * Consumes the replies to the messages published using
+	 * {@link #publishRequest(DeliveryChannel, Message)} without declaring any
+	 * queue, as RabbitMQ's direct reply-to does. Replies are not acknowledged,
+	 * and only one reply consumer can be registered.
+	 */
+	void registerReplyConsumer(MessageHandler handler) throws IOException;
+
+	/**
+	 * Publishes a message whose replies are to be delivered to the reply
+	 * consumer of the transport, which must have been registered first.
+	 */
+	ListenableFuture<Void> publishRequest(DeliveryChannel replyTo, Message message) throws IOException;
+
+	/**
+	 * Publishes a batch of requests in order, as
+	 * {@link #publishRequest(DeliveryChannel, Message)} does. A publication
+	 * failure does not abort the whole batch: the returned futures, one per
+	 * message, report the outcome of each publication.
+	 */
+	List<ListenableFuture<Void>> publishRequests(DeliveryChannel replyTo, List<? extends Message> messages) throws IOException;
+
+	/**
+	 * Publishes a reply to the {@code reply_to} address of a request through
+	 * the default exchange. The address is used verbatim as routing key, as
+	 * direct reply-to addresses are not valid delivery channel routing keys.
+	 */
+	ListenableFuture<Void> publishReply(String replyTo, Message message) throws IOException;
+
+	ListenableFuture<Void> publishReply(String replyTo, String message) throws IOException;
+
+}
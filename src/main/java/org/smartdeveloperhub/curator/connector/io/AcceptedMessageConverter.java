@@ -33,6 +33,7 @@ import org.smartdeveloperhub.curator.protocol.vocabulary.FOAF;
 import org.smartdeveloperhub.curator.protocol.vocabulary.TYPES;
 import org.smartdeveloperhub.curator.protocol.vocabulary.XSD;
 
+import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
 
@@ -62,6 +63,11 @@ final class AcceptedMessageConverter extends ModelMessageConverter<AcceptedMessa
 					withTypedLiteral(message.submittedBy().agentId(), TYPES.UUID_TYPE);
 	}
 
+	@Override
+	protected AcceptedMessage decode(MessageGraph graph, Node node) {
+		return DirectMessageDecoder.acceptedMessage(graph, node);
+	}
+
 	@Override
 	protected AcceptedMessage parse(Model model, Resource resource) {
 		return AcceptedMessageParser.fromModel(model, resource);
@@ -31,15 +31,13 @@ import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.Accepted
 import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
 import org.smartdeveloperhub.curator.protocol.AcceptedMessage;
 
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
 
 final class AcceptedMessageParser extends ResponseMessageParser<AcceptedMessage, AcceptedMessageBuilder> {
 
-	private static final Query QUERY=
-		QueryFactory.create(
+	private static final QueryPlan QUERY=
+		QueryPlan.compile(
 			ResourceUtil.
 				loadResource(
 					AcceptedMessageParser.class,
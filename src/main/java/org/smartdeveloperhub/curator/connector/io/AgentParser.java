@@ -31,8 +31,6 @@ import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.AgentBui
 import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
 import org.smartdeveloperhub.curator.protocol.Agent;
 
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
@@ -55,8 +53,8 @@ final class AgentParser extends Parser<Agent,AgentBuilder>{
 
 	}
 
-	private static final Query QUERY=
-		QueryFactory.create(
+	private static final QueryPlan QUERY=
+		QueryPlan.compile(
 			ResourceUtil.loadResource(AgentParser.class,"agent.sparql"));
 
 	private AgentParser(Model model, Resource resource) {
@@ -35,8 +35,6 @@ import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.BindingB
 import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
 import org.smartdeveloperhub.curator.protocol.Binding;
 
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.RDFNode;
@@ -89,8 +87,8 @@ final class BindingParser extends Parser<Binding, BindingBuilder> {
 
 	private static final Logger LOGGER=LoggerFactory.getLogger(BindingParser.class);
 
-	private static final Query QUERY=
-		QueryFactory.create(
+	private static final QueryPlan QUERY=
+		QueryPlan.compile(
 			ResourceUtil.
 				loadResource(
 					BindingParser.class,
@@ -27,6 +27,7 @@
 package org.smartdeveloperhub.curator.connector.io;
 
 import java.net.URI;
+import java.util.Set;
 
 import org.smartdeveloperhub.curator.connector.rdf.ModelHelper;
 import org.smartdeveloperhub.curator.connector.rdf.PropertyHelper;
@@ -43,15 +44,18 @@ import org.smartdeveloperhub.curator.protocol.vocabulary.RDF;
 import org.smartdeveloperhub.curator.protocol.vocabulary.TYPES;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 
 final class BindingSerializer {
 
 	private static final ImmutableList<String>
 	PROTECTED_NAMESPACES=ImmutableList.of(STOA.NAMESPACE,AMQP.NAMESPACE,TYPES.NAMESPACE);
 	private final ModelHelper helper;
+	private final Set<String> variables;
 
 	private BindingSerializer(ModelHelper helper) {
 		this.helper = helper;
+		this.variables = Sets.newHashSet();
 	}
 
 	private void serialize(NamedValue target, URI property, Value value) {
@@ -64,7 +68,7 @@ final class BindingSerializer {
 		} else if(value instanceof Variable) {
 			final String name = ((Variable)value).name();
 			propertyHelper.withBlankNode(name);
-			this.helper.blankNode(name).type(STOA.VARIABLE_TYPE);
+			declareVariable(name);
 		} else { // MUST BE LITERAL
 			Literal literal=(Literal)value;
 			propertyHelper.
@@ -79,12 +83,19 @@ final class BindingSerializer {
 		if(target instanceof Resource) {
 			resourceHelper=this.helper.resource(((Resource)target).name());
 		} else {
-			resourceHelper=this.helper.blankNode(((Variable)target).name());
-			resourceHelper.type(STOA.VARIABLE_TYPE);
+			final String name=((Variable)target).name();
+			declareVariable(name);
+			resourceHelper=this.helper.blankNode(name);
 		}
 		return resourceHelper;
 	}
 
+	private void declareVariable(String name) {
+		if(this.variables.add(name)) {
+			this.helper.blankNode(name).type(STOA.VARIABLE_TYPE);
+		}
+	}
+
 	private void verifySerializability(Binding binding) {
 		verifyNotProtected("property", binding.property());
 		if(binding.property().toString().equals(RDF.TYPE)) {
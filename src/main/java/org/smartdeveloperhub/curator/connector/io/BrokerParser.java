@@ -31,8 +31,6 @@ import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.BrokerBu
 import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
 import org.smartdeveloperhub.curator.protocol.Broker;
 
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
@@ -83,8 +81,8 @@ final class BrokerParser extends Parser<Broker,BrokerBuilder> {
 
 	}
 
-	private static final Query QUERY=
-		QueryFactory.create(
+	private static final QueryPlan QUERY=
+		QueryPlan.compile(
 			ResourceUtil.loadResource(BrokerParser.class,"broker.sparql"));
 
 	private BrokerParser(Model model, Resource resource) {
@@ -30,6 +30,7 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,8 +44,12 @@ import org.smartdeveloperhub.curator.protocol.Variable;
 import org.smartdeveloperhub.curator.protocol.vocabulary.STOA;
 import org.smartdeveloperhub.curator.protocol.vocabulary.RDF;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import com.hp.hpl.jena.rdf.model.AnonId;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
@@ -59,7 +64,8 @@ final class ConstraintParser {
 	private static final Logger LOGGER=LoggerFactory.getLogger(ConstraintParser.class);
 
 	private final Deque<Resource> pendingResources;
-	private final List<Resource> parsedResources;
+	private final Set<Resource> visitedResources;
+	private final ListMultimap<Resource,Statement> referrals;
 	private final Map<Resource,NamedValue> resourceTarget;
 	private final Map<Resource,List<Binding>> resourceBindings;
 	private final Model model;
@@ -68,8 +74,9 @@ final class ConstraintParser {
 	private ConstraintParser(Model model, Resource resource, List<Variable> variables) {
 		this.model = model;
 		this.resource = resource;
-		this.pendingResources=Lists.newLinkedList();
-		this.parsedResources=Lists.newArrayList();
+		this.pendingResources=Queues.newArrayDeque();
+		this.visitedResources=Sets.newHashSet();
+		this.referrals=indexReferrals(model);
 		this.resourceTarget=Maps.newLinkedHashMap();
 		this.resourceBindings=Maps.newLinkedHashMap();
 		boostrap(variables);
@@ -89,7 +96,9 @@ final class ConstraintParser {
 	private void boostrap(List<Variable> variables) {
 		for(Variable variable:variables) {
 			Resource blankNode = this.model.createResource(AnonId.create(variable.name()));
-			this.pendingResources.add(blankNode);
+			if(this.visitedResources.add(blankNode)) {
+				this.pendingResources.add(blankNode);
+			}
 			this.resourceTarget.put(blankNode, variable);
 		}
 	}
@@ -145,17 +154,11 @@ final class ConstraintParser {
 	}
 
 	private void enqueueReferrals(Resource resource) {
-		StmtIterator iterator=this.model.listStatements(null,null,resource);
-		try {
-			while(iterator.hasNext()) {
-				final Statement statement = iterator.next();
-				final Resource subject = statement.getSubject();
-				final Property predicate = statement.getPredicate();
-				LOGGER.trace("  - Found {} referred by {} via {}",resource,subject,predicate);
-				addPendingResource(subject);
-			}
-		} finally {
-			iterator.close();
+		for(Statement statement:this.referrals.get(resource)) {
+			final Resource subject = statement.getSubject();
+			final Property predicate = statement.getPredicate();
+			LOGGER.trace("  - Found {} referred by {} via {}",resource,subject,predicate);
+			addPendingResource(subject);
 		}
 	}
 
@@ -167,9 +170,7 @@ final class ConstraintParser {
 	}
 
 	private Resource nextPendingResource() {
-		Resource pendingResource=this.pendingResources.pop();
-		this.parsedResources.add(pendingResource);
-		return pendingResource;
+		return this.pendingResources.pop();
 	}
 
 	private Binding createBinding(Statement statement) {
@@ -211,7 +212,7 @@ final class ConstraintParser {
 	}
 
 	private void addPendingResource(Resource resource) {
-		if(!this.resource.equals(resource) && !this.pendingResources.contains(resource) && !this.parsedResources.contains(resource)) {
+		if(!this.resource.equals(resource) && this.visitedResources.add(resource)) {
 			LOGGER.trace("    + Added pending resource {}",resource);
 			this.pendingResources.add(resource);
 		}
@@ -227,6 +228,28 @@ final class ConstraintParser {
 		return result;
 	}
 
+	/**
+	 * Index the statements of the model by object, so that the resources
+	 * referring to a given resource can be found without scanning the model
+	 * for each visited resource.
+	 */
+	private static ListMultimap<Resource,Statement> indexReferrals(Model model) {
+		ListMultimap<Resource,Statement> referrals=ArrayListMultimap.create();
+		StmtIterator iterator=model.listStatements();
+		try {
+			while(iterator.hasNext()) {
+				final Statement statement = iterator.next();
+				final RDFNode object = statement.getObject();
+				if(object.isResource()) {
+					referrals.put(object.asResource(),statement);
+				}
+			}
+		} finally {
+			iterator.close();
+		}
+		return referrals;
+	}
+
 	static List<Constraint> fromModel(Model model, Resource resource, List<Variable> variables) {
 		return new ConstraintParser(model,resource,variables).parse();
 	}
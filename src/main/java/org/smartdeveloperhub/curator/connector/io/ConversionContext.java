@@ -39,10 +39,12 @@ public final class ConversionContext {
 
 	private final URI base;
 	private final Map<String, String> namespacePrefixes;
+	private final WireFormat wireFormat;
 
-	private ConversionContext(final URI base, final Map<String, String> namespacePrefixes) {
+	private ConversionContext(final URI base, final Map<String, String> namespacePrefixes, final WireFormat wireFormat) {
 		this.base=base;
 		this.namespacePrefixes=namespacePrefixes;
+		this.wireFormat=wireFormat;
 	}
 
 	public URI base() {
@@ -53,11 +55,16 @@ public final class ConversionContext {
 		return Collections.unmodifiableMap(this.namespacePrefixes);
 	}
 
+	public WireFormat wireFormat() {
+		return this.wireFormat;
+	}
+
 	public ConversionContext withBase(final URI base) {
 		return
 			new ConversionContext(
 				base==null?NULL_BASE:base,
-				this.namespacePrefixes);
+				this.namespacePrefixes,
+				this.wireFormat);
 	}
 
 	public ConversionContext withNamespacePrefix(final String namespace, final String prefix) {
@@ -65,11 +72,19 @@ public final class ConversionContext {
 		Preconditions.checkNotNull(prefix,"Prefix cannot be null");
 		final Map<String, String> newNamespacePrefixes = Maps.newLinkedHashMap(this.namespacePrefixes);
 		newNamespacePrefixes.put(namespace, prefix);
-		return new ConversionContext(this.base,newNamespacePrefixes);
+		return new ConversionContext(this.base,newNamespacePrefixes,this.wireFormat);
+	}
+
+	public ConversionContext withWireFormat(final WireFormat wireFormat) {
+		return
+			new ConversionContext(
+				this.base,
+				this.namespacePrefixes,
+				wireFormat==null?WireFormat.TURTLE:wireFormat);
 	}
 
 	public static ConversionContext newInstance() {
-		return new ConversionContext(NULL_BASE,Maps.<String,String>newLinkedHashMap());
+		return new ConversionContext(NULL_BASE,Maps.<String,String>newLinkedHashMap(),WireFormat.TURTLE);
 	}
 
 }
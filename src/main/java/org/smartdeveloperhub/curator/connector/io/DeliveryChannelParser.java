@@ -31,8 +31,6 @@ import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.Delivery
 import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
 import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
 
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
@@ -82,8 +80,8 @@ final class DeliveryChannelParser extends Parser<DeliveryChannel,DeliveryChannel
 
 	}
 
-	private static final Query QUERY=
-		QueryFactory.create(
+	private static final QueryPlan QUERY=
+		QueryPlan.compile(
 			ResourceUtil.loadResource(DeliveryChannelParser.class,"deliveryChannel.sparql"));
 
 	private DeliveryChannelParser(final Model model, final Resource resource) {
@@ -0,0 +1,445 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import java.util.List;
+
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.BindingBuilder;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.BrokerBuilder;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.DeliveryChannelBuilder;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.EnrichmentRequestMessageBuilder;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.EnrichmentResponseMessageBuilder;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.FailureMessageBuilder;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.MessageBuilder;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.ResponseMessageBuilder;
+import org.smartdeveloperhub.curator.connector.protocol.ValidationException;
+import org.smartdeveloperhub.curator.protocol.AcceptedMessage;
+import org.smartdeveloperhub.curator.protocol.Agent;
+import org.smartdeveloperhub.curator.protocol.Binding;
+import org.smartdeveloperhub.curator.protocol.Broker;
+import org.smartdeveloperhub.curator.protocol.Constraint;
+import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
+import org.smartdeveloperhub.curator.protocol.DisconnectMessage;
+import org.smartdeveloperhub.curator.protocol.EnrichmentRequestMessage;
+import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
+import org.smartdeveloperhub.curator.protocol.FailureMessage;
+import org.smartdeveloperhub.curator.protocol.Message;
+import org.smartdeveloperhub.curator.protocol.ResponseMessage;
+import org.smartdeveloperhub.curator.protocol.Variable;
+import org.smartdeveloperhub.curator.protocol.vocabulary.AMQP;
+import org.smartdeveloperhub.curator.protocol.vocabulary.FOAF;
+import org.smartdeveloperhub.curator.protocol.vocabulary.RDF;
+import org.smartdeveloperhub.curator.protocol.vocabulary.STOA;
+import org.smartdeveloperhub.curator.protocol.vocabulary.TYPES;
+import org.smartdeveloperhub.curator.protocol.vocabulary.XSD;
+
+import com.google.common.collect.Lists;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+
+/**
+ * Decodes messages straight from the parsed triples, without running the
+ * parser queries. Only definitions that exactly match the shape enforced by
+ * the queries are decoded; anything else yields {@code null} so that the
+ * query-based parsers, which define the reference semantics, take over.
+ */
+final class DirectMessageDecoder {
+
+	private static final class UndecidedException extends RuntimeException {
+
+		private static final long serialVersionUID=-4046489633454961407L;
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+
+	}
+
+	private static final UndecidedException UNDECIDED=new UndecidedException();
+
+	private final MessageGraph graph;
+
+	private DirectMessageDecoder(final MessageGraph graph) {
+		this.graph=graph;
+	}
+
+	private Node mandatoryValue(final Node subject, final String property) {
+		final Node value=this.graph.uniqueValue(subject,property);
+		if(value==null) {
+			throw UNDECIDED;
+		}
+		return value;
+	}
+
+	private Node optionalValue(final Node subject, final String property) {
+		if(!this.graph.hasValues(subject,property)) {
+			return null;
+		}
+		return mandatoryValue(subject,property);
+	}
+
+	private void forbidValue(final Node subject, final String property) {
+		if(this.graph.hasValues(subject,property)) {
+			throw UNDECIDED;
+		}
+	}
+
+	private void checkType(final Node node, final String type) {
+		if(!this.graph.isA(node,type)) {
+			throw UNDECIDED;
+		}
+	}
+
+	private String literal(final Node value, final String datatype) {
+		if(!value.isLiteral() || !datatype.equals(datatype(value))) {
+			throw UNDECIDED;
+		}
+		return value.getLiteralLexicalForm();
+	}
+
+	private Node resource(final Node value) {
+		if(value.isLiteral()) {
+			throw UNDECIDED;
+		}
+		return value;
+	}
+
+	private String uri(final Node value) {
+		if(!value.isURI()) {
+			throw UNDECIDED;
+		}
+		return value.getURI();
+	}
+
+	private Node variable(final Node value) {
+		if(!value.isBlank()) {
+			throw UNDECIDED;
+		}
+		checkType(value,STOA.VARIABLE_TYPE);
+		return value;
+	}
+
+	private <T extends Message, B extends MessageBuilder<T,B>> B message(final Node node, final B builder) {
+		return
+			builder.
+				withMessageId(literal(mandatoryValue(node,STOA.MESSAGE_ID),TYPES.UUID_TYPE)).
+				withSubmittedOn(literal(mandatoryValue(node,STOA.SUBMITTED_ON),XSD.DATE_TIME_TYPE)).
+				withSubmittedBy(agent(resource(mandatoryValue(node,STOA.SUBMITTED_BY))));
+	}
+
+	private <T extends ResponseMessage, B extends ResponseMessageBuilder<T,B>> B response(final Node node, final B builder) {
+		forbidValue(node,STOA.REPLY_TO);
+		return
+			message(node,builder).
+				withResponseTo(literal(mandatoryValue(node,STOA.RESPONSE_TO),TYPES.UUID_TYPE)).
+				withResponseNumber(literal(mandatoryValue(node,STOA.RESPONSE_NUMBER),XSD.UNSIGNED_LONG_TYPE));
+	}
+
+	private Agent agent(final Node node) {
+		checkType(node,FOAF.AGENT_TYPE);
+		return
+			ProtocolFactory.
+				newAgent().
+					withAgentId(literal(mandatoryValue(node,STOA.AGENT_ID),TYPES.UUID_TYPE)).
+					build();
+	}
+
+	private DeliveryChannel deliveryChannel(final Node node) {
+		checkType(node,STOA.DELIVERY_CHANNEL_TYPE);
+		final DeliveryChannelBuilder builder=ProtocolFactory.newDeliveryChannel();
+		final Node broker=optionalValue(node,AMQP.BROKER);
+		if(broker!=null) {
+			builder.withBroker(broker(resource(broker)));
+		}
+		final Node exchangeName=optionalValue(node,AMQP.EXCHANGE_NAME);
+		if(exchangeName!=null) {
+			builder.withExchangeName(literal(exchangeName,AMQP.NAME_TYPE));
+		}
+		final Node queueName=optionalValue(node,AMQP.QUEUE_NAME);
+		if(queueName!=null) {
+			literal(queueName,AMQP.NAME_TYPE);
+		}
+		builder.withRoutingKey(literal(mandatoryValue(node,AMQP.ROUTING_KEY),AMQP.ROUTING_KEY_TYPE));
+		return builder.build();
+	}
+
+	private Broker broker(final Node node) {
+		checkType(node,AMQP.BROKER_TYPE);
+		final BrokerBuilder builder=ProtocolFactory.newBroker();
+		final Node host=optionalValue(node,AMQP.HOST);
+		if(host!=null) {
+			builder.withHost(literal(host,TYPES.HOSTNAME_TYPE));
+		}
+		final Node port=optionalValue(node,AMQP.PORT);
+		if(port!=null) {
+			builder.withPort(literal(port,TYPES.PORT_TYPE));
+		}
+		final Node virtualHost=optionalValue(node,AMQP.VIRTUAL_HOST);
+		if(virtualHost!=null) {
+			builder.withVirtualHost(literal(virtualHost,AMQP.PATH_TYPE));
+		}
+		return builder.build();
+	}
+
+	private List<Binding> bindings(final Node target) {
+		final List<Binding> bindings=Lists.newArrayList();
+		for(final Triple triple:this.graph.statements(target)) {
+			final Binding binding=binding(triple);
+			if(binding!=null) {
+				bindings.add(binding);
+			}
+		}
+		return bindings;
+	}
+
+	private Binding binding(final Triple triple) {
+		final Node property=triple.getPredicate();
+		final Node value=triple.getObject();
+		if(RDF.TYPE.equals(property.getURI()) && value.isURI() && STOA.VARIABLE_TYPE.equals(value.getURI())) {
+			return null;
+		}
+		final BindingBuilder builder=
+			ProtocolFactory.
+				newBinding().
+					withProperty(property.getURI());
+		if(value.isLiteral()) {
+			builder.
+				withValue(
+					ProtocolFactory.
+						newLiteral().
+							withLexicalForm(value.getLiteralLexicalForm()).
+							withDatatype(value.getLiteralDatatypeURI()).
+							withLanguage(value.getLiteralLanguage()));
+		} else if(value.isURI()) {
+			builder.withValue(ProtocolFactory.newResource(value.getURI()));
+		} else {
+			builder.withValue(ProtocolFactory.newVariable(value.getBlankNodeLabel()));
+		}
+		return builder.build();
+	}
+
+	private List<Variable> filters(final Node targetResource, final EnrichmentRequestMessageBuilder builder) {
+		final List<Variable> variables=Lists.newArrayList();
+		for(final Triple triple:this.graph.statements(targetResource)) {
+			final Node value=triple.getObject();
+			if(!value.isBlank() || !this.graph.isA(value,STOA.VARIABLE_TYPE)) {
+				continue;
+			}
+			final Variable variable=ProtocolFactory.newVariable(value.getBlankNodeLabel());
+			builder.
+				withFilter(
+					ProtocolFactory.
+						newFilter().
+							withProperty(triple.getPredicate().getURI()).
+							withVariable(variable));
+			variables.add(variable);
+		}
+		return variables;
+	}
+
+	private AcceptedMessage decodeAccepted(final Node node) {
+		return response(node,ProtocolFactory.newAcceptedMessage()).build();
+	}
+
+	private FailureMessage decodeFailure(final Node node) {
+		final FailureMessageBuilder builder=
+			response(node,ProtocolFactory.newFailureMessage()).
+				withCode(literal(mandatoryValue(node,STOA.CODE),XSD.UNSIGNED_LONG_TYPE)).
+				withReason(literal(mandatoryValue(node,STOA.REASON),XSD.STRING_TYPE));
+		final Node subcode=optionalValue(node,STOA.SUBCODE);
+		if(subcode!=null) {
+			builder.withSubcode(literal(subcode,XSD.UNSIGNED_LONG_TYPE));
+		}
+		final Node detail=optionalValue(node,STOA.DETAIL);
+		if(detail!=null) {
+			builder.withDetail(literal(detail,XSD.STRING_TYPE));
+		}
+		return builder.build();
+	}
+
+	private DisconnectMessage decodeDisconnect(final Node node) {
+		forbidValue(node,STOA.REPLY_TO);
+		return message(node,ProtocolFactory.newDisconnectMessage()).build();
+	}
+
+	private EnrichmentRequestMessage decodeEnrichmentRequest(final Node node) {
+		final EnrichmentRequestMessageBuilder builder=
+			message(node,ProtocolFactory.newEnrichmentRequestMessage()).
+				withReplyTo(deliveryChannel(resource(mandatoryValue(node,STOA.REPLY_TO))));
+		final Node targetResource=mandatoryValue(node,STOA.TARGET_RESOURCE);
+		builder.withTargetResource(uri(targetResource));
+		final List<Variable> variables=filters(targetResource,builder);
+		final List<Constraint> constraints=
+			ConstraintParser.
+				fromModel(
+					this.graph.model(),
+					this.graph.resource(targetResource),
+					variables);
+		for(final Constraint constraint:constraints) {
+			builder.withConstraint(constraint);
+		}
+		return builder.build();
+	}
+
+	private EnrichmentResponseMessage decodeEnrichmentResponse(final Node node) {
+		final EnrichmentResponseMessageBuilder builder=
+			response(node,ProtocolFactory.newEnrichmentResponseMessage()).
+				withTargetResource(uri(mandatoryValue(node,STOA.TARGET_RESOURCE)));
+		final Node additionTarget=optionalValue(node,STOA.ADDITION_TARGET);
+		if(additionTarget!=null) {
+			for(final Binding binding:bindings(variable(additionTarget))) {
+				builder.withAddition(binding);
+			}
+		}
+		final Node removalTarget=optionalValue(node,STOA.REMOVAL_TARGET);
+		if(removalTarget!=null) {
+			for(final Binding binding:bindings(variable(removalTarget))) {
+				builder.withRemoval(binding);
+			}
+		}
+		return builder.build();
+	}
+
+	private boolean streamEnrichmentResponse(final Node node, final EnrichmentResponseSink sink) {
+		final EnrichmentResponseMessage header;
+		final Node additionTarget;
+		final Node removalTarget;
+		try {
+			header=
+				response(node,ProtocolFactory.newEnrichmentResponseMessage()).
+					withTargetResource(uri(mandatoryValue(node,STOA.TARGET_RESOURCE))).
+					build();
+			additionTarget=optionalVariable(node,STOA.ADDITION_TARGET);
+			removalTarget=optionalVariable(node,STOA.REMOVAL_TARGET);
+		} catch (final UndecidedException | ValidationException | ConversionException e) {
+			return false;
+		}
+		if(sink.start(header)) {
+			try {
+				streamBindings(additionTarget,sink,true);
+				streamBindings(removalTarget,sink,false);
+			} finally {
+				sink.end();
+			}
+		}
+		return true;
+	}
+
+	private void streamBindings(final Node target, final EnrichmentResponseSink sink, final boolean additions) {
+		if(target==null) {
+			return;
+		}
+		final ExtendedIterator<Triple> iterator=this.graph.find(target);
+		try {
+			while(iterator.hasNext()) {
+				final Binding binding=binding(iterator.next());
+				if(binding==null) {
+					continue;
+				}
+				if(additions) {
+					sink.addition(binding);
+				} else {
+					sink.removal(binding);
+				}
+			}
+		} finally {
+			iterator.close();
+		}
+	}
+
+	private Node optionalVariable(final Node node, final String property) {
+		final Node value=optionalValue(node,property);
+		if(value==null) {
+			return null;
+		}
+		return variable(value);
+	}
+
+	private static String datatype(final Node literal) {
+		final String datatype=literal.getLiteralDatatypeURI();
+		if(datatype==null && literal.getLiteralLanguage().isEmpty()) {
+			return XSD.STRING_TYPE;
+		}
+		return datatype;
+	}
+
+	static AcceptedMessage acceptedMessage(final MessageGraph graph, final Node node) {
+		try {
+			return new DirectMessageDecoder(graph).decodeAccepted(node);
+		} catch (final UndecidedException | ValidationException | ConversionException e) {
+			return null;
+		}
+	}
+
+	static FailureMessage failureMessage(final MessageGraph graph, final Node node) {
+		try {
+			return new DirectMessageDecoder(graph).decodeFailure(node);
+		} catch (final UndecidedException | ValidationException | ConversionException e) {
+			return null;
+		}
+	}
+
+	static DisconnectMessage disconnectMessage(final MessageGraph graph, final Node node) {
+		try {
+			return new DirectMessageDecoder(graph).decodeDisconnect(node);
+		} catch (final UndecidedException | ValidationException | ConversionException e) {
+			return null;
+		}
+	}
+
+	static EnrichmentRequestMessage enrichmentRequestMessage(final MessageGraph graph, final Node node) {
+		try {
+			return new DirectMessageDecoder(graph).decodeEnrichmentRequest(node);
+		} catch (final UndecidedException | ValidationException | ConversionException e) {
+			return null;
+		}
+	}
+
+	static EnrichmentResponseMessage enrichmentResponseMessage(final MessageGraph graph, final Node node) {
+		try {
+			return new DirectMessageDecoder(graph).decodeEnrichmentResponse(node);
+		} catch (final UndecidedException | ValidationException | ConversionException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Feeds the enrichment response straight from the graph to the sink,
+	 * without materializing the additions and removals. Returns {@code false}
+	 * if the response cannot be decoded directly, in which case the sink has
+	 * not been notified at all. Once the sink has been started it is always
+	 * ended, even if a binding turns out to be invalid: the failure is then
+	 * propagated after ending the sink.
+	 */
+	static boolean enrichmentResponse(final MessageGraph graph, final Node node, final EnrichmentResponseSink sink) {
+		return new DirectMessageDecoder(graph).streamEnrichmentResponse(node,sink);
+	}
+
+}
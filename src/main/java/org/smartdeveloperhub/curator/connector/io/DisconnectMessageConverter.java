@@ -33,6 +33,7 @@ import org.smartdeveloperhub.curator.protocol.vocabulary.FOAF;
 import org.smartdeveloperhub.curator.protocol.vocabulary.TYPES;
 import org.smartdeveloperhub.curator.protocol.vocabulary.XSD;
 
+import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
 
@@ -55,6 +56,11 @@ final class DisconnectMessageConverter extends ModelMessageConverter<DisconnectM
 					withTypedLiteral(message.submittedBy().agentId(), TYPES.UUID_TYPE);
 	}
 
+	@Override
+	protected DisconnectMessage decode(MessageGraph graph, Node node) {
+		return DirectMessageDecoder.disconnectMessage(graph, node);
+	}
+
 	@Override
 	protected DisconnectMessage parse(Model model, Resource resource) {
 		return DisconnectMessageParser.fromModel(model, resource);
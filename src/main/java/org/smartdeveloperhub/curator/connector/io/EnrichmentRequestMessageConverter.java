@@ -44,6 +44,7 @@ import org.smartdeveloperhub.curator.protocol.vocabulary.FOAF;
 import org.smartdeveloperhub.curator.protocol.vocabulary.TYPES;
 import org.smartdeveloperhub.curator.protocol.vocabulary.XSD;
 
+import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
 
@@ -87,6 +88,11 @@ final class EnrichmentRequestMessageConverter extends ModelMessageConverter<Enri
 		serializeConstraints(helper,message.constraints());
 	}
 
+	@Override
+	protected EnrichmentRequestMessage decode(final MessageGraph graph, final Node node) {
+		return DirectMessageDecoder.enrichmentRequestMessage(graph, node);
+	}
+
 	@Override
 	protected EnrichmentRequestMessage parse(final Model model, final Resource resource) {
 		return EnrichmentRequestMessageParser.fromModel(model, resource);
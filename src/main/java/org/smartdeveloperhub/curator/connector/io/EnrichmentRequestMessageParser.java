@@ -37,8 +37,6 @@ import org.smartdeveloperhub.curator.protocol.Filter;
 import org.smartdeveloperhub.curator.protocol.Variable;
 
 import com.google.common.collect.Lists;
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
 
@@ -82,8 +80,8 @@ final class EnrichmentRequestMessageParser extends RequestMessageParser<Enrichme
 
 	}
 
-	private static final Query QUERY=
-		QueryFactory.create(
+	private static final QueryPlan QUERY=
+		QueryPlan.compile(
 			ResourceUtil.
 				loadResource(
 					EnrichmentRequestMessageParser.class,
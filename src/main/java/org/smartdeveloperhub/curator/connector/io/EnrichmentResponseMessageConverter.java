@@ -29,6 +29,7 @@ package org.smartdeveloperhub.curator.connector.io;
 import java.util.List;
 
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
+import org.smartdeveloperhub.curator.connector.protocol.ValidationException;
 import org.smartdeveloperhub.curator.connector.rdf.ModelHelper;
 import org.smartdeveloperhub.curator.protocol.Binding;
 import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
@@ -38,6 +39,7 @@ import org.smartdeveloperhub.curator.protocol.vocabulary.FOAF;
 import org.smartdeveloperhub.curator.protocol.vocabulary.TYPES;
 import org.smartdeveloperhub.curator.protocol.vocabulary.XSD;
 
+import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
 
@@ -91,6 +93,11 @@ final class EnrichmentResponseMessageConverter extends ModelMessageConverter<Enr
 		}
 	}
 
+	@Override
+	protected EnrichmentResponseMessage decode(MessageGraph graph, Node node) {
+		return DirectMessageDecoder.enrichmentResponseMessage(graph, node);
+	}
+
 	@Override
 	protected EnrichmentResponseMessage parse(Model model, Resource resource) {
 		return EnrichmentResponseMessageParser.fromModel(model, resource);
@@ -101,4 +108,38 @@ final class EnrichmentResponseMessageConverter extends ModelMessageConverter<Enr
 		return STOA.ENRICHMENT_RESPONSE_TYPE;
 	}
 
+	void stream(MessageGraph graph, EnrichmentResponseSink sink) throws MessageConversionException {
+		final Node node=getTargetNode(graph);
+		try {
+			if(!DirectMessageDecoder.enrichmentResponse(graph,node,sink)) {
+				replay(parse(graph.model(),graph.resource(node)),sink);
+			}
+		} catch (ValidationException e) {
+			throw new InvalidDefinitionFoundException(messageType(),e);
+		}
+	}
+
+	static void replay(EnrichmentResponseMessage message, EnrichmentResponseSink sink) {
+		final EnrichmentResponseMessage header=
+			ProtocolFactory.
+				newEnrichmentResponseMessage().
+					withMessageId(message.messageId()).
+					withSubmittedOn(message.submittedOn()).
+					withSubmittedBy(message.submittedBy()).
+					withResponseTo(message.responseTo()).
+					withResponseNumber(message.responseNumber()).
+					withTargetResource(message.targetResource()).
+					build();
+		if(!sink.start(header)) {
+			return;
+		}
+		for(Binding binding:message.additions()) {
+			sink.addition(binding);
+		}
+		for(Binding binding:message.removals()) {
+			sink.removal(binding);
+		}
+		sink.end();
+	}
+
 }
@@ -33,6 +33,7 @@ import org.smartdeveloperhub.curator.protocol.vocabulary.FOAF;
 import org.smartdeveloperhub.curator.protocol.vocabulary.TYPES;
 import org.smartdeveloperhub.curator.protocol.vocabulary.XSD;
 
+import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
 
@@ -78,6 +79,11 @@ final class FailureMessageConverter extends ModelMessageConverter<FailureMessage
 		}
 	}
 
+	@Override
+	protected FailureMessage decode(MessageGraph graph, Node node) {
+		return DirectMessageDecoder.failureMessage(graph, node);
+	}
+
 	@Override
 	protected FailureMessage parse(Model model, Resource resource) {
 		return FailureMessageParser.fromModel(model, resource);
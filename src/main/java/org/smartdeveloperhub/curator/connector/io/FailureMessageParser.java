@@ -31,8 +31,6 @@ import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.FailureM
 import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
 import org.smartdeveloperhub.curator.protocol.FailureMessage;
 
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
@@ -95,8 +93,8 @@ final class FailureMessageParser extends ResponseMessageParser<FailureMessage, F
 		}
 	}
 
-	private static final Query QUERY=
-		QueryFactory.create(
+	private static final QueryPlan QUERY=
+		QueryPlan.compile(
 			ResourceUtil.
 				loadResource(
 					FailureMessageParser.class,
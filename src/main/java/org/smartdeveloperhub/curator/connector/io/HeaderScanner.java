@@ -0,0 +1,114 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import java.util.Locale;
+
+import org.smartdeveloperhub.curator.protocol.vocabulary.STOA;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Finds the request a response message refers to without parsing the body.
+ * The body is scanned for the local name of the {@code stoa:responseTo}
+ * property, and the first UUID found right after it is taken as its value.
+ * The scan relies on every wire format keeping the value close to the
+ * predicate: Turtle and N-Triples write the statement on its own, and RDF
+ * Thrift writes the terms of a triple one after the other as raw UTF-8.
+ */
+public final class HeaderScanner {
+
+	private static final byte[] RESPONSE_TO=
+		STOA.RESPONSE_TO.
+			substring(STOA.NAMESPACE.length()).
+			getBytes(Charsets.US_ASCII);
+
+	private static final int UUID_LENGTH=36;
+
+	private static final int MAX_VALUE_OFFSET=64;
+
+	private HeaderScanner() {
+	}
+
+	/**
+	 * Returns the identifier of the request the message responds to, or
+	 * {@code null} if it cannot be found in the body.
+	 */
+	public static String responseTo(final byte[] body) {
+		int from=0;
+		while(true) {
+			final int predicate=indexOf(body,RESPONSE_TO,from);
+			if(predicate<0) {
+				return null;
+			}
+			from=predicate+RESPONSE_TO.length;
+			final int limit=Math.min(body.length-UUID_LENGTH,from+MAX_VALUE_OFFSET);
+			for(int i=from;i<=limit;i++) {
+				if(isUUID(body,i)) {
+					return new String(body,i,UUID_LENGTH,Charsets.US_ASCII).toLowerCase(Locale.ENGLISH);
+				}
+			}
+		}
+	}
+
+	private static int indexOf(final byte[] body, final byte[] target, final int from) {
+		for(int i=from;i<=body.length-target.length;i++) {
+			if(startsWith(body,target,i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean startsWith(final byte[] body, final byte[] target, final int offset) {
+		for(int j=0;j<target.length;j++) {
+			if(body[offset+j]!=target[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isUUID(final byte[] body, final int offset) {
+		for(int i=0;i<UUID_LENGTH;i++) {
+			final byte b=body[offset+i];
+			if(i==8 || i==13 || i==18 || i==23) {
+				if(b!='-') {
+					return false;
+				}
+			} else if(!isHexDigit(b)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isHexDigit(final byte b) {
+		return b>='0' && b<='9' || b>='a' && b<='f' || b>='A' && b<='F';
+	}
+
+}
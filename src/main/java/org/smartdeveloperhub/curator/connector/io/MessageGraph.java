@@ -0,0 +1,204 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.smartdeveloperhub.curator.protocol.vocabulary.RDF;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.sparql.graph.GraphFactory;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+
+final class MessageGraph {
+
+	private static final Node TYPE=NodeFactory.createURI(RDF.TYPE);
+
+	private static final class Collector extends StreamRDFBase {
+
+		private final Graph graph;
+		private final Map<String,List<Node>> definitions;
+
+		private Collector() {
+			this.graph=GraphFactory.createGraphMem();
+			this.definitions=Maps.newHashMap();
+		}
+
+		@Override
+		public void triple(final Triple triple) {
+			this.graph.add(triple);
+			final Node object=triple.getObject();
+			if(TYPE.equals(triple.getPredicate()) && object.isURI()) {
+				List<Node> subjects=this.definitions.get(object.getURI());
+				if(subjects==null) {
+					subjects=Lists.newArrayListWithCapacity(1);
+					this.definitions.put(object.getURI(),subjects);
+				}
+				if(!subjects.contains(triple.getSubject())) {
+					subjects.add(triple.getSubject());
+				}
+			}
+		}
+
+	}
+
+	private final Graph graph;
+	private final Map<String,List<Node>> definitions;
+	private Model model;
+
+	private MessageGraph(final Collector collector) {
+		this.graph=collector.graph;
+		this.definitions=collector.definitions;
+	}
+
+	List<Node> definitions(final String type) {
+		final List<Node> result=this.definitions.get(type);
+		if(result==null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	boolean isA(final Node node, final String type) {
+		return definitions(type).contains(node);
+	}
+
+	boolean hasValues(final Node subject, final String property) {
+		return this.graph.contains(subject,NodeFactory.createURI(property),Node.ANY);
+	}
+
+	Node uniqueValue(final Node subject, final String property) {
+		final ExtendedIterator<Triple> iterator=this.graph.find(subject,NodeFactory.createURI(property),Node.ANY);
+		try {
+			if(!iterator.hasNext()) {
+				return null;
+			}
+			final Node value=iterator.next().getObject();
+			return iterator.hasNext()?null:value;
+		} finally {
+			iterator.close();
+		}
+	}
+
+	List<Triple> statements(final Node subject) {
+		return find(subject).toList();
+	}
+
+	ExtendedIterator<Triple> find(final Node subject) {
+		return this.graph.find(subject,Node.ANY,Node.ANY);
+	}
+
+	Model model() {
+		if(this.model==null) {
+			this.model=ModelFactory.createModelForGraph(this.graph);
+		}
+		return this.model;
+	}
+
+	Resource resource(final Node node) {
+		return model().asRDFNode(node).asResource();
+	}
+
+	static MessageGraph parse(final ConversionContext context, final String body, final Lang lang) throws MessageConversionException {
+		final Collector collector=new Collector();
+		try {
+			RDFDataMgr.
+				parse(
+					collector,
+					new StringReader(body),
+					context.base().toString(),
+					lang);
+		} catch (final RiotException e) {
+			throw new MessageConversionException("Could not parse body '"+body+"' as "+lang.getLabel(),e);
+		}
+		return new MessageGraph(collector);
+	}
+
+	static MessageGraph parse(final ConversionContext context, final ByteBuffer body, final WireFormat format) throws MessageConversionException {
+		try {
+			return collect(context,stream(body),format);
+		} catch (final RiotException e) {
+			throw new MessageConversionException("Could not parse body "+describe(body,format)+" as "+format.lang().getLabel(),e);
+		}
+	}
+
+	static MessageGraph parse(final ConversionContext context, final InputStream body, final WireFormat format) throws MessageConversionException {
+		try {
+			return collect(context,body,format);
+		} catch (final RiotException | RuntimeIOException e) {
+			throw new MessageConversionException("Could not parse body stream as "+format.lang().getLabel(),e);
+		}
+	}
+
+	private static MessageGraph collect(final ConversionContext context, final InputStream body, final WireFormat format) {
+		final Collector collector=new Collector();
+		RDFDataMgr.
+			parse(
+				collector,
+				body,
+				context.base().toString(),
+				format.lang());
+		return new MessageGraph(collector);
+	}
+
+	private static InputStream stream(final ByteBuffer body) {
+		if(body.hasArray()) {
+			return new ByteArrayInputStream(body.array(),body.arrayOffset()+body.position(),body.remaining());
+		}
+		final byte[] bytes=new byte[body.remaining()];
+		body.duplicate().get(bytes);
+		return new ByteArrayInputStream(bytes);
+	}
+
+	private static String describe(final ByteBuffer body, final WireFormat format) {
+		return
+			format.isBinary()?
+				"("+body.remaining()+" bytes)":
+				"'"+Charsets.UTF_8.decode(body.duplicate())+"'";
+	}
+
+}
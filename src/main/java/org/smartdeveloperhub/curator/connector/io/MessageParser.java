@@ -29,7 +29,6 @@ package org.smartdeveloperhub.curator.connector.io;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.MessageBuilder;
 import org.smartdeveloperhub.curator.protocol.Message;
 
-import com.hp.hpl.jena.query.Query;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
@@ -80,8 +79,8 @@ abstract class MessageParser<T extends Message, B extends MessageBuilder<T,B>> e
 
 	}
 
-	MessageParser(Model model, Resource resource, String parsedType, String targetVariable, Query query) {
-		super(model,resource,parsedType,targetVariable,query);
+	MessageParser(Model model, Resource resource, String parsedType, String targetVariable, QueryPlan plan) {
+		super(model,resource,parsedType,targetVariable,plan);
 	}
 
 	@Override
@@ -26,9 +26,16 @@
  */
 package org.smartdeveloperhub.curator.connector.io;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.smartdeveloperhub.curator.connector.util.Utf8Encoder;
 import org.smartdeveloperhub.curator.protocol.AcceptedMessage;
 import org.smartdeveloperhub.curator.protocol.DisconnectMessage;
 import org.smartdeveloperhub.curator.protocol.EnrichmentRequestMessage;
@@ -36,12 +43,47 @@ import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
 import org.smartdeveloperhub.curator.protocol.FailureMessage;
 import org.smartdeveloperhub.curator.protocol.Message;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.Maps;
+import com.google.common.io.CharStreams;
 
 public final class MessageUtil {
 
+	private static final class Resolution {
+
+		private final int version;
+		private final Class<?> converterClass;
+		private volatile MessageConverter<?> converter;
+
+		private Resolution(int version, Class<?> converterClass) {
+			this.version=version;
+			this.converterClass=converterClass;
+		}
+
+	}
+
 	private static final ConcurrentMap<Class<?>,Class<?>> CONVERTERS=Maps.newConcurrentMap();
 
+	private static final ConcurrentMap<Class<?>,MessageConverter<?>> INSTANCES=Maps.newConcurrentMap();
+
+	private static final AtomicInteger VERSION=new AtomicInteger();
+
+	private static final ClassValue<Resolution> RESOLUTIONS=new ClassValue<Resolution>() {
+		@Override
+		protected Resolution computeValue(Class<?> messageClass) {
+			final int version=VERSION.get();
+			return new Resolution(version,findConverterClass(messageClass));
+		}
+	};
+
+	private static final Class<?>[] PROTOCOL_MESSAGES={
+		EnrichmentRequestMessage.class,
+		DisconnectMessage.class,
+		EnrichmentResponseMessage.class,
+		AcceptedMessage.class,
+		FailureMessage.class
+	};
+
 	static {
 		MessageUtil.registerConverter(EnrichmentRequestMessage.class,EnrichmentRequestMessageConverter.class);
 		MessageUtil.registerConverter(DisconnectMessage.class, DisconnectMessageConverter.class);
@@ -50,42 +92,173 @@ public final class MessageUtil {
 		MessageUtil.registerConverter(FailureMessage.class,FailureMessageConverter.class);
 	}
 
-	private volatile ConversionContext context;
+	private static final MessageUtil DEFAULT=new MessageUtil(ConversionContext.newInstance());
+
+	private final ConversionContext context;
 
-	private MessageUtil() {
-		this.context=ConversionContext.newInstance();
+	private MessageUtil(ConversionContext context) {
+		this.context=context;
 	}
 
 	public MessageUtil withConversionContext(ConversionContext context) {
-		this.context=
+		return
 			context==null?
-				ConversionContext.newInstance():
-				context;
-		return this;
+				DEFAULT:
+				new MessageUtil(context);
 	}
 
 	public <T extends Message> T fromString(String body, Class<? extends T> messageClass) throws MessageConversionException {
 		return converter(messageClass).fromString(this.context,body);
 	}
 
+	public Message fromString(String body) throws MessageConversionException {
+		return decodeAny(body,PROTOCOL_MESSAGES);
+	}
+
+	public Message decodeAny(String body, Class<?>... messageClasses) throws MessageConversionException {
+		return ModelMessageConverter.decode(this.context,body,modelConverters(messageClasses));
+	}
+
+	public <T extends Message> T fromBytes(byte[] body, WireFormat format, Class<? extends T> messageClass) throws MessageConversionException {
+		return fromBytes(ByteBuffer.wrap(body),format,messageClass);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T extends Message> T fromBytes(ByteBuffer body, WireFormat format, Class<? extends T> messageClass) throws MessageConversionException {
+		final MessageConverter<T> converter=converter(messageClass);
+		if(converter instanceof BinaryMessageConverter<?>) {
+			return ((BinaryMessageConverter<T>)converter).fromBytes(this.context,body,format);
+		}
+		return converter.fromString(this.context.withWireFormat(textFormat(converter,format)),Charsets.UTF_8.decode(body.duplicate()).toString());
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T extends Message> T fromStream(InputStream body, WireFormat format, Class<? extends T> messageClass) throws MessageConversionException {
+		final MessageConverter<T> converter=converter(messageClass);
+		if(converter instanceof BinaryMessageConverter<?>) {
+			return ((BinaryMessageConverter<T>)converter).fromStream(this.context,body,format);
+		}
+		textFormat(converter,format);
+		try {
+			return converter.fromString(this.context.withWireFormat(format),CharStreams.toString(new InputStreamReader(body,Charsets.UTF_8)));
+		} catch (IOException e) {
+			throw new MessageConversionException("Could not read body stream",e);
+		}
+	}
+
+	public Message decodeAny(byte[] body, WireFormat format, Class<?>... messageClasses) throws MessageConversionException {
+		return decodeAny(ByteBuffer.wrap(body),format,messageClasses);
+	}
+
+	public Message decodeAny(ByteBuffer body, WireFormat format, Class<?>... messageClasses) throws MessageConversionException {
+		return ModelMessageConverter.decode(this.context,body,format,modelConverters(messageClasses));
+	}
+
+	public Message decodeAny(InputStream body, WireFormat format, Class<?>... messageClasses) throws MessageConversionException {
+		return ModelMessageConverter.decode(this.context,body,format,modelConverters(messageClasses));
+	}
+
+	public void streamEnrichmentResponse(String body, EnrichmentResponseSink sink) throws MessageConversionException {
+		final MessageConverter<EnrichmentResponseMessage> converter=converter(EnrichmentResponseMessage.class);
+		if(converter instanceof EnrichmentResponseMessageConverter) {
+			((EnrichmentResponseMessageConverter)converter).stream(ModelMessageConverter.parseGraph(this.context,body),sink);
+		} else {
+			EnrichmentResponseMessageConverter.replay(converter.fromString(this.context,body),sink);
+		}
+	}
+
+	public void streamEnrichmentResponse(byte[] body, WireFormat format, EnrichmentResponseSink sink) throws MessageConversionException {
+		final MessageConverter<EnrichmentResponseMessage> converter=converter(EnrichmentResponseMessage.class);
+		if(converter instanceof EnrichmentResponseMessageConverter) {
+			((EnrichmentResponseMessageConverter)converter).stream(MessageGraph.parse(this.context,ByteBuffer.wrap(body),format),sink);
+		} else {
+			EnrichmentResponseMessageConverter.replay(fromBytes(body,format,EnrichmentResponseMessage.class),sink);
+		}
+	}
+
 	public <T extends Message> String toString(T message) throws MessageConversionException {
 		return converter(message.getClass()).toString(this.context,message);
 	}
 
+	@SuppressWarnings("unchecked")
+	public <T extends Message> byte[] toBytes(T message) throws MessageConversionException {
+		final MessageConverter<T> converter=(MessageConverter<T>)converter(message.getClass());
+		if(converter instanceof BinaryMessageConverter<?>) {
+			return ((BinaryMessageConverter<T>)converter).toBytes(this.context,message);
+		}
+		textFormat(converter,this.context.wireFormat());
+		return Utf8Encoder.encode(converter.toString(this.context,message));
+	}
+
+	public WireFormat wireFormat() {
+		return this.context.wireFormat();
+	}
+
+	private Map<String,ModelMessageConverter<?>> modelConverters(Class<?>... messageClasses) throws MessageConversionException {
+		final Map<String,ModelMessageConverter<?>> converters=Maps.newLinkedHashMap();
+		for(Class<?> messageClass:messageClasses) {
+			final ModelMessageConverter<?> converter=modelConverter(messageClass);
+			converters.put(converter.messageType(),converter);
+		}
+		if(converters.isEmpty()) {
+			throw new MessageConversionException("No message types specified");
+		}
+		return converters;
+	}
+
+	private static WireFormat textFormat(MessageConverter<?> converter, WireFormat format) throws MessageConversionException {
+		if(format.isBinary()) {
+			throw new MessageConversionException("Converter '"+converter.getClass().getName()+"' does not support binary wire format "+format.contentType());
+		}
+		return format;
+	}
+
+	@SuppressWarnings("unchecked")
 	private <T extends Message> MessageConverter<T> converter(Class<? extends T> messageClass) throws MessageConversionException {
-		Class<? extends MessageConverter<T>> converterClass = getConverterClass(messageClass);
-		if(converterClass==null) {
+		Resolution resolution=RESOLUTIONS.get(messageClass);
+		if(resolution.version!=VERSION.get()) {
+			RESOLUTIONS.remove(messageClass);
+			resolution=RESOLUTIONS.get(messageClass);
+		}
+		MessageConverter<?> converter=resolution.converter;
+		if(converter==null) {
+			if(resolution.converterClass==null) {
+				throw new MessageConversionException("Cannot convert messages of type '"+messageClass.getName()+"'");
+			}
+			converter=converterInstance(resolution.converterClass,messageClass);
+			resolution.converter=converter;
+		}
+		return (MessageConverter<T>)converter;
+	}
+
+	private ModelMessageConverter<?> modelConverter(Class<?> messageClass) throws MessageConversionException {
+		if(!Message.class.isAssignableFrom(messageClass)) {
 			throw new MessageConversionException("Cannot convert messages of type '"+messageClass.getName()+"'");
 		}
-		try {
-			return converterClass.newInstance();
-		} catch (Exception e) {
-			throw new MessageConversionException("Could not instantiate converter '"+converterClass.getName()+"' for message of type '"+messageClass.getName()+"'",e);
+		final MessageConverter<Message> converter=converter(messageClass.asSubclass(Message.class));
+		if(!(converter instanceof ModelMessageConverter<?>)) {
+			throw new MessageConversionException("Converter '"+converter.getClass().getName()+"' for message of type '"+messageClass.getName()+"' does not support polymorphic decoding");
 		}
+		return (ModelMessageConverter<?>)converter;
 	}
 
-	@SuppressWarnings("unchecked")
-	private <T extends Message> Class<? extends MessageConverter<T>> getConverterClass(Class<? extends T> messageClass) {
+	private static MessageConverter<?> converterInstance(Class<?> converterClass, Class<?> messageClass) throws MessageConversionException {
+		MessageConverter<?> converter=INSTANCES.get(converterClass);
+		if(converter==null) {
+			try {
+				converter=(MessageConverter<?>)converterClass.newInstance();
+			} catch (Exception e) {
+				throw new MessageConversionException("Could not instantiate converter '"+converterClass.getName()+"' for message of type '"+messageClass.getName()+"'",e);
+			}
+			final MessageConverter<?> previous=INSTANCES.putIfAbsent(converterClass,converter);
+			if(previous!=null) {
+				converter=previous;
+			}
+		}
+		return converter;
+	}
+
+	private static Class<?> findConverterClass(Class<?> messageClass) {
 		Class<?> result = CONVERTERS.get(messageClass);
 		if(result==null) {
 			for(Entry<Class<?>,Class<?>> entry:CONVERTERS.entrySet()) {
@@ -94,7 +267,7 @@ public final class MessageUtil {
 				}
 			}
 		}
-		return (Class<? extends MessageConverter<T>>)result;
+		return result;
 	}
 
 	public static <T extends Message> void registerConverter(Class<? extends T> messageClass, Class<? extends MessageConverter<T>> converterClass) {
@@ -103,11 +276,11 @@ public final class MessageUtil {
 		} else {
 			CONVERTERS.remove(messageClass);
 		}
+		VERSION.incrementAndGet();
 	}
 
 	public static MessageUtil newInstance() {
-		return new MessageUtil();
+		return DEFAULT;
 	}
 
-
 }
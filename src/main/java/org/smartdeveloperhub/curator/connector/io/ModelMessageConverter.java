@@ -26,61 +26,80 @@
  */
 package org.smartdeveloperhub.curator.connector.io;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.InputStream;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.jena.riot.RDFDataMgr;
-import org.apache.jena.riot.RDFFormat;
-import org.apache.jena.riot.RiotException;
 import org.smartdeveloperhub.curator.connector.protocol.ValidationException;
 import org.smartdeveloperhub.curator.connector.rdf.ModelHelper;
 import org.smartdeveloperhub.curator.connector.rdf.ModelUtil;
 import org.smartdeveloperhub.curator.connector.rdf.Namespaces;
+import org.smartdeveloperhub.curator.connector.rdf.TurtleModelHelper;
 import org.smartdeveloperhub.curator.connector.util.Closeables;
+import org.smartdeveloperhub.curator.connector.util.Utf8Encoder;
 import org.smartdeveloperhub.curator.protocol.Message;
-import org.smartdeveloperhub.curator.protocol.vocabulary.RDF;
+import org.smartdeveloperhub.curator.protocol.vocabulary.STOA;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelFactory;
-import com.hp.hpl.jena.rdf.model.ResIterator;
 import com.hp.hpl.jena.rdf.model.Resource;
 
-abstract class ModelMessageConverter<T extends Message> implements MessageConverter<T> {
+abstract class ModelMessageConverter<T extends Message> implements BinaryMessageConverter<T> {
 
-	private static final RDFFormat FORMAT = RDFFormat.TURTLE;
+	private static final int MAX_RETAINED_BUFFER_CAPACITY=64*1024;
 
-	private Resource getTargetResource(final Model model) throws MessageConversionException {
-		final ResIterator iterator=
-			model.
-				listSubjectsWithProperty(
-					model.createProperty(RDF.TYPE),
-					model.createResource(messageType()));
-		final List<Resource> resources = Lists.newArrayList(iterator);
-		if(resources.isEmpty()) {
+	private static final ThreadLocal<StringBuilder> BUFFERS=new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(1024);
+		}
+	};
+
+	final Node getTargetNode(final MessageGraph graph) throws MessageConversionException {
+		final List<Node> nodes=graph.definitions(messageType());
+		if(nodes.isEmpty()) {
 			throw new NoDefinitionFoundException(messageType());
-		} else if(resources.size()>1) {
-			throw new TooManyDefinitionsFoundException(messageType(),resources.size());
+		} else if(nodes.size()>1) {
+			throw new TooManyDefinitionsFoundException(messageType(),nodes.size());
 		}
-		return resources.get(0);
+		return nodes.get(0);
 	}
 
 	@Override
 	public final T fromString(final ConversionContext context, final String body) throws MessageConversionException {
+		final MessageGraph graph=parseGraph(context,body);
+		return fromGraph(graph,getTargetNode(graph));
+	}
+
+	@Override
+	public final T fromBytes(final ConversionContext context, final ByteBuffer body, final WireFormat format) throws MessageConversionException {
+		final MessageGraph graph=MessageGraph.parse(context,body,format);
+		return fromGraph(graph,getTargetNode(graph));
+	}
+
+	@Override
+	public final T fromStream(final ConversionContext context, final InputStream body, final WireFormat format) throws MessageConversionException {
+		final MessageGraph graph=MessageGraph.parse(context,body,format);
+		return fromGraph(graph,getTargetNode(graph));
+	}
+
+	final T fromGraph(final MessageGraph graph, final Node node) throws MessageConversionException {
 		try {
-			final Model model=ModelFactory.createDefaultModel();
-			RDFDataMgr.
-				read(
-					model,
-					new StringReader(body),
-					context.base().toString(),
-					FORMAT.getLang());
-			return parse(model,getTargetResource(model));
-		} catch (final RiotException e) {
-			throw new MessageConversionException("Could not parse body '"+body+"' as Turtle",e);
+			T result=decode(graph,node);
+			if(result==null) {
+				result=parse(graph.model(),graph.resource(node));
+			}
+			return result;
 		} catch (final ValidationException e) {
 			throw new InvalidDefinitionFoundException(messageType(),e);
 		}
@@ -88,13 +107,10 @@ abstract class ModelMessageConverter<T extends Message> implements MessageConver
 
 	@Override
 	public final String toString(final ConversionContext context, final T message) throws MessageConversionException {
+		final WireFormat format=textFormat(context);
 		final StringWriter out = new StringWriter();
 		try {
-			final Model model=ModelFactory.createDefaultModel();
-			setUpNamespaces(context, model);
-			final ModelHelper helper=ModelUtil.createHelper(model);
-			toString(message,helper);
-			RDFDataMgr.write(out,model,FORMAT);
+			out.append(serialize(context,message,format,new StringBuilder()));
 			out.close();
 			return out.toString();
 		} catch (final IOException e) {
@@ -103,24 +119,121 @@ abstract class ModelMessageConverter<T extends Message> implements MessageConver
 		}
 	}
 
-	private void setUpNamespaces(final ConversionContext context, final Model model) {
-		Namespaces.setUpNamespacePrefixes(model);
+	@Override
+	public final byte[] toBytes(final ConversionContext context, final T message) throws MessageConversionException {
+		final WireFormat format=context.wireFormat();
+		if(!format.isBinary()) {
+			final StringBuilder buffer=BUFFERS.get();
+			try {
+				return Utf8Encoder.encode(serialize(context,message,format,buffer));
+			} finally {
+				release(buffer);
+			}
+		}
+		final Model model=ModelFactory.createDefaultModel();
+		toString(message,ModelUtil.createHelper(model));
+		final ByteArrayOutputStream out=new ByteArrayOutputStream();
+		RDFDataMgr.write(out,model,format.format());
+		return out.toByteArray();
+	}
+
+	private StringBuilder serialize(final ConversionContext context, final T message, final WireFormat format, final StringBuilder buffer) {
+		final TurtleModelHelper helper=
+			format==WireFormat.NTRIPLES?
+				ModelUtil.createNTriplesHelper(buffer):
+				ModelUtil.createTurtleHelper(buffer,namespacePrefixes(context));
+		toString(message,helper);
+		return helper.finish();
+	}
+
+	private static void release(final StringBuilder buffer) {
+		if(buffer.capacity()>MAX_RETAINED_BUFFER_CAPACITY) {
+			BUFFERS.remove();
+		} else {
+			buffer.setLength(0);
+		}
+	}
+
+	private static WireFormat textFormat(final ConversionContext context) throws MessageConversionException {
+		final WireFormat format=context.wireFormat();
+		if(format.isBinary()) {
+			throw new MessageConversionException("Cannot serialize message as text using binary wire format "+format.contentType());
+		}
+		return format;
+	}
+
+	private static Map<String,String> namespacePrefixes(final ConversionContext context) {
+		final Map<String,String> prefixes=Maps.newLinkedHashMap(Namespaces.namespacePrefixes());
+		final Set<String> namespaces=Sets.newHashSet(prefixes.values());
 		int prefixCounter=0;
 		for(final Entry<String,String> entry:context.namespacePrefixes().entrySet()) {
 			final String namespace = entry.getKey();
-			if(model.getNsURIPrefix(namespace)==null) {
+			if(namespaces.add(namespace)) {
 				String prefix = entry.getValue();
-				if(model.getNsPrefixURI(prefix)!=null) {
+				if(prefixes.containsKey(prefix)) {
 					prefixCounter++;
 					prefix="pr"+prefixCounter;
 				}
-				model.setNsPrefix(prefix,namespace);
+				prefixes.put(prefix,namespace);
+			}
+		}
+		return prefixes;
+	}
+
+	/**
+	 * Textual bodies are always parsed as Turtle, whatever the wire format of
+	 * the context: it is what curators have always sent, and it is a superset
+	 * of N-Triples. Only the binary path honours the negotiated format.
+	 */
+	static MessageGraph parseGraph(final ConversionContext context, final String body) throws MessageConversionException {
+		return MessageGraph.parse(context,body,WireFormat.TURTLE.lang());
+	}
+
+	static Message decode(final ConversionContext context, final String body, final Map<String,ModelMessageConverter<?>> converters) throws MessageConversionException {
+		return decode(parseGraph(context,body),converters);
+	}
+
+	static Message decode(final ConversionContext context, final ByteBuffer body, final WireFormat format, final Map<String,ModelMessageConverter<?>> converters) throws MessageConversionException {
+		return decode(MessageGraph.parse(context,body,format),converters);
+	}
+
+	static Message decode(final ConversionContext context, final InputStream body, final WireFormat format, final Map<String,ModelMessageConverter<?>> converters) throws MessageConversionException {
+		return decode(MessageGraph.parse(context,body,format),converters);
+	}
+
+	private static Message decode(final MessageGraph graph, final Map<String,ModelMessageConverter<?>> converters) throws MessageConversionException {
+		final Set<String> typesFound=Sets.newLinkedHashSet();
+		Node target=null;
+		ModelMessageConverter<?> converter=null;
+		int definitions=0;
+		for(final Entry<String,ModelMessageConverter<?>> entry:converters.entrySet()) {
+			final List<Node> nodes=graph.definitions(entry.getKey());
+			if(!nodes.isEmpty()) {
+				target=nodes.get(0);
+				converter=entry.getValue();
+				typesFound.add(entry.getKey());
+				definitions+=nodes.size();
 			}
 		}
+		if(definitions==0) {
+			throw new NoDefinitionFoundException(definitionType(converters.keySet()));
+		} else if(definitions>1) {
+			throw new TooManyDefinitionsFoundException(definitionType(typesFound),definitions);
+		}
+		return converter.fromGraph(graph,target);
+	}
+
+	private static String definitionType(final Set<String> types) {
+		return
+			types.size()==1?
+				types.iterator().next():
+				STOA.MESSAGE_TYPE;
 	}
 
 	protected abstract void toString(T message, ModelHelper helper);
 
+	protected abstract T decode(MessageGraph graph, Node node);
+
 	protected abstract T parse(Model model, Resource resource);
 
 	protected abstract String messageType();
@@ -32,16 +32,13 @@ import org.smartdeveloperhub.curator.connector.protocol.ValidationException;
 import org.smartdeveloperhub.curator.connector.util.Builder;
 
 import com.google.common.collect.Lists;
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryExecution;
-import com.hp.hpl.jena.query.QueryExecutionFactory;
 import com.hp.hpl.jena.query.QuerySolution;
-import com.hp.hpl.jena.query.QuerySolutionMap;
-import com.hp.hpl.jena.query.ResultSet;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.RDFNode;
 import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.sparql.core.ResultBinding;
+import com.hp.hpl.jena.sparql.engine.QueryIterator;
 
 abstract class Parser<T, B extends Builder<T>> {
 
@@ -278,14 +275,14 @@ abstract class Parser<T, B extends Builder<T>> {
 	private final Resource resource;
 	private final String parsedType;
 	private final String targetVariable;
-	private final Query query;
+	private final QueryPlan plan;
 
-	Parser(Model model, Resource resource, String parsedType, String targetVariable, Query query) {
+	Parser(Model model, Resource resource, String parsedType, String targetVariable, QueryPlan plan) {
 		this.model = model;
 		this.resource = resource;
 		this.parsedType = parsedType;
 		this.targetVariable = targetVariable;
-		this.query = query;
+		this.plan = plan;
 	}
 
 	final T parse() {
@@ -293,24 +290,18 @@ abstract class Parser<T, B extends Builder<T>> {
 	}
 
 	final List<T> parseCollection() {
-		List<T> result=null;
-		QuerySolutionMap parameters = new QuerySolutionMap();
-		parameters.add(this.targetVariable,this.resource);
-		QueryExecution queryExecution=QueryExecutionFactory.create(this.query,this.model);
-		queryExecution.setInitialBinding(parameters);
+		QueryIterator results=this.plan.execute(this.model,this.targetVariable,this.resource);
 		try {
-			ResultSet results = queryExecution.execSelect();
-			result=processResults(results);
+			return processResults(results);
 		} finally {
-			queryExecution.close();
+			results.close();
 		}
-		return result;
 	}
 
-	private List<T> processResults(ResultSet results) {
+	private List<T> processResults(QueryIterator results) {
 		List<T> result=Lists.newArrayList();
 		for(; results.hasNext();) {
-			QuerySolution solution = results.nextSolution();
+			QuerySolution solution = new ResultBinding(this.model,results.nextBinding());
 			B builder = newBuilder();
 			solutionParser().
 				withSolution(solution).
@@ -29,7 +29,6 @@ package org.smartdeveloperhub.curator.connector.io;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.RequestMessageBuilder;
 import org.smartdeveloperhub.curator.protocol.RequestMessage;
 
-import com.hp.hpl.jena.query.Query;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
 
@@ -56,8 +55,8 @@ abstract class RequestMessageParser<T extends RequestMessage, B extends RequestM
 
 	}
 
-	RequestMessageParser(Model model, Resource resource, String parsedType, String targetVariable, Query query) {
-		super(model,resource,parsedType,targetVariable,query);
+	RequestMessageParser(Model model, Resource resource, String parsedType, String targetVariable, QueryPlan plan) {
+		super(model,resource,parsedType,targetVariable,plan);
 	}
 
 	@Override
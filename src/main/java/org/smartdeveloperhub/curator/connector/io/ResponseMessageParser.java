@@ -29,7 +29,6 @@ package org.smartdeveloperhub.curator.connector.io;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.ResponseMessageBuilder;
 import org.smartdeveloperhub.curator.protocol.ResponseMessage;
 
-import com.hp.hpl.jena.query.Query;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.Resource;
@@ -68,8 +67,8 @@ abstract class ResponseMessageParser<T extends ResponseMessage, B extends Respon
 		}
 	}
 
-	ResponseMessageParser(Model model, Resource resource, String parsedType, String targetVariable, Query query) {
-		super(model,resource,parsedType,targetVariable,query);
+	ResponseMessageParser(Model model, Resource resource, String parsedType, String targetVariable, QueryPlan plan) {
+		super(model,resource,parsedType,targetVariable,plan);
 	}
 
 	@Override
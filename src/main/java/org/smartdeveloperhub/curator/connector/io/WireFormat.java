@@ -0,0 +1,81 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
+
+public enum WireFormat {
+
+	TURTLE("text/turtle",RDFFormat.TURTLE,false),
+	NTRIPLES("application/n-triples",RDFFormat.NTRIPLES,false),
+	RDF_THRIFT("application/rdf+thrift",RDFFormat.RDF_THRIFT,true),
+	;
+
+	private final String contentType;
+	private final RDFFormat format;
+	private final boolean binary;
+
+	private WireFormat(final String contentType, final RDFFormat format, final boolean binary) {
+		this.contentType=contentType;
+		this.format=format;
+		this.binary=binary;
+	}
+
+	public String contentType() {
+		return this.contentType;
+	}
+
+	public boolean isBinary() {
+		return this.binary;
+	}
+
+	RDFFormat format() {
+		return this.format;
+	}
+
+	Lang lang() {
+		return this.format.getLang();
+	}
+
+	public static WireFormat fromContentType(final String contentType) {
+		if(contentType!=null) {
+			final int parameters=contentType.indexOf(';');
+			final String mediaType=
+				(parameters<0?
+					contentType:
+					contentType.substring(0,parameters)).trim();
+			for(final WireFormat candidate:values()) {
+				if(candidate.contentType.equalsIgnoreCase(mediaType)) {
+					return candidate;
+				}
+			}
+		}
+		return TURTLE;
+	}
+
+}
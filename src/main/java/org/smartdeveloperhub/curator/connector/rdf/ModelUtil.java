@@ -26,6 +26,9 @@
  */
 package org.smartdeveloperhub.curator.connector.rdf;
 
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.RDFNode;
 
@@ -38,6 +41,14 @@ public final class ModelUtil {
 		return new ImmutableModelHelper(model);
 	}
 
+	public static TurtleModelHelper createTurtleHelper(StringBuilder out, Map<String,String> prefixes) {
+		return new TurtleModelHelper(out,prefixes,true);
+	}
+
+	public static TurtleModelHelper createNTriplesHelper(StringBuilder out) {
+		return new TurtleModelHelper(out,ImmutableMap.<String,String>of(),false);
+	}
+
 	public static String nodeType(RDFNode resource) {
 		if(resource==null) {
 			return "unknown";
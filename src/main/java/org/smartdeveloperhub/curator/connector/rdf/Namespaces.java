@@ -26,6 +26,8 @@
  */
 package org.smartdeveloperhub.curator.connector.rdf;
 
+import java.util.Map;
+
 import org.smartdeveloperhub.curator.protocol.vocabulary.AMQP;
 import org.smartdeveloperhub.curator.protocol.vocabulary.STOA;
 import org.smartdeveloperhub.curator.protocol.vocabulary.FOAF;
@@ -34,21 +36,31 @@ import org.smartdeveloperhub.curator.protocol.vocabulary.RDFS;
 import org.smartdeveloperhub.curator.protocol.vocabulary.TYPES;
 import org.smartdeveloperhub.curator.protocol.vocabulary.XSD;
 
+import com.google.common.collect.ImmutableMap;
 import com.hp.hpl.jena.rdf.model.Model;
 
 public final class Namespaces {
 
+	private static final ImmutableMap<String,String> PREFIXES=
+		ImmutableMap.<String,String>builder().
+			put(RDF.PREFIX,RDF.NAMESPACE).
+			put(RDFS.PREFIX,RDFS.NAMESPACE).
+			put(XSD.PREFIX,XSD.NAMESPACE).
+			put(FOAF.PREFIX,FOAF.NAMESPACE).
+			put(STOA.PREFIX,STOA.NAMESPACE).
+			put(AMQP.PREFIX,AMQP.NAMESPACE).
+			put(TYPES.PREFIX,TYPES.NAMESPACE).
+			build();
+
 	private Namespaces() {
 	}
 
+	public static Map<String,String> namespacePrefixes() {
+		return PREFIXES;
+	}
+
 	public static void setUpNamespacePrefixes(Model model) {
-		model.setNsPrefix(RDF.PREFIX,RDF.NAMESPACE);
-		model.setNsPrefix(RDFS.PREFIX,RDFS.NAMESPACE);
-		model.setNsPrefix(XSD.PREFIX,XSD.NAMESPACE);
-		model.setNsPrefix(FOAF.PREFIX,FOAF.NAMESPACE);
-		model.setNsPrefix(STOA.PREFIX,STOA.NAMESPACE);
-		model.setNsPrefix(AMQP.PREFIX,AMQP.NAMESPACE);
-		model.setNsPrefix(TYPES.PREFIX,TYPES.NAMESPACE);
+		model.setNsPrefixes(PREFIXES);
 	}
 
 }
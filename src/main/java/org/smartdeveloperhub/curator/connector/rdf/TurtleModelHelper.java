@@ -0,0 +1,233 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.rdf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.jena.riot.web.LangTag;
+import org.smartdeveloperhub.curator.protocol.vocabulary.RDF;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+public final class TurtleModelHelper implements ModelHelper {
+
+	private final StringBuilder out;
+	private final StringBuilder scratch;
+	private final Map<String,String> prefixes;
+	private final Map<String,String> blankNodes;
+	private final boolean abbreviate;
+
+	private String lastSubject;
+
+	TurtleModelHelper(StringBuilder out, Map<String,String> prefixes, boolean abbreviate) {
+		this.out=out;
+		this.scratch=new StringBuilder();
+		this.abbreviate=abbreviate;
+		this.prefixes=ImmutableMap.copyOf(prefixes);
+		this.blankNodes=Maps.newHashMap();
+		for(Entry<String,String> entry:this.prefixes.entrySet()) {
+			this.out.append("@prefix ").append(entry.getKey()).append(": ");
+			appendIRI(this.out,entry.getValue());
+			this.out.append(" .\n");
+		}
+		if(!this.prefixes.isEmpty()) {
+			this.out.append('\n');
+		}
+	}
+
+	void addStatement(String subject, String predicate, String object) {
+		if(!this.abbreviate) {
+			this.out.append(subject).append(' ').append(predicate).append(' ').append(object).append(" .\n");
+			return;
+		}
+		if(subject.equals(this.lastSubject)) {
+			this.out.append(" ;\n\t");
+		} else {
+			if(this.lastSubject!=null) {
+				this.out.append(" .\n");
+			}
+			this.out.append(subject).append("\n\t");
+			this.lastSubject=subject;
+		}
+		this.out.append(predicate).append(' ').append(object);
+	}
+
+	String predicate(String property) {
+		if(this.abbreviate && RDF.TYPE.equals(property)) {
+			return "a";
+		}
+		return iri(property);
+	}
+
+	String iri(String iri) {
+		for(Entry<String,String> entry:this.prefixes.entrySet()) {
+			final String namespace=entry.getValue();
+			if(iri.startsWith(namespace) && isSafeLocalName(iri,namespace.length())) {
+				return entry.getKey()+":"+iri.substring(namespace.length());
+			}
+		}
+		appendIRI(clearScratch(),iri);
+		return this.scratch.toString();
+	}
+
+	String blankNodeLabel(String name) {
+		String label=this.blankNodes.get(name);
+		if(label==null) {
+			label="_:b"+this.blankNodes.size();
+			this.blankNodes.put(name,label);
+		}
+		return label;
+	}
+
+	String literal(Object value) {
+		appendString(clearScratch(),value.toString());
+		return this.scratch.toString();
+	}
+
+	String typedLiteral(Object value, String type) {
+		final String datatype=iri(type);
+		appendString(clearScratch(),value.toString());
+		return this.scratch.append("^^").append(datatype).toString();
+	}
+
+	/**
+	 * Language tags are checked against the BCP-47 syntax before being
+	 * written, as an invalid tag would make the whole document unparseable.
+	 */
+	String languageLiteral(Object value, String lang) {
+		checkArgument(LangTag.check(lang),"Invalid language tag '%s'",lang);
+		appendString(clearScratch(),value.toString());
+		return this.scratch.append('@').append(lang).toString();
+	}
+
+	private StringBuilder clearScratch() {
+		this.scratch.setLength(0);
+		return this.scratch;
+	}
+
+	private static void appendIRI(StringBuilder out, String iri) {
+		out.append('<');
+		for(int i=0;i<iri.length();i++) {
+			final char c=iri.charAt(i);
+			switch(c) {
+			case '<': case '>': case '"': case '{': case '}':
+			case '|': case '^': case '`': case '\\':
+				appendUnicodeEscape(out,c);
+				break;
+			default:
+				if(c<=0x20) {
+					appendUnicodeEscape(out,c);
+				} else {
+					out.append(c);
+				}
+			}
+		}
+		out.append('>');
+	}
+
+	private static void appendString(StringBuilder out, String value) {
+		out.append('"');
+		for(int i=0;i<value.length();i++) {
+			final char c=value.charAt(i);
+			switch(c) {
+			case '"':  out.append("\\\""); break;
+			case '\\': out.append("\\\\"); break;
+			case '\n': out.append("\\n");  break;
+			case '\r': out.append("\\r");  break;
+			case '\t': out.append("\\t");  break;
+			case '\b': out.append("\\b");  break;
+			case '\f': out.append("\\f");  break;
+			default:
+				if(c<0x20 || c==0x7F) {
+					appendUnicodeEscape(out,c);
+				} else {
+					out.append(c);
+				}
+			}
+		}
+		out.append('"');
+	}
+
+	private static void appendUnicodeEscape(StringBuilder out, char c) {
+		final String hex=Integer.toHexString(c).toUpperCase();
+		out.append("\\u");
+		for(int i=hex.length();i<4;i++) {
+			out.append('0');
+		}
+		out.append(hex);
+	}
+
+	private static boolean isSafeLocalName(String iri, int start) {
+		if(start>=iri.length()) {
+			return false;
+		}
+		for(int i=start;i<iri.length();i++) {
+			final char c=iri.charAt(i);
+			final boolean letter=c>='a' && c<='z' || c>='A' && c<='Z' || c=='_';
+			final boolean other=c>='0' && c<='9' || c=='-';
+			if(!letter && (i==start || !other)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public ResourceHelper resource(String resourceId) {
+		return new TurtleResourceHelper(this,iri(resourceId));
+	}
+
+	@Override
+	public ResourceHelper resource(URI resourceId) {
+		return resource(resourceId.toString());
+	}
+
+	@Override
+	public ResourceHelper resource(URL resourceId) {
+		return resource(resourceId.toString());
+	}
+
+	@Override
+	public ResourceHelper blankNode(String bnode) {
+		return new TurtleResourceHelper(this,blankNodeLabel(bnode));
+	}
+
+	public StringBuilder finish() {
+		if(this.lastSubject!=null) {
+			this.out.append(" .\n");
+			this.lastSubject=null;
+		}
+		return this.out;
+	}
+
+}
@@ -0,0 +1,111 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.rdf;
+
+import java.net.URI;
+import java.net.URL;
+
+final class TurtlePropertyHelper extends DelegatedModelHelper<TurtleResourceHelper> implements ResourceHelper, PropertyHelper {
+
+	private final String predicate;
+
+	TurtlePropertyHelper(TurtleResourceHelper delegate, String predicate) {
+		super(delegate);
+		this.predicate = predicate;
+	}
+
+	private TurtleModelHelper writer() {
+		return delegate().writer();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends PropertyHelper & ResourceHelper & ModelHelper> T addStatement(String object) {
+		writer().addStatement(delegate().subject(),this.predicate,object);
+		return (T)this;
+	}
+
+	@Override
+	public <T extends PropertyHelper & ResourceHelper & ModelHelper> T withLiteral(Object value) {
+		return addStatement(writer().literal(value));
+	}
+
+	@Override
+	public <T extends PropertyHelper & ResourceHelper & ModelHelper> T withTypedLiteral(Object value, URI type) {
+		return withTypedLiteral(value,type.toString());
+	}
+
+	@Override
+	public <T extends PropertyHelper & ResourceHelper & ModelHelper> T withTypedLiteral(Object value, String type) {
+		return addStatement(writer().typedLiteral(value,type));
+	}
+
+	@Override
+	public <T extends PropertyHelper & ResourceHelper & ModelHelper> T withLanguageLiteral(Object value, String lang) {
+		return addStatement(writer().languageLiteral(value,lang));
+	}
+
+	@Override
+	public <T extends PropertyHelper & ResourceHelper & ModelHelper> T withResource(String resourceId) {
+		return addStatement(writer().iri(resourceId));
+	}
+
+	@Override
+	public <T extends PropertyHelper & ResourceHelper & ModelHelper> T withResource(URI resourceId) {
+		return withResource(resourceId.toString());
+	}
+
+	@Override
+	public <T extends PropertyHelper & ResourceHelper & ModelHelper> T withResource(URL resourceId) {
+		return withResource(resourceId.toString());
+	}
+
+	@Override
+	public <T extends PropertyHelper & ResourceHelper & ModelHelper> T withBlankNode(String value) {
+		return addStatement(writer().blankNodeLabel(value));
+	}
+
+	@Override
+	public PropertyHelper property(String property) {
+		return delegate().property(property);
+	}
+
+	@Override
+	public PropertyHelper property(URI property) {
+		return delegate().property(property);
+	}
+
+	@Override
+	public <T extends ResourceHelper & ModelHelper> T type(String type) {
+		return delegate().type(type);
+	}
+
+	@Override
+	public <T extends ResourceHelper & ModelHelper> T type(URI type) {
+		return delegate().type(type);
+	}
+
+}
@@ -0,0 +1,70 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.rdf;
+
+import java.net.URI;
+
+final class TurtleResourceHelper extends DelegatedModelHelper<TurtleModelHelper> implements ResourceHelper {
+
+	private static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+
+	private final String subject;
+
+	TurtleResourceHelper(TurtleModelHelper delegate, String subject) {
+		super(delegate);
+		this.subject = subject;
+	}
+
+	String subject() {
+		return this.subject;
+	}
+
+	TurtleModelHelper writer() {
+		return delegate();
+	}
+
+	@Override
+	public TurtlePropertyHelper property(String property) {
+		return new TurtlePropertyHelper(this,delegate().predicate(property));
+	}
+
+	@Override
+	public PropertyHelper property(URI property) {
+		return property(property.toString());
+	}
+
+	@Override
+	public <T extends ResourceHelper & ModelHelper> T type(String type) {
+		return property(RDF_TYPE).withResource(type);
+	}
+
+	@Override
+	public <T extends ResourceHelper & ModelHelper> T type(URI type) {
+		return type(type.toString());
+	}
+
+}
@@ -0,0 +1,97 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.util;
+
+public final class Utf8Encoder {
+
+	private static final byte REPLACEMENT='?';
+
+	private Utf8Encoder() {
+	}
+
+	public static int encodedLength(final CharSequence value) {
+		final int length=value.length();
+		int result=0;
+		for(int i=0;i<length;i++) {
+			final char c=value.charAt(i);
+			if(c<0x80) {
+				result++;
+			} else if(c<0x800) {
+				result+=2;
+			} else if(isSurrogatePair(value,i,length)) {
+				result+=4;
+				i++;
+			} else if(Character.isSurrogate(c)) {
+				result++;
+			} else {
+				result+=3;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Encode the characters as UTF-8 into an array of the exact encoded size.
+	 * Unpaired surrogates are replaced by '?', as {@link String#getBytes}
+	 * does.
+	 */
+	public static byte[] encode(final CharSequence value) {
+		final byte[] result=new byte[encodedLength(value)];
+		final int length=value.length();
+		int j=0;
+		for(int i=0;i<length;i++) {
+			final char c=value.charAt(i);
+			if(c<0x80) {
+				result[j++]=(byte)c;
+			} else if(c<0x800) {
+				result[j++]=(byte)(0xC0|c>>>6);
+				result[j++]=(byte)(0x80|c&0x3F);
+			} else if(isSurrogatePair(value,i,length)) {
+				final int codePoint=Character.toCodePoint(c,value.charAt(++i));
+				result[j++]=(byte)(0xF0|codePoint>>>18);
+				result[j++]=(byte)(0x80|codePoint>>>12&0x3F);
+				result[j++]=(byte)(0x80|codePoint>>>6&0x3F);
+				result[j++]=(byte)(0x80|codePoint&0x3F);
+			} else if(Character.isSurrogate(c)) {
+				result[j++]=REPLACEMENT;
+			} else {
+				result[j++]=(byte)(0xE0|c>>>12);
+				result[j++]=(byte)(0x80|c>>>6&0x3F);
+				result[j++]=(byte)(0x80|c&0x3F);
+			}
+		}
+		return result;
+	}
+
+	private static boolean isSurrogatePair(final CharSequence value, final int index, final int length) {
+		return
+			Character.isHighSurrogate(value.charAt(index)) &&
+			index+1<length &&
+			Character.isLowSurrogate(value.charAt(index+1));
+	}
+
+}
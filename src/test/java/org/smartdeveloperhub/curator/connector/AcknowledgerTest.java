@@ -0,0 +1,166 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.rabbitmq.client.Channel;
+
+@RunWith(JMockit.class)
+public class AcknowledgerTest {
+
+	@Injectable private Channel channel;
+
+	private Acknowledger newAcknowledger(final int batchSize, final long interval) {
+		return Acknowledger.newInstance(this.channel,AcknowledgementPolicy.newInstance(16,batchSize,interval),Executors.defaultThreadFactory());
+	}
+
+	@Test
+	public void testPolicy$automatic() throws Exception {
+		assertThat(AcknowledgementPolicy.newInstance(0,4,100),sameInstance(AcknowledgementPolicy.automatic()));
+		assertThat(AcknowledgementPolicy.automatic().isAutomatic(),equalTo(true));
+	}
+
+	@Test
+	public void testPolicy$batchesDoNotExceedPrefetchWindow() throws Exception {
+		final AcknowledgementPolicy sut=AcknowledgementPolicy.newInstance(4,16,100);
+		assertThat(sut.isAutomatic(),equalTo(false));
+		assertThat(sut.batchSize(),equalTo(4));
+		assertThat(sut.interval(TimeUnit.MICROSECONDS),equalTo(100000L));
+	}
+
+	@Test
+	public void testAcknowledge$coalescesBatches() throws Exception {
+		final Acknowledger sut=newAcknowledger(4,60000);
+		for(long tag=1;tag<=5;tag++) {
+			sut.acknowledge(tag);
+		}
+		assertThat(sut.unacknowledged(),equalTo(1L));
+		new Verifications() {{
+			AcknowledgerTest.this.channel.basicAck(4,true);this.times=1;
+			AcknowledgerTest.this.channel.basicAck(anyLong,anyBoolean);this.times=1;
+		}};
+		sut.close();
+	}
+
+	@Test
+	public void testAcknowledge$deliveriesPastAGapAreAcknowledgedOneByOne() throws Exception {
+		final Acknowledger sut=newAcknowledger(3,60000);
+		sut.acknowledge(1);
+		sut.acknowledge(2);
+		sut.acknowledge(4);
+		assertThat(sut.unacknowledged(),equalTo(0L));
+		new Verifications() {{
+			AcknowledgerTest.this.channel.basicAck(2,true);this.times=1;
+			AcknowledgerTest.this.channel.basicAck(4,false);this.times=1;
+		}};
+		sut.acknowledge(3);
+		assertThat(sut.unacknowledged(),equalTo(1L));
+		sut.close();
+		assertThat(sut.unacknowledged(),equalTo(0L));
+		new Verifications() {{
+			AcknowledgerTest.this.channel.basicAck(3,true);this.times=1;
+			AcknowledgerTest.this.channel.basicAck(anyLong,anyBoolean);this.times=3;
+		}};
+	}
+
+	@Test
+	public void testAcknowledge$slowDeliveryDoesNotBlockLaterOnes() throws Exception {
+		final Acknowledger sut=newAcknowledger(4,60000);
+		for(long tag=2;tag<=9;tag++) {
+			sut.acknowledge(tag);
+		}
+		assertThat(sut.unacknowledged(),equalTo(0L));
+		new Verifications() {{
+			AcknowledgerTest.this.channel.basicAck(withNotEqual(1L),false);this.times=8;
+			AcknowledgerTest.this.channel.basicAck(anyLong,true);this.times=0;
+		}};
+		sut.acknowledge(1);
+		sut.acknowledge(9);
+		sut.close();
+		assertThat(sut.unacknowledged(),equalTo(0L));
+		new Verifications() {{
+			AcknowledgerTest.this.channel.basicAck(1,true);this.times=1;
+			AcknowledgerTest.this.channel.basicAck(anyLong,anyBoolean);this.times=9;
+		}};
+	}
+
+	@Test
+	public void testAcknowledge$ignoresAcknowledgedDeliveries() throws Exception {
+		final Acknowledger sut=newAcknowledger(2,60000);
+		sut.acknowledge(1);
+		sut.acknowledge(2);
+		sut.acknowledge(1);
+		assertThat(sut.unacknowledged(),equalTo(0L));
+		sut.close();
+		new Verifications() {{
+			AcknowledgerTest.this.channel.basicAck(anyLong,anyBoolean);this.times=1;
+		}};
+	}
+
+	@Test
+	public void testFlush$periodic() throws Exception {
+		final Acknowledger sut=newAcknowledger(8,10);
+		sut.acknowledge(1);
+		final long deadline=System.currentTimeMillis()+5000;
+		while(sut.unacknowledged()>0 && System.currentTimeMillis()<deadline) {
+			TimeUnit.MILLISECONDS.sleep(5);
+		}
+		assertThat(sut.unacknowledged(),equalTo(0L));
+		sut.close();
+		new Verifications() {{
+			AcknowledgerTest.this.channel.basicAck(1,true);this.times=1;
+		}};
+	}
+
+	@Test
+	public void testFlush$failureKeepsDeliveriesPending() throws Exception {
+		new Expectations() {{
+			AcknowledgerTest.this.channel.basicAck(2,true);this.result=new IOException("failure");
+		}};
+		final Acknowledger sut=newAcknowledger(4,60000);
+		sut.acknowledge(1);
+		sut.acknowledge(2);
+		sut.close();
+		assertThat(sut.unacknowledged(),equalTo(2L));
+	}
+
+}
@@ -0,0 +1,75 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class BackoffTest {
+
+	@Test
+	public void testDelay$doublesUntilMaximum() {
+		final Backoff sut=Backoff.newInstance(100,1000,TimeUnit.MILLISECONDS);
+		assertThat(sut.delay(0),equalTo(100L));
+		assertThat(sut.delay(1),equalTo(200L));
+		assertThat(sut.delay(3),equalTo(800L));
+		assertThat(sut.delay(4),equalTo(1000L));
+		assertThat(sut.delay(Integer.MAX_VALUE),equalTo(1000L));
+	}
+
+	@Test
+	public void testDelay$convertsToMilliseconds() {
+		final Backoff sut=Backoff.newInstance(1,60,TimeUnit.SECONDS);
+		assertThat(sut.delay(1),equalTo(2000L));
+	}
+
+	@Test
+	public void testNewInstance$nonPositiveInitialDelay() {
+		try {
+			Backoff.newInstance(0,1000,TimeUnit.MILLISECONDS);
+			fail("Should not accept a non-positive initial delay");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Initial delay must be positive (0)"));
+		}
+	}
+
+	@Test
+	public void testNewInstance$maximumLowerThanInitial() {
+		try {
+			Backoff.newInstance(1000,100,TimeUnit.MILLISECONDS);
+			fail("Should not accept a maximum delay lower than the initial delay");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Maximum delay cannot be lower than the initial delay (100 < 1000)"));
+		}
+	}
+
+}
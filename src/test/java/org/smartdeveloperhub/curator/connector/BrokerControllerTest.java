@@ -27,17 +27,27 @@
 package org.smartdeveloperhub.curator.connector;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.isEmptyOrNullString;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Mock;
 import mockit.MockUp;
@@ -48,15 +58,28 @@ import mockit.integration.junit4.JMockit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.smartdeveloperhub.curator.connector.io.ConversionContext;
+import org.smartdeveloperhub.curator.connector.io.MessageUtil;
+import org.smartdeveloperhub.curator.connector.io.WireFormat;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
 import org.smartdeveloperhub.curator.protocol.Broker;
 import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
+import org.smartdeveloperhub.curator.protocol.Message;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.rabbitmq.client.AMQP.BasicProperties;
 import com.rabbitmq.client.AMQP.Queue.DeclareOk;
+import com.rabbitmq.client.AlreadyClosedException;
+import com.rabbitmq.client.BlockedListener;
 import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.ReturnListener;
+import com.rabbitmq.client.ShutdownListener;
 import com.rabbitmq.client.ShutdownSignalException;
 
 @RunWith(JMockit.class)
@@ -74,6 +97,11 @@ public class BrokerControllerTest {
 		return new BrokerController(this.broker, this.name, this.context);
 	}
 
+	private BrokerController newPipelinedInstance() {
+		BrokerController.topologyCache().clear();
+		return new BrokerController(this.broker,this.name,this.context,PayloadCompressor.identity(),CuratorConfiguration.newInstance().withPipelinedTopology(true));
+	}
+
 	@Test
 	public void testBroker() throws Exception {
 		assertThat(newInstance().broker(),equalTo(this.broker));
@@ -342,6 +370,7 @@ public class BrokerControllerTest {
 		};
 		new Expectations() {{
 			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;this.minTimes=2;this.maxTimes=2;
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
 			BrokerControllerTest.this.channel.basicPublish(dc.exchangeName(), dc.routingKey(), true, (BasicProperties)this.any, message.getBytes());this.minTimes=2;this.maxTimes=2;
 		}};
 		sut.connect();
@@ -351,13 +380,22 @@ public class BrokerControllerTest {
 			BasicProperties s;
 			BrokerControllerTest.this.channel.basicPublish(dc.exchangeName(), dc.routingKey(), true, s=withCapture(), message.getBytes());
 			assertThat(s.getDeliveryMode(),equalTo(2));
+			assertThat(s.getContentType(),equalTo(WireFormat.TURTLE.contentType()));
 			assertThat(s.getHeaders().get(BrokerController.BROKER_CONTROLLER_MESSAGE),instanceOf(Long.class));
 		}};
 	}
 
 	@Test
-	public void testDisconnect$connected() throws Exception {
-		final BrokerController sut=newInstance();
+	public void testPublishMessage$publisherConnections() throws Exception {
+		final BrokerController sut=new BrokerController(this.broker,this.name,this.context,PayloadCompressor.identity(),CuratorConfiguration.newInstance().withPublisherConnections(2));
+		final DeliveryChannel dc =
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchangeName").
+					withRoutingKey("routingKey").
+					build();
+		final String message = "message";
+		final AtomicInteger connections=new AtomicInteger();
 		new MockUp<ConnectionFactory>() {
 			@Mock
 			public void setHost(final String host) {
@@ -373,27 +411,142 @@ public class BrokerControllerTest {
 			}
 			@Mock
 			public Connection newConnection() throws IOException, TimeoutException {
+				connections.incrementAndGet();
 				return BrokerControllerTest.this.connection;
 			}
 		};
 		new Expectations() {{
 			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
 			BrokerControllerTest.this.channel.isOpen();this.result=true;
-			BrokerControllerTest.this.channel.close();this.result=new IOException("Could not close channel");
-			BrokerControllerTest.this.connection.close();
 		}};
 		sut.connect();
+		for(int i=0;i<4;i++) {
+			sut.publishMessage(dc, message);
+		}
+		assertThat(connections.get(),equalTo(3));
+		final List<ConnectionMetrics> metrics=sut.connectionMetrics();
+		assertThat(metrics,hasSize(2));
+		assertThat(metrics.get(0).name(),equalTo("name-publisher-0"));
+		assertThat(metrics.get(0).publishedMessages(),equalTo(2L));
+		assertThat(metrics.get(0).publishedBytes(),equalTo(2L*message.length()));
+		assertThat(metrics.get(1).name(),equalTo("name-publisher-1"));
+		assertThat(metrics.get(1).publishedMessages(),equalTo(2L));
 		sut.disconnect();
+		new Verifications() {{
+			BrokerControllerTest.this.connection.close();this.times=3;
+		}};
+	}
+
+	@Test
+	public void testPublishMessage$blockedConnection() throws Exception {
+		final BrokerController sut=new BrokerController(this.broker,this.name,this.context,PayloadCompressor.identity(),CuratorConfiguration.newInstance().withPublishTimeout(10));
+		final DeliveryChannel dc =
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchangeName").
+					withRoutingKey("routingKey").
+					build();
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
+		}};
+		sut.connect();
+		final List<BlockedListener> listeners=Lists.newArrayList();
+		new Verifications() {{
+			BrokerControllerTest.this.connection.addBlockedListener(withCapture(listeners));
+		}};
+		assertThat(listeners,hasSize(1));
+		listeners.get(0).handleBlocked("low on memory");
 		try {
-			sut.disconnect();
-		} catch (final IllegalStateException e) {
-			assertThat(e.getMessage(),equalTo("Not connected"));
+			sut.publishMessage(dc,"message");
+			fail("Should reject publications while the connection is blocked");
+		} catch (final PublicationRejectedException e) {
+			assertThat(e.getMessage(),equalTo("Connection name has been blocked by the broker for more than 10 ms"));
 		}
+		listeners.get(0).handleUnblocked();
+		sut.publishMessage(dc,"message");
+		final ConnectionMetrics metrics=sut.connectionMetrics().get(0);
+		assertThat(metrics.blocks(),equalTo(1L));
+		assertThat(metrics.rejectedPublications(),equalTo(1L));
+		assertThat(metrics.publishedMessages(),equalTo(1L));
+		sut.disconnect();
 	}
 
 	@Test
-	public void testDisconnect$unlockOnError() throws Exception {
+	public void testPublishMessage$publishQueue() throws Exception {
+		final BrokerController sut=new BrokerController(this.broker,this.name,this.context,PayloadCompressor.identity(),CuratorConfiguration.newInstance().withPublishQueueCapacity(4));
+		final DeliveryChannel dc =
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchangeName").
+					withRoutingKey("routingKey").
+					build();
+		final CountDownLatch published=new CountDownLatch(1);
+		final List<String> threads=Lists.newCopyOnWriteArrayList();
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
+			BrokerControllerTest.this.channel.basicPublish("exchangeName","routingKey",true,(BasicProperties)this.any,(byte[])this.any);
+			this.result=new Delegate<Void>() {
+				@SuppressWarnings("unused")
+				void basicPublish(final String exchange, final String routingKey, final boolean mandatory, final BasicProperties props, final byte[] body) {
+					threads.add(Thread.currentThread().getName());
+					published.countDown();
+				}
+			};
+		}};
+		sut.connect();
+		sut.publishMessage(dc,"message");
+		assertThat(published.await(5,TimeUnit.SECONDS),equalTo(true));
+		assertThat(threads.get(0),equalTo("name-writer-0"));
+		sut.disconnect();
+	}
+
+	@Test
+	public void testPublishRequest$directReplyTo(@Mocked final Message message) throws Exception {
 		final BrokerController sut=newInstance();
+		final DeliveryChannel dc =
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchangeName").
+					withRoutingKey("routingKey").
+					build();
 		new MockUp<ConnectionFactory>() {
 			@Mock
 			public void setHost(final String host) {
@@ -412,38 +565,94 @@ public class BrokerControllerTest {
 				return BrokerControllerTest.this.connection;
 			}
 		};
+		new MockUp<MessageUtil>() {
+			@Mock
+			byte[] toBytes(final Message aMessage) {
+				return "message".getBytes();
+			}
+		};
 		new Expectations() {{
 			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
 			BrokerControllerTest.this.channel.isOpen();this.result=true;
-			BrokerControllerTest.this.channel.close();
-			BrokerControllerTest.this.connection.close();this.result=new Throwable("failure");
 		}};
 		sut.connect();
-		try {
-			sut.disconnect();
-			fail("Should not complete disconnection if failure happens");
-		} catch (final Throwable e) {
-			assertThat(e.getMessage(),equalTo("failure"));
-		}
+		sut.
+			registerReplyConsumer(
+				new MessageHandler() {
+					@Override
+					public void handlePayload(final String payload) {
+					}
+				});
+		sut.publishRequest(dc,message);
+		final List<BasicProperties> properties=Lists.newArrayList();
+		new Verifications() {{
+			BrokerControllerTest.this.channel.basicConsume(BrokerController.DIRECT_REPLY_TO,true,(Consumer)this.any);this.times=1;
+			BrokerControllerTest.this.channel.basicPublish("exchangeName","routingKey",true,withCapture(properties),(byte[])this.any);
+		}};
+		assertThat(properties,hasSize(1));
+		assertThat(properties.get(0).getReplyTo(),equalTo(BrokerController.DIRECT_REPLY_TO));
+		final List<ConnectionMetrics> metrics=sut.connectionMetrics();
+		assertThat(metrics,hasSize(2));
+		assertThat(metrics.get(1).name(),equalTo("name-reply-to"));
+		assertThat(metrics.get(1).publishedMessages(),equalTo(1L));
+		sut.disconnect();
+		assertThat(sut.connectionMetrics(),hasSize(1));
 	}
 
 	@Test
-	public void testDisconnect$notConnected() throws Exception {
+	public void testPublishReply$defaultExchange() throws Exception {
 		final BrokerController sut=newInstance();
+		final String replyTo="amq.rabbitmq.reply-to.g2dkAA9yYWJiaXRAbG9jYWxob3N0AAAA+QAAAAAB";
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
+		}};
+		sut.connect();
+		sut.publishReply(replyTo,"message");
+		new Verifications() {{
+			BrokerControllerTest.this.channel.basicPublish("",replyTo,true,(BasicProperties)this.any,"message".getBytes());this.times=1;
+		}};
+		sut.disconnect();
+	}
+
+	@Test
+	public void testPublishRequest$requiresReplyConsumer(@Mocked final Message message) throws Exception {
 		try {
-			sut.disconnect();
+			newInstance().publishRequest(null,message);
+			fail("Should not publish requests without a reply consumer");
 		} catch (final IllegalStateException e) {
-			assertThat(e.getMessage(),equalTo("Not connected"));
+			assertThat(e.getMessage(),equalTo("No reply consumer registered"));
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	@Test
-	public void testDisconnect$ignoreCleanerFailures(@Mocked final DeclareOk ok) throws Exception {
-		final String routingKey="routingKey";
-		final String queueName="queueName";
-		final String exchangeName="exchangeName";
+	public void testPublishMessage$returnedMessagesAreCorrelated(@Mocked final Message message) throws Exception {
 		final BrokerController sut=newInstance();
+		final UUID messageId=UUID.randomUUID();
+		final DeliveryChannel dc =
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchangeName").
+					withRoutingKey("routingKey").
+					build();
 		new MockUp<ConnectionFactory>() {
 			@Mock
 			public void setHost(final String host) {
@@ -462,22 +671,50 @@ public class BrokerControllerTest {
 				return BrokerControllerTest.this.connection;
 			}
 		};
+		new MockUp<MessageUtil>() {
+			@Mock
+			byte[] toBytes(final Message aMessage) {
+				return "message".getBytes();
+			}
+		};
 		new Expectations() {{
 			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
-			BrokerControllerTest.this.channel.queueDeclare(queueName,true,false,true,(Map<String,Object>)this.any);this.result=ok;
-			ok.getQueue();this.result=queueName;
-			BrokerControllerTest.this.channel.queueUnbind(queueName,exchangeName,routingKey);this.result=new IOException("failure");
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
+			message.messageId();this.result=messageId;
 		}};
+		final List<String> returned=Lists.newArrayList();
+		sut.addReturnedMessageListener(
+			new Transport.ReturnedMessageListener() {
+				@Override
+				public void onReturn(final Transport transport, final String correlationId, final String reason) {
+					returned.add(correlationId+" "+reason);
+				}
+			});
 		sut.connect();
-		sut.declareQueue(queueName);
-		sut.bindQueue(exchangeName, queueName, routingKey);
+		sut.publishMessage(dc,message);
+		final List<BasicProperties> properties=Lists.newArrayList();
+		final List<ReturnListener> listeners=Lists.newArrayList();
+		new Verifications() {{
+			BrokerControllerTest.this.channel.addReturnListener(withCapture(listeners));
+			BrokerControllerTest.this.channel.basicPublish("exchangeName","routingKey",true,withCapture(properties),(byte[])this.any);
+		}};
+		assertThat(properties,hasSize(1));
+		final ReturnListener listener=listeners.get(listeners.size()-1);
+		listener.handleReturn(312,"NO_ROUTE","exchangeName","routingKey",properties.get(0),"message".getBytes());
+		listener.handleReturn(312,"NO_ROUTE","exchangeName","routingKey",properties.get(0),"message".getBytes());
+		assertThat(returned,contains(messageId+" 312 NO_ROUTE"));
 		sut.disconnect();
 	}
 
 	@Test
-	public void testRegisterHandler$unlockOnError() throws Exception {
-		final String queueName="queueName";
+	public void testPublishMessages$singleChannel(@Mocked final Message message) throws Exception {
 		final BrokerController sut=newInstance();
+		final DeliveryChannel dc =
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchangeName").
+					withRoutingKey("routingKey").
+					build();
 		new MockUp<ConnectionFactory>() {
 			@Mock
 			public void setHost(final String host) {
@@ -496,16 +733,681 @@ public class BrokerControllerTest {
 				return BrokerControllerTest.this.connection;
 			}
 		};
+		new MockUp<MessageUtil>() {
+			@Mock
+			byte[] toBytes(final Message aMessage) {
+				return "message".getBytes();
+			}
+		};
 		new Expectations() {{
 			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
-			BrokerControllerTest.this.channel.basicConsume(queueName, true, (MessageHandlerConsumer)this.any);this.result=new IOException("failure");
+			BrokerControllerTest.this.channel.getNextPublishSeqNo();this.returns(1L,2L,3L);
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
 		}};
 		sut.connect();
-		try {
-			sut.registerConsumer(null, queueName);
-		} catch (final IOException e) {
-			assertThat(e.getMessage(),equalTo("failure"));
+		final List<ListenableFuture<Void>> confirmations=sut.publishMessages(dc,ImmutableList.of(message,message,message));
+		assertThat(confirmations,hasSize(3));
+		final List<ConfirmListener> listeners=Lists.newArrayList();
+		new Verifications() {{
+			BrokerControllerTest.this.channel.confirmSelect();this.times=1;
+			BrokerControllerTest.this.channel.basicPublish("exchangeName","routingKey",true,(BasicProperties)this.any,(byte[])this.any);this.times=3;
+			BrokerControllerTest.this.channel.addConfirmListener(withCapture(listeners));
+		}};
+		assertThat(Futures.allAsList(confirmations).isDone(),equalTo(false));
+		listeners.get(0).handleAck(3L,true);
+		assertThat(Futures.allAsList(confirmations).isDone(),equalTo(true));
+		sut.disconnect();
+	}
+
+	@Test
+	public void testPublishMessages$failureFailsRemainingMessages(@Mocked final Message message) throws Exception {
+		final BrokerController sut=newInstance();
+		final DeliveryChannel dc =
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchangeName").
+					withRoutingKey("routingKey").
+					build();
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new MockUp<MessageUtil>() {
+			@Mock
+			byte[] toBytes(final Message aMessage) {
+				return "message".getBytes();
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.getNextPublishSeqNo();this.returns(1L,2L,3L);
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
+			BrokerControllerTest.this.channel.basicPublish("exchangeName","routingKey",true,(BasicProperties)this.any,(byte[])this.any);
+			this.result=null;
+			this.result=new IOException("failure");
+		}};
+		sut.connect();
+		final List<ListenableFuture<Void>> confirmations=sut.publishMessages(dc,ImmutableList.of(message,message,message));
+		assertThat(confirmations,hasSize(3));
+		assertThat(confirmations.get(0).isDone(),equalTo(false));
+		for(final ListenableFuture<Void> confirmation:confirmations.subList(1,3)) {
+			try {
+				confirmation.get();
+				fail("Should fail if the batch could not be published");
+			} catch (final ExecutionException e) {
+				assertThat(e.getCause().getMessage(),equalTo("failure"));
+			}
 		}
+		new Verifications() {{
+			BrokerControllerTest.this.channel.basicPublish("exchangeName","routingKey",true,(BasicProperties)this.any,(byte[])this.any);this.times=2;
+		}};
+	}
+
+	@Test
+	public void testPublishMessage$sharedConnection() throws Exception {
+		final BrokerController sut=newInstance();
+		final List<ConnectionMetrics> metrics=sut.connectionMetrics();
+		assertThat(metrics,hasSize(1));
+		assertThat(metrics.get(0).name(),equalTo(this.name));
+	}
+
+	@Test
+	public void testPublishMessage$compressed() throws Exception {
+		final BrokerController sut=new BrokerController(this.broker, this.name, this.context, PayloadCompressor.newInstance(ContentEncoding.GZIP,0));
+		final DeliveryChannel dc =
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchangeName").
+					withRoutingKey("routingKey").
+					build();
+		final String message = "message";
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+		}};
+		sut.connect();
+		sut.publishMessage(dc, message);
+		new Verifications() {{
+			BasicProperties s;
+			byte[] body;
+			BrokerControllerTest.this.channel.basicPublish(dc.exchangeName(), dc.routingKey(), true, s=withCapture(), body=withCapture());
+			assertThat(s.getContentEncoding(),equalTo("gzip"));
+			assertThat(ContentEncoding.GZIP.decode(body),equalTo(message.getBytes()));
+		}};
+		assertThat(sut.compressor().metrics().compressedMessages(),equalTo(1L));
+	}
+
+	@Test
+	public void testPublishMessage$confirmed() throws Exception {
+		final BrokerController sut=newInstance();
+		final DeliveryChannel dc =
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchangeName").
+					withRoutingKey("routingKey").
+					build();
+		final String message = "message";
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.getNextPublishSeqNo();this.returns(1L,2L);
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
+		}};
+		sut.connect();
+		final ListenableFuture<Void> first=sut.publishMessage(dc, message);
+		final ListenableFuture<Void> second=sut.publishMessage(dc, message);
+		assertThat(first.isDone(),equalTo(false));
+		assertThat(second.isDone(),equalTo(false));
+		final List<ConfirmListener> listeners=Lists.newArrayList();
+		new Verifications() {{
+			BrokerControllerTest.this.channel.confirmSelect();this.times=1;
+			BrokerControllerTest.this.channel.addConfirmListener(withCapture(listeners));
+		}};
+		assertThat(listeners,hasSize(1));
+		listeners.get(0).handleAck(2L,true);
+		assertThat(first.isDone(),equalTo(true));
+		assertThat(second.isDone(),equalTo(true));
+	}
+
+	@Test
+	public void testDisconnect$connected() throws Exception {
+		final BrokerController sut=newInstance();
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
+			BrokerControllerTest.this.channel.close();this.result=new IOException("Could not close channel");
+			BrokerControllerTest.this.connection.close();
+		}};
+		sut.connect();
+		sut.disconnect();
+		try {
+			sut.disconnect();
+		} catch (final IllegalStateException e) {
+			assertThat(e.getMessage(),equalTo("Not connected"));
+		}
+	}
+
+	@Test
+	public void testDisconnect$unlockOnError() throws Exception {
+		final BrokerController sut=newInstance();
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.isOpen();this.result=true;
+			BrokerControllerTest.this.channel.close();
+			BrokerControllerTest.this.connection.close();this.result=new Throwable("failure");
+		}};
+		sut.connect();
+		try {
+			sut.disconnect();
+			fail("Should not complete disconnection if failure happens");
+		} catch (final Throwable e) {
+			assertThat(e.getMessage(),equalTo("failure"));
+		}
+	}
+
+	@Test
+	public void testDisconnect$notConnected() throws Exception {
+		final BrokerController sut=newInstance();
+		try {
+			sut.disconnect();
+		} catch (final IllegalStateException e) {
+			assertThat(e.getMessage(),equalTo("Not connected"));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testDisconnect$ignoreCleanerFailures(@Mocked final DeclareOk ok) throws Exception {
+		final String routingKey="routingKey";
+		final String queueName="queueName";
+		final String exchangeName="exchangeName";
+		final BrokerController sut=newInstance();
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.queueDeclare(queueName,true,false,true,(Map<String,Object>)this.any);this.result=ok;
+			ok.getQueue();this.result=queueName;
+			BrokerControllerTest.this.channel.queueUnbind(queueName,exchangeName,routingKey);this.result=new IOException("failure");
+		}};
+		sut.connect();
+		sut.declareQueue(queueName);
+		sut.bindQueue(exchangeName, queueName, routingKey);
+		sut.disconnect();
+	}
+
+	@Test
+	public void testRegisterHandler$unlockOnError() throws Exception {
+		final String queueName="queueName";
+		final BrokerController sut=newInstance();
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.basicConsume(queueName, true, (MessageHandlerConsumer)this.any);this.result=new IOException("failure");
+		}};
+		sut.connect();
+		try {
+			sut.registerConsumer(null, queueName);
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("failure"));
+		}
+	}
+
+	@Test
+	public void testRegisterConsumer$manualAcknowledgements() throws Exception {
+		final String queueName="queueName";
+		final BrokerController sut=new BrokerController(this.broker,this.name,this.context,PayloadCompressor.identity(),CuratorConfiguration.newInstance().withPrefetchCount(16).withAcknowledgementBatchSize(4));
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+		}};
+		sut.connect();
+		sut.registerConsumer(null,queueName);
+		sut.registerConsumer(null,queueName);
+		new Verifications() {{
+			BrokerControllerTest.this.channel.basicQos(16);this.times=1;
+			BrokerControllerTest.this.channel.basicConsume(queueName,false,(MessageHandlerConsumer)this.any);this.times=2;
+		}};
+	}
+
+	@Test
+	public void testRecovery$replaysTopologyAndConsumers(@Mocked final DeclareOk ok) throws Exception {
+		final BrokerController sut=new BrokerController(this.broker,this.name,this.context,PayloadCompressor.identity(),CuratorConfiguration.newInstance().withRecoveryInterval(10));
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.queueDeclare("",true,false,true,BrokerController.QUEUE_ARGUMENTS);this.result=ok;
+			ok.getQueue();this.returns("amq.gen-old","amq.gen-new");
+		}};
+		final CountDownLatch recovered=new CountDownLatch(1);
+		sut.addRecoveryListener(
+			new Transport.RecoveryListener() {
+				@Override
+				public void onRecovery(final Transport transport) {
+					recovered.countDown();
+				}
+			}
+		);
+		sut.connect();
+		sut.declareExchange("exchange");
+		final String queueName=sut.prepareQueue("exchange",null,"key");
+		sut.registerConsumer(null,queueName);
+		final List<ShutdownListener> listeners=Lists.newArrayList();
+		new Verifications() {{
+			BrokerControllerTest.this.connection.addShutdownListener(withCapture(listeners));
+		}};
+		listeners.get(0).shutdownCompleted(new ShutdownSignalException(true,false,null,this.connection));
+		assertThat(recovered.await(5,TimeUnit.SECONDS),equalTo(true));
+		new Verifications() {{
+			BrokerControllerTest.this.channel.exchangeDeclare("exchange",anyString,true,true,null);this.times=2;
+			BrokerControllerTest.this.channel.queueBind("amq.gen-old","exchange","key");this.times=1;
+			BrokerControllerTest.this.channel.queueBind("amq.gen-new","exchange","key");this.times=1;
+			BrokerControllerTest.this.channel.basicConsume("amq.gen-old",true,(MessageHandlerConsumer)this.any);this.times=1;
+			BrokerControllerTest.this.channel.basicConsume("amq.gen-new",true,(MessageHandlerConsumer)this.any);this.times=1;
+		}};
+		assertThat(sut.recoveryMetrics().connectionFailures(),equalTo(1L));
+		assertThat(sut.recoveryMetrics().recoveries(),equalTo(1L));
+		sut.disconnect();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testVerifyTopology$pipelinedDeclarations() throws Exception {
+		final BrokerController sut=newPipelinedInstance();
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		sut.connect();
+		assertThat(sut.declareQueue("queueName"),equalTo("queueName"));
+		sut.bindQueue("exchangeName","queueName","routingKey");
+		sut.verifyTopology();
+		sut.verifyTopology();
+		new Verifications() {{
+			BrokerControllerTest.this.channel.queueDeclareNoWait("queueName",true,false,true,(Map<String,Object>)this.any);this.times=1;
+			BrokerControllerTest.this.channel.queueBindNoWait("queueName","exchangeName","routingKey",null);this.times=1;
+			BrokerControllerTest.this.channel.queueDeclarePassive("queueName");this.times=1;
+			BrokerControllerTest.this.channel.queueDeclare(anyString,anyBoolean,anyBoolean,anyBoolean,(Map<String,Object>)this.any);this.times=0;
+			BrokerControllerTest.this.channel.queueBind(anyString,anyString,anyString);this.times=0;
+		}};
+		assertThat(sut.topologyMetrics().pipelinedDeclarations(),equalTo(2L));
+		assertThat(sut.topologyMetrics().verifications(),equalTo(1L));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testVerifyTopology$serverNamedQueuesAreNotPipelined(@Mocked final DeclareOk ok) throws Exception {
+		final BrokerController sut=newPipelinedInstance();
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.channel.queueDeclare("",true,false,true,(Map<String,Object>)this.any);this.result=ok;
+			ok.getQueue();this.result="amq.gen-queue";
+		}};
+		sut.connect();
+		assertThat(sut.declareQueue(null),equalTo("amq.gen-queue"));
+		sut.verifyTopology();
+		new Verifications() {{
+			BrokerControllerTest.this.channel.queueDeclarePassive(anyString);this.times=0;
+		}};
+		assertThat(sut.topologyMetrics().declarations(),equalTo(1L));
+		assertThat(sut.topologyMetrics().pipelinedDeclarations(),equalTo(0L));
+	}
+
+	@Test
+	public void testDeclareExchange$pipelined$reusesVerifiedExchanges() throws Exception {
+		final BrokerController first=newPipelinedInstance();
+		final BrokerController second=new BrokerController(this.broker,"second",this.context,PayloadCompressor.identity(),CuratorConfiguration.newInstance().withPipelinedTopology(true));
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		first.connect();
+		first.declareExchange("exchangeName");
+		first.verifyTopology();
+		second.connect();
+		second.declareExchange("exchangeName");
+		second.verifyTopology();
+		new Verifications() {{
+			BrokerControllerTest.this.channel.exchangeDeclare("exchangeName","topic",true,true,null);this.times=1;
+			BrokerControllerTest.this.channel.exchangeDeclareNoWait("exchangeName","topic",true,true,false,null);this.times=1;
+			BrokerControllerTest.this.channel.exchangeDeclarePassive("exchangeName");this.times=1;
+		}};
+		assertThat(first.topologyMetrics().declarations(),equalTo(1L));
+		assertThat(second.topologyMetrics().cachedDeclarations(),equalTo(1L));
+	}
+
+	@Test
+	public void testVerifyTopology$failure$invalidatesCache() throws Exception {
+		final BrokerController sut=newPipelinedInstance();
+		BrokerController.topologyCache().addExchange(this.broker,"exchangeName");
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.channel.exchangeDeclarePassive("exchangeName");this.result=new IOException("failure");
+		}};
+		sut.connect();
+		sut.declareExchange("exchangeName");
+		try {
+			sut.verifyTopology();
+			fail("Should not verify a failed declaration");
+		} catch (final ControllerException e) {
+			assertThat(e.getMessage(),equalTo("Could not verify the topology declared by name"));
+			assertThat(e.getCause().getMessage(),equalTo("failure"));
+		}
+		assertThat(BrokerController.topologyCache().containsExchange(this.broker,"exchangeName"),equalTo(false));
+		assertThat(sut.topologyMetrics().failedVerifications(),equalTo(1L));
+	}
+
+	@Test
+	public void testVerifyTopology$failure$subscriptionsSurvive() throws Exception {
+		final BrokerController sut=newPipelinedInstance();
+		BrokerController.topologyCache().addExchange(this.broker,"exchangeName");
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.queueDeclarePassive("invalidQueue");this.result=new IOException("failure");
+		}};
+		sut.connect();
+		sut.declareExchange("exchangeName");
+		sut.prepareQueue("exchangeName","queueName","routingKey");
+		sut.verifyTopology();
+		sut.
+			registerConsumer(
+				new MessageHandler() {
+					@Override
+					public void handlePayload(final String payload) {
+					}
+				},
+				"queueName");
+		sut.declareQueue("invalidQueue");
+		try {
+			sut.verifyTopology();
+			fail("Should not verify a failed declaration");
+		} catch (final ControllerException e) {
+			assertThat(e.getMessage(),equalTo("Could not verify the topology declared by name"));
+		}
+		new Verifications() {{
+			BrokerControllerTest.this.connection.createChannel();this.times=2;
+			BrokerControllerTest.this.channel.exchangeDeclare("exchangeName",anyString,true,true,null);this.times=1;
+			BrokerControllerTest.this.channel.queueDeclare("queueName",true,false,true,(Map<String,Object>)this.any);this.times=1;
+			BrokerControllerTest.this.channel.queueBind("queueName","exchangeName","routingKey");this.times=1;
+			BrokerControllerTest.this.channel.queueDeclare("invalidQueue",anyBoolean,anyBoolean,anyBoolean,(Map<String,Object>)this.any);this.times=0;
+			BrokerControllerTest.this.channel.basicConsume("queueName",anyBoolean,(Consumer)this.any);this.times=2;
+		}};
+		sut.disconnect();
+	}
+
+	@Test
+	public void testBindQueue$pipelined$closedChannel() throws Exception {
+		final BrokerController sut=newPipelinedInstance();
+		BrokerController.topologyCache().addExchange(this.broker,"exchangeName");
+		new MockUp<ConnectionFactory>() {
+			@Mock
+			public void setHost(final String host) {
+			}
+			@Mock
+			public void setPort(final int port) {
+			}
+			@Mock
+			public void setVirtualHost(final String virtualHost) {
+			}
+			@Mock
+			public void setThreadFactory(final ThreadFactory threadFactory) {
+			}
+			@Mock
+			public Connection newConnection() throws IOException, TimeoutException {
+				return BrokerControllerTest.this.connection;
+			}
+		};
+		final AlreadyClosedException failure=new AlreadyClosedException(new ShutdownSignalException(false,true,null,BrokerControllerTest.this.channel));
+		new Expectations() {{
+			BrokerControllerTest.this.connection.createChannel();this.result=BrokerControllerTest.this.channel;
+			BrokerControllerTest.this.channel.queueBindNoWait("queueName","exchangeName","routingKey",null);this.result=failure;
+		}};
+		sut.connect();
+		assertThat(sut.declareQueue("queueName"),equalTo("queueName"));
+		try {
+			sut.bindQueue("exchangeName","queueName","routingKey");
+			fail("Should not bind a queue using a closed channel");
+		} catch (final ControllerException e) {
+			assertThat(e.getMessage(),equalTo("Could not bind name queue 'queueName' to exchange 'exchangeName' using routing key 'routingKey'"));
+			assertThat(e.getCause(),sameInstance((Throwable)failure));
+		}
+		assertThat(BrokerController.topologyCache().containsExchange(this.broker,"exchangeName"),equalTo(false));
+		sut.verifyTopology();
+		new Verifications() {{
+			BrokerControllerTest.this.connection.createChannel();this.minTimes=2;
+			BrokerControllerTest.this.channel.queueDeclarePassive(anyString);this.times=0;
+		}};
 	}
 
 	@Test
@@ -0,0 +1,138 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.smartdeveloperhub.curator.connector.LoopbackTransport.LoopbackTransportFactory;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.rabbitmq.client.DefaultConsumer;
+
+/**
+ * Compares the cost per request of submitting a batch of enrichment requests
+ * one by one against submitting them at once. The requests are published
+ * through the loopback transport to a queue that discards them, and are
+ * cancelled once submitted. Run the {@code main} method using the test
+ * classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=10,time=1)
+@Fork(1)
+public class BulkRequestBenchmark {
+
+	private static final int BATCH_SIZE=64;
+
+	private static final EnrichmentResultHandler HANDLER=
+		new EnrichmentResultHandler() {
+			@Override
+			public void onResult(EnrichmentResult result) {
+			}
+		};
+
+	private LoopbackTransportFactory factory;
+	private Connector connector;
+	private List<EnrichmentRequest> requests;
+
+	@Setup
+	public void setUp() throws Exception {
+		this.factory=LoopbackTransport.newFactory();
+		this.connector=
+			Connector.
+				builder().
+					withConnectorChannel(ProtocolFactory.newDeliveryChannel().withRoutingKey("connector.benchmark").build()).
+					withBase("http://localhost:8080/harvester/service/").
+					withNamespacePrefix(UseCase.CI_NAMESPACE,"ci").
+					withNamespacePrefix(UseCase.SCM_NAMESPACE,"scm").
+					withNamespacePrefix(UseCase.DOAP_NAMESPACE,"doap").
+					withTransportFactory(this.factory).
+					build();
+		this.connector.connect();
+		LoopbackBroker broker=this.factory.broker(CuratorConfiguration.DEFAULT_BROKER);
+		broker.declareQueue("sink");
+		broker.bindQueue("sink",CuratorConfiguration.DEFAULT_EXCHANGE_NAME,CuratorConfiguration.DEFAULT_REQUEST_ROUTING_KEY+".*");
+		broker.consume("sink",new DefaultConsumer(null));
+		this.requests=Collections.nCopies(BATCH_SIZE,UseCase.EXAMPLE_REQUEST);
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		this.connector.disconnect();
+		this.factory.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<ListenableFuture<Enrichment>> oneByOne() throws Exception {
+		List<ListenableFuture<Enrichment>> enrichments=Lists.newArrayListWithCapacity(BATCH_SIZE);
+		for(EnrichmentRequest request:this.requests) {
+			enrichments.add(this.connector.requestEnrichmentAsync(request,HANDLER));
+		}
+		Futures.allAsList(enrichments).cancel(true);
+		return enrichments;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public EnrichmentBatch batch() throws Exception {
+		EnrichmentBatch batch=this.connector.requestEnrichments(this.requests,HANDLER);
+		batch.acknowledgements().cancel(true);
+		return batch;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(
+			new OptionsBuilder().
+				include(BulkRequestBenchmark.class.getSimpleName()).
+				build()).
+			run();
+	}
+
+}
@@ -0,0 +1,208 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.collect.Lists;
+import com.rabbitmq.client.Channel;
+
+@RunWith(JMockit.class)
+public class ChannelPoolTest {
+
+	private static final class QueuedChannelFactory implements ChannelPool.ChannelFactory {
+
+		private final Deque<Channel> channels;
+
+		private QueuedChannelFactory(final Channel... channels) {
+			this.channels=Lists.newLinkedList(Lists.newArrayList(channels));
+		}
+
+		@Override
+		public PublisherConfirms create() throws IOException {
+			final Channel channel=this.channels.poll();
+			if(channel==null) {
+				throw new IOException("No more channels");
+			}
+			return PublisherConfirms.enable(channel);
+		}
+
+	}
+
+	@Injectable private Channel first;
+	@Injectable private Channel second;
+
+	private ChannelPool newPool(final int size) {
+		return ChannelPool.newInstance(new QueuedChannelFactory(this.first,this.second),size,new ChannelPoolMetrics());
+	}
+
+	@Test
+	public void testNewInstance$invalidSize() throws Exception {
+		try {
+			newPool(0);
+			fail("Should not accept an empty pool");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Channel pool size must be positive (0)"));
+		}
+	}
+
+	@Test
+	public void testBorrow$reusesReturnedChannels() throws Exception {
+		new Expectations() {{
+			ChannelPoolTest.this.first.isOpen();this.result=true;
+		}};
+		final ChannelPool sut=newPool(2);
+		final PublisherConfirms borrowed=sut.borrow();
+		assertThat(borrowed.channel(),sameInstance(this.first));
+		sut.release(borrowed);
+		assertThat(sut.idleChannels(),equalTo(1));
+		assertThat(sut.borrow(),sameInstance(borrowed));
+		assertThat(sut.metrics().createdChannels(),equalTo(1L));
+		assertThat(sut.metrics().borrowedChannels(),equalTo(2L));
+		assertThat(sut.metrics().activeChannels(),equalTo(1));
+	}
+
+	@Test
+	public void testBorrow$replacesClosedChannels() throws Exception {
+		new Expectations() {{
+			ChannelPoolTest.this.first.isOpen();this.returns(true,false);
+		}};
+		final ChannelPool sut=newPool(2);
+		sut.release(sut.borrow());
+		assertThat(sut.borrow().channel(),sameInstance(this.second));
+		assertThat(sut.metrics().createdChannels(),equalTo(2L));
+		assertThat(sut.metrics().discardedChannels(),equalTo(1L));
+	}
+
+	@Test
+	public void testDiscard$closesChannelAndFreesSlot() throws Exception {
+		new Expectations() {{
+			ChannelPoolTest.this.first.isOpen();this.result=true;
+		}};
+		final ChannelPool sut=newPool(1);
+		sut.discard(sut.borrow());
+		assertThat(sut.borrow().channel(),sameInstance(this.second));
+		assertThat(sut.metrics().discardedChannels(),equalTo(1L));
+		new Verifications() {{
+			ChannelPoolTest.this.first.close();this.times=1;
+		}};
+	}
+
+	@Test
+	public void testBorrow$factoryFailureFreesSlot() throws Exception {
+		final ChannelPool sut=ChannelPool.newInstance(new QueuedChannelFactory(),1,new ChannelPoolMetrics());
+		for(int i=0;i<2;i++) {
+			try {
+				sut.borrow();
+				fail("Should not borrow a channel that cannot be created");
+			} catch (final IOException e) {
+				assertThat(e.getMessage(),equalTo("No more channels"));
+			}
+		}
+		assertThat(sut.metrics().activeChannels(),equalTo(0));
+	}
+
+	@Test
+	public void testBorrow$waitsForReturnedChannelWhenExhausted() throws Exception {
+		new Expectations() {{
+			ChannelPoolTest.this.first.isOpen();this.result=true;
+		}};
+		final ChannelPool sut=newPool(1);
+		final PublisherConfirms borrowed=sut.borrow();
+		final CountDownLatch started=new CountDownLatch(1);
+		final ExecutorService executor=Executors.newSingleThreadExecutor();
+		try {
+			final Future<PublisherConfirms> contended=
+				executor.submit(
+					new Callable<PublisherConfirms>() {
+						@Override
+						public PublisherConfirms call() throws Exception {
+							started.countDown();
+							return sut.borrow();
+						}
+					});
+			started.await();
+			TimeUnit.MILLISECONDS.sleep(100);
+			assertThat(contended.isDone(),equalTo(false));
+			sut.release(borrowed);
+			assertThat(contended.get(5,TimeUnit.SECONDS),sameInstance(borrowed));
+			assertThat(sut.metrics().contendedBorrows(),equalTo(1L));
+			assertThat(sut.metrics().createdChannels(),equalTo(1L));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testClear$closesIdleChannels() throws Exception {
+		new Expectations() {{
+			ChannelPoolTest.this.first.isOpen();this.result=true;
+		}};
+		final ChannelPool sut=newPool(1);
+		sut.release(sut.borrow());
+		sut.clear();
+		assertThat(sut.idleChannels(),equalTo(0));
+		new Verifications() {{
+			ChannelPoolTest.this.first.close();this.times=1;
+		}};
+	}
+
+	@Test
+	public void testRelease$discardsChannelsClosedWhileBorrowed() throws Exception {
+		new Expectations() {{
+			ChannelPoolTest.this.first.isOpen();this.result=false;
+		}};
+		final ChannelPool sut=newPool(1);
+		final PublisherConfirms borrowed=sut.borrow();
+		sut.clear();
+		sut.release(borrowed);
+		assertThat(sut.idleChannels(),equalTo(0));
+		assertThat(sut.metrics().discardedChannels(),equalTo(1L));
+		assertThat(sut.borrow().channel(),sameInstance(this.second));
+	}
+
+}
@@ -29,10 +29,23 @@ package org.smartdeveloperhub.curator.connector;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+
 import org.junit.Test;
+import org.junit.runner.RunWith;
 import org.ldp4j.commons.testing.Utils;
+import org.smartdeveloperhub.curator.connector.BrokerController.Cleaner;
 
+import com.rabbitmq.client.AMQP.Queue.DeclareOk;
+import com.rabbitmq.client.Channel;
 
+@RunWith(JMockit.class)
 public class CleanerFactoryTest {
 
 	@Test
@@ -40,4 +53,39 @@ public class CleanerFactoryTest {
 		assertThat(Utils.isUtilityClass(CleanerFactory.class),equalTo(true));
 	}
 
+	@Test
+	public void testRecover$serverNamedQueue(@Mocked final Channel channel, @Mocked final DeclareOk ok) throws Exception {
+		new Expectations() {{
+			channel.queueDeclare("",true,false,true,BrokerController.QUEUE_ARGUMENTS);this.result=ok;
+			ok.getQueue();this.result="amq.gen-new";
+		}};
+		final Map<String,String> recoveredQueues=new HashMap<>();
+		final Cleaner cleaner=CleanerFactory.queueDelete("amq.gen-old",true).recover(channel,recoveredQueues);
+		assertThat(recoveredQueues.get("amq.gen-old"),equalTo("amq.gen-new"));
+		assertThat(cleaner.toString(),equalTo("Delete queue 'amq.gen-new'"));
+	}
+
+	@Test
+	public void testRecover$namedQueue(@Mocked final Channel channel, @Mocked final DeclareOk ok) throws Exception {
+		new Expectations() {{
+			channel.queueDeclare("queue",true,false,true,BrokerController.QUEUE_ARGUMENTS);this.result=ok;
+			ok.getQueue();this.result="queue";
+		}};
+		final Map<String,String> recoveredQueues=new HashMap<>();
+		final Cleaner cleaner=CleanerFactory.queueDelete("queue").recover(channel,recoveredQueues);
+		assertThat(recoveredQueues.get("queue"),equalTo("queue"));
+		assertThat(cleaner.toString(),equalTo("Delete queue 'queue'"));
+	}
+
+	@Test
+	public void testRecover$bindingUsesRecoveredQueue(@Mocked final Channel channel) throws Exception {
+		final Map<String,String> recoveredQueues=new HashMap<>();
+		recoveredQueues.put("amq.gen-old","amq.gen-new");
+		final Cleaner cleaner=CleanerFactory.queueUnbind("exchange","amq.gen-old","key").recover(channel,recoveredQueues);
+		new Verifications() {{
+			channel.queueBind("amq.gen-new","exchange","key");
+		}};
+		assertThat(cleaner.toString(),equalTo("Unbind queue 'amq.gen-new' from exchange 'exchange' and routing key 'key'"));
+	}
+
 }
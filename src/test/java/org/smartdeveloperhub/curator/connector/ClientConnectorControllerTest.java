@@ -248,13 +248,20 @@ public class ClientConnectorControllerTest {
 						withBroker(this.defaultBroker).
 						withRoutingKey("routingKey").
 						build());
-		assertThat(sut.brokerController(),equalTo(this.brokerController));
+		assertThat(sut.brokerController(),equalTo((Transport)this.brokerController));
 	}
 
 	@Test
 	public void testBrokerController$differentBrokerAsCuratorController() throws Exception {
 		new Expectations() {{
 			ClientConnectorControllerTest.this.curatorController.curatorConfiguration();this.result=ClientConnectorControllerTest.this.configuration.withBroker(ClientConnectorControllerTest.this.defaultBroker);
+			ClientConnectorControllerTest.this.curatorController.transportFactory();this.result=
+				new TransportFactory() {
+					@Override
+					public Transport newTransport(final Broker broker, final String name, final ConversionContext context, final PayloadCompressor compressor, final CuratorConfiguration settings) {
+						return new BrokerController(broker,name,context,compressor,settings);
+					}
+				};
 		}};
 		final ClientConnectorController sut=
 			newController(
@@ -264,7 +271,7 @@ public class ClientConnectorControllerTest {
 						withBroker(this.anotherBroker).
 						withRoutingKey("routingKey").
 						build());
-		assertThat(sut.brokerController(),not(equalTo(this.brokerController)));
+		assertThat(sut.brokerController(),not(equalTo((Transport)this.brokerController)));
 	}
 
 	@Test
@@ -280,7 +287,7 @@ public class ClientConnectorControllerTest {
 						withBroker((Broker)null).
 						withRoutingKey("routingKey").
 						build());
-		assertThat(sut.brokerController(),equalTo(this.brokerController));
+		assertThat(sut.brokerController(),equalTo((Transport)this.brokerController));
 	}
 
 }
@@ -28,13 +28,19 @@ package org.smartdeveloperhub.curator.connector;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import mockit.Expectations;
 import mockit.Mock;
@@ -50,9 +56,13 @@ import org.smartdeveloperhub.curator.connector.io.MessageConversionException;
 import org.smartdeveloperhub.curator.connector.io.MessageUtil;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
 import org.smartdeveloperhub.curator.protocol.Agent;
+import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
 import org.smartdeveloperhub.curator.protocol.EnrichmentRequestMessage;
 import org.smartdeveloperhub.curator.protocol.Message;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.rabbitmq.client.AMQP.BasicProperties;
 import com.rabbitmq.client.AMQP.Queue.DeclareOk;
 import com.rabbitmq.client.Channel;
@@ -187,6 +197,99 @@ public class ClientCuratorControllerTest {
 		}
 	}
 
+	@Test
+	public void testConnect$directReplyTo() throws Exception {
+		final AtomicBoolean registered=new AtomicBoolean(false);
+		final AtomicBoolean published=new AtomicBoolean(false);
+		new MockUp<BrokerController>() {
+			@Mock
+			void connect() {
+			}
+			@Mock
+			void declareExchange(final String exchangeName) {
+			}
+			@Mock
+			String prepareQueue(final String exchangeName, final String queueName, final String routingKey) {
+				throw new AssertionError("Should not prepare any queue");
+			}
+			@Mock
+			void registerConsumer(final MessageHandler handler, final String queueName) {
+				throw new AssertionError("Should not consume from any queue");
+			}
+			@Mock
+			void registerReplyConsumer(final MessageHandler handler) {
+				registered.set(true);
+			}
+			@Mock
+			ListenableFuture<Void> publishRequest(final DeliveryChannel replyTo, final Message message) {
+				assertThat(replyTo.routingKey(),equalTo(requestRoutingKey()));
+				published.set(true);
+				return Futures.immediateFuture(null);
+			}
+		};
+		final ClientCuratorController sut=new ClientCuratorController(this.configuration.withDirectReplyTo(true),"client",ConversionContext.newInstance());
+		sut.connect(this.agent);
+		sut.registerMessageHandler(
+			new MessageHandler() {
+				@Override
+				public void handlePayload(final String payload) {
+				}
+			});
+		sut.publishRequest(this.message);
+		assertThat(registered.get(),equalTo(true));
+		assertThat(published.get(),equalTo(true));
+	}
+
+	@Test
+	public void testPublishRequests$directReplyTo$failsRemainingMessages() throws Exception {
+		final AtomicInteger published=new AtomicInteger();
+		new MockUp<BrokerController>() {
+			@Mock
+			void connect() {
+			}
+			@Mock
+			ListenableFuture<Void> publishRequest(final DeliveryChannel replyTo, final Message message) throws IOException {
+				if(published.incrementAndGet()==2) {
+					throw new IOException("failure");
+				}
+				return Futures.immediateFuture(null);
+			}
+		};
+		final ClientCuratorController sut=new ClientCuratorController(this.configuration.withDirectReplyTo(true),"client",ConversionContext.newInstance());
+		final List<ListenableFuture<Void>> publications=sut.publishRequests(ImmutableList.of(this.message,this.message,this.message));
+		assertThat(published.get(),equalTo(2));
+		assertThat(publications,hasSize(3));
+		assertThat(publications.get(0).get(),nullValue());
+		for(final ListenableFuture<Void> publication:publications.subList(1,3)) {
+			try {
+				publication.get();
+				fail("Should fail the messages that were not published");
+			} catch (final ExecutionException e) {
+				assertThat(e.getCause().getMessage(),equalTo("failure"));
+			}
+		}
+	}
+
+	@Test
+	public void testPublishRequests$directReplyTo$failsIfNothingIsPublished() throws Exception {
+		new MockUp<BrokerController>() {
+			@Mock
+			void connect() {
+			}
+			@Mock
+			ListenableFuture<Void> publishRequest(final DeliveryChannel replyTo, final Message message) throws IOException {
+				throw new IOException("failure");
+			}
+		};
+		final ClientCuratorController sut=new ClientCuratorController(this.configuration.withDirectReplyTo(true),"client",ConversionContext.newInstance());
+		try {
+			sut.publishRequests(ImmutableList.of(this.message,this.message));
+			fail("Should fail if no message was published");
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("failure"));
+		}
+	}
+
 	@Test
 	public void testDisconnect() throws Exception {
 		final AtomicBoolean disconnected=new AtomicBoolean(false);
@@ -240,8 +343,8 @@ public class ClientCuratorControllerTest {
 		};
 		new MockUp<MessageUtil>() {
 			@Mock
-			public <T extends Message> String toString(final T message) throws MessageConversionException {
-				return "message";
+			public <T extends Message> byte[] toBytes(final T message) throws MessageConversionException {
+				return "message".getBytes();
 			}
 		};
 		new Expectations() {{
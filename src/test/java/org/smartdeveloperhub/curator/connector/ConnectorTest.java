@@ -66,6 +66,9 @@ import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
 import org.smartdeveloperhub.curator.protocol.FailureMessage;
 import org.smartdeveloperhub.curator.protocol.Message;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 @RunWith(JMockit.class)
 public class ConnectorTest {
 
@@ -272,7 +275,7 @@ public class ConnectorTest {
 		logHeader();
 		new MockUp<ClientCuratorController>() {
 			@Mock
-			void publishRequest(final Message message) throws IOException {
+			ListenableFuture<Void> publishRequest(final Message message) throws IOException {
 				throw new IOException("failure",new IllegalStateException());
 			}
 		};
@@ -303,7 +306,8 @@ public class ConnectorTest {
 			void registerMessageHandler(final MessageHandler handler) throws IOException {
 			}
 			@Mock
-			void publishRequest(final Message message) throws IOException {
+			ListenableFuture<Void> publishRequest(final Message message) throws IOException {
+				return Futures.immediateFuture(null);
 			}
 			@Mock
 			void disconnect() throws ControllerException {
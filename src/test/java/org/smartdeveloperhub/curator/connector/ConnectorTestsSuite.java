@@ -42,10 +42,27 @@ import org.junit.runners.Suite.SuiteClasses;
 	EnrichmentTest.class,
 	EnrichmentRequestTest.class,
 	EnrichmentResultTest.class,
+	EnrichmentResultCollectorTest.class,
 	DefaultConnectorFutureTest.class,
+	ListenableConnectorFutureTest.class,
 	LoggedConnectorFutureTest.class,
 	DefaultMessageIdentifierFactoryTest.class,
 	CuratorConfigurationTest.class,
+	ContentEncodingTest.class,
+	PayloadCompressorTest.class,
+	PublisherConfirmsTest.class,
+	ChannelPoolTest.class,
+	AcknowledgerTest.class,
+	PartitionedExecutorTest.class,
+	BackoffTest.class,
+	RoutingKeyPatternTest.class,
+	LoopbackBrokerTest.class,
+	LoopbackTransportTest.class,
+	FlowControlTest.class,
+	HashedWheelTimerTest.class,
+	OutboundQueueTest.class,
+	TopologyCacheTest.class,
+	MessageHandlerConsumerTest.class,
 	CleanerFactoryTest.class,
 	FailureAnalyzerTest.class,
 	BrokerControllerUncaughtExceptionHandlerTest.class,
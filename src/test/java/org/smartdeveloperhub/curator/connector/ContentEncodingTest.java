@@ -0,0 +1,82 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+
+public class ContentEncodingTest {
+
+	private final byte[] body=Strings.repeat("<urn:subject> <urn:predicate> \"object\" .\n",512).getBytes(Charsets.UTF_8);
+
+	@Test
+	public void testRoundtrip() throws Exception {
+		for(final ContentEncoding encoding:ContentEncoding.values()) {
+			assertThat(encoding.decode(encoding.encode(this.body)),equalTo(this.body));
+		}
+	}
+
+	@Test
+	public void testEncode$compressesRepetitivePayloads() throws Exception {
+		assertThat(ContentEncoding.GZIP.encode(this.body).length,lessThan(this.body.length/10));
+		assertThat(ContentEncoding.DEFLATE.encode(this.body).length,lessThan(this.body.length/10));
+	}
+
+	@Test
+	public void testEncode$identity() throws Exception {
+		assertThat(ContentEncoding.IDENTITY.encode(this.body),sameInstance(this.body));
+		assertThat(ContentEncoding.IDENTITY.decode(this.body),sameInstance(this.body));
+	}
+
+	@Test
+	public void testFromValue() throws Exception {
+		for(final ContentEncoding encoding:ContentEncoding.values()) {
+			assertThat(ContentEncoding.fromValue(encoding.value()),equalTo(encoding));
+			assertThat(ContentEncoding.fromValue(" "+encoding.value().toUpperCase()+" "),equalTo(encoding));
+		}
+	}
+
+	@Test
+	public void testFromValue$missing() throws Exception {
+		assertThat(ContentEncoding.fromValue(null),equalTo(ContentEncoding.IDENTITY));
+		assertThat(ContentEncoding.fromValue(""),equalTo(ContentEncoding.IDENTITY));
+	}
+
+	@Test
+	public void testFromValue$unsupported() throws Exception {
+		assertThat(ContentEncoding.fromValue("br"),nullValue());
+	}
+
+}
@@ -29,6 +29,7 @@ package org.smartdeveloperhub.curator.connector;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.fail;
 import mockit.Mocked;
 import mockit.integration.junit4.JMockit;
 
@@ -119,6 +120,18 @@ public class CuratorConfigurationTest {
 		assertThat(sut.hashCode(),not(equalTo(defaultCuratorConfiguration().hashCode())));
 	}
 
+	@Test
+	public void testEquals$differentContentEncoding() {
+		final CuratorConfiguration sut = defaultCuratorConfiguration().withContentEncoding(ContentEncoding.GZIP);
+		assertThat(sut,not(equalTo(defaultCuratorConfiguration())));
+	}
+
+	@Test
+	public void testEquals$differentCompressionThreshold() {
+		final CuratorConfiguration sut = defaultCuratorConfiguration().withCompressionThreshold(1024);
+		assertThat(sut,not(equalTo(defaultCuratorConfiguration())));
+	}
+
 	@Test
 	public void testHashCode$differentExchangeName() {
 		final CuratorConfiguration sut = withDifferentExchangeName();
@@ -149,6 +162,259 @@ public class CuratorConfigurationTest {
 		assertThat(sut.toString(),not(equalTo(Utils.defaultToString(sut))));
 	}
 
+	@Test
+	public void testCompressionDefaults() {
+		final CuratorConfiguration sut = CuratorConfiguration.newInstance();
+		assertThat(sut.contentEncoding(),equalTo(ContentEncoding.IDENTITY));
+		assertThat(sut.compressionThreshold(),equalTo(CuratorConfiguration.DEFAULT_COMPRESSION_THRESHOLD));
+	}
+
+	@Test
+	public void testWithCompressionThreshold$negative() {
+		try {
+			CuratorConfiguration.newInstance().withCompressionThreshold(-1);
+			fail("Should not accept a negative compression threshold");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Compression threshold cannot be negative (-1)"));
+		}
+	}
+
+	@Test
+	public void testChannelPoolDefaults() {
+		assertThat(CuratorConfiguration.newInstance().channelPoolSize(),equalTo(CuratorConfiguration.DEFAULT_CHANNEL_POOL_SIZE));
+		assertThat(CuratorConfiguration.newInstance().withChannelPoolSize(2).channelPoolSize(),equalTo(2));
+	}
+
+	@Test
+	public void testWithChannelPoolSize$notPositive() {
+		try {
+			CuratorConfiguration.newInstance().withChannelPoolSize(0);
+			fail("Should not accept an empty channel pool");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Channel pool size must be positive (0)"));
+		}
+	}
+
+	@Test
+	public void testEquals$differentChannelPoolSize() {
+		final CuratorConfiguration sut = defaultCuratorConfiguration().withChannelPoolSize(1);
+		assertThat(sut,not(equalTo(defaultCuratorConfiguration())));
+	}
+
+	@Test
+	public void testAcknowledgementDefaults() {
+		final CuratorConfiguration sut=CuratorConfiguration.newInstance();
+		assertThat(sut.prefetchCount(),equalTo(CuratorConfiguration.DEFAULT_PREFETCH_COUNT));
+		assertThat(sut.acknowledgementBatchSize(),equalTo(CuratorConfiguration.DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE));
+		assertThat(sut.acknowledgementInterval(),equalTo(CuratorConfiguration.DEFAULT_ACKNOWLEDGEMENT_INTERVAL));
+		assertThat(sut.withPrefetchCount(64).prefetchCount(),equalTo(64));
+		assertThat(sut.withAcknowledgementBatchSize(8).acknowledgementBatchSize(),equalTo(8));
+		assertThat(sut.withAcknowledgementInterval(50).acknowledgementInterval(),equalTo(50L));
+	}
+
+	@Test
+	public void testWithPrefetchCount$negative() {
+		try {
+			CuratorConfiguration.newInstance().withPrefetchCount(-1);
+			fail("Should not accept a negative prefetch count");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Prefetch count cannot be negative (-1)"));
+		}
+	}
+
+	@Test
+	public void testWithAcknowledgementBatchSize$notPositive() {
+		try {
+			CuratorConfiguration.newInstance().withAcknowledgementBatchSize(0);
+			fail("Should not accept an empty acknowledgement batch");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Acknowledgement batch size must be positive (0)"));
+		}
+	}
+
+	@Test
+	public void testWithAcknowledgementInterval$notPositive() {
+		try {
+			CuratorConfiguration.newInstance().withAcknowledgementInterval(0);
+			fail("Should not accept an empty acknowledgement interval");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Acknowledgement interval must be positive (0)"));
+		}
+	}
+
+	@Test
+	public void testEquals$differentPrefetchCount() {
+		final CuratorConfiguration sut = defaultCuratorConfiguration().withPrefetchCount(1);
+		assertThat(sut,not(equalTo(defaultCuratorConfiguration())));
+	}
+
+	@Test
+	public void testDispatchPartitions() {
+		assertThat(CuratorConfiguration.newInstance().dispatchPartitions(),equalTo(CuratorConfiguration.DEFAULT_DISPATCH_PARTITIONS));
+		assertThat(CuratorConfiguration.newInstance().withDispatchPartitions(4).dispatchPartitions(),equalTo(4));
+		assertThat(CuratorConfiguration.newInstance().withDispatchPartitions(4),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testWithDispatchPartitions$negative() {
+		try {
+			CuratorConfiguration.newInstance().withDispatchPartitions(-1);
+			fail("Should not accept a negative number of dispatch partitions");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Dispatch partitions cannot be negative (-1)"));
+		}
+	}
+
+	@Test
+	public void testRecoveryInterval() {
+		assertThat(CuratorConfiguration.newInstance().recoveryInterval(),equalTo(CuratorConfiguration.DEFAULT_RECOVERY_INTERVAL));
+		assertThat(CuratorConfiguration.newInstance().withRecoveryInterval(0).recoveryInterval(),equalTo(0L));
+		assertThat(CuratorConfiguration.newInstance().withRecoveryInterval(0),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testWithRecoveryInterval$negative() {
+		try {
+			CuratorConfiguration.newInstance().withRecoveryInterval(-1);
+			fail("Should not accept a negative recovery interval");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Recovery interval cannot be negative (-1)"));
+		}
+	}
+
+	@Test
+	public void testPublisherConnections() {
+		assertThat(CuratorConfiguration.newInstance().publisherConnections(),equalTo(CuratorConfiguration.DEFAULT_PUBLISHER_CONNECTIONS));
+		assertThat(CuratorConfiguration.newInstance().withPublisherConnections(4).publisherConnections(),equalTo(4));
+		assertThat(CuratorConfiguration.newInstance().withPublisherConnections(4),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testWithPublisherConnections$negative() {
+		try {
+			CuratorConfiguration.newInstance().withPublisherConnections(-1);
+			fail("Should not accept a negative number of publisher connections");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Publisher connections cannot be negative (-1)"));
+		}
+	}
+
+	@Test
+	public void testPublishQueueCapacity() {
+		assertThat(CuratorConfiguration.newInstance().publishQueueCapacity(),equalTo(CuratorConfiguration.DEFAULT_PUBLISH_QUEUE_CAPACITY));
+		assertThat(CuratorConfiguration.newInstance().withPublishQueueCapacity(128).publishQueueCapacity(),equalTo(128));
+		assertThat(CuratorConfiguration.newInstance().withPublishQueueCapacity(128),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testWithPublishQueueCapacity$negative() {
+		try {
+			CuratorConfiguration.newInstance().withPublishQueueCapacity(-1);
+			fail("Should not accept a negative publish queue capacity");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Publish queue capacity cannot be negative (-1)"));
+		}
+	}
+
+	@Test
+	public void testPublishTimeout() {
+		assertThat(CuratorConfiguration.newInstance().publishTimeout(),equalTo(CuratorConfiguration.DEFAULT_PUBLISH_TIMEOUT));
+		assertThat(CuratorConfiguration.newInstance().withPublishTimeout(0).publishTimeout(),equalTo(0L));
+		assertThat(CuratorConfiguration.newInstance().withPublishTimeout(0),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testWithPublishTimeout$negative() {
+		try {
+			CuratorConfiguration.newInstance().withPublishTimeout(-1);
+			fail("Should not accept a negative publish timeout");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Publish timeout cannot be negative (-1)"));
+		}
+	}
+
+	@Test
+	public void testDirectReplyTo() {
+		assertThat(CuratorConfiguration.newInstance().directReplyTo(),equalTo(CuratorConfiguration.DEFAULT_DIRECT_REPLY_TO));
+		assertThat(CuratorConfiguration.newInstance().withDirectReplyTo(true).directReplyTo(),equalTo(true));
+		assertThat(CuratorConfiguration.newInstance().withDirectReplyTo(true),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testPipelinedTopology() {
+		assertThat(CuratorConfiguration.newInstance().pipelinedTopology(),equalTo(CuratorConfiguration.DEFAULT_PIPELINED_TOPOLOGY));
+		assertThat(CuratorConfiguration.newInstance().withPipelinedTopology(true).pipelinedTopology(),equalTo(true));
+		assertThat(CuratorConfiguration.newInstance().withPipelinedTopology(true),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testAcknowledgementTimeout() {
+		assertThat(CuratorConfiguration.newInstance().acknowledgementTimeout(),equalTo(CuratorConfiguration.DEFAULT_ACKNOWLEDGEMENT_TIMEOUT));
+		assertThat(CuratorConfiguration.newInstance().withAcknowledgementTimeout(1000).acknowledgementTimeout(),equalTo(1000L));
+		assertThat(CuratorConfiguration.newInstance().withAcknowledgementTimeout(1000),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testWithAcknowledgementTimeout$negative() {
+		try {
+			CuratorConfiguration.newInstance().withAcknowledgementTimeout(-1);
+			fail("Should not accept a negative acknowledgement timeout");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Acknowledgement timeout cannot be negative (-1)"));
+		}
+	}
+
+	@Test
+	public void testResultTimeToLive() {
+		assertThat(CuratorConfiguration.newInstance().resultTimeToLive(),equalTo(CuratorConfiguration.DEFAULT_RESULT_TIME_TO_LIVE));
+		assertThat(CuratorConfiguration.newInstance().withResultTimeToLive(1000).resultTimeToLive(),equalTo(1000L));
+		assertThat(CuratorConfiguration.newInstance().withResultTimeToLive(1000),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testMaxDecompressedSize() {
+		assertThat(CuratorConfiguration.newInstance().maxDecompressedSize(),equalTo(CuratorConfiguration.DEFAULT_MAX_DECOMPRESSED_SIZE));
+		assertThat(CuratorConfiguration.newInstance().withMaxDecompressedSize(1024).maxDecompressedSize(),equalTo(1024));
+		assertThat(CuratorConfiguration.newInstance().withMaxDecompressedSize(1024),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testWithMaxDecompressedSize$notPositive() {
+		try {
+			CuratorConfiguration.newInstance().withMaxDecompressedSize(0);
+			fail("Should not accept a non-positive maximum decompressed size");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Maximum decompressed size must be positive (0)"));
+		}
+	}
+
+	@Test
+	public void testCoalesceRequests() {
+		assertThat(CuratorConfiguration.newInstance().coalesceRequests(),equalTo(CuratorConfiguration.DEFAULT_COALESCE_REQUESTS));
+		assertThat(CuratorConfiguration.newInstance().withCoalesceRequests(true).coalesceRequests(),equalTo(true));
+		assertThat(CuratorConfiguration.newInstance().withCoalesceRequests(true),not(equalTo(CuratorConfiguration.newInstance())));
+	}
+
+	@Test
+	public void testWithResultTimeToLive$negative() {
+		try {
+			CuratorConfiguration.newInstance().withResultTimeToLive(-1);
+			fail("Should not accept a negative result time-to-live");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Result time-to-live cannot be negative (-1)"));
+		}
+	}
+
+	@Test
+	public void testWithContentEncoding$null() {
+		try {
+			CuratorConfiguration.newInstance().withContentEncoding(null);
+			fail("Should not accept a null content encoding");
+		} catch (final NullPointerException e) {
+			assertThat(e.getMessage(),equalTo("Content encoding cannot be null"));
+		}
+	}
+
 	@Test
 	public void testWithBroker(@Mocked final Broker broker) throws Exception {
 		assertThat(CuratorConfiguration.newInstance().withBroker(broker).broker(),equalTo(broker));
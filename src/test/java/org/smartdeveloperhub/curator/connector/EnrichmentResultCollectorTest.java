@@ -0,0 +1,121 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.net.URI;
+import java.util.List;
+
+import org.junit.Test;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
+import org.smartdeveloperhub.curator.protocol.Binding;
+import org.smartdeveloperhub.curator.protocol.Value;
+
+import com.google.common.collect.Lists;
+
+public class EnrichmentResultCollectorTest {
+
+	private static final class RecordingHandler implements EnrichmentResultHandler {
+
+		private final List<EnrichmentResult> results=Lists.newArrayList();
+
+		@Override
+		public void onResult(final EnrichmentResult response) {
+			this.results.add(response);
+		}
+
+	}
+
+	private Binding binding(final String property, final String value) {
+		return
+			ProtocolFactory.
+				newBinding().
+					withProperty(property).
+					withValue(ProtocolFactory.newResource(value)).
+					build();
+	}
+
+	@Test
+	public void testCollectsStreamedResult() throws Exception {
+		final RecordingHandler handler=new RecordingHandler();
+		final EnrichmentResultCollector sut=EnrichmentResultCollector.newInstance(handler);
+		sut.onStart(URI.create("urn:target"));
+		sut.onAddition(binding("urn:p1","urn:v1"));
+		sut.onAddition(binding("urn:p2","urn:v2"));
+		sut.onRemoval(binding("urn:p1","urn:v0"));
+		assertThat(handler.results.isEmpty(),equalTo(true));
+		sut.onEnd();
+		assertThat(handler.results.size(),equalTo(1));
+		final EnrichmentResult result=handler.results.get(0);
+		assertThat(result.targetResource(),equalTo(URI.create("urn:target")));
+		assertThat(result.additions().properties(),contains(URI.create("urn:p1"),URI.create("urn:p2")));
+		assertThat(result.removals().properties(),contains(URI.create("urn:p1")));
+		assertThat(result.removals().value(URI.create("urn:p1")),equalTo((Value)ProtocolFactory.newResource("urn:v0")));
+	}
+
+	@Test
+	public void testLastBindingForPropertyWins() throws Exception {
+		final RecordingHandler handler=new RecordingHandler();
+		final EnrichmentResultCollector sut=EnrichmentResultCollector.newInstance(handler);
+		sut.onStart(URI.create("urn:target"));
+		sut.onAddition(binding("urn:p1","urn:v1"));
+		sut.onAddition(binding("urn:p1","urn:v2"));
+		sut.onEnd();
+		final EnrichmentResult expected=
+			EnrichmentResult.
+				newInstance().
+					withTargetResource("urn:target").
+					withAdditions(
+						Bindings.
+							newInstance().
+								withProperty("urn:p1").
+									andResource("urn:v1").
+								withProperty("urn:p1").
+									andResource("urn:v2"));
+		assertThat(handler.results.get(0),equalTo(expected));
+	}
+
+	@Test
+	public void testCollectsEachResponseIndependently() throws Exception {
+		final RecordingHandler handler=new RecordingHandler();
+		final EnrichmentResultCollector sut=EnrichmentResultCollector.newInstance(handler);
+		sut.onStart(URI.create("urn:first"));
+		sut.onAddition(binding("urn:p1","urn:v1"));
+		sut.onEnd();
+		sut.onStart(URI.create("urn:second"));
+		sut.onEnd();
+		assertThat(handler.results.size(),equalTo(2));
+		assertThat(handler.results.get(1).targetResource(),equalTo(URI.create("urn:second")));
+		assertThat(handler.results.get(1).additions().properties().isEmpty(),equalTo(true));
+		assertThat(handler.results.get(1).removals().value(URI.create("urn:p1")),nullValue());
+	}
+
+}
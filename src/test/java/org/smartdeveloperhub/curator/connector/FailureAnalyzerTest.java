@@ -142,4 +142,24 @@ public class FailureAnalyzerTest {
 		assertThat(FailureAnalyzer.isExchangeDeclarationRecoverable(new IOException(cause)),equalTo(false));
 	}
 
+	@Test
+	public void testIsConnectionFailure$noSignal() throws Exception {
+		assertThat(FailureAnalyzer.isConnectionFailure(new IOException("failure",new RuntimeException())),equalTo(false));
+	}
+
+	@Test
+	public void testIsConnectionFailure$hardError() throws Exception {
+		assertThat(FailureAnalyzer.isConnectionFailure(new IOException(new ShutdownSignalException(true,false,null,null))),equalTo(true));
+	}
+
+	@Test
+	public void testIsConnectionFailure$channelError() throws Exception {
+		assertThat(FailureAnalyzer.isConnectionFailure(new IOException(new ShutdownSignalException(false,false,null,null))),equalTo(false));
+	}
+
+	@Test
+	public void testIsConnectionFailure$initiatedByApplication() throws Exception {
+		assertThat(FailureAnalyzer.isConnectionFailure(new ShutdownSignalException(true,true,null,null)),equalTo(false));
+	}
+
 }
@@ -0,0 +1,93 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class FlowControlTest {
+
+	private final ConnectionMetrics metrics=new ConnectionMetrics("connection");
+
+	@Test
+	public void testAwaitUnblocked$notBlocked() throws Exception {
+		final FlowControl sut=new FlowControl(this.metrics);
+		assertThat(sut.isBlocked(),equalTo(false));
+		assertThat(sut.awaitUnblocked(0,TimeUnit.MILLISECONDS),equalTo(true));
+	}
+
+	@Test
+	public void testAwaitUnblocked$timesOutWhileBlocked() throws Exception {
+		final FlowControl sut=new FlowControl(this.metrics);
+		sut.handleBlocked("low on memory");
+		sut.handleBlocked("low on disk");
+		assertThat(sut.isBlocked(),equalTo(true));
+		assertThat(sut.awaitUnblocked(10,TimeUnit.MILLISECONDS),equalTo(false));
+		assertThat(this.metrics.blocks(),equalTo(1L));
+	}
+
+	@Test
+	public void testAwaitUnblocked$releasedWhenUnblocked() throws Exception {
+		final FlowControl sut=new FlowControl(this.metrics);
+		sut.handleBlocked("low on memory");
+		final CountDownLatch waiting=new CountDownLatch(1);
+		final Thread unblocker=new Thread() {
+			@Override
+			public void run() {
+				try {
+					waiting.await();
+					Thread.sleep(20);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				sut.handleUnblocked();
+			}
+		};
+		unblocker.start();
+		waiting.countDown();
+		assertThat(sut.awaitUnblocked(5,TimeUnit.SECONDS),equalTo(true));
+		unblocker.join();
+		assertThat(sut.isBlocked(),equalTo(false));
+		assertThat(this.metrics.blockedTime(TimeUnit.NANOSECONDS),greaterThan(0L));
+	}
+
+	@Test
+	public void testReset$releasesBlock() throws Exception {
+		final FlowControl sut=new FlowControl(this.metrics);
+		sut.handleBlocked("low on memory");
+		sut.reset();
+		assertThat(sut.awaitUnblocked(0,TimeUnit.MILLISECONDS),equalTo(true));
+		assertThat(this.metrics.blocks(),equalTo(1L));
+	}
+
+}
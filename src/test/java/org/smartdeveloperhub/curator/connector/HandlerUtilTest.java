@@ -28,16 +28,24 @@ package org.smartdeveloperhub.curator.connector;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.nullValue;
 
+import java.net.URI;
 import java.util.UUID;
 
 import org.joda.time.DateTime;
 import org.junit.Test;
 import org.ldp4j.commons.testing.Utils;
+import org.smartdeveloperhub.curator.connector.io.ConversionContext;
+import org.smartdeveloperhub.curator.connector.io.EnrichmentResponseSink;
+import org.smartdeveloperhub.curator.connector.io.MessageUtil;
 import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
 import org.smartdeveloperhub.curator.protocol.AcceptedMessage;
 import org.smartdeveloperhub.curator.protocol.Agent;
+import org.smartdeveloperhub.curator.protocol.Binding;
+import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
+import org.smartdeveloperhub.curator.protocol.FailureMessage;
 import org.smartdeveloperhub.curator.protocol.Message;
 
 public class HandlerUtilTest {
@@ -91,4 +99,104 @@ public class HandlerUtilTest {
 		assertThat(HandlerUtil.parsePayload(resource, AcceptedMessage.class),nullValue());
 	}
 
+	@Test
+	public void testParsePayload$boundMessageUtil() throws Exception {
+		final String resource=
+			ResourceUtil.
+				loadResource("messages/accepted.ttl");
+		final MessageUtil messageUtil=
+			MessageUtil.
+				newInstance().
+					withConversionContext(ConversionContext.newInstance().withBase(URI.create("urn:curator:")));
+		assertThat(HandlerUtil.parsePayload(messageUtil,resource,AcceptedMessage.class),instanceOf(AcceptedMessage.class));
+	}
+
+	@Test
+	public void testDecodePayload$matchingType() throws Exception {
+		final String resource=
+			ResourceUtil.
+				loadResource("messages/accepted.ttl");
+		assertThat(HandlerUtil.decodePayload(resource, FailureMessage.class, AcceptedMessage.class),instanceOf(AcceptedMessage.class));
+	}
+
+	@Test
+	public void testDecodePayload$noMatchingType() throws Exception {
+		final String resource=
+			ResourceUtil.
+				loadResource("messages/enrichment_request.ttl");
+		assertThat(HandlerUtil.decodePayload(resource, AcceptedMessage.class, FailureMessage.class),nullValue());
+	}
+
+	@Test
+	public void testDecodePayload$multipleDefinitions() throws Exception {
+		final String resource=
+			ResourceUtil.
+				loadResource("messages/multiple_accepted.ttl");
+		assertThat(HandlerUtil.decodePayload(resource, AcceptedMessage.class, FailureMessage.class),nullValue());
+	}
+
+	@Test
+	public void testDecodePayload$invalidDefinitions() throws Exception {
+		final String resource=
+			ResourceUtil.
+				loadResource("messages/bad_accepted.ttl");
+		assertThat(HandlerUtil.decodePayload(resource, AcceptedMessage.class, FailureMessage.class),nullValue());
+	}
+
+	@Test
+	public void testDecodePayload$unsupportedMessageClass() throws Exception {
+		assertThat(HandlerUtil.decodePayload("payload", CustomMessage.class),nullValue());
+	}
+
+	private static final class CountingSink implements EnrichmentResponseSink {
+
+		private URI targetResource;
+		private int bindings;
+		private int ends;
+
+		@Override
+		public boolean start(final EnrichmentResponseMessage header) {
+			this.targetResource=header.targetResource();
+			return true;
+		}
+
+		@Override
+		public void addition(final Binding binding) {
+			this.bindings++;
+		}
+
+		@Override
+		public void removal(final Binding binding) {
+			this.bindings++;
+		}
+
+		@Override
+		public void end() {
+			this.ends++;
+		}
+
+	}
+
+	@Test
+	public void testStreamPayload$matchingType() throws Exception {
+		final String resource=
+			ResourceUtil.
+				loadResource("messages/enrichment_response.ttl");
+		final CountingSink sink=new CountingSink();
+		assertThat(HandlerUtil.streamPayload(MessageUtil.newInstance(),resource,sink),equalTo(true));
+		assertThat(sink.targetResource,equalTo(URI.create("urn:example")));
+		assertThat(sink.ends,equalTo(1));
+	}
+
+	@Test
+	public void testStreamPayload$noDefinition() throws Exception {
+		final String resource=
+			ResourceUtil.
+				loadResource("messages/enrichment_request.ttl");
+		final CountingSink sink=new CountingSink();
+		assertThat(HandlerUtil.streamPayload(MessageUtil.newInstance(),resource,sink),equalTo(false));
+		assertThat(sink.targetResource,nullValue());
+		assertThat(sink.ends,equalTo(0));
+	}
+
 }
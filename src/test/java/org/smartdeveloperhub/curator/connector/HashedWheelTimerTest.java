@@ -0,0 +1,187 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+public class HashedWheelTimerTest {
+
+	private static final class CountingTask implements Runnable {
+
+		private final CountDownLatch expired;
+		private final AtomicInteger runs;
+		private volatile long expiredOn;
+
+		private CountingTask(final int expected) {
+			this.expired=new CountDownLatch(expected);
+			this.runs=new AtomicInteger();
+		}
+
+		@Override
+		public void run() {
+			this.expiredOn=System.nanoTime();
+			this.runs.incrementAndGet();
+			this.expired.countDown();
+		}
+
+	}
+
+	@Rule
+	public Timeout timeout=new Timeout(5,TimeUnit.SECONDS);
+
+	private final HashedWheelTimer sut=
+		HashedWheelTimer.
+			newInstance(
+				new ThreadFactoryBuilder().
+					setNameFormat("timer-test-%d").
+					setDaemon(true).
+					build(),
+				10,
+				TimeUnit.MILLISECONDS,
+				4);
+
+	@After
+	public void tearDown() {
+		this.sut.stop();
+	}
+
+	@Test
+	public void testTicksPerWheel$roundedUpToPowerOfTwo() {
+		assertThat(HashedWheelTimer.newInstance(new ThreadFactoryBuilder().build(),1,TimeUnit.SECONDS,1).ticksPerWheel(),equalTo(1));
+		assertThat(HashedWheelTimer.newInstance(new ThreadFactoryBuilder().build(),1,TimeUnit.SECONDS,5).ticksPerWheel(),equalTo(8));
+		assertThat(this.sut.ticksPerWheel(),equalTo(4));
+		assertThat(this.sut.tickDuration(TimeUnit.MILLISECONDS),equalTo(10L));
+	}
+
+	@Test
+	public void testNewTimeout$notRunning() {
+		try {
+			this.sut.newTimeout(new CountingTask(1),10,TimeUnit.MILLISECONDS);
+			fail("Should not schedule timeouts if the timer is not running");
+		} catch (final IllegalStateException e) {
+			assertThat(e.getMessage(),equalTo("Timer is not running"));
+		}
+	}
+
+	@Test
+	public void testNewTimeout$expiresAfterDelay() throws Exception {
+		this.sut.start();
+		final CountingTask task=new CountingTask(1);
+		final long scheduledOn=System.nanoTime();
+		final HashedWheelTimer.Timeout timeout=this.sut.newTimeout(task,50,TimeUnit.MILLISECONDS);
+		task.expired.await();
+		assertThat(TimeUnit.NANOSECONDS.toMillis(task.expiredOn-scheduledOn),greaterThanOrEqualTo(50L));
+		assertThat(timeout.isExpired(),equalTo(true));
+		assertThat(timeout.cancel(),equalTo(false));
+	}
+
+	@Test
+	public void testNewTimeout$spanningSeveralRounds() throws Exception {
+		this.sut.start();
+		final CountingTask task=new CountingTask(1);
+		final long scheduledOn=System.nanoTime();
+		this.sut.newTimeout(task,150,TimeUnit.MILLISECONDS);
+		task.expired.await();
+		assertThat(TimeUnit.NANOSECONDS.toMillis(task.expiredOn-scheduledOn),greaterThanOrEqualTo(150L));
+	}
+
+	@Test
+	public void testCancel$preventsExpiration() throws Exception {
+		this.sut.start();
+		final CountingTask cancelled=new CountingTask(1);
+		final CountingTask witness=new CountingTask(1);
+		final HashedWheelTimer.Timeout timeout=this.sut.newTimeout(cancelled,30,TimeUnit.MILLISECONDS);
+		assertThat(timeout.cancel(),equalTo(true));
+		assertThat(timeout.cancel(),equalTo(false));
+		assertThat(timeout.isCancelled(),equalTo(true));
+		this.sut.newTimeout(witness,60,TimeUnit.MILLISECONDS);
+		witness.expired.await();
+		assertThat(cancelled.runs.get(),equalTo(0));
+	}
+
+	@Test
+	public void testExpire$failingTasksDoNotStopTheTimer() throws Exception {
+		this.sut.start();
+		final CountingTask task=new CountingTask(1);
+		this.sut.newTimeout(
+			new Runnable() {
+				@Override
+				public void run() {
+					throw new IllegalStateException("failure");
+				}
+			},
+			10,
+			TimeUnit.MILLISECONDS);
+		this.sut.newTimeout(task,40,TimeUnit.MILLISECONDS);
+		task.expired.await();
+	}
+
+	@Test
+	public void testStop$discardsPendingTimeouts() throws Exception {
+		this.sut.start();
+		final CountingTask task=new CountingTask(1);
+		this.sut.newTimeout(task,20,TimeUnit.MILLISECONDS);
+		this.sut.stop();
+		assertThat(this.sut.isRunning(),equalTo(false));
+		assertThat(task.expired.await(50,TimeUnit.MILLISECONDS),equalTo(false));
+		this.sut.start();
+		final CountingTask another=new CountingTask(1);
+		this.sut.newTimeout(another,10,TimeUnit.MILLISECONDS);
+		another.expired.await();
+		assertThat(task.runs.get(),equalTo(0));
+	}
+
+	@Test
+	public void testNewTimeout$manyTimeouts() throws Exception {
+		this.sut.start();
+		final CountingTask task=new CountingTask(1000);
+		for(int i=0;i<2000;i++) {
+			final HashedWheelTimer.Timeout timeout=this.sut.newTimeout(task,i%100,TimeUnit.MILLISECONDS);
+			if(i%2==1) {
+				timeout.cancel();
+			}
+		}
+		task.expired.await();
+		TimeUnit.MILLISECONDS.sleep(50);
+		assertThat(task.runs.get(),equalTo(1000));
+	}
+
+}
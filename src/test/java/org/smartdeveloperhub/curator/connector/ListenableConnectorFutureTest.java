@@ -0,0 +1,165 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.fail;
+
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Mocked;
+import mockit.Tested;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.smartdeveloperhub.curator.protocol.AcceptedMessage;
+import org.smartdeveloperhub.curator.protocol.RequestMessage;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@RunWith(JMockit.class)
+public class ListenableConnectorFutureTest {
+
+	@Injectable private RequestMessage request;
+	@Injectable private Connector connector;
+
+	@Tested private ListenableConnectorFuture sut;
+
+	@Mocked private AcceptedMessage accepted;
+
+	@Test
+	public void testComplete$notifiesListeners() throws Exception {
+		final AtomicInteger notified=new AtomicInteger();
+		this.sut.addListener(
+			new Runnable() {
+				@Override
+				public void run() {
+					notified.incrementAndGet();
+				}
+			},
+			MoreExecutors.directExecutor());
+		assertThat(this.sut.complete(this.accepted),equalTo(true));
+		assertThat(notified.get(),equalTo(1));
+		assertThat(this.sut.get(0,TimeUnit.MILLISECONDS).isAccepted(),equalTo(true));
+		assertThat(this.sut.complete(this.accepted),equalTo(false));
+	}
+
+	@Test
+	public void testAbort() throws Exception {
+		assertThat(this.sut.abort(),equalTo(true));
+		assertThat(this.sut.get().isAborted(),equalTo(true));
+		assertThat(this.sut.abort(),equalTo(false));
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		assertThat(this.sut.cancel(true),equalTo(true));
+		assertThat(this.sut.isCancelled(),equalTo(true));
+		assertThat(this.sut.isDone(),equalTo(true));
+		assertThat(this.sut.cancel(true),equalTo(false));
+		assertThat(this.sut.complete(this.accepted),equalTo(false));
+		new Verifications() {{
+			ListenableConnectorFutureTest.this.connector.abortRequest(ListenableConnectorFutureTest.this.sut);this.times=1;
+		}};
+	}
+
+	@Test
+	public void testCancel$propagatedFromChainedFutures() throws Exception {
+		final ListenableFuture<Boolean> chained=
+			Futures.
+				transform(
+					this.sut,
+					new Function<Enrichment,Boolean>() {
+						@Override
+						public Boolean apply(final Enrichment input) {
+							return input.isAccepted();
+						}
+					});
+		assertThat(chained.cancel(true),equalTo(true));
+		assertThat(this.sut.isCancelled(),equalTo(true));
+		new Verifications() {{
+			ListenableConnectorFutureTest.this.connector.abortRequest(ListenableConnectorFutureTest.this.sut);this.times=1;
+		}};
+	}
+
+	@Test
+	public void testChaining() throws Exception {
+		final ListenableFuture<Boolean> chained=
+			Futures.
+				transform(
+					this.sut,
+					new Function<Enrichment,Boolean>() {
+						@Override
+						public Boolean apply(final Enrichment input) {
+							return input.isAccepted();
+						}
+					});
+		assertThat(chained.isDone(),equalTo(false));
+		this.sut.complete(this.accepted);
+		assertThat(chained.get(0,TimeUnit.MILLISECONDS),equalTo(true));
+	}
+
+	@Test
+	public void testExpire() throws Exception {
+		final UUID messageId=UUID.randomUUID();
+		new Expectations() {{
+			ListenableConnectorFutureTest.this.request.messageId();this.result=messageId;
+			ListenableConnectorFutureTest.this.connector.abortRequest(ListenableConnectorFutureTest.this.sut);this.times=1;
+		}};
+		assertThat(this.sut.expire(10,TimeUnit.MILLISECONDS),equalTo(true));
+		assertThat(this.sut.expire(10,TimeUnit.MILLISECONDS),equalTo(false));
+		try {
+			this.sut.get();
+			fail("Should fail when the deadline expires");
+		} catch (final ExecutionException e) {
+			assertThat(e.getCause(),instanceOf(TimeoutException.class));
+			assertThat(e.getCause().getMessage(),equalTo("Request "+messageId+" was not acknowledged within 10 milliseconds"));
+		}
+	}
+
+	@Test(expected=CancellationException.class)
+	public void testExpire$afterCancellation() throws Exception {
+		this.sut.cancel(false);
+		assertThat(this.sut.expire(10,TimeUnit.MILLISECONDS),equalTo(false));
+		this.sut.get();
+	}
+
+}
@@ -0,0 +1,201 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.rabbitmq.client.AMQP.BasicProperties;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.MessageProperties;
+
+public class LoopbackBrokerTest {
+
+	private static final class Recorder extends DefaultConsumer {
+
+		private final List<String> bodies;
+		private final CountDownLatch latch;
+
+		private Recorder(final int expected) {
+			super(null);
+			this.bodies=Collections.synchronizedList(Lists.<String>newArrayList());
+			this.latch=new CountDownLatch(expected);
+		}
+
+		@Override
+		public void handleDelivery(final String consumerTag, final Envelope envelope, final BasicProperties properties, final byte[] body) throws IOException {
+			this.bodies.add(new String(body,"UTF-8"));
+			this.latch.countDown();
+		}
+
+		private List<String> await() throws InterruptedException {
+			assertThat(this.latch.await(5,TimeUnit.SECONDS),equalTo(true));
+			return this.bodies;
+		}
+
+	}
+
+	private final LoopbackBroker sut=LoopbackBroker.newInstance("test",2);
+
+	@After
+	public void tearDown() {
+		this.sut.shutdown();
+	}
+
+	private int publish(final String exchangeName, final String routingKey, final String body) throws IOException {
+		return this.sut.publish(exchangeName,routingKey,MessageProperties.MINIMAL_BASIC,body.getBytes("UTF-8"));
+	}
+
+	@Test
+	public void testDeclareQueue$serverNamed() throws Exception {
+		assertThat(this.sut.declareQueue(""),startsWith("amq.gen-"));
+		assertThat(this.sut.declareQueue("queue"),equalTo("queue"));
+	}
+
+	@Test
+	public void testPublish$routesByTopic() throws Exception {
+		this.sut.declareExchange("exchange");
+		this.sut.declareQueue("requests");
+		this.sut.declareQueue("responses");
+		this.sut.bindQueue("requests","exchange","curator.request.*");
+		this.sut.bindQueue("responses","exchange","curator.response.#");
+		assertThat(publish("exchange","curator.request.enrichment","1"),equalTo(1));
+		assertThat(publish("exchange","curator.response.agent.1","2"),equalTo(1));
+		assertThat(publish("exchange","curator.other","3"),equalTo(0));
+		assertThat(this.sut.messageCount("requests"),equalTo(1));
+		assertThat(this.sut.messageCount("responses"),equalTo(1));
+	}
+
+	@Test
+	public void testPublish$deliversOnceToQueuesWithSeveralMatchingBindings() throws Exception {
+		this.sut.declareExchange("exchange");
+		this.sut.declareQueue("queue");
+		this.sut.bindQueue("queue","exchange","curator.*");
+		this.sut.bindQueue("queue","exchange","curator.#");
+		this.sut.bindQueue("queue","exchange","curator.#");
+		assertThat(publish("exchange","curator.request","1"),equalTo(1));
+		assertThat(this.sut.messageCount("queue"),equalTo(1));
+	}
+
+	@Test
+	public void testPublish$defaultExchange() throws Exception {
+		this.sut.declareQueue("queue");
+		assertThat(publish("","queue","1"),equalTo(1));
+		assertThat(publish("","unknown","2"),equalTo(0));
+	}
+
+	@Test
+	public void testPublish$unknownExchange() throws Exception {
+		try {
+			publish("unknown","key","1");
+			fail("Should not publish to unknown exchanges");
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("NOT_FOUND - no exchange 'unknown' in broker 'test'"));
+		}
+	}
+
+	@Test
+	public void testConsume$deliversBufferedMessagesInOrder() throws Exception {
+		this.sut.declareQueue("queue");
+		for(int i=0;i<100;i++) {
+			publish("","queue",Integer.toString(i));
+		}
+		final Recorder recorder=new Recorder(100);
+		this.sut.consume("queue",recorder);
+		final List<String> bodies=recorder.await();
+		for(int i=0;i<100;i++) {
+			assertThat(bodies.get(i),equalTo(Integer.toString(i)));
+		}
+		assertThat(this.sut.messageCount("queue"),equalTo(0));
+	}
+
+	@Test
+	public void testConsume$roundRobin() throws Exception {
+		this.sut.declareQueue("queue");
+		final Recorder first=new Recorder(2);
+		final Recorder second=new Recorder(2);
+		this.sut.consume("queue",first);
+		this.sut.consume("queue",second);
+		for(int i=0;i<4;i++) {
+			publish("","queue",Integer.toString(i));
+		}
+		assertThat(first.await(),contains("0","2"));
+		assertThat(second.await(),contains("1","3"));
+	}
+
+	@Test
+	public void testCancel$buffersUntilNextConsumer() throws Exception {
+		this.sut.declareQueue("queue");
+		final String consumerTag=this.sut.consume("queue",new Recorder(0));
+		assertThat(this.sut.cancel("queue",consumerTag),equalTo(true));
+		publish("","queue","1");
+		assertThat(this.sut.messageCount("queue"),equalTo(1));
+		final Recorder recorder=new Recorder(1);
+		this.sut.consume("queue",recorder);
+		assertThat(recorder.await(),contains("1"));
+	}
+
+	@Test
+	public void testDeleteQueue$removesBindings() throws Exception {
+		this.sut.declareExchange("exchange");
+		this.sut.declareQueue("queue");
+		this.sut.bindQueue("queue","exchange","#");
+		publish("exchange","key","1");
+		assertThat(this.sut.deleteQueue("queue"),equalTo(1));
+		assertThat(publish("exchange","key","2"),equalTo(0));
+		try {
+			this.sut.messageCount("queue");
+			fail("Queue should have been deleted");
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("NOT_FOUND - no queue 'queue' in broker 'test'"));
+		}
+	}
+
+	@Test
+	public void testUnbindQueue() throws Exception {
+		this.sut.declareExchange("exchange");
+		this.sut.declareQueue("queue");
+		this.sut.bindQueue("queue","exchange","key");
+		this.sut.unbindQueue("queue","exchange","key");
+		assertThat(publish("exchange","key","1"),equalTo(0));
+	}
+
+}
@@ -0,0 +1,638 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.smartdeveloperhub.curator.Notifier;
+import org.smartdeveloperhub.curator.connector.LoopbackTransport.LoopbackTransportFactory;
+import org.smartdeveloperhub.curator.connector.io.ConversionContext;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
+import org.smartdeveloperhub.curator.protocol.Agent;
+import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
+import org.smartdeveloperhub.curator.protocol.DisconnectMessage;
+import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.rabbitmq.client.AMQP.BasicProperties;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+
+public class LoopbackTransportTest {
+
+	private static final class AcceptingProvider implements ResponseProvider {
+
+		private final long delay;
+
+		private AcceptingProvider() {
+			this(0);
+		}
+
+		private AcceptingProvider(final long delay) {
+			this.delay=delay;
+		}
+
+		@Override
+		public boolean isExpected(final UUID messageId) {
+			return true;
+		}
+
+		@Override
+		public boolean isAccepted(final UUID messageId) {
+			return true;
+		}
+
+		@Override
+		public Failure getFailure(final UUID messageId) {
+			return null;
+		}
+
+		@Override
+		public EnrichmentResult getResult(final UUID messageId, final EnrichmentRequest request) {
+			return UseCase.EXAMPLE_RESULT;
+		}
+
+		@Override
+		public long acknowledgeDelay(final UUID messageId, final TimeUnit unit) {
+			return unit.convert(this.delay,TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public long resultDelay(final UUID messageId, final TimeUnit unit) {
+			return 0;
+		}
+
+	}
+
+	@Rule
+	public Timeout timeout=new Timeout(5,TimeUnit.SECONDS);
+
+	private final LoopbackTransportFactory factory=LoopbackTransport.newFactory();
+
+	private final DeliveryChannel connectorChannel=
+		ProtocolFactory.
+			newDeliveryChannel().
+				withRoutingKey("connector.loopback").
+				build();
+
+	@After
+	public void tearDown() {
+		this.factory.shutdown();
+	}
+
+	private Agent newAgent() {
+		return
+			ProtocolFactory.
+				newAgent().
+					withAgentId(UUID.randomUUID()).
+					build();
+	}
+
+	private ConversionContext context() {
+		return
+			ConversionContext.
+				newInstance().
+					withNamespacePrefix(UseCase.CI_NAMESPACE,"ci").
+					withNamespacePrefix(UseCase.SCM_NAMESPACE,"scm").
+					withNamespacePrefix(UseCase.DOAP_NAMESPACE,"doap");
+	}
+
+	private Transport newTransport() {
+		return this.factory.newTransport(CuratorConfiguration.DEFAULT_BROKER,"test",context(),PayloadCompressor.identity(),CuratorConfiguration.newInstance());
+	}
+
+	@Test
+	public void testPublishRequest$repliesReachReplyConsumer() throws Exception {
+		final LoopbackBroker broker=this.factory.broker(CuratorConfiguration.DEFAULT_BROKER);
+		final Transport sut=newTransport();
+		sut.connect();
+		sut.declareExchange("exchange");
+		sut.prepareQueue("exchange","requests","request");
+		broker.
+			consume(
+				"requests",
+				new DefaultConsumer(null) {
+					@Override
+					public void handleDelivery(final String consumerTag, final Envelope envelope, final BasicProperties properties, final byte[] body) throws IOException {
+						broker.publish("",properties.getReplyTo(),properties,body);
+					}
+				});
+		final CountDownLatch replied=new CountDownLatch(1);
+		sut.
+			registerReplyConsumer(
+				new MessageHandler() {
+					@Override
+					public void handlePayload(final String payload) {
+						replied.countDown();
+					}
+				});
+		final DisconnectMessage message=
+			ProtocolFactory.
+				newDisconnectMessage().
+					withMessageId(UUID.randomUUID()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(newAgent()).
+					build();
+		final DeliveryChannel target=
+			ProtocolFactory.
+				newDeliveryChannel().
+					withExchangeName("exchange").
+					withRoutingKey("request").
+					build();
+		assertThat(sut.publishRequest(target,message).isDone(),equalTo(true));
+		assertThat(replied.await(2,TimeUnit.SECONDS),equalTo(true));
+		sut.disconnect();
+	}
+
+	@Test
+	public void testPublishRequest$requiresReplyConsumer() throws Exception {
+		final Transport sut=newTransport();
+		sut.connect();
+		try {
+			sut.publishRequest(this.connectorChannel,null);
+			fail("Should not publish requests without a reply consumer");
+		} catch (final IllegalStateException e) {
+			assertThat(e.getMessage(),equalTo("No reply consumer registered"));
+		} finally {
+			sut.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichment$inProcess() throws Exception {
+		final CountDownLatch disconnected=new CountDownLatch(1);
+		final CountDownLatch answered=new CountDownLatch(2);
+		class CustomNotifier extends Notifier {
+			@Override
+			public void onDisconnect(final DisconnectMessage response) {
+				disconnected.countDown();
+			}
+			@Override
+			public void onEnrichmentResponse(final EnrichmentResponseMessage response) {
+				answered.countDown();
+			}
+		}
+		final SimpleCurator curator=new SimpleCurator(this.connectorChannel,CuratorConfiguration.newInstance(),new CustomNotifier(),new AcceptingProvider(),context(),this.factory);
+		curator.connect(newAgent());
+		try {
+			final Connector connector=
+				Connector.
+					builder().
+						withConnectorChannel(this.connectorChannel).
+						withBase("http://localhost:8080/harvester/service/").
+						withNamespacePrefix(UseCase.CI_NAMESPACE,"ci").
+						withNamespacePrefix(UseCase.SCM_NAMESPACE,"scm").
+						withNamespacePrefix(UseCase.DOAP_NAMESPACE,"doap").
+						withTransportFactory(this.factory).
+						build();
+			connector.connect();
+			try {
+				final Future<Enrichment> response=
+					connector.
+						requestEnrichment(
+							UseCase.EXAMPLE_REQUEST,
+							new EnrichmentResultHandler() {
+								@Override
+								public void onResult(final EnrichmentResult result) {
+									answered.countDown();
+								}
+							}
+						);
+				final Enrichment enrichment=response.get();
+				assertThat(enrichment.isAccepted(),equalTo(true));
+				assertThat(enrichment.isActive(),equalTo(true));
+				answered.await();
+			} finally {
+				connector.disconnect();
+			}
+			disconnected.await();
+		} finally {
+			curator.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichmentAsync$inProcess() throws Exception {
+		final CountDownLatch answered=new CountDownLatch(1);
+		final SimpleCurator curator=new SimpleCurator(this.connectorChannel,CuratorConfiguration.newInstance(),new Notifier(),new AcceptingProvider(),context(),this.factory);
+		curator.connect(newAgent());
+		try {
+			final Connector connector=
+				Connector.
+					builder().
+						withConnectorChannel(this.connectorChannel).
+						withBase("http://localhost:8080/harvester/service/").
+						withNamespacePrefix(UseCase.CI_NAMESPACE,"ci").
+						withNamespacePrefix(UseCase.SCM_NAMESPACE,"scm").
+						withNamespacePrefix(UseCase.DOAP_NAMESPACE,"doap").
+						withTransportFactory(this.factory).
+						build();
+			connector.connect();
+			try {
+				final ListenableFuture<Boolean> accepted=
+					Futures.
+						transform(
+							connector.
+								requestEnrichmentAsync(
+									UseCase.EXAMPLE_REQUEST,
+									new EnrichmentResultHandler() {
+										@Override
+										public void onResult(final EnrichmentResult result) {
+											answered.countDown();
+										}
+									}
+								),
+							new Function<Enrichment,Boolean>() {
+								@Override
+								public Boolean apply(final Enrichment input) {
+									return input.isAccepted();
+								}
+							});
+				assertThat(accepted.get(),equalTo(true));
+				answered.await();
+			} finally {
+				connector.disconnect();
+			}
+		} finally {
+			curator.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichments$inProcess() throws Exception {
+		final CountDownLatch answered=new CountDownLatch(3);
+		final SimpleCurator curator=new SimpleCurator(this.connectorChannel,CuratorConfiguration.newInstance(),new Notifier(),new AcceptingProvider(),context(),this.factory);
+		curator.connect(newAgent());
+		try {
+			final Connector connector=newConnector(CuratorConfiguration.newInstance().withQueueName("connector.responses"));
+			connector.connect();
+			try {
+				final EnrichmentBatch batch=
+					connector.
+						requestEnrichments(
+							ImmutableList.of(UseCase.EXAMPLE_REQUEST,UseCase.EXAMPLE_REQUEST,UseCase.EXAMPLE_REQUEST),
+							new EnrichmentResultHandler() {
+								@Override
+								public void onResult(final EnrichmentResult result) {
+									answered.countDown();
+								}
+							});
+				assertThat(batch.size(),equalTo(3));
+				batch.publications().get();
+				for(final Enrichment enrichment:batch.acknowledgements().get()) {
+					assertThat(enrichment.isAccepted(),equalTo(true));
+				}
+				answered.await();
+			} finally {
+				connector.disconnect();
+			}
+		} finally {
+			curator.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichment$inProcessWithDirectReplyTo() throws Exception {
+		final CountDownLatch answered=new CountDownLatch(1);
+		final SimpleCurator curator=new SimpleCurator(this.connectorChannel,CuratorConfiguration.newInstance(),new Notifier(),new AcceptingProvider(),context(),this.factory);
+		curator.connect(newAgent());
+		try {
+			final Connector connector=newConnector(CuratorConfiguration.newInstance().withDirectReplyTo(true));
+			connector.connect();
+			try {
+				final Future<Enrichment> response=
+					connector.
+						requestEnrichment(
+							UseCase.EXAMPLE_REQUEST,
+							new EnrichmentResultHandler() {
+								@Override
+								public void onResult(final EnrichmentResult result) {
+									answered.countDown();
+								}
+							}
+						);
+				final Enrichment enrichment=response.get();
+				assertThat(enrichment.isAccepted(),equalTo(true));
+				answered.await();
+			} finally {
+				connector.disconnect();
+			}
+		} finally {
+			curator.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichments$cancellingTheBatchAbortsEveryRequest() throws Exception {
+		final Connector connector=newConnector(CuratorConfiguration.newInstance());
+		connector.connect();
+		try {
+			loseRequests();
+			final EnrichmentBatch batch=
+				connector.
+					requestEnrichments(
+						ImmutableList.of(UseCase.EXAMPLE_REQUEST,UseCase.EXAMPLE_REQUEST),
+						new EnrichmentResultHandler() {
+							@Override
+							public void onResult(final EnrichmentResult result) {
+							}
+						});
+			batch.publications().get();
+			assertThat(batch.acknowledgements().cancel(true),equalTo(true));
+			for(final ListenableFuture<Enrichment> enrichment:batch.enrichments()) {
+				assertThat(enrichment.isCancelled(),equalTo(true));
+			}
+		} finally {
+			connector.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichment$identicalRequestsAreCoalesced() throws Exception {
+		final CountDownLatch answered=new CountDownLatch(2);
+		final SimpleCurator curator=new SimpleCurator(this.connectorChannel,CuratorConfiguration.newInstance(),new Notifier(),new AcceptingProvider(500),context(),this.factory);
+		curator.connect(newAgent());
+		try {
+			final Connector connector=newConnector(CuratorConfiguration.newInstance().withQueueName("connector.responses").withCoalesceRequests(true));
+			connector.connect();
+			try {
+				final EnrichmentResultHandler handler=
+					new EnrichmentResultHandler() {
+						@Override
+						public void onResult(final EnrichmentResult result) {
+							answered.countDown();
+						}
+					};
+				final Future<Enrichment> first=connector.requestEnrichment(UseCase.EXAMPLE_REQUEST,handler);
+				final Future<Enrichment> second=connector.requestEnrichmentAsync(UseCase.EXAMPLE_REQUEST,handler);
+				assertThat(connector.requestMetrics().coalescedRequests(),equalTo(1L));
+				assertThat(first.get().isAccepted(),equalTo(true));
+				assertThat(second.get().isAccepted(),equalTo(true));
+				assertThat(first.get(),not(sameInstance(second.get())));
+				answered.await();
+				connector.cancelEnrichment(first.get());
+				assertThat(first.get().isCancelled(),equalTo(true));
+				assertThat(second.get().isActive(),equalTo(true));
+			} finally {
+				connector.disconnect();
+			}
+		} finally {
+			curator.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichmentAsync$coalescedRequestIsAbortedWhenEveryCallerLeaves() throws Exception {
+		final Connector connector=newConnector(CuratorConfiguration.newInstance().withCoalesceRequests(true));
+		connector.connect();
+		try {
+			loseRequests();
+			final ListenableFuture<Enrichment> first=connector.requestEnrichmentAsync(UseCase.EXAMPLE_REQUEST,EnrichmentResultCollector.newInstance(null));
+			final ListenableFuture<Enrichment> second=connector.requestEnrichmentAsync(UseCase.EXAMPLE_REQUEST,EnrichmentResultCollector.newInstance(null));
+			assertThat(this.factory.broker(CuratorConfiguration.DEFAULT_BROKER).messageCount("lost"),equalTo(1));
+			assertThat(first.cancel(true),equalTo(true));
+			assertThat(second.isDone(),equalTo(false));
+			assertThat(second.cancel(true),equalTo(true));
+			final ListenableFuture<Enrichment> third=connector.requestEnrichmentAsync(UseCase.EXAMPLE_REQUEST,EnrichmentResultCollector.newInstance(null));
+			assertThat(third.isDone(),equalTo(false));
+			assertThat(this.factory.broker(CuratorConfiguration.DEFAULT_BROKER).messageCount("lost"),equalTo(2));
+			assertThat(connector.requestMetrics().coalescedRequests(),equalTo(1L));
+		} finally {
+			connector.disconnect();
+		}
+	}
+
+	private Connector newConnector(final CuratorConfiguration configuration) {
+		return
+			Connector.
+				builder().
+					withConnectorChannel(this.connectorChannel).
+					withBase("http://localhost:8080/harvester/service/").
+					withCuratorConfiguration(configuration).
+					withTransportFactory(this.factory).
+					build();
+	}
+
+	private void loseRequests() throws IOException {
+		final LoopbackBroker broker=this.factory.broker(CuratorConfiguration.DEFAULT_BROKER);
+		broker.declareQueue("lost");
+		broker.bindQueue("lost",CuratorConfiguration.DEFAULT_EXCHANGE_NAME,CuratorConfiguration.DEFAULT_REQUEST_ROUTING_KEY+".*");
+	}
+
+	@Test
+	public void testRequestEnrichment$unacknowledgedRequestExpires() throws Exception {
+		final Connector connector=newConnector(CuratorConfiguration.newInstance().withAcknowledgementTimeout(100));
+		connector.connect();
+		try {
+			loseRequests();
+			final Future<Enrichment> response=connector.requestEnrichment(UseCase.EXAMPLE_REQUEST,EnrichmentResultCollector.newInstance(null));
+			assertThat(response.get().isAborted(),equalTo(true));
+			assertThat(connector.requestMetrics().expiredAcknowledgements(),equalTo(1L));
+			assertThat(connector.requestMetrics().expiredRequests(),equalTo(0L));
+		} finally {
+			connector.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichmentAsync$deadlineExpires() throws Exception {
+		final Connector connector=newConnector(CuratorConfiguration.newInstance());
+		connector.connect();
+		try {
+			loseRequests();
+			final ListenableFuture<Enrichment> response=connector.requestEnrichmentAsync(UseCase.EXAMPLE_REQUEST,EnrichmentResultCollector.newInstance(null),100,TimeUnit.MILLISECONDS);
+			try {
+				response.get();
+				fail("Should not be acknowledged");
+			} catch (final ExecutionException e) {
+				assertThat(e.getCause(),instanceOf(TimeoutException.class));
+			}
+			assertThat(connector.requestMetrics().expiredAcknowledgements(),equalTo(1L));
+		} finally {
+			connector.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichment$staleRequestExpires() throws Exception {
+		final Connector connector=newConnector(CuratorConfiguration.newInstance().withResultTimeToLive(100));
+		connector.connect();
+		try {
+			loseRequests();
+			final Future<Enrichment> response=connector.requestEnrichment(UseCase.EXAMPLE_REQUEST,EnrichmentResultCollector.newInstance(null));
+			assertThat(response.get().isAborted(),equalTo(true));
+			assertThat(connector.requestMetrics().expiredRequests(),equalTo(1L));
+			assertThat(connector.requestMetrics().expiredAcknowledgements(),equalTo(0L));
+		} finally {
+			connector.disconnect();
+		}
+	}
+
+	@Test
+	public void testRequestEnrichment$unroutableRequestIsAborted() throws Exception {
+		final Connector connector=
+			Connector.
+				builder().
+					withConnectorChannel(this.connectorChannel).
+					withBase("http://localhost:8080/harvester/service/").
+					withTransportFactory(this.factory).
+					build();
+		connector.connect();
+		try {
+			final Future<Enrichment> response=
+				connector.
+					requestEnrichment(
+						UseCase.EXAMPLE_REQUEST,
+						new EnrichmentResultHandler() {
+							@Override
+							public void onResult(final EnrichmentResult result) {
+								fail("No curator should answer the request");
+							}
+						}
+					);
+			final Enrichment enrichment=response.get();
+			assertThat(enrichment.isAborted(),equalTo(true));
+		} finally {
+			connector.disconnect();
+		}
+	}
+
+	@Test
+	public void testPublishRequest$returnedRequestsAreReported() throws Exception {
+		final Transport sut=newTransport();
+		final List<String> returned=Lists.newArrayList();
+		sut.addReturnedMessageListener(
+			new Transport.ReturnedMessageListener() {
+				@Override
+				public void onReturn(final Transport transport, final String correlationId, final String reason) {
+					returned.add(correlationId+" "+reason);
+				}
+			});
+		sut.connect();
+		try {
+			sut.declareExchange("exchange");
+			sut.registerReplyConsumer(
+				new MessageHandler() {
+					@Override
+					public void handlePayload(final String payload) {
+					}
+				});
+			final DisconnectMessage message=
+				ProtocolFactory.
+					newDisconnectMessage().
+						withMessageId(UUID.randomUUID()).
+						withSubmittedOn(new Date()).
+						withSubmittedBy(newAgent()).
+						build();
+			sut.
+				publishRequest(
+					ProtocolFactory.
+						newDeliveryChannel().
+							withExchangeName("exchange").
+							withRoutingKey("unbound").
+							build(),
+					message);
+			assertThat(returned,contains(message.messageId()+" 312 NO_ROUTE"));
+		} finally {
+			sut.disconnect();
+		}
+	}
+
+	@Test
+	public void testDisconnect$removesDeclaredQueues() throws Exception {
+		final Transport sut=newTransport();
+		sut.connect();
+		sut.declareExchange("exchange");
+		final String queueName=sut.prepareQueue("exchange",null,"key");
+		sut.disconnect();
+		final LoopbackBroker broker=this.factory.broker(CuratorConfiguration.DEFAULT_BROKER);
+		assertThat(broker.publish("exchange","key",null,new byte[0]),equalTo(0));
+		try {
+			broker.messageCount(queueName);
+			fail("Queue should have been deleted");
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("NOT_FOUND - no queue '"+queueName+"' in broker 'localhost:5672/'"));
+		}
+	}
+
+	@Test
+	public void testPublishMessage$notConnected() throws Exception {
+		final Transport sut=newTransport();
+		try {
+			sut.publishMessage(this.connectorChannel,"message");
+			fail("Should not publish if not connected");
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("Could not publish message [message] to exchange 'null' and routing key 'connector.loopback': not connected"));
+		}
+	}
+
+	@Test
+	public void testPublishMessage$unknownExchange() throws Exception {
+		final Transport sut=newTransport();
+		sut.connect();
+		try {
+			sut.
+				publishMessage(
+					ProtocolFactory.
+						newDeliveryChannel().
+							withExchangeName("unknown").
+							withRoutingKey("key").
+							build(),
+					"message");
+			fail("Should not publish to unknown exchanges");
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("NOT_FOUND - no exchange 'unknown' in broker 'localhost:5672/'"));
+		} finally {
+			sut.disconnect();
+		}
+	}
+
+}
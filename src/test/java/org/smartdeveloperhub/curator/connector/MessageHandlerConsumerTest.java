@@ -0,0 +1,193 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import mockit.Injectable;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.smartdeveloperhub.curator.connector.io.HeaderScanner;
+import org.smartdeveloperhub.curator.connector.io.WireFormat;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimaps;
+import com.rabbitmq.client.AMQP.BasicProperties;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+
+@RunWith(JMockit.class)
+public class MessageHandlerConsumerTest {
+
+	private static final class RecordingHandler implements MessageHandler {
+
+		private final ListMultimap<String,String> payloads=Multimaps.synchronizedListMultimap(ArrayListMultimap.<String,String>create());
+
+		@Override
+		public void handlePayload(final String payload) {
+			final String[] parts=payload.split(":");
+			this.payloads.put(parts[0],parts[1]);
+		}
+
+	}
+
+	/**
+	 * Records the values of the responses by the request they respond to,
+	 * holding the responses of the blocked request until released.
+	 */
+	private static final class BlockingHandler implements MessageHandler {
+
+		private final ListMultimap<String,String> payloads=Multimaps.synchronizedListMultimap(ArrayListMultimap.<String,String>create());
+		private final String blocked;
+		private final CountDownLatch release=new CountDownLatch(1);
+		private final CountDownLatch handled;
+
+		private BlockingHandler(final String blocked, final int expected) {
+			this.blocked=blocked;
+			this.handled=new CountDownLatch(expected);
+		}
+
+		@Override
+		public void handlePayload(final String payload) {
+			final String responseTo=HeaderScanner.responseTo(payload.getBytes(Charsets.UTF_8));
+			if(responseTo.equals(this.blocked)) {
+				try {
+					this.release.await();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			this.payloads.put(responseTo,payload.substring(payload.lastIndexOf(' ')+1));
+			this.handled.countDown();
+		}
+
+	}
+
+	@Injectable private Channel channel;
+
+	private Acknowledger newAcknowledger() {
+		return Acknowledger.newInstance(this.channel,AcknowledgementPolicy.newInstance(16,1,60000),Executors.defaultThreadFactory());
+	}
+
+	private BasicProperties properties(final String correlationId, final String contentEncoding) {
+		return
+			new BasicProperties().
+				builder().
+					contentType(WireFormat.TURTLE.contentType()).
+					contentEncoding(contentEncoding).
+					correlationId(correlationId).
+					build();
+	}
+
+	private void deliver(final MessageHandlerConsumer sut, final long tag, final String correlationId, final String value) throws Exception {
+		sut.handleDelivery("consumer",new Envelope(tag,false,"exchange","routingKey"),properties(correlationId,null),(correlationId+":"+value).getBytes("UTF-8"));
+	}
+
+	private void respond(final MessageHandlerConsumer sut, final long tag, final String responseTo, final String value) throws Exception {
+		final String body="_:response stoa:responseTo \""+responseTo+"\"^^types:UUID ; ex:value "+value;
+		sut.handleDelivery("consumer",new Envelope(tag,false,"exchange","routingKey"),properties(null,null),body.getBytes("UTF-8"));
+	}
+
+	@Test
+	public void testHandleDelivery$dispatchedInOrderPerCorrelation() throws Exception {
+		final RecordingHandler handler=new RecordingHandler();
+		final Acknowledger acknowledger=newAcknowledger();
+		final PartitionedExecutor dispatcher=PartitionedExecutor.newInstance(4,Executors.defaultThreadFactory());
+		final MessageHandlerConsumer sut=new MessageHandlerConsumer(this.channel,handler,PayloadCompressor.identity(),acknowledger,dispatcher);
+		final List<String> expected=Lists.newArrayList();
+		long tag=0;
+		for(int i=0;i<100;i++) {
+			expected.add(Integer.toString(i));
+			deliver(sut,++tag,"first",Integer.toString(i));
+			deliver(sut,++tag,"second",Integer.toString(i));
+		}
+		assertThat(dispatcher.shutdown(5,TimeUnit.SECONDS),equalTo(true));
+		assertThat(handler.payloads.get("first"),equalTo(expected));
+		assertThat(handler.payloads.get("second"),equalTo(expected));
+		assertThat(acknowledger.unacknowledged(),equalTo(0L));
+		acknowledger.close();
+	}
+
+	@Test
+	public void testHandleDelivery$partitionedByResponseToWithoutCorrelationId() throws Exception {
+		final Acknowledger acknowledger=newAcknowledger();
+		final PartitionedExecutor dispatcher=PartitionedExecutor.newInstance(4,Executors.defaultThreadFactory());
+		final String slow=UUID.randomUUID().toString();
+		String fast=UUID.randomUUID().toString();
+		while(dispatcher.partition(fast)==dispatcher.partition(slow)) {
+			fast=UUID.randomUUID().toString();
+		}
+		final BlockingHandler handler=new BlockingHandler(slow,10);
+		final MessageHandlerConsumer sut=new MessageHandlerConsumer(this.channel,handler,PayloadCompressor.identity(),acknowledger,dispatcher);
+		respond(sut,1,slow,"0");
+		final List<String> expected=Lists.newArrayList();
+		for(int i=1;i<=10;i++) {
+			expected.add(Integer.toString(i));
+			respond(sut,i+1,fast,Integer.toString(i));
+		}
+		assertThat(handler.handled.await(5,TimeUnit.SECONDS),equalTo(true));
+		assertThat(handler.payloads.get(fast),equalTo(expected));
+		assertThat(handler.payloads.get(slow),empty());
+		handler.release.countDown();
+		assertThat(dispatcher.shutdown(5,TimeUnit.SECONDS),equalTo(true));
+		assertThat(handler.payloads.get(slow),contains("0"));
+		assertThat(acknowledger.unacknowledged(),equalTo(0L));
+		acknowledger.close();
+	}
+
+	@Test
+	public void testHandleDelivery$discardedDeliveriesAreAcknowledged() throws Exception {
+		final RecordingHandler handler=new RecordingHandler();
+		final Acknowledger acknowledger=newAcknowledger();
+		final MessageHandlerConsumer sut=new MessageHandlerConsumer(this.channel,handler,PayloadCompressor.identity(),acknowledger,null);
+		sut.handleDelivery("consumer",new Envelope(1,false,"exchange","routingKey"),properties("first","br"),"first:1".getBytes("UTF-8"));
+		assertThat(handler.payloads.values(),empty());
+		deliver(sut,2,"first","2");
+		assertThat(handler.payloads.get("first"),contains("2"));
+		new Verifications() {{
+			MessageHandlerConsumerTest.this.channel.basicAck(1,true);this.times=1;
+			MessageHandlerConsumerTest.this.channel.basicAck(2,true);this.times=1;
+		}};
+		acknowledger.close();
+	}
+
+}
@@ -0,0 +1,139 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class OutboundQueueTest {
+
+	private static final class TestPublication implements OutboundQueue.Publication {
+
+		private final CountDownLatch written=new CountDownLatch(1);
+		private volatile IOException failure;
+
+		@Override
+		public void write() {
+			this.written.countDown();
+		}
+
+		@Override
+		public void abandon(final IOException failure) {
+			this.failure=failure;
+		}
+
+		boolean awaitWritten() throws InterruptedException {
+			return this.written.await(5,TimeUnit.SECONDS);
+		}
+
+	}
+
+	private final ConnectionMetrics metrics=new ConnectionMetrics("connection");
+
+	private final FlowControl flowControl=new FlowControl(this.metrics);
+
+	private OutboundQueue newInstance(final int capacity, final long timeout) {
+		return OutboundQueue.newInstance(capacity,timeout,this.flowControl,this.metrics,Executors.defaultThreadFactory());
+	}
+
+	@Test
+	public void testSubmit$writtenByWriter() throws Exception {
+		final OutboundQueue sut=newInstance(2,0);
+		sut.start();
+		try {
+			final TestPublication publication=new TestPublication();
+			sut.submit(publication);
+			assertThat(publication.awaitWritten(),equalTo(true));
+		} finally {
+			sut.stop();
+		}
+	}
+
+	@Test
+	public void testSubmit$rejectedWhenFull() throws Exception {
+		final OutboundQueue sut=newInstance(1,10);
+		this.flowControl.handleBlocked("low on memory");
+		sut.start();
+		final TestPublication queued=new TestPublication();
+		sut.submit(queued);
+		try {
+			sut.submit(new TestPublication());
+			fail("Should reject publications when the queue is full");
+		} catch (final PublicationRejectedException e) {
+			assertThat(e.getMessage(),equalTo("Publish queue of connection connection is full (1 publications)"));
+		}
+		assertThat(this.metrics.rejectedPublications(),equalTo(1L));
+		this.flowControl.handleUnblocked();
+		assertThat(queued.awaitWritten(),equalTo(true));
+		sut.stop();
+	}
+
+	@Test
+	public void testStop$abandonsPendingPublications() throws Exception {
+		final OutboundQueue sut=newInstance(2,0);
+		this.flowControl.handleBlocked("low on disk");
+		sut.start();
+		final TestPublication pending=new TestPublication();
+		sut.submit(pending);
+		sut.stop();
+		assertThat(pending.failure.getMessage(),equalTo("Publish queue of connection connection is not running"));
+		assertThat(sut.size(),equalTo(0));
+	}
+
+	@Test
+	public void testSubmit$notRunning() throws Exception {
+		final OutboundQueue sut=newInstance(2,0);
+		final TestPublication publication=new TestPublication();
+		try {
+			sut.submit(publication);
+			fail("Should not accept publications before being started");
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("Publish queue of connection connection is not running"));
+		}
+		assertThat(publication.failure,nullValue());
+	}
+
+	@Test
+	public void testNewInstance$nonPositiveCapacity() {
+		try {
+			newInstance(0,0);
+			fail("Should not accept a non-positive capacity");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Capacity must be greater than 0 (0)"));
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class PartitionedExecutorTest {
+
+	private static final class Recorder implements Runnable {
+
+		private final List<Integer> events;
+		private final int value;
+
+		private Recorder(final List<Integer> events, final int value) {
+			this.events=events;
+			this.value=value;
+		}
+
+		@Override
+		public void run() {
+			this.events.add(this.value);
+		}
+
+	}
+
+	private static final class Blocker implements Runnable {
+
+		private final CountDownLatch started=new CountDownLatch(1);
+		private final CountDownLatch release=new CountDownLatch(1);
+
+		@Override
+		public void run() {
+			this.started.countDown();
+			try {
+				this.release.await();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+	private PartitionedExecutor newExecutor(final int partitions) {
+		return PartitionedExecutor.newInstance(partitions,Executors.defaultThreadFactory());
+	}
+
+	@Test
+	public void testNewInstance$invalidPartitions() throws Exception {
+		try {
+			newExecutor(0);
+			fail("Should not accept an executor without partitions");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Number of partitions must be positive (0)"));
+		}
+	}
+
+	@Test
+	public void testPartition$nullKeysShareLane() throws Exception {
+		final PartitionedExecutor sut=newExecutor(4);
+		assertThat(sut.partition(null),equalTo(0));
+		assertThat(sut.partition("key"),equalTo(sut.partition("key")));
+		sut.shutdown(1,TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testExecute$preservesOrderWithinPartition() throws Exception {
+		final PartitionedExecutor sut=newExecutor(4);
+		final List<Integer> events=Collections.synchronizedList(Lists.<Integer>newArrayList());
+		for(int i=0;i<1000;i++) {
+			sut.execute("key",new Recorder(events,i));
+		}
+		assertThat(sut.shutdown(5,TimeUnit.SECONDS),equalTo(true));
+		assertThat(events.size(),equalTo(1000));
+		for(int i=0;i<1000;i++) {
+			assertThat(events.get(i),equalTo(i));
+		}
+	}
+
+	@Test
+	public void testExecute$partitionsDoNotBlockEachOther() throws Exception {
+		final PartitionedExecutor sut=newExecutor(2);
+		String other="other";
+		while(sut.partition(other)==sut.partition("key")) {
+			other=other+"*";
+		}
+		final Blocker blocker=new Blocker();
+		final List<Integer> events=Collections.synchronizedList(Lists.<Integer>newArrayList());
+		sut.execute("key",blocker);
+		assertThat(blocker.started.await(5,TimeUnit.SECONDS),equalTo(true));
+		sut.execute("key",new Recorder(events,1));
+		final CountDownLatch done=new CountDownLatch(1);
+		sut.execute(other,new Recorder(events,2));
+		sut.execute(
+			other,
+			new Runnable() {
+				@Override
+				public void run() {
+					done.countDown();
+				}
+			});
+		assertThat(done.await(5,TimeUnit.SECONDS),equalTo(true));
+		assertThat(events,contains(2));
+		blocker.release.countDown();
+		assertThat(sut.shutdown(5,TimeUnit.SECONDS),equalTo(true));
+		assertThat(events,contains(2,1));
+	}
+
+	@Test
+	public void testExecute$failuresDoNotStopPartition() throws Exception {
+		final PartitionedExecutor sut=newExecutor(1);
+		final List<Integer> events=Collections.synchronizedList(Lists.<Integer>newArrayList());
+		sut.execute(
+			"key",
+			new Runnable() {
+				@Override
+				public void run() {
+					throw new IllegalStateException("failure");
+				}
+			});
+		sut.execute("key",new Recorder(events,1));
+		assertThat(sut.shutdown(5,TimeUnit.SECONDS),equalTo(true));
+		assertThat(events,contains(1));
+	}
+
+	@Test
+	public void testExecute$rejectedAfterShutdown() throws Exception {
+		final PartitionedExecutor sut=newExecutor(1);
+		sut.shutdown(1,TimeUnit.SECONDS);
+		try {
+			sut.execute("key",new Recorder(Lists.<Integer>newArrayList(),1));
+			fail("Should not accept tasks after shutdown");
+		} catch (final RejectedExecutionException e) {
+			// Expected
+		}
+	}
+
+}
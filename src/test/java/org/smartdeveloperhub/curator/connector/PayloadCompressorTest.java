@@ -0,0 +1,147 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.smartdeveloperhub.curator.connector.PayloadCompressor.Payload;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+
+public class PayloadCompressorTest {
+
+	private final byte[] body=Strings.repeat("<urn:subject> <urn:predicate> \"object\" .\n",512).getBytes(Charsets.UTF_8);
+
+	@Test
+	public void testCompress$belowThreshold() throws Exception {
+		final PayloadCompressor sut=PayloadCompressor.newInstance(ContentEncoding.GZIP,this.body.length+1);
+		final Payload payload=sut.compress(this.body);
+		assertThat(payload.body(),sameInstance(this.body));
+		assertThat(payload.contentEncoding(),nullValue());
+		assertThat(sut.metrics().uncompressedMessages(),equalTo(1L));
+		assertThat(sut.metrics().compressedMessages(),equalTo(0L));
+		assertThat(sut.metrics().compressionRatio(),equalTo(1.0D));
+	}
+
+	@Test
+	public void testCompress$identity() throws Exception {
+		final PayloadCompressor sut=PayloadCompressor.identity();
+		final Payload payload=sut.compress(this.body);
+		assertThat(payload.body(),sameInstance(this.body));
+		assertThat(payload.contentEncoding(),nullValue());
+	}
+
+	@Test
+	public void testRoundtrip() throws Exception {
+		for(final ContentEncoding encoding:new ContentEncoding[]{ContentEncoding.GZIP,ContentEncoding.DEFLATE}) {
+			final PayloadCompressor sut=PayloadCompressor.newInstance(encoding,this.body.length);
+			final Payload payload=sut.compress(this.body);
+			assertThat(payload.contentEncoding(),equalTo(encoding.value()));
+			assertThat(sut.decompress(payload.contentEncoding(),payload.body()),equalTo(this.body));
+			assertThat(sut.metrics().compressedMessages(),equalTo(1L));
+			assertThat(sut.metrics().decompressedMessages(),equalTo(1L));
+			assertThat(sut.metrics().originalBytes(),equalTo((long)this.body.length));
+			assertThat(sut.metrics().compressedBytes(),equalTo((long)payload.body().length));
+			assertThat(sut.metrics().compressionRatio(),lessThan(0.1D));
+			assertThat(sut.metrics().compressionTime(TimeUnit.NANOSECONDS)>=0,equalTo(true));
+			assertThat(sut.metrics().decompressionTime(TimeUnit.NANOSECONDS)>=0,equalTo(true));
+		}
+	}
+
+	@Test
+	public void testDecompress$identity() throws Exception {
+		final PayloadCompressor sut=PayloadCompressor.identity();
+		assertThat(sut.decompress(null,this.body),sameInstance(this.body));
+		assertThat(sut.metrics().decompressedMessages(),equalTo(0L));
+	}
+
+	@Test
+	public void testDecompress$compressedByAnotherConfiguration() throws Exception {
+		final Payload payload=PayloadCompressor.newInstance(ContentEncoding.DEFLATE,0).compress(this.body);
+		assertThat(PayloadCompressor.identity().decompress(payload.contentEncoding(),payload.body()),equalTo(this.body));
+	}
+
+	@Test
+	public void testDecompress$unsupportedEncoding() throws Exception {
+		try {
+			PayloadCompressor.identity().decompress("br",this.body);
+			fail("Should not decompress unsupported encodings");
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("Unsupported content encoding 'br'"));
+		}
+	}
+
+	@Test
+	public void testDecompress$unknownEncodingIsIgnored() throws Exception {
+		assertThat(PayloadCompressor.identity().decompress("utf-8",this.body),sameInstance(this.body));
+	}
+
+	@Test
+	public void testDecompress$exceedsMaximumSize() throws Exception {
+		final Payload payload=PayloadCompressor.newInstance(ContentEncoding.GZIP,0).compress(this.body);
+		final PayloadCompressor sut=PayloadCompressor.newInstance(ContentEncoding.IDENTITY,Integer.MAX_VALUE,this.body.length-1);
+		try {
+			sut.decompress(payload.contentEncoding(),payload.body());
+			fail("Should not decompress payloads larger than the maximum size");
+		} catch (final IOException e) {
+			assertThat(e.getMessage(),equalTo("Decoded body exceeds "+(this.body.length-1)+" bytes"));
+		}
+		assertThat(PayloadCompressor.newInstance(ContentEncoding.IDENTITY,Integer.MAX_VALUE,this.body.length).decompress(payload.contentEncoding(),payload.body()),equalTo(this.body));
+	}
+
+	@Test
+	public void testDecompress$corruptPayload() throws Exception {
+		try {
+			PayloadCompressor.identity().decompress("gzip",this.body);
+			fail("Should not decompress corrupt payloads");
+		} catch (final IOException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testNewInstance$fromConfiguration() throws Exception {
+		final CuratorConfiguration configuration=
+			CuratorConfiguration.
+				newInstance().
+					withContentEncoding(ContentEncoding.GZIP).
+					withCompressionThreshold(0);
+		final Payload payload=PayloadCompressor.newInstance(configuration).compress(this.body);
+		assertThat(payload.contentEncoding(),equalTo("gzip"));
+	}
+
+}
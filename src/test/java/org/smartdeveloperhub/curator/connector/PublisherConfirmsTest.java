@@ -0,0 +1,141 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ShutdownSignalException;
+
+@RunWith(JMockit.class)
+public class PublisherConfirmsTest {
+
+	@Mocked private Channel channel;
+
+	private void verifyFailed(final ListenableFuture<Void> confirmation, final String message) throws InterruptedException {
+		assertThat(confirmation.isDone(),equalTo(true));
+		try {
+			confirmation.get();
+			fail("Publication should have failed");
+		} catch (final ExecutionException e) {
+			assertThat(e.getCause(),instanceOf(IOException.class));
+			assertThat(e.getCause().getMessage(),equalTo(message));
+		}
+	}
+
+	@Test
+	public void testEnable$registersListenersAndSelectsConfirmMode() throws Exception {
+		final PublisherConfirms sut=PublisherConfirms.enable(this.channel);
+		assertThat(sut.channel(),sameInstance(this.channel));
+		new Verifications() {{
+			PublisherConfirmsTest.this.channel.addConfirmListener(sut);
+			PublisherConfirmsTest.this.channel.addShutdownListener(sut);
+			PublisherConfirmsTest.this.channel.confirmSelect();
+		}};
+	}
+
+	@Test
+	public void testHandleAck$single() throws Exception {
+		final PublisherConfirms sut=PublisherConfirms.enable(this.channel);
+		final ListenableFuture<Void> first=sut.track(1);
+		final ListenableFuture<Void> second=sut.track(2);
+		sut.handleAck(2,false);
+		assertThat(first.isDone(),equalTo(false));
+		assertThat(second.isDone(),equalTo(true));
+		assertThat(sut.outstanding(),equalTo(1));
+	}
+
+	@Test
+	public void testHandleAck$multiple() throws Exception {
+		final PublisherConfirms sut=PublisherConfirms.enable(this.channel);
+		final ListenableFuture<Void> first=sut.track(1);
+		final ListenableFuture<Void> second=sut.track(2);
+		final ListenableFuture<Void> third=sut.track(3);
+		sut.handleAck(2,true);
+		assertThat(first.isDone(),equalTo(true));
+		assertThat(second.isDone(),equalTo(true));
+		assertThat(third.isDone(),equalTo(false));
+		assertThat(sut.outstanding(),equalTo(1));
+	}
+
+	@Test
+	public void testHandleAck$unknownDeliveryTag() throws Exception {
+		final PublisherConfirms sut=PublisherConfirms.enable(this.channel);
+		final ListenableFuture<Void> confirmation=sut.track(2);
+		sut.handleAck(1,false);
+		assertThat(confirmation.isDone(),equalTo(false));
+		assertThat(sut.outstanding(),equalTo(1));
+	}
+
+	@Test
+	public void testHandleNack$multiple() throws Exception {
+		final PublisherConfirms sut=PublisherConfirms.enable(this.channel);
+		final ListenableFuture<Void> first=sut.track(1);
+		final ListenableFuture<Void> second=sut.track(2);
+		sut.handleNack(2,true);
+		verifyFailed(first,"Broker could not confirm publication 2");
+		verifyFailed(second,"Broker could not confirm publication 2");
+		assertThat(sut.outstanding(),equalTo(0));
+	}
+
+	@Test
+	public void testAbandon() throws Exception {
+		final PublisherConfirms sut=PublisherConfirms.enable(this.channel);
+		final ListenableFuture<Void> confirmation=sut.track(1);
+		sut.abandon(1,new IOException("failure"));
+		verifyFailed(confirmation,"failure");
+		assertThat(sut.outstanding(),equalTo(0));
+	}
+
+	@Test
+	public void testShutdownCompleted$failsOutstandingPublications() throws Exception {
+		final PublisherConfirms sut=PublisherConfirms.enable(this.channel);
+		final ListenableFuture<Void> first=sut.track(1);
+		final ListenableFuture<Void> second=sut.track(2);
+		sut.handleAck(1,false);
+		sut.shutdownCompleted(new ShutdownSignalException(false,false,null,this.channel));
+		assertThat(first.get(),equalTo(null));
+		verifyFailed(second,"Channel closed before publication was confirmed");
+		assertThat(sut.outstanding(),equalTo(0));
+	}
+
+}
@@ -0,0 +1,97 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class RoutingKeyPatternTest {
+
+	private static boolean matches(final String bindingKey, final String routingKey) {
+		return RoutingKeyPattern.compile(bindingKey).matches(routingKey);
+	}
+
+	@Test
+	public void testMatches$literal() throws Exception {
+		assertThat(matches("curator.request","curator.request"),equalTo(true));
+		assertThat(matches("curator.request","curator.response"),equalTo(false));
+		assertThat(matches("curator.request","curator.request.enrichment"),equalTo(false));
+		assertThat(matches("curator.request","curator"),equalTo(false));
+	}
+
+	@Test
+	public void testMatches$star() throws Exception {
+		assertThat(matches("curator.request.*","curator.request.enrichment"),equalTo(true));
+		assertThat(matches("curator.request.*","curator.request"),equalTo(false));
+		assertThat(matches("curator.request.*","curator.request.enrichment.more"),equalTo(false));
+		assertThat(matches("*.request.*","curator.request.disconnect"),equalTo(true));
+		assertThat(matches("*","curator"),equalTo(true));
+		assertThat(matches("*",""),equalTo(false));
+	}
+
+	@Test
+	public void testMatches$hash() throws Exception {
+		assertThat(matches("#",""),equalTo(true));
+		assertThat(matches("#","curator.request.enrichment"),equalTo(true));
+		assertThat(matches("curator.#","curator"),equalTo(true));
+		assertThat(matches("curator.#","curator.request.enrichment"),equalTo(true));
+		assertThat(matches("curator.#.enrichment","curator.enrichment"),equalTo(true));
+		assertThat(matches("curator.#.enrichment","curator.request.v1.enrichment"),equalTo(true));
+		assertThat(matches("curator.#.enrichment","curator.request.disconnect"),equalTo(false));
+		assertThat(matches("#.*","curator"),equalTo(true));
+		assertThat(matches("#.*",""),equalTo(false));
+	}
+
+	@Test
+	public void testMatches$emptyKeys() throws Exception {
+		assertThat(matches("",""),equalTo(true));
+		assertThat(matches("","curator"),equalTo(false));
+		assertThat(matches("curator..request","curator..request"),equalTo(true));
+		assertThat(matches("curator.*.request","curator..request"),equalTo(true));
+	}
+
+	@Test
+	public void testCompile$null() throws Exception {
+		try {
+			RoutingKeyPattern.compile(null);
+			fail("Should not accept a null binding key");
+		} catch (final NullPointerException e) {
+			assertThat(e.getMessage(),equalTo("Binding key cannot be null"));
+		}
+	}
+
+	@Test
+	public void testEquals() throws Exception {
+		assertThat(RoutingKeyPattern.compile("curator.*"),equalTo(RoutingKeyPattern.compile("curator.*")));
+		assertThat(RoutingKeyPattern.compile("curator.*").hashCode(),equalTo(RoutingKeyPattern.compile("curator.*").hashCode()));
+		assertThat(RoutingKeyPattern.compile("curator.*").equals(RoutingKeyPattern.compile("curator.#")),equalTo(false));
+	}
+
+}
@@ -39,16 +39,32 @@ final class ServerCuratorController extends CuratorController {
 		super(configuration,name,context);
 	}
 
+	ServerCuratorController(final CuratorConfiguration configuration, final String name, final ConversionContext context, final TransportFactory transportFactory) {
+		super(configuration,name,context,transportFactory);
+	}
+
 	private String routingKey(final RequestMessage request) {
 		return curatorConfiguration().responseRoutingKey()+"."+request.submittedBy().agentId();
 	}
 
-	void publishResponse(final RequestMessage request, final ResponseMessage response) throws IOException {
-		publishMessage(response,routingKey(request));
+	/**
+	 * Requests that carry a {@code reply_to} address are answered through it,
+	 * as connectors using direct reply-to do not declare a response queue.
+	 */
+	void publishResponse(final RequestMessage request, final ResponseMessage response, final String replyTo) throws IOException {
+		if(replyTo!=null) {
+			publishReply(response,replyTo);
+		} else {
+			publishMessage(response,routingKey(request));
+		}
 	}
 
-	void publishResponse(final RequestMessage request, final String response) throws IOException {
-		publishMessage(response,routingKey(request));
+	void publishResponse(final RequestMessage request, final String response, final String replyTo) throws IOException {
+		if(replyTo!=null) {
+			publishReply(response,replyTo);
+		} else {
+			publishMessage(response,routingKey(request));
+		}
 	}
 
 	/**
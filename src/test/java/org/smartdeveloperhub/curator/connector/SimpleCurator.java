@@ -36,6 +36,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.smartdeveloperhub.curator.Notifier;
 import org.smartdeveloperhub.curator.connector.io.ConversionContext;
+import org.smartdeveloperhub.curator.connector.io.MessageUtil;
+import org.smartdeveloperhub.curator.connector.io.WireFormat;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.BindingBuilder;
 import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.EnrichmentResponseMessageBuilder;
@@ -44,11 +46,12 @@ import org.smartdeveloperhub.curator.protocol.Agent;
 import org.smartdeveloperhub.curator.protocol.DeliveryChannel;
 import org.smartdeveloperhub.curator.protocol.DisconnectMessage;
 import org.smartdeveloperhub.curator.protocol.EnrichmentRequestMessage;
+import org.smartdeveloperhub.curator.protocol.Message;
 import org.smartdeveloperhub.curator.protocol.RequestMessage;
 import org.smartdeveloperhub.curator.protocol.ResponseMessage;
 import org.smartdeveloperhub.curator.protocol.Value;
 
-public final class SimpleCurator implements MessageHandler {
+public final class SimpleCurator implements ReplyToMessageHandler {
 
 	private static final Logger LOGGER=LoggerFactory.getLogger(SimpleCurator.class);
 
@@ -57,22 +60,32 @@ public final class SimpleCurator implements MessageHandler {
 	private final ResponseProvider provider;
 	private final ConversionContext context;
 	private final CuratorConfiguration curatorConfiguration;
+	private final TransportFactory transportFactory;
 
 	private Agent agent;
 	private ServerCuratorController curatorController;
 	private ServerConnectorController connectorController;
 
 	public SimpleCurator(final DeliveryChannel connectorConfiguration, final CuratorConfiguration curatorConfiguration, final Notifier notifier, final ResponseProvider provider, final ConversionContext context) {
+		this(connectorConfiguration,curatorConfiguration,notifier,provider,context,BrokerController.factory());
+	}
+
+	/**
+	 * Run the curator using a transport other than RabbitMQ, i.e., in-process
+	 * using the loopback transport.
+	 */
+	SimpleCurator(final DeliveryChannel connectorConfiguration, final CuratorConfiguration curatorConfiguration, final Notifier notifier, final ResponseProvider provider, final ConversionContext context, final TransportFactory transportFactory) {
 		this.connectorConfiguration = connectorConfiguration;
 		this.curatorConfiguration = curatorConfiguration;
 		this.notifier = notifier;
 		this.provider = provider;
 		this.context = context;
+		this.transportFactory = transportFactory;
 	}
 
 	public void connect(final Agent agent) throws IOException, ControllerException {
 		this.agent = agent;
-		this.curatorController=new ServerCuratorController(this.curatorConfiguration,"curator",this.context);
+		this.curatorController=new ServerCuratorController(this.curatorConfiguration,"curator",this.context,this.transportFactory);
 		this.connectorController=new ServerConnectorController(this.connectorConfiguration, this.curatorController,this.context);
 		this.curatorController.connect(agent);
 		this.curatorController.registerMessageHandler(this);
@@ -86,14 +99,28 @@ public final class SimpleCurator implements MessageHandler {
 
 	@Override
 	public void handlePayload(final String payload) {
-		final EnrichmentRequestMessage erRequest=HandlerUtil.parsePayload(payload,EnrichmentRequestMessage.class);
-		if(erRequest!=null) {
-			processEnrichmentRequest(erRequest);
+		final Message request=HandlerUtil.decodePayload(payload,EnrichmentRequestMessage.class,DisconnectMessage.class);
+		process(request,payload,null);
+	}
+
+	@Override
+	public void handleMessage(final byte[] body, final WireFormat format) {
+		handleMessage(body,format,null);
+	}
+
+	@Override
+	public void handleMessage(final byte[] body, final WireFormat format, final String replyTo) {
+		final MessageUtil messageUtil=MessageUtil.newInstance().withConversionContext(this.context);
+		final Message request=HandlerUtil.decodePayload(messageUtil,body,format,EnrichmentRequestMessage.class,DisconnectMessage.class);
+		process(request,new HandlerUtil.Payload(body,format),replyTo);
+	}
+
+	private void process(final Message request, final Object payload, final String replyTo) {
+		if(request instanceof EnrichmentRequestMessage) {
+			processEnrichmentRequest((EnrichmentRequestMessage)request,replyTo);
 			return;
-		}
-		final DisconnectMessage dRequest=HandlerUtil.parsePayload(payload,DisconnectMessage.class);
-		if(dRequest!=null) {
-			processDisconnect(dRequest);
+		} else if(request instanceof DisconnectMessage) {
+			processDisconnect((DisconnectMessage)request);
 			return;
 		}
 		LOGGER.error("Could not understand request:\n{}",payload);
@@ -104,11 +131,11 @@ public final class SimpleCurator implements MessageHandler {
 		this.notifier.onRequest(request);
 	}
 
-	private void processEnrichmentRequest(final EnrichmentRequestMessage request) {
+	private void processEnrichmentRequest(final EnrichmentRequestMessage request, final String replyTo) {
 		this.notifier.onRequest(request);
 		LOGGER.info("Received enrichment request {} from {}...",request.messageId(),request.submittedBy().agentId());
 		if(this.provider.isAccepted(request.messageId())) {
-			final ResponseMessage acknowledgement = acceptEnrichmentRequest(request);
+			final ResponseMessage acknowledgement = acceptEnrichmentRequest(request,replyTo);
 			LOGGER.info(
 				"Accepted enrichment request {} from {}{}",
 				request.messageId(),
@@ -117,7 +144,7 @@ public final class SimpleCurator implements MessageHandler {
 					" with response "+acknowledgement.messageId():
 					"");
 		} else if(this.provider.isExpected(request.messageId())) {
-			final ResponseMessage acknowledgement = rejectEnrichmentRequest(request);
+			final ResponseMessage acknowledgement = rejectEnrichmentRequest(request,replyTo);
 			LOGGER.info(
 				"Rejected enrichment request {} from {}{}",
 				request.messageId(),
@@ -130,15 +157,15 @@ public final class SimpleCurator implements MessageHandler {
 		}
 	}
 
-	private ResponseMessage acceptEnrichmentRequest(final EnrichmentRequestMessage request) {
+	private ResponseMessage acceptEnrichmentRequest(final EnrichmentRequestMessage request, final String replyTo) {
 		final ResponseMessage acknowledgement=completeResponse(ProtocolFactory.newAcceptedMessage(),request);
-		acknowledgeRequest(request,acknowledgement);
+		acknowledgeRequest(request,acknowledgement,replyTo);
 		final ResponseMessage enrichment = createEnrichmentResponse(request);
 		replyToEnrichment(request,enrichment);
 		return acknowledgement;
 	}
 
-	private ResponseMessage rejectEnrichmentRequest(final EnrichmentRequestMessage request) {
+	private ResponseMessage rejectEnrichmentRequest(final EnrichmentRequestMessage request, final String replyTo) {
 		ResponseMessage acknowledgement=null;
 		final Failure failure = this.provider.getFailure(request.messageId());
 		if(failure!=null) {
@@ -151,18 +178,18 @@ public final class SimpleCurator implements MessageHandler {
 						withDetail(failure.details());
 			acknowledgement = completeResponse(builder, request);
 		}
-		acknowledgeRequest(request,acknowledgement);
+		acknowledgeRequest(request,acknowledgement,replyTo);
 		return acknowledgement;
 	}
 
-	private void acknowledgeRequest(final EnrichmentRequestMessage request, final ResponseMessage response) {
+	private void acknowledgeRequest(final EnrichmentRequestMessage request, final ResponseMessage response, final String replyTo) {
 		try {
 			sleep(TimeUnit.MILLISECONDS,this.provider.acknowledgeDelay(request.messageId(),TimeUnit.MILLISECONDS));
 			if(response!=null) {
-				this.curatorController.publishResponse(request,response);
+				this.curatorController.publishResponse(request,response,replyTo);
 				this.notifier.onResponse(response);
 			} else {
-				this.curatorController.publishResponse(request,"invalid acknowledge");
+				this.curatorController.publishResponse(request,"invalid acknowledge",replyTo);
 				this.notifier.onError(request.messageId());
 			}
 		} catch (final IOException e) {
@@ -0,0 +1,73 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.Test;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
+import org.smartdeveloperhub.curator.protocol.Broker;
+
+public class TopologyCacheTest {
+
+	private final Broker broker=ProtocolFactory.newBroker().build();
+	private final Broker other=ProtocolFactory.newBroker().withHost("other").build();
+
+	@Test
+	public void testContainsExchange$unknownBroker() {
+		assertThat(TopologyCache.newInstance().containsExchange(this.broker,"exchange"),equalTo(false));
+	}
+
+	@Test
+	public void testAddExchange$scopedPerBroker() {
+		final TopologyCache sut=TopologyCache.newInstance();
+		sut.addExchange(this.broker,"exchange");
+		assertThat(sut.containsExchange(this.broker,"exchange"),equalTo(true));
+		assertThat(sut.containsExchange(this.broker,"another"),equalTo(false));
+		assertThat(sut.containsExchange(this.other,"exchange"),equalTo(false));
+	}
+
+	@Test
+	public void testInvalidate$onlyAffectsBroker() {
+		final TopologyCache sut=TopologyCache.newInstance();
+		sut.addExchange(this.broker,"exchange");
+		sut.addExchange(this.other,"exchange");
+		sut.invalidate(this.broker);
+		assertThat(sut.containsExchange(this.broker,"exchange"),equalTo(false));
+		assertThat(sut.containsExchange(this.other,"exchange"),equalTo(true));
+	}
+
+	@Test
+	public void testClear() {
+		final TopologyCache sut=TopologyCache.newInstance();
+		sut.addExchange(this.broker,"exchange");
+		sut.clear();
+		assertThat(sut.containsExchange(this.broker,"exchange"),equalTo(false));
+	}
+
+}
@@ -0,0 +1,118 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
+import org.smartdeveloperhub.curator.protocol.Constraint;
+import org.smartdeveloperhub.curator.protocol.Variable;
+
+import com.google.common.collect.ImmutableList;
+import com.hp.hpl.jena.rdf.model.AnonId;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+
+/**
+ * Measures how constraint parsing scales with the number of blank nodes of
+ * the constraint graph. Each node has a literal value, links to the next
+ * node and is referred to by a node of a second chain, so that both the
+ * forward and the reverse traversal are exercised. Run the {@code main}
+ * method using the test classpath; the average time per node should remain
+ * roughly constant across sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=10,time=1)
+@Fork(1)
+public class ConstraintParserBenchmark {
+
+	private static final String NAMESPACE="http://www.smartdeveloperhub.org/benchmark#";
+
+	@Param({"100","1000","10000"})
+	public int nodes;
+
+	private Model model;
+	private Resource request;
+	private List<Variable> variables;
+
+	private Resource node(String prefix, int index) {
+		return this.model.createResource(AnonId.create(prefix+index));
+	}
+
+	@Setup
+	public void setUp() {
+		this.model=ModelFactory.createDefaultModel();
+		this.request=this.model.createResource(NAMESPACE+"request");
+		Property next=this.model.createProperty(NAMESPACE,"next");
+		Property value=this.model.createProperty(NAMESPACE,"value");
+		Property refers=this.model.createProperty(NAMESPACE,"refers");
+		int half=this.nodes/2;
+		for(int i=0;i<half;i++) {
+			Resource node=node("n",i);
+			node.addLiteral(value,i);
+			node("r",i).addProperty(refers,node);
+			if(i+1<half) {
+				node.addProperty(next,node("n",i+1));
+			}
+		}
+		this.variables=ImmutableList.of(ProtocolFactory.newVariable("n0"));
+	}
+
+	@Benchmark
+	public List<Constraint> parse() {
+		return ConstraintParser.fromModel(this.model,this.request,this.variables);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(
+			new OptionsBuilder().
+				include(ConstraintParserBenchmark.class.getSimpleName()).
+				build()).
+			run();
+	}
+
+}
@@ -28,11 +28,13 @@ package org.smartdeveloperhub.curator.connector.io;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.fail;
 
 import java.util.List;
+import java.util.Set;
 
 import mockit.Invocation;
 import mockit.Mock;
@@ -51,7 +53,11 @@ import org.smartdeveloperhub.curator.protocol.vocabulary.RDF;
 import org.smartdeveloperhub.curator.protocol.vocabulary.XSD;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.hp.hpl.jena.rdf.model.AnonId;
 import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
 import com.hp.hpl.jena.rdf.model.RDFNode;
 import com.hp.hpl.jena.rdf.model.Resource;
 
@@ -138,6 +144,34 @@ public class ConstraintParserTest {
 		}.verify();
 	}
 
+	@Test
+	public void testFromModel$largeGraph() throws Exception {
+		Model model=ModelFactory.createDefaultModel();
+		Resource target=model.createResource("http://www.smartdeveloperhub.org/base#target");
+		Property next=model.createProperty("urn:next");
+		Property refers=model.createProperty("urn:refers");
+		int size=2000;
+		for(int i=0;i<size;i++) {
+			Resource node=model.createResource(AnonId.create("n"+i));
+			model.createResource(AnonId.create("r"+i)).addProperty(refers,node);
+			if(i+1<size) {
+				node.addProperty(next,model.createResource(AnonId.create("n"+(i+1))));
+			}
+		}
+		List<Constraint> constraints=
+			ConstraintParser.
+				fromModel(
+					model,
+					target,
+					ImmutableList.<Variable>of(ProtocolFactory.newVariable("n0")));
+		assertThat(constraints,hasSize(2*size-1));
+		Set<String> targets=Sets.newHashSet();
+		for(Constraint constraint:constraints) {
+			assertThat(targets.add(constraint.target().name().toString()),equalTo(true));
+		}
+		assertThat(targets,hasItems("n0","n"+(size-2),"r0","r"+(size-1)));
+	}
+
 	private Binding getBinding(Model model, Resource target) {
 		List<Constraint> constraints = getConstraints(model, target);
 		assertThat(constraints,hasSize(1));
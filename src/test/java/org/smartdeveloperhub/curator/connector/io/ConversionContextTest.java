@@ -45,4 +45,25 @@ public class ConversionContextTest {
 		assertThat(ConversionContext.newInstance().withBase(null).base(),equalTo(URI.create("")));
 	}
 
+	@Test
+	public void testWireFormat$defaultsToTurtle() {
+		assertThat(ConversionContext.newInstance().wireFormat(),equalTo(WireFormat.TURTLE));
+	}
+
+	@Test
+	public void testWireFormatIsNeverNull() {
+		assertThat(ConversionContext.newInstance().withWireFormat(WireFormat.NTRIPLES).withWireFormat(null).wireFormat(),equalTo(WireFormat.TURTLE));
+	}
+
+	@Test
+	public void testWireFormat$preservedByOtherModifiers() {
+		final ConversionContext context=
+			ConversionContext.
+				newInstance().
+					withWireFormat(WireFormat.RDF_THRIFT).
+					withBase(URI.create("urn:base:")).
+					withNamespacePrefix("urn:namespace:","ns");
+		assertThat(context.wireFormat(),equalTo(WireFormat.RDF_THRIFT));
+	}
+
 }
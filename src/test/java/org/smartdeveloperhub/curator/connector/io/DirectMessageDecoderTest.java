@@ -0,0 +1,257 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
+import org.smartdeveloperhub.curator.connector.protocol.ValidationException;
+import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
+import org.smartdeveloperhub.curator.protocol.AcceptedMessage;
+import org.smartdeveloperhub.curator.protocol.Binding;
+import org.smartdeveloperhub.curator.protocol.DisconnectMessage;
+import org.smartdeveloperhub.curator.protocol.EnrichmentRequestMessage;
+import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
+import org.smartdeveloperhub.curator.protocol.FailureMessage;
+import org.smartdeveloperhub.curator.protocol.vocabulary.STOA;
+
+import com.hp.hpl.jena.graph.Node;
+
+public class DirectMessageDecoderTest {
+
+	private static final class CountingSink implements EnrichmentResponseSink {
+
+		private int bindings;
+		private int ends;
+
+		@Override
+		public boolean start(final EnrichmentResponseMessage header) {
+			return true;
+		}
+
+		@Override
+		public void addition(final Binding binding) {
+			this.bindings++;
+		}
+
+		@Override
+		public void removal(final Binding binding) {
+			this.bindings++;
+		}
+
+		@Override
+		public void end() {
+			this.ends++;
+		}
+
+	}
+
+	private MessageGraph graph(final String body) throws MessageConversionException {
+		return ModelMessageConverter.parseGraph(ConversionContext.newInstance(),body);
+	}
+
+	private Node target(final MessageGraph graph, final String type) {
+		assertThat(graph.definitions(type).size(),equalTo(1));
+		return graph.definitions(type).get(0);
+	}
+
+	@Test
+	public void testAccepted$matchesParser() throws Exception {
+		final MessageGraph graph=graph(ResourceUtil.loadResource("messages/accepted.ttl"));
+		final Node target=target(graph,STOA.ACCEPTED_TYPE);
+		final AcceptedMessage result=DirectMessageDecoder.acceptedMessage(graph,target);
+		assertThat(result,notNullValue());
+		assertThat(result.toString(),equalTo(AcceptedMessageParser.fromModel(graph.model(),graph.resource(target)).toString()));
+	}
+
+	@Test
+	public void testAccepted$invalidDefinition() throws Exception {
+		final MessageGraph graph=graph(ResourceUtil.loadResource("messages/bad_accepted.ttl"));
+		assertThat(DirectMessageDecoder.acceptedMessage(graph,target(graph,STOA.ACCEPTED_TYPE)),nullValue());
+	}
+
+	@Test
+	public void testAccepted$multivaluedProperty() throws Exception {
+		final String body=
+			ResourceUtil.loadResource("messages/accepted.ttl").
+				replace(
+					"stoa:responseNumber  \"1\"^^xsd:unsignedLong ;",
+					"stoa:responseNumber  \"1\"^^xsd:unsignedLong , \"2\"^^xsd:unsignedLong ;");
+		final MessageGraph graph=graph(body);
+		assertThat(DirectMessageDecoder.acceptedMessage(graph,target(graph,STOA.ACCEPTED_TYPE)),nullValue());
+	}
+
+	@Test
+	public void testAccepted$forbiddenReplyTo() throws Exception {
+		final String body=
+			ResourceUtil.loadResource("messages/accepted.ttl").
+				replace(
+					"stoa:responseNumber  \"1\"^^xsd:unsignedLong ;",
+					"stoa:responseNumber  \"1\"^^xsd:unsignedLong ; stoa:replyTo [ a stoa:DeliveryChannel ] ;");
+		final MessageGraph graph=graph(body);
+		assertThat(DirectMessageDecoder.acceptedMessage(graph,target(graph,STOA.ACCEPTED_TYPE)),nullValue());
+	}
+
+	@Test
+	public void testEnrichmentRequest$matchesParser() throws Exception {
+		final MessageGraph graph=graph(ResourceUtil.loadResource("messages/enrichment_request.ttl"));
+		final Node target=target(graph,STOA.ENRICHMENT_REQUEST_TYPE);
+		final EnrichmentRequestMessage result=DirectMessageDecoder.enrichmentRequestMessage(graph,target);
+		assertThat(result,notNullValue());
+		assertThat(result.toString(),equalTo(EnrichmentRequestMessageParser.fromModel(graph.model(),graph.resource(target)).toString()));
+	}
+
+	@Test
+	public void testEnrichmentResponse$fallsBackOnUntypedTargets() throws Exception {
+		final MessageGraph graph=graph(ResourceUtil.loadResource("messages/enrichment_response.ttl"));
+		final Node target=target(graph,STOA.ENRICHMENT_RESPONSE_TYPE);
+		assertThat(DirectMessageDecoder.enrichmentResponseMessage(graph,target),nullValue());
+		assertThat(EnrichmentResponseMessageParser.fromModel(graph.model(),graph.resource(target)),notNullValue());
+	}
+
+	@Test
+	public void testEnrichmentResponse$matchesParser() throws Exception {
+		final EnrichmentResponseMessage response=
+			ProtocolFactory.
+				newEnrichmentResponseMessage().
+					withMessageId(UUID.randomUUID()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(ProtocolFactory.newAgent().withAgentId(UUID.randomUUID())).
+					withResponseTo(UUID.randomUUID()).
+					withResponseNumber(3).
+					withTargetResource(URI.create("urn:example")).
+					withAddition(
+						ProtocolFactory.
+							newBinding().
+								withProperty("urn:property:literal").
+								withValue(ProtocolFactory.newLiteral().withLexicalForm("value").withDatatype("urn:datatype"))).
+					withAddition(
+						ProtocolFactory.
+							newBinding().
+								withProperty("urn:property:resource").
+								withValue(ProtocolFactory.newResource("urn:resource"))).
+					withRemoval(
+						ProtocolFactory.
+							newBinding().
+								withProperty("urn:property:variable").
+								withValue(ProtocolFactory.newVariable("other"))).
+					build();
+		final MessageGraph graph=graph(MessageUtil.newInstance().toString(response));
+		final Node target=target(graph,STOA.ENRICHMENT_RESPONSE_TYPE);
+		final EnrichmentResponseMessage result=DirectMessageDecoder.enrichmentResponseMessage(graph,target);
+		assertThat(result,notNullValue());
+		assertThat(result.toString(),equalTo(EnrichmentResponseMessageParser.fromModel(graph.model(),graph.resource(target)).toString()));
+	}
+
+	@Test
+	public void testEnrichmentResponse$streamEndsOnInvalidBinding() throws Exception {
+		final EnrichmentResponseMessage response=
+			ProtocolFactory.
+				newEnrichmentResponseMessage().
+					withMessageId(UUID.randomUUID()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(ProtocolFactory.newAgent().withAgentId(UUID.randomUUID())).
+					withResponseTo(UUID.randomUUID()).
+					withResponseNumber(1).
+					withTargetResource(URI.create("urn:example")).
+					withAddition(
+						ProtocolFactory.
+							newBinding().
+								withProperty("urn:property:first").
+								withValue(ProtocolFactory.newLiteral().withLexicalForm("value").withDatatype("urn:datatype"))).
+					withAddition(
+						ProtocolFactory.
+							newBinding().
+								withProperty("urn:property:second").
+								withValue(ProtocolFactory.newLiteral().withLexicalForm("value").withDatatype("urn:datatype"))).
+					withRemoval(
+						ProtocolFactory.
+							newBinding().
+								withProperty("urn:property:invalid").
+								withValue(ProtocolFactory.newResource("urn:invalid"))).
+					build();
+		final String body=MessageUtil.newInstance().toString(response).replace("urn:invalid","urn:invalid%zz");
+		final MessageGraph graph=graph(body);
+		final CountingSink sink=new CountingSink();
+		try {
+			DirectMessageDecoder.enrichmentResponse(graph,target(graph,STOA.ENRICHMENT_RESPONSE_TYPE),sink);
+			fail("Should not stream an invalid binding");
+		} catch (final ValidationException e) {
+			assertThat(e.getValue(),equalTo("urn:invalid%zz"));
+		}
+		assertThat(sink.bindings,equalTo(2));
+		assertThat(sink.ends,equalTo(1));
+	}
+
+	@Test
+	public void testFailure$matchesParser() throws Exception {
+		final FailureMessage failure=
+			ProtocolFactory.
+				newFailureMessage().
+					withMessageId(UUID.randomUUID()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(ProtocolFactory.newAgent().withAgentId(UUID.randomUUID())).
+					withResponseTo(UUID.randomUUID()).
+					withResponseNumber(1).
+					withCode(2).
+					withSubcode(3).
+					withReason("reason").
+					withDetail("detail").
+					build();
+		final MessageGraph graph=graph(MessageUtil.newInstance().toString(failure));
+		final Node target=target(graph,STOA.FAILURE_TYPE);
+		final FailureMessage result=DirectMessageDecoder.failureMessage(graph,target);
+		assertThat(result,notNullValue());
+		assertThat(result.toString(),equalTo(FailureMessageParser.fromModel(graph.model(),graph.resource(target)).toString()));
+	}
+
+	@Test
+	public void testDisconnect$matchesParser() throws Exception {
+		final DisconnectMessage disconnect=
+			ProtocolFactory.
+				newDisconnectMessage().
+					withMessageId(UUID.randomUUID()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(ProtocolFactory.newAgent().withAgentId(UUID.randomUUID())).
+					build();
+		final MessageGraph graph=graph(MessageUtil.newInstance().toString(disconnect));
+		final Node target=target(graph,STOA.DISCONNECT_TYPE);
+		final DisconnectMessage result=DirectMessageDecoder.disconnectMessage(graph,target);
+		assertThat(result,notNullValue());
+		assertThat(result.toString(),equalTo(DisconnectMessageParser.fromModel(graph.model(),graph.resource(target)).toString()));
+	}
+
+}
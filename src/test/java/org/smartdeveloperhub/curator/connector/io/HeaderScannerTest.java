@@ -0,0 +1,99 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory;
+import org.smartdeveloperhub.curator.protocol.DisconnectMessage;
+import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
+
+import com.google.common.base.Charsets;
+
+public class HeaderScannerTest {
+
+	private EnrichmentResponseMessage response(final UUID responseTo) {
+		return
+			ProtocolFactory.
+				newEnrichmentResponseMessage().
+					withMessageId(UUID.randomUUID()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(ProtocolFactory.newAgent().withAgentId(UUID.randomUUID())).
+					withResponseTo(responseTo).
+					withResponseNumber(1).
+					withTargetResource(URI.create("urn:example")).
+					withAddition(
+						ProtocolFactory.
+							newBinding().
+								withProperty("urn:property:literal").
+								withValue(ProtocolFactory.newLiteral().withLexicalForm(UUID.randomUUID().toString()).withDatatype("urn:datatype"))).
+					build();
+	}
+
+	@Test
+	public void testResponseTo$everyWireFormat() throws Exception {
+		final UUID responseTo=UUID.randomUUID();
+		final EnrichmentResponseMessage response=response(responseTo);
+		for(final WireFormat format:WireFormat.values()) {
+			final MessageUtil util=MessageUtil.newInstance().withConversionContext(ConversionContext.newInstance().withWireFormat(format));
+			assertThat(format.toString(),HeaderScanner.responseTo(util.toBytes(response)),equalTo(responseTo.toString()));
+		}
+	}
+
+	@Test
+	public void testResponseTo$fullIRI() throws Exception {
+		final String body="<urn:response> <http://www.smartdeveloperhub.org/vocabulary/stoa#responseTo> \"F9BFD4D6-7249-4845-B042-7436A44AF198\" .";
+		assertThat(HeaderScanner.responseTo(body.getBytes(Charsets.UTF_8)),equalTo("f9bfd4d6-7249-4845-b042-7436a44af198"));
+	}
+
+	@Test
+	public void testResponseTo$notAResponse() throws Exception {
+		final DisconnectMessage disconnect=
+			ProtocolFactory.
+				newDisconnectMessage().
+					withMessageId(UUID.randomUUID()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(ProtocolFactory.newAgent().withAgentId(UUID.randomUUID())).
+					build();
+		assertThat(HeaderScanner.responseTo(MessageUtil.newInstance().toBytes(disconnect)),nullValue());
+	}
+
+	@Test
+	public void testResponseTo$noValue() throws Exception {
+		assertThat(HeaderScanner.responseTo("stoa:responseTo \"not a UUID\"".getBytes(Charsets.UTF_8)),nullValue());
+		assertThat(HeaderScanner.responseTo("stoa:responseTo".getBytes(Charsets.UTF_8)),nullValue());
+		assertThat(HeaderScanner.responseTo(new byte[0]),nullValue());
+	}
+
+}
@@ -35,7 +35,9 @@ import org.junit.runners.Suite.SuiteClasses;
 	EnrichmentUtilTest.class,
 	BindingValidatorFactoryTest.class,
 	ConversionContextTest.class,
+	WireFormatTest.class,
 	ParserTest.class,
+	QueryPlanTest.class,
 	AgentParserTest.class,
 	BrokerParserTest.class,
 	DeliveryChannelParserTest.class,
@@ -44,6 +46,8 @@ import org.junit.runners.Suite.SuiteClasses;
 	EnrichmentRequestMessageParserTest.class,
 	BindingParserTest.class,
 	EnrichmentResponseMessageParserTest.class,
+	DirectMessageDecoderTest.class,
+	HeaderScannerTest.class,
 	MessageUtilTest.class
 })
 public class IOTestsSuite {
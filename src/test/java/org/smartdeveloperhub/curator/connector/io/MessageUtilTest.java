@@ -27,8 +27,13 @@
 package org.smartdeveloperhub.curator.connector.io;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.fail;
 import static org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.newAcceptedMessage;
 import static org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.newAgent;
@@ -45,10 +50,14 @@ import static org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.n
 import static org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.newResource;
 import static org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.newVariable;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.Date;
+import java.util.List;
+import java.util.Random;
 import java.util.UUID;
 
 import mockit.Deencapsulation;
@@ -66,6 +75,7 @@ import org.smartdeveloperhub.curator.connector.protocol.ProtocolFactory.FailureM
 import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
 import org.smartdeveloperhub.curator.protocol.AcceptedMessage;
 import org.smartdeveloperhub.curator.protocol.Agent;
+import org.smartdeveloperhub.curator.protocol.Binding;
 import org.smartdeveloperhub.curator.protocol.DisconnectMessage;
 import org.smartdeveloperhub.curator.protocol.EnrichmentRequestMessage;
 import org.smartdeveloperhub.curator.protocol.EnrichmentResponseMessage;
@@ -75,6 +85,11 @@ import org.smartdeveloperhub.curator.protocol.vocabulary.RDF;
 import org.smartdeveloperhub.curator.protocol.vocabulary.STOA;
 import org.smartdeveloperhub.curator.protocol.vocabulary.XSD;
 
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.hp.hpl.jena.graph.Node;
+
 @RunWith(JMockit.class)
 public class MessageUtilTest {
 
@@ -315,6 +330,42 @@ public class MessageUtilTest {
 		assertThat(Deencapsulation.getField(sut,"context"),notNullValue());
 	}
 
+	@Test
+	public void testWithConversionContext$returnsBoundInstance() throws Exception {
+		final MessageUtil sut = MessageUtil.newInstance();
+		final ConversionContext context = context();
+		final MessageUtil bound = sut.withConversionContext(context);
+		assertThat(bound,not(sameInstance(sut)));
+		assertThat(Deencapsulation.getField(bound,"context"),sameInstance((Object)context));
+		assertThat(Deencapsulation.getField(sut,"context"),not(sameInstance((Object)context)));
+	}
+
+	@Test
+	public void testNewInstance$shared() throws Exception {
+		assertThat(MessageUtil.newInstance(),sameInstance(MessageUtil.newInstance()));
+	}
+
+	@Test
+	public void testRegisterConverter$invalidatesResolvedConverters() {
+		final MessageUtil sut = MessageUtil.newInstance();
+		MessageUtil.registerConverter(UnknownMessage.class,null);
+		try {
+			sut.fromString("body",UnknownMessage.class);
+			fail("Should not parse an unsupported class");
+		} catch (final MessageConversionException e) {
+			assertThat(e.getMessage(),startsWith("Cannot convert messages of type"));
+		}
+		MessageUtil.registerConverter(UnknownMessage.class,UnknownMessageConverter.class);
+		try {
+			sut.fromString("body",UnknownMessage.class);
+			fail("Should not parse an supported class if the converter cannot be instantiated");
+		} catch (final MessageConversionException e) {
+			assertThat(e.getMessage(),startsWith("Could not instantiate converter"));
+		} finally {
+			MessageUtil.registerConverter(UnknownMessage.class,null);
+		}
+	}
+
 	@Test
 	public void testUnsupportedMessageClass() {
 		MessageUtil.registerConverter(UnknownMessage.class,null);
@@ -387,6 +438,241 @@ public class MessageUtilTest {
 		}
 	}
 
+	@Test
+	public void testFromString$polymorphic() throws Exception {
+		final MessageUtil sut=MessageUtil.newInstance().withConversionContext(context());
+		final Message[] messages={request(true),response(true),accepted(),failure(true),disconnect()};
+		for(final Message message:messages) {
+			final Message result=sut.fromString(sut.toString(message));
+			assertThat(result,instanceOf(message.getClass().getInterfaces()[0]));
+			assertThat(result.messageId(),equalTo(message.messageId()));
+		}
+	}
+
+	@Test
+	public void testToBytes$wireFormats() throws Exception {
+		for(final WireFormat format:WireFormat.values()) {
+			final MessageUtil sut=MessageUtil.newInstance().withConversionContext(context().withWireFormat(format));
+			final Message[] messages={request(true),response(true),accepted(),failure(true),disconnect()};
+			for(final Message message:messages) {
+				final byte[] body=sut.toBytes(message);
+				final Message result=sut.decodeAny(body,format,message.getClass().getInterfaces()[0]);
+				assertThat(format+" "+result,result.messageId(),equalTo(message.messageId()));
+				final Message typed=sut.fromBytes(body,format,message.getClass().getInterfaces()[0].asSubclass(Message.class));
+				assertThat(typed.messageId(),equalTo(message.messageId()));
+			}
+		}
+	}
+
+	@Test
+	public void testToBytes$matchesSingleFormatSerialization() throws Exception {
+		final FailureMessage failure=failure(true);
+		for(final WireFormat format:WireFormat.values()) {
+			final MessageUtil sut=MessageUtil.newInstance().withConversionContext(ConversionContext.newInstance().withWireFormat(format));
+			final FailureMessage result=sut.fromBytes(sut.toBytes(failure),format,FailureMessage.class);
+			assertThat(result.toString(),equalTo(failure.toString()));
+		}
+	}
+
+	@Test
+	public void testToString$nTriples() throws Exception {
+		final MessageUtil sut=MessageUtil.newInstance().withConversionContext(ConversionContext.newInstance().withWireFormat(WireFormat.NTRIPLES));
+		final String body=sut.toString(accepted());
+		assertThat(body,not(containsString("@prefix")));
+		assertThat(sut.fromString(body,AcceptedMessage.class),notNullValue());
+		assertThat(MessageUtil.newInstance().fromString(body,AcceptedMessage.class),notNullValue());
+	}
+
+	@Test
+	public void testFromString$turtleInNTriplesContext() throws Exception {
+		final String body=MessageUtil.newInstance().toString(accepted());
+		assertThat(body,containsString("@prefix"));
+		final MessageUtil sut=MessageUtil.newInstance().withConversionContext(ConversionContext.newInstance().withWireFormat(WireFormat.NTRIPLES));
+		assertThat(sut.fromString(body,AcceptedMessage.class),notNullValue());
+		assertThat(sut.fromString(body),instanceOf(AcceptedMessage.class));
+	}
+
+	@Test
+	public void testFromString$turtleInBinaryContext() throws Exception {
+		final String body=MessageUtil.newInstance().toString(accepted());
+		final MessageUtil sut=MessageUtil.newInstance().withConversionContext(ConversionContext.newInstance().withWireFormat(WireFormat.RDF_THRIFT));
+		assertThat(sut.fromString(body,AcceptedMessage.class),notNullValue());
+		assertThat(sut.fromString(body),instanceOf(AcceptedMessage.class));
+	}
+
+	@Test
+	public void testToString$binaryWireFormat() throws Exception {
+		final MessageUtil sut=MessageUtil.newInstance().withConversionContext(ConversionContext.newInstance().withWireFormat(WireFormat.RDF_THRIFT));
+		try {
+			sut.toString(accepted());
+			fail("Should not serialize a binary wire format as text");
+		} catch (final MessageConversionException e) {
+			assertThat(e.getMessage(),equalTo("Cannot serialize message as text using binary wire format application/rdf+thrift"));
+		}
+	}
+
+	@Test
+	public void testFromBytes$badBody() {
+		try {
+			MessageUtil.newInstance().fromBytes(new byte[]{(byte)0xFF,(byte)0xFF,(byte)0xFF,(byte)0xFF,(byte)0xFF,(byte)0xFF,(byte)0xFF,(byte)0xFF},WireFormat.RDF_THRIFT,AcceptedMessage.class);
+			fail("Should not parse an bad body");
+		} catch (final MessageConversionException e) {
+			assertThat(e.getMessage(),equalTo("Could not parse body (8 bytes) as RDF-THRIFT"));
+		}
+	}
+
+	@Test
+	public void testFromBytes$byteBuffers() throws Exception {
+		for(final WireFormat format:WireFormat.values()) {
+			final MessageUtil sut=MessageUtil.newInstance().withConversionContext(context().withWireFormat(format));
+			final FailureMessage failure=failure(true);
+			final byte[] body=sut.toBytes(failure);
+			final byte[] padded=new byte[body.length+6];
+			System.arraycopy(body,0,padded,3,body.length);
+			final ByteBuffer slice=ByteBuffer.wrap(padded,3,body.length).slice();
+			final ByteBuffer direct=ByteBuffer.allocateDirect(body.length);
+			direct.put(body).flip();
+			assertThat(sut.fromBytes(slice,format,FailureMessage.class).toString(),equalTo(failure.toString()));
+			assertThat(sut.fromBytes(direct,format,FailureMessage.class).toString(),equalTo(failure.toString()));
+			assertThat(sut.decodeAny(direct,format,AcceptedMessage.class,FailureMessage.class),instanceOf(FailureMessage.class));
+			assertThat(direct.remaining(),equalTo(body.length));
+		}
+	}
+
+	@Test
+	public void testFromStream() throws Exception {
+		for(final WireFormat format:WireFormat.values()) {
+			final MessageUtil sut=MessageUtil.newInstance().withConversionContext(context().withWireFormat(format));
+			final FailureMessage failure=failure(true);
+			final byte[] body=sut.toBytes(failure);
+			assertThat(sut.fromStream(new ByteArrayInputStream(body),format,FailureMessage.class).toString(),equalTo(failure.toString()));
+			assertThat(sut.decodeAny(new ByteArrayInputStream(body),format,AcceptedMessage.class,FailureMessage.class),instanceOf(FailureMessage.class));
+		}
+	}
+
+	@Test
+	public void testFromStream$badBody() {
+		try {
+			MessageUtil.newInstance().fromStream(new ByteArrayInputStream("bad body".getBytes()),WireFormat.TURTLE,AcceptedMessage.class);
+			fail("Should not parse an bad body");
+		} catch (final MessageConversionException e) {
+			assertThat(e.getMessage(),equalTo("Could not parse body stream as Turtle"));
+		}
+	}
+
+	@Test
+	public void testFromBytes$badBody$text() {
+		try {
+			MessageUtil.newInstance().fromBytes(ByteBuffer.wrap("bad body".getBytes(Charsets.UTF_8)),WireFormat.TURTLE,AcceptedMessage.class);
+			fail("Should not parse an bad body");
+		} catch (final MessageConversionException e) {
+			assertThat(e.getMessage(),equalTo("Could not parse body 'bad body' as Turtle"));
+		}
+	}
+
+	@Test
+	public void testToBytes$reusesSerializationBuffer() throws Exception {
+		final MessageUtil sut=MessageUtil.newInstance();
+		final FailureMessage small=failure(false);
+		final byte[] expected=sut.toString(small).getBytes(Charsets.UTF_8);
+		final StringBuilder large=new StringBuilder();
+		while(large.length()<128*1024) {
+			large.append("Large failure reason \u00e9\u20ac\ud83d\ude00 ");
+		}
+		final FailureMessage big=
+			newFailureMessage().
+				withMessageId(UUID.randomUUID()).
+				withSubmittedOn(new Date()).
+				withSubmittedBy(
+					newAgent().
+						withAgentId(UUID.randomUUID())).
+				withResponseTo(UUID.randomUUID()).
+				withResponseNumber(1).
+				withCode(1).
+				withReason(large.toString()).
+				build();
+		assertThat(sut.toBytes(small),equalTo(expected));
+		assertThat(sut.toBytes(big),equalTo(sut.toString(big).getBytes(Charsets.UTF_8)));
+		assertThat(sut.toBytes(small),equalTo(expected));
+	}
+
+	@Test
+	public void testDecodeAny$matchesSingleTypeDecoding() throws Exception {
+		final String body=MessageUtil.newInstance().toString(failure(true));
+		final Message result=MessageUtil.newInstance().decodeAny(body,AcceptedMessage.class,FailureMessage.class);
+		assertThat(result,instanceOf(FailureMessage.class));
+		assertThat(result.toString(),equalTo(MessageUtil.newInstance().fromString(body,FailureMessage.class).toString()));
+	}
+
+	@Test
+	public void testDecodeAny$noDefinition$singleType() {
+		try {
+			MessageUtil.newInstance().decodeAny(ResourceUtil.loadResource("messages/accepted.ttl"),FailureMessage.class);
+			fail("Should not decode input with no definition");
+		} catch (final NoDefinitionFoundException e) {
+			assertThat(e.getMissingDefinitionType(),equalTo(STOA.FAILURE_TYPE));
+		} catch(final MessageConversionException e) {
+			fail("Unexpected failure "+e.getMessage());
+		}
+	}
+
+	@Test
+	public void testDecodeAny$noDefinition$manyTypes() {
+		try {
+			MessageUtil.newInstance().decodeAny(ResourceUtil.loadResource("messages/accepted.ttl"),FailureMessage.class,DisconnectMessage.class);
+			fail("Should not decode input with no definition");
+		} catch (final NoDefinitionFoundException e) {
+			assertThat(e.getMissingDefinitionType(),equalTo(STOA.MESSAGE_TYPE));
+		} catch(final MessageConversionException e) {
+			fail("Unexpected failure "+e.getMessage());
+		}
+	}
+
+	@Test
+	public void testDecodeAny$manyDefinitions() {
+		try {
+			MessageUtil.newInstance().decodeAny(ResourceUtil.loadResource("messages/multiple_accepted.ttl"),AcceptedMessage.class,FailureMessage.class);
+			fail("Should not decode input with multiple definitions");
+		} catch (final TooManyDefinitionsFoundException e) {
+			assertThat(e.getDefinitionType(),equalTo(STOA.ACCEPTED_TYPE));
+			assertThat(e.getDefinitionsFound(),equalTo(2));
+		} catch(final MessageConversionException e) {
+			fail("Unexpected failure "+e.getMessage());
+		}
+	}
+
+	@Test
+	public void testDecodeAny$invalidDefinition() {
+		try {
+			MessageUtil.newInstance().decodeAny(ResourceUtil.loadResource("messages/bad_accepted.ttl"),AcceptedMessage.class,FailureMessage.class);
+			fail("Should not decode invalid definitions");
+		} catch (final InvalidDefinitionFoundException e) {
+			assertThat(e.getDefinitionType(),equalTo(STOA.ACCEPTED_TYPE));
+		} catch(final MessageConversionException e) {
+			fail("Unexpected failure "+e.getMessage());
+		}
+	}
+
+	@Test
+	public void testDecodeAny$notAMessage() {
+		try {
+			MessageUtil.newInstance().decodeAny("body",String.class);
+			fail("Should not decode unsupported classes");
+		} catch (final MessageConversionException e) {
+			assertThat(e.getMessage(),equalTo("Cannot convert messages of type 'java.lang.String'"));
+		}
+	}
+
+	@Test
+	public void testDecodeAny$noTypes() {
+		try {
+			MessageUtil.newInstance().decodeAny("body");
+			fail("Should not decode without message types");
+		} catch (final MessageConversionException e) {
+			assertThat(e.getMessage(),equalTo("No message types specified"));
+		}
+	}
+
 	@Test
 	public void testToString$failure() throws Exception {
 		new MockUp<StringWriter>() {
@@ -459,6 +745,78 @@ public class MessageUtilTest {
 		System.out.println();
 	}
 
+	private String randomText(final Random random) {
+		final String specials="\"\\\n\r\t\b\f\u0000\u007F'<>@^#\u00E9\u20AC";
+		final StringBuilder builder=new StringBuilder();
+		final int length=1+random.nextInt(24);
+		for(int i=0;i<length;i++) {
+			if(random.nextInt(3)==0) {
+				builder.append(specials.charAt(random.nextInt(specials.length())));
+			} else {
+				builder.append((char)(0x20+random.nextInt(0x5F)));
+			}
+		}
+		return builder.toString();
+	}
+
+	@Test
+	public void testRoundtrip$failure$randomText() throws Exception {
+		final MessageUtil sut=MessageUtil.newInstance();
+		final Random random=new Random(20151014L);
+		for(int i=0;i<200;i++) {
+			final FailureMessage failure=
+				newFailureMessage().
+					withMessageId(UUID.randomUUID()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(
+						newAgent().
+							withAgentId(UUID.randomUUID())).
+					withResponseTo(UUID.randomUUID()).
+					withResponseNumber(1+random.nextInt(1000)).
+					withCode(random.nextInt(1000)).
+					withSubcode(random.nextInt(1000)).
+					withReason(randomText(random)).
+					withDetail(randomText(random)).
+					build();
+			final FailureMessage result=sut.fromString(sut.toString(failure),FailureMessage.class);
+			assertThat(result.toString(),equalTo(failure.toString()));
+		}
+	}
+
+	@Test
+	public void testRoundtrip$enrichmentResponse$randomLiterals() throws Exception {
+		final MessageUtil sut=MessageUtil.newInstance();
+		final Random random=new Random(20151015L);
+		for(int i=0;i<200;i++) {
+			final EnrichmentResponseMessageBuilder builder=
+				newEnrichmentResponseMessage().
+					withMessageId(UUID.randomUUID()).
+					withSubmittedOn(new Date()).
+					withSubmittedBy(
+						newAgent().
+							withAgentId(UUID.randomUUID())).
+					withResponseTo(UUID.randomUUID()).
+					withResponseNumber(1+random.nextInt(1000)).
+					withTargetResource(URI.create("urn:execution:"+i));
+			final int additions=1+random.nextInt(4);
+			for(int j=0;j<additions;j++) {
+				builder.withAddition(
+					newBinding().
+						withProperty(CI+"property"+j).
+						withValue(
+							newLiteral().
+								withLexicalForm(randomText(random)).
+								withDatatype(XSD.STRING_TYPE).
+								withLanguage("")));
+			}
+			final EnrichmentResponseMessage response=builder.build();
+			final EnrichmentResponseMessage result=sut.fromString(sut.toString(response),EnrichmentResponseMessage.class);
+			assertThat(result.messageId(),equalTo(response.messageId()));
+			assertThat(result.targetResource(),equalTo(response.targetResource()));
+			assertThat(Sets.newHashSet(result.additions()),equalTo(Sets.newHashSet(response.additions())));
+		}
+	}
+
 	@Test
 	public void testRoundtrip$disconnect() throws Exception {
 		final String strResponse = MessageUtil.newInstance().toString(disconnect());
@@ -467,4 +825,106 @@ public class MessageUtilTest {
 		System.out.println();
 	}
 
+	private static final class RecordingSink implements EnrichmentResponseSink {
+
+		private final boolean accept;
+		private EnrichmentResponseMessage header;
+		private final List<Binding> additions=Lists.newArrayList();
+		private final List<Binding> removals=Lists.newArrayList();
+		private int ends;
+
+		private RecordingSink(boolean accept) {
+			this.accept=accept;
+		}
+
+		@Override
+		public boolean start(EnrichmentResponseMessage header) {
+			this.header=header;
+			return this.accept;
+		}
+
+		@Override
+		public void addition(Binding binding) {
+			this.additions.add(binding);
+		}
+
+		@Override
+		public void removal(Binding binding) {
+			this.removals.add(binding);
+		}
+
+		@Override
+		public void end() {
+			this.ends++;
+		}
+
+	}
+
+	private void verifyStreamed(final RecordingSink sink, final EnrichmentResponseMessage response) {
+		assertThat(sink.header.messageId(),equalTo(response.messageId()));
+		assertThat(sink.header.responseTo(),equalTo(response.responseTo()));
+		assertThat(sink.header.responseNumber(),equalTo(response.responseNumber()));
+		assertThat(sink.header.targetResource(),equalTo(response.targetResource()));
+		assertThat(sink.header.additions().isEmpty(),equalTo(true));
+		assertThat(sink.header.removals().isEmpty(),equalTo(true));
+		assertThat(Sets.newHashSet(sink.additions),equalTo(Sets.newHashSet(response.additions())));
+		assertThat(Sets.newHashSet(sink.removals),equalTo(Sets.newHashSet(response.removals())));
+		assertThat(sink.ends,equalTo(1));
+	}
+
+	@Test
+	public void testStreamEnrichmentResponse() throws Exception {
+		final EnrichmentResponseMessage response=response(true);
+		for(final WireFormat format:WireFormat.values()) {
+			final MessageUtil sut=MessageUtil.newInstance().withConversionContext(context().withWireFormat(format));
+			final byte[] body=sut.toBytes(response);
+			final RecordingSink sink=new RecordingSink(true);
+			sut.streamEnrichmentResponse(body,format,sink);
+			verifyStreamed(sink,sut.fromBytes(body,format,EnrichmentResponseMessage.class));
+		}
+	}
+
+	@Test
+	public void testStreamEnrichmentResponse$string() throws Exception {
+		final String body=MessageUtil.newInstance().toString(response(true));
+		final RecordingSink sink=new RecordingSink(true);
+		MessageUtil.newInstance().streamEnrichmentResponse(body,sink);
+		verifyStreamed(sink,MessageUtil.newInstance().fromString(body,EnrichmentResponseMessage.class));
+	}
+
+	@Test
+	public void testStreamEnrichmentResponse$notInterested() throws Exception {
+		final EnrichmentResponseMessage response=response(true);
+		final RecordingSink sink=new RecordingSink(false);
+		MessageUtil.newInstance().streamEnrichmentResponse(MessageUtil.newInstance().toString(response),sink);
+		assertThat(sink.header.messageId(),equalTo(response.messageId()));
+		assertThat(sink.additions.isEmpty(),equalTo(true));
+		assertThat(sink.removals.isEmpty(),equalTo(true));
+		assertThat(sink.ends,equalTo(0));
+	}
+
+	@Test
+	public void testStreamEnrichmentResponse$replaysParsedResponseWhenUndecided() throws Exception {
+		new MockUp<DirectMessageDecoder>() {
+			@Mock
+			boolean enrichmentResponse(final MessageGraph graph, final Node node, final EnrichmentResponseSink sink) {
+				return false;
+			}
+		};
+		final String body=MessageUtil.newInstance().toString(response(true));
+		final RecordingSink sink=new RecordingSink(true);
+		MessageUtil.newInstance().streamEnrichmentResponse(body,sink);
+		verifyStreamed(sink,MessageUtil.newInstance().fromString(body,EnrichmentResponseMessage.class));
+	}
+
+	@Test
+	public void testStreamEnrichmentResponse$noDefinition() throws Exception {
+		try {
+			MessageUtil.newInstance().streamEnrichmentResponse(MessageUtil.newInstance().toString(accepted()),new RecordingSink(true));
+			fail("Should not stream a body without enrichment response");
+		} catch (final NoDefinitionFoundException e) {
+			assertThat(e.getMissingDefinitionType(),equalTo(STOA.ENRICHMENT_RESPONSE_TYPE));
+		}
+	}
+
 }
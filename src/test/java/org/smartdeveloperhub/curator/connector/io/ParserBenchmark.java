@@ -0,0 +1,192 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
+
+import com.google.common.collect.Lists;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.QueryFactory;
+import com.hp.hpl.jena.query.QuerySolutionMap;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.ResIterator;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.sparql.engine.QueryIterator;
+
+/**
+ * Compares evaluating the parser queries with a new {@code QueryExecution}
+ * per target resource (the former {@code Parser} strategy) against
+ * evaluating their precompiled {@link QueryPlan}. Run the {@code main}
+ * method using the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=10,time=1)
+@Fork(1)
+public class ParserBenchmark {
+
+	private static final class Target {
+
+		private final Query query;
+		private final QueryPlan plan;
+		private final String variable;
+		private final Model model;
+		private final Resource resource;
+
+		private Target(Query query, QueryPlan plan, String variable, Model model, Resource resource) {
+			this.query=query;
+			this.plan=plan;
+			this.variable=variable;
+			this.model=model;
+			this.resource=resource;
+		}
+
+	}
+
+	private static final String[][] QUERIES={
+		{"agent.sparql","agent"},
+		{"bindings.sparql","target"},
+		{"broker.sparql","broker"},
+		{"deliveryChannel.sparql","deliveryChannel"},
+		{"enrichmentRequest.sparql","enrichmentRequest"},
+		{"enrichmentResponse.sparql","enrichmentResponse"},
+		{"filters.sparql","enrichmentRequest"},
+	};
+
+	private static final String[] DATA={
+		"messages/enrichment_request.ttl",
+		"messages/enrichment_response.ttl",
+	};
+
+	private List<Target> targets;
+
+	private Model loadData(String data) {
+		Model model=ModelFactory.createDefaultModel();
+		StringReader in = new StringReader(ResourceUtil.loadResource(data));
+		model.read(in, "http://www.smartdeveloperhub.org/base#","TURTLE");
+		return model;
+	}
+
+	@Setup
+	public void setUp() {
+		this.targets=Lists.newArrayList();
+		for(String data:DATA) {
+			Model model=loadData(data);
+			for(String[] entry:QUERIES) {
+				String rawQuery=ResourceUtil.loadResource(ParserBenchmark.class,entry[0]);
+				Query query=QueryFactory.create(rawQuery);
+				QueryPlan plan=QueryPlan.compile(rawQuery);
+				ResIterator subjects=model.listSubjects();
+				while(subjects.hasNext()) {
+					Target target=new Target(query,plan,entry[1],model,subjects.next());
+					if(queryPlan(target)>0) {
+						this.targets.add(target);
+					}
+				}
+			}
+		}
+	}
+
+	private int queryExecution(Target target) {
+		QuerySolutionMap parameters=new QuerySolutionMap();
+		parameters.add(target.variable,target.resource);
+		QueryExecution execution=QueryExecutionFactory.create(target.query,target.model);
+		execution.setInitialBinding(parameters);
+		try {
+			int count=0;
+			ResultSet results=execution.execSelect();
+			while(results.hasNext()) {
+				results.nextSolution();
+				count++;
+			}
+			return count;
+		} finally {
+			execution.close();
+		}
+	}
+
+	private int queryPlan(Target target) {
+		QueryIterator results=target.plan.execute(target.model,target.variable,target.resource);
+		try {
+			int count=0;
+			while(results.hasNext()) {
+				results.nextBinding();
+				count++;
+			}
+			return count;
+		} finally {
+			results.close();
+		}
+	}
+
+	@Benchmark
+	public void queryExecution(Blackhole blackhole) {
+		for(Target target:this.targets) {
+			blackhole.consume(queryExecution(target));
+		}
+	}
+
+	@Benchmark
+	public void queryPlan(Blackhole blackhole) {
+		for(Target target:this.targets) {
+			blackhole.consume(queryPlan(target));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(
+			new OptionsBuilder().
+				include(ParserBenchmark.class.getSimpleName()).
+				build()).
+			run();
+	}
+
+}
@@ -44,8 +44,6 @@ import org.smartdeveloperhub.curator.connector.util.Builder;
 import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
 import org.smartdeveloperhub.curator.protocol.vocabulary.STOA;
 
-import com.hp.hpl.jena.query.Query;
-import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.RDFNode;
@@ -68,8 +66,8 @@ public class ParserTest {
 
 	public static class CustomParser extends Parser<Custom, CustomBuilder> {
 
-		private static final Query QUERY=
-				QueryFactory.create(
+		private static final QueryPlan QUERY=
+				QueryPlan.compile(
 					ResourceUtil.loadResource("queries/customMessage.sparql"));
 
 		private CustomParser(Model model, Resource resource) {
@@ -0,0 +1,173 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import org.smartdeveloperhub.curator.connector.util.ResourceUtil;
+
+import com.google.common.collect.Lists;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.QueryFactory;
+import com.hp.hpl.jena.query.QuerySolution;
+import com.hp.hpl.jena.query.QuerySolutionMap;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.ResIterator;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.sparql.core.ResultBinding;
+import com.hp.hpl.jena.sparql.engine.QueryIterator;
+
+public class QueryPlanTest {
+
+	private static final String[][] QUERIES={
+		{"accepted.sparql","accepted"},
+		{"agent.sparql","agent"},
+		{"bindings.sparql","target"},
+		{"broker.sparql","broker"},
+		{"deliveryChannel.sparql","deliveryChannel"},
+		{"disconnect.sparql","disconnect"},
+		{"enrichmentRequest.sparql","enrichmentRequest"},
+		{"enrichmentResponse.sparql","enrichmentResponse"},
+		{"failure.sparql","failure"},
+		{"filters.sparql","enrichmentRequest"},
+	};
+
+	private static final String[] DATA={
+		"messages/accepted.ttl",
+		"messages/enrichment_request.ttl",
+		"messages/enrichment_response.ttl",
+		"messages/multiple_accepted.ttl",
+		"data/brokers.ttl",
+	};
+
+	private Model loadData(String data) {
+		Model model=ModelFactory.createDefaultModel();
+		StringReader in = new StringReader(ResourceUtil.loadResource(data));
+		model.read(in, "http://www.smartdeveloperhub.org/base#","TURTLE");
+		return model;
+	}
+
+	private String describe(QuerySolution solution, List<String> variables) {
+		StringBuilder builder=new StringBuilder();
+		for(String variable:variables) {
+			builder.append(variable).append("=").append(solution.get(variable)).append(";");
+		}
+		return builder.toString();
+	}
+
+	private List<String> executeQuery(Query query, Model model, String variable, RDFNode value) {
+		List<String> result=Lists.newArrayList();
+		QuerySolutionMap parameters=new QuerySolutionMap();
+		parameters.add(variable,value);
+		QueryExecution execution=QueryExecutionFactory.create(query,model);
+		execution.setInitialBinding(parameters);
+		try {
+			ResultSet results=execution.execSelect();
+			while(results.hasNext()) {
+				result.add(describe(results.nextSolution(),query.getResultVars()));
+			}
+		} finally {
+			execution.close();
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private List<String> executePlan(QueryPlan plan, List<String> variables, Model model, String variable, RDFNode value) {
+		List<String> result=Lists.newArrayList();
+		QueryIterator results=plan.execute(model,variable,value);
+		try {
+			while(results.hasNext()) {
+				result.add(describe(new ResultBinding(model,results.nextBinding()),variables));
+			}
+		} finally {
+			results.close();
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	@Test
+	public void testExecute$matchesQueryExecution() {
+		int matches=0;
+		for(String[] entry:QUERIES) {
+			String queryResource=entry[0];
+			String target=entry[1];
+			String rawQuery=ResourceUtil.loadResource(QueryPlanTest.class,queryResource);
+			Query query=QueryFactory.create(rawQuery);
+			QueryPlan plan=QueryPlan.compile(rawQuery);
+			List<String> variables=query.getResultVars();
+			for(String data:DATA) {
+				Model model=loadData(data);
+				ResIterator subjects=model.listSubjects();
+				while(subjects.hasNext()) {
+					Resource subject=subjects.next();
+					List<String> expected=executeQuery(query,model,target,subject);
+					assertThat(queryResource+" on "+subject+" in "+data,executePlan(plan,variables,model,target,subject),equalTo(expected));
+					if(!expected.isEmpty()) {
+						matches++;
+					}
+				}
+			}
+		}
+		assertThat(matches>QUERIES.length,equalTo(true));
+	}
+
+	@Test
+	public void testExecute$keepsTargetBound() {
+		QueryPlan plan=QueryPlan.compile(ResourceUtil.loadResource(QueryPlanTest.class,"broker.sparql"));
+		Model model=loadData("data/brokers.ttl");
+		Iterator<Resource> subjects=model.listSubjects();
+		List<RDFNode> targets=Lists.newArrayList();
+		while(subjects.hasNext()) {
+			Resource subject=subjects.next();
+			QueryIterator results=plan.execute(model,"broker",subject);
+			try {
+				while(results.hasNext()) {
+					targets.add(new ResultBinding(model,results.nextBinding()).get("broker"));
+					assertThat(targets.get(targets.size()-1),equalTo((RDFNode)subject));
+				}
+			} finally {
+				results.close();
+			}
+		}
+		assertThat(targets.isEmpty(),equalTo(false));
+	}
+
+}
@@ -0,0 +1,65 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.io;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.Test;
+
+public class WireFormatTest {
+
+	@Test
+	public void testFromContentType$roundtrip() {
+		for(final WireFormat format:WireFormat.values()) {
+			assertThat(WireFormat.fromContentType(format.contentType()),equalTo(format));
+		}
+	}
+
+	@Test
+	public void testFromContentType$ignoresParametersAndCase() {
+		assertThat(WireFormat.fromContentType("Application/N-Triples ; charset=utf-8"),equalTo(WireFormat.NTRIPLES));
+	}
+
+	@Test
+	public void testFromContentType$missingDefaultsToTurtle() {
+		assertThat(WireFormat.fromContentType(null),equalTo(WireFormat.TURTLE));
+	}
+
+	@Test
+	public void testFromContentType$unknownDefaultsToTurtle() {
+		assertThat(WireFormat.fromContentType("application/json"),equalTo(WireFormat.TURTLE));
+	}
+
+	@Test
+	public void testIsBinary() {
+		assertThat(WireFormat.TURTLE.isBinary(),equalTo(false));
+		assertThat(WireFormat.NTRIPLES.isBinary(),equalTo(false));
+		assertThat(WireFormat.RDF_THRIFT.isBinary(),equalTo(true));
+	}
+
+}
@@ -38,6 +38,7 @@ import org.junit.runners.Suite.SuiteClasses;
 	ImmutableResourceHelperTest.class,
 	ImmutablePropertyHelperTest.class,
 	ModelUtilTest.class,
+	TurtleModelHelperTest.class,
 	SparqlFunctionsTest.class
 })
 public class RdfTestsSuite {
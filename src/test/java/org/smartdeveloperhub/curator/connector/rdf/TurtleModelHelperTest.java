@@ -0,0 +1,218 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.rdf;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+
+public class TurtleModelHelperTest {
+
+	private static final String NAMESPACE = "http://www.example.org/vocabulary#";
+
+	private static final String DATATYPE = "http://www.example.org/datatype#lexical";
+
+	private static final Map<String,String> PREFIXES = ImmutableMap.of("ex",NAMESPACE);
+
+	private static final int ITERATIONS = 500;
+
+	private static final String IRI_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789_-.~/:";
+
+	private static final int[] SPECIAL_CODE_POINTS = {
+		'"','\\','\n','\r','\t','\b','\f',0x00,0x01,0x1F,0x7F,'\'','<','>','@','^','#',
+		0xE9,0x20AC,0xFFFD,0x1F600,0x10FFFF
+	};
+
+	private String randomLexicalForm(final Random random) {
+		final StringBuilder builder=new StringBuilder();
+		final int length=random.nextInt(16);
+		for(int i=0;i<length;i++) {
+			if(random.nextInt(3)==0) {
+				builder.appendCodePoint(SPECIAL_CODE_POINTS[random.nextInt(SPECIAL_CODE_POINTS.length)]);
+			} else {
+				builder.append((char)(0x20+random.nextInt(0x5F)));
+			}
+		}
+		return builder.toString();
+	}
+
+	private String randomLocalName(final Random random) {
+		final StringBuilder builder=new StringBuilder();
+		final int length=1+random.nextInt(10);
+		for(int i=0;i<length;i++) {
+			builder.append(IRI_CHARS.charAt(random.nextInt(IRI_CHARS.length())));
+		}
+		return builder.toString();
+	}
+
+	private void populate(final ModelHelper helper, final Random random) {
+		final int subjects=1+random.nextInt(4);
+		for(int i=0;i<subjects;i++) {
+			final ResourceHelper subject=
+				random.nextBoolean()?
+					helper.resource(NAMESPACE+randomLocalName(random)):
+					helper.blankNode("node"+random.nextInt(3));
+			subject.type(NAMESPACE+randomLocalName(random));
+			final int statements=random.nextInt(5);
+			for(int j=0;j<statements;j++) {
+				final PropertyHelper property=subject.property(NAMESPACE+randomLocalName(random));
+				switch(random.nextInt(5)) {
+				case 0:
+					property.withLiteral(randomLexicalForm(random));
+					break;
+				case 1:
+					property.withTypedLiteral(randomLexicalForm(random),DATATYPE);
+					break;
+				case 2:
+					property.withLanguageLiteral(randomLexicalForm(random),random.nextBoolean()?"en":"es-ES");
+					break;
+				case 3:
+					property.withResource("urn:"+randomLocalName(random));
+					break;
+				default:
+					property.withBlankNode("node"+random.nextInt(3));
+				}
+			}
+		}
+	}
+
+	private Model parse(final String turtle) {
+		final Model model=ModelFactory.createDefaultModel();
+		RDFDataMgr.read(model,new StringReader(turtle),null,Lang.TURTLE);
+		return model;
+	}
+
+	private String serialize(final long seed) {
+		final TurtleModelHelper helper=ModelUtil.createTurtleHelper(new StringBuilder(),PREFIXES);
+		populate(helper,new Random(seed));
+		return helper.finish().toString();
+	}
+
+	private Model expected(final long seed) {
+		final Model model=ModelFactory.createDefaultModel();
+		populate(ModelUtil.createHelper(model),new Random(seed));
+		return model;
+	}
+
+	@Test
+	public void testRoundtrip$randomStatements() throws Exception {
+		final Random seeds=new Random(20151012L);
+		for(int i=0;i<ITERATIONS;i++) {
+			final long seed=seeds.nextLong();
+			final String turtle=serialize(seed);
+			assertThat("Seed "+seed+":\n"+turtle,parse(turtle).isIsomorphicWith(expected(seed)),equalTo(true));
+		}
+	}
+
+	@Test
+	public void testRoundtrip$randomLiterals() throws Exception {
+		final Random random=new Random(20151013L);
+		for(int i=0;i<ITERATIONS;i++) {
+			final String lexicalForm=randomLexicalForm(random);
+			final TurtleModelHelper helper=ModelUtil.createTurtleHelper(new StringBuilder(),PREFIXES);
+			helper.resource(NAMESPACE+"subject").property(NAMESPACE+"property").withLiteral(lexicalForm);
+			final Model model=parse(helper.finish().toString());
+			assertThat(model.listObjects().next().asLiteral().getLexicalForm(),equalTo(lexicalForm));
+		}
+	}
+
+	@Test
+	public void testResource$escapesIRI() throws Exception {
+		final TurtleModelHelper helper=ModelUtil.createTurtleHelper(new StringBuilder(),ImmutableMap.<String,String>of());
+		helper.resource("urn:a b<c>").property("urn:p").withResource("urn:\"{|}^`\\");
+		assertThat(
+			helper.finish().toString(),
+			equalTo("<urn:a\\u0020b\\u003Cc\\u003E>\n\t<urn:p> <urn:\\u0022\\u007B\\u007C\\u007D\\u005E\\u0060\\u005C> .\n"));
+	}
+
+	@Test
+	public void testResource$prefixedNames() throws Exception {
+		final TurtleModelHelper helper=ModelUtil.createTurtleHelper(new StringBuilder(),PREFIXES);
+		helper.resource(NAMESPACE+"subject").
+			type(NAMESPACE+"Type").
+			property(NAMESPACE+"property").
+				withResource(NAMESPACE+"not.safe").
+				withResource(NAMESPACE);
+		assertThat(
+			helper.finish().toString(),
+			equalTo(
+				"@prefix ex: <"+NAMESPACE+"> .\n\n"+
+				"ex:subject\n"+
+				"\ta ex:Type ;\n"+
+				"\tex:property <"+NAMESPACE+"not.safe> ;\n"+
+				"\tex:property <"+NAMESPACE+"> .\n"));
+	}
+
+	@Test
+	public void testLiteral$escapesControlCharacters() throws Exception {
+		final TurtleModelHelper helper=ModelUtil.createTurtleHelper(new StringBuilder(),ImmutableMap.<String,String>of());
+		helper.blankNode("node").
+			property("urn:p").
+				withLiteral("\"\\\n\r\t\b\f\u0000\u007F").
+				withLanguageLiteral("text","en").
+				withTypedLiteral("1","urn:t");
+		assertThat(
+			helper.finish().toString(),
+			equalTo(
+				"_:b0\n"+
+				"\t<urn:p> \"\\\"\\\\\\n\\r\\t\\b\\f\\u0000\\u007F\" ;\n"+
+				"\t<urn:p> \"text\"@en ;\n"+
+				"\t<urn:p> \"1\"^^<urn:t> .\n"));
+	}
+
+	@Test
+	public void testLanguageLiteral$rejectsInvalidLanguageTags() throws Exception {
+		final TurtleModelHelper helper=ModelUtil.createTurtleHelper(new StringBuilder(),ImmutableMap.<String,String>of());
+		final PropertyHelper property=helper.resource("urn:s").property("urn:p").withLanguageLiteral("text","en-GB");
+		try {
+			property.withLanguageLiteral("text","en GB");
+			fail("Should not accept an invalid language tag");
+		} catch (final IllegalArgumentException e) {
+			assertThat(e.getMessage(),equalTo("Invalid language tag 'en GB'"));
+		}
+		assertThat(helper.finish().toString(),equalTo("<urn:s>\n\t<urn:p> \"text\"@en-GB .\n"));
+	}
+
+	@Test
+	public void testFinish$empty() throws Exception {
+		final TurtleModelHelper helper=ModelUtil.createTurtleHelper(new StringBuilder(),ImmutableMap.<String,String>of());
+		assertThat(helper.finish().toString(),equalTo(""));
+	}
+
+}
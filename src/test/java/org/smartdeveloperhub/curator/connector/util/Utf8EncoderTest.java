@@ -0,0 +1,83 @@
+/**
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   This file is part of the Smart Developer Hub Project:
+ *     http://www.smartdeveloperhub.org/
+ *
+ *   Center for Open Middleware
+ *     http://www.centeropenmiddleware.com/
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Copyright (C) 2015-2016 Center for Open Middleware.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *             http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ *   Artifact    : org.smartdeveloperhub.curator:sdh-curator-connector:0.2.0
+ *   Bundle      : sdh-curator-connector-0.2.0.jar
+ * #-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=#
+ */
+package org.smartdeveloperhub.curator.connector.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.ldp4j.commons.testing.Utils;
+
+import com.google.common.base.Charsets;
+
+public class Utf8EncoderTest {
+
+	private void verifyEncoding(final String value) {
+		final byte[] expected=value.getBytes(Charsets.UTF_8);
+		assertThat(value,Utf8Encoder.encodedLength(value),equalTo(expected.length));
+		assertThat(value,Utf8Encoder.encode(value),equalTo(expected));
+		assertThat(value,Utf8Encoder.encode(new StringBuilder(value)),equalTo(expected));
+	}
+
+	@Test
+	public void verifyIsValidUtilityClass() {
+		assertThat(Utils.isUtilityClass(Utf8Encoder.class),equalTo(true));
+	}
+
+	@Test
+	public void testEncode$empty() throws Exception {
+		verifyEncoding("");
+	}
+
+	@Test
+	public void testEncode$boundaries() throws Exception {
+		verifyEncoding("\u0000\u007F\u0080\u07FF\u0800\uD7FF\uFFFF");
+		verifyEncoding("\uD800\uDC00\uDBFF\uDFFF");
+	}
+
+	@Test
+	public void testEncode$unpairedSurrogates() throws Exception {
+		verifyEncoding("\uD800");
+		verifyEncoding("\uDC00a");
+		verifyEncoding("a\uD800b\uDFFF\uD800");
+	}
+
+	@Test
+	public void testEncode$random() throws Exception {
+		final Random random=new Random(20151017);
+		for(int i=0;i<1000;i++) {
+			final char[] chars=new char[random.nextInt(64)];
+			for(int j=0;j<chars.length;j++) {
+				chars[j]=(char)random.nextInt(Character.MAX_VALUE+1);
+			}
+			verifyEncoding(new String(chars));
+		}
+	}
+
+}
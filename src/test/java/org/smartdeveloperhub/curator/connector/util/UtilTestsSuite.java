@@ -34,6 +34,7 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 	ResourceUtilTest.class,
 	CloseablesTest.class,
+	Utf8EncoderTest.class,
 })
 public class UtilTestsSuite {
 